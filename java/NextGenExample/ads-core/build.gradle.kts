@@ -0,0 +1,20 @@
+// Ad orchestration code with no Android dependencies, so it also runs on the JVM.
+plugins {
+  `java-library`
+  // Shares fakes such as FakeClock with the tests of the modules that use this one.
+  `java-test-fixtures`
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_17
+  targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+  api(libs.annotation)
+  // Android provides org.json at runtime, so only JVM consumers add it.
+  compileOnly(libs.json)
+
+  testImplementation(libs.junit)
+  testImplementation(libs.json)
+}
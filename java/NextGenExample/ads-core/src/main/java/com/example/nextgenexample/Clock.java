@@ -0,0 +1,36 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+/** A source of time in milliseconds that can be replaced in tests. */
+public interface Clock {
+
+  /**
+   * The system wall clock. It jumps when the user or the network changes the time, so use it only
+   * for times that are persisted across processes.
+   */
+  Clock WALL = System::currentTimeMillis;
+
+  /**
+   * A monotonic clock for measuring durations within the process. Its readings are only meaningful
+   * relative to each other. Android code should prefer {@code SystemClock::elapsedRealtime}, which
+   * keeps counting while the device sleeps.
+   */
+  Clock ELAPSED = () -> System.nanoTime() / 1_000_000L;
+
+  /** Returns the current time in milliseconds. */
+  long millis();
+}
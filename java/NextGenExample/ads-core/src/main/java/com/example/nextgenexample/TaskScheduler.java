@@ -0,0 +1,31 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import androidx.annotation.NonNull;
+
+/** Runs tasks in order on a single thread, such as the main thread of an Android app. */
+public interface TaskScheduler {
+
+  /** Runs {@code task} after the tasks already posted. */
+  void post(@NonNull Runnable task);
+
+  /** Runs {@code task} after {@code delayMillis}. */
+  void postDelayed(@NonNull Runnable task, long delayMillis);
+
+  /** Removes pending runs of {@code task}. */
+  void cancel(@NonNull Runnable task);
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+/**
+ * The load and preload entry points that app logic uses to get ads, so the logic can run against
+ * the Google Mobile Ads SDK or against {@link FakeAdBackend}.
+ *
+ * <p>Implementations may call back on any thread, as the SDK does.
+ */
+public final class AdBackend {
+
+  private AdBackend() {}
+
+  /** Receives the result of one load. */
+  public interface LoadCallback<T> {
+    void onAdLoaded(T ad);
+
+    void onAdFailedToLoad(AdFailure failure);
+  }
+
+  /** Receives buffer events of a preloader, mirroring the SDK's {@code PreloadCallback}. */
+  public interface PreloadListener {
+    void onAdPreloaded(String preloadId);
+
+    void onAdFailedToPreload(String preloadId, AdFailure failure);
+
+    void onAdsExhausted(String preloadId);
+  }
+
+  /** Loads single ads of one format, for example with {@code InterstitialAd.load}. */
+  public interface Loader<T> {
+    /** Loads one ad from {@code adUnitId}. */
+    void load(String adUnitId, LoadCallback<T> callback);
+
+    /** Releases an ad that will not be shown. Formats that hold nothing until shown do nothing. */
+    void destroy(T ad);
+  }
+
+  /** Keeps a buffer of ads of one format, for example with {@code InterstitialAdPreloader}. */
+  public interface Preloader<T> {
+    /** Starts filling a buffer of {@code bufferSize} ads from {@code adUnitId}. */
+    void start(String preloadId, String adUnitId, int bufferSize, PreloadListener listener);
+
+    /** Returns the next buffered ad and refills the buffer, or null if none is available. */
+    T pollAd(String preloadId);
+
+    /** Returns whether a buffered ad is available. */
+    boolean isAdAvailable(String preloadId);
+
+    /** Stops preloading and drops the buffered ads. */
+    void destroy(String preloadId);
+  }
+}
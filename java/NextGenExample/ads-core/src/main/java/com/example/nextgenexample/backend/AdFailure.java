@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+/**
+ * Why an ad failed to load, independent of the SDK's error type.
+ *
+ * @param code the kind of failure.
+ * @param message a description for logs.
+ */
+public record AdFailure(Code code, String message) {
+
+  /** The kind of failure. */
+  public enum Code {
+    /** No ad was available. */
+    NO_FILL,
+    /** A network or server error. */
+    NETWORK_ERROR,
+    /** The request is misconfigured. */
+    INVALID_REQUEST,
+    /** Any other error. */
+    INTERNAL_ERROR
+  }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+/**
+ * A synthetic ad served by {@link FakeAdBackend}.
+ *
+ * @param adUnitId the ad unit the ad was loaded from.
+ * @param serial the position of the ad among all ads the backend served, starting at 1.
+ */
+public record FakeAd(String adUnitId, long serial) {}
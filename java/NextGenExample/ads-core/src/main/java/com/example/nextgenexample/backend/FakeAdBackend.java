@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process ad backend that serves synthetic ads without network access.
+ *
+ * <p>Each ad unit follows a {@link Profile} of latency, fill rate and error rate, and outcomes are
+ * drawn from a seeded {@link Random}, so a run is reproducible. Callbacks run on the scheduler's
+ * thread. Preloaders keep their buffer full like the SDK's: a poll refills the buffer, and a
+ * failed fill is retried after a delay.
+ *
+ * @param <T> the type of the synthetic ads.
+ */
+public final class FakeAdBackend<T> implements AdBackend.Loader<T>, AdBackend.Preloader<T> {
+
+  // Delay before a preloader retries a failed fill.
+  private static final long PRELOAD_RETRY_DELAY_MILLIS = 1_000L;
+
+  /** Creates the synthetic ads. */
+  public interface AdFactory<T> {
+    T create(String adUnitId, long serial);
+  }
+
+  /**
+   * How an ad unit behaves.
+   *
+   * @param latency the time each load takes.
+   * @param fillRate the fraction of successful requests that return an ad; the rest get no fill.
+   * @param errorRate the fraction of requests that fail with {@code errorCode}.
+   * @param errorCode the failure returned for errors.
+   */
+  public record Profile(
+      LatencyModel latency, double fillRate, double errorRate, AdFailure.Code errorCode) {
+
+    /** Fills every request right away. */
+    public static final Profile ALWAYS_FILL =
+        new Profile(LatencyModel.fixed(0L), 1.0, 0.0, AdFailure.Code.NETWORK_ERROR);
+  }
+
+  private static final class Buffer<T> {
+    final String adUnitId;
+    final int bufferSize;
+    final AdBackend.PreloadListener listener;
+    final ArrayDeque<T> ads = new ArrayDeque<>();
+    int loadingCount;
+
+    Buffer(String adUnitId, int bufferSize, AdBackend.PreloadListener listener) {
+      this.adUnitId = adUnitId;
+      this.bufferSize = bufferSize;
+      this.listener = listener;
+    }
+  }
+
+  private final AdFactory<T> adFactory;
+  private final ScheduledExecutorService scheduler;
+  private final Random random;
+  private final Map<String, Profile> profiles = new HashMap<>();
+  private final Map<String, Buffer<T>> buffers = new HashMap<>();
+  private Profile defaultProfile = Profile.ALWAYS_FILL;
+  private long serial;
+  private long loadCount;
+  private long fillCount;
+  private long failureCount;
+  private long destroyCount;
+
+  /** Creates a backend that serves {@link FakeAd}s. */
+  public static FakeAdBackend<FakeAd> create(ScheduledExecutorService scheduler, long seed) {
+    return new FakeAdBackend<>(FakeAd::new, scheduler, new Random(seed));
+  }
+
+  public FakeAdBackend(AdFactory<T> adFactory, ScheduledExecutorService scheduler, Random random) {
+    this.adFactory = adFactory;
+    this.scheduler = scheduler;
+    this.random = random;
+  }
+
+  /** Sets the profile of ad units without their own profile. */
+  public synchronized void setDefaultProfile(Profile profile) {
+    defaultProfile = profile;
+  }
+
+  /** Sets the profile of {@code adUnitId}. */
+  public synchronized void setProfile(String adUnitId, Profile profile) {
+    profiles.put(adUnitId, profile);
+  }
+
+  @Override
+  public void load(String adUnitId, AdBackend.LoadCallback<T> callback) {
+    long latencyMillis;
+    T ad = null;
+    AdFailure failure = null;
+    synchronized (this) {
+      loadCount++;
+      Profile profile = profiles.getOrDefault(adUnitId, defaultProfile);
+      latencyMillis = Math.max(0L, profile.latency().sampleMillis(random));
+      double outcome = random.nextDouble();
+      if (outcome < profile.errorRate()) {
+        failure = new AdFailure(profile.errorCode(), "Simulated error for " + adUnitId + ".");
+      } else if (random.nextDouble() < profile.fillRate()) {
+        ad = adFactory.create(adUnitId, ++serial);
+      } else {
+        failure = new AdFailure(AdFailure.Code.NO_FILL, "Simulated no fill for " + adUnitId + ".");
+      }
+      if (ad != null) {
+        fillCount++;
+      } else {
+        failureCount++;
+      }
+    }
+    T loadedAd = ad;
+    AdFailure loadFailure = failure;
+    scheduler.schedule(
+        () -> {
+          if (loadedAd != null) {
+            callback.onAdLoaded(loadedAd);
+          } else {
+            callback.onAdFailedToLoad(loadFailure);
+          }
+        },
+        latencyMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void destroy(T ad) {
+    destroyCount++;
+  }
+
+  @Override
+  public void start(
+      String preloadId, String adUnitId, int bufferSize, AdBackend.PreloadListener listener) {
+    Buffer<T> buffer = new Buffer<>(adUnitId, bufferSize, listener);
+    synchronized (this) {
+      if (buffers.containsKey(preloadId)) {
+        return;
+      }
+      buffers.put(preloadId, buffer);
+    }
+    refill(preloadId, buffer);
+  }
+
+  @Override
+  public T pollAd(String preloadId) {
+    T ad;
+    boolean isExhausted;
+    Buffer<T> buffer;
+    synchronized (this) {
+      buffer = buffers.get(preloadId);
+      if (buffer == null) {
+        return null;
+      }
+      ad = buffer.ads.poll();
+      // Like the SDK's, the buffer reports running out once, when its last ad is taken.
+      isExhausted = ad != null && buffer.ads.isEmpty();
+    }
+    if (isExhausted) {
+      scheduler.execute(() -> buffer.listener.onAdsExhausted(preloadId));
+    }
+    refill(preloadId, buffer);
+    return ad;
+  }
+
+  @Override
+  public synchronized boolean isAdAvailable(String preloadId) {
+    Buffer<T> buffer = buffers.get(preloadId);
+    return buffer != null && !buffer.ads.isEmpty();
+  }
+
+  @Override
+  public synchronized void destroy(String preloadId) {
+    Buffer<T> buffer = buffers.remove(preloadId);
+    if (buffer != null) {
+      destroyCount += buffer.ads.size();
+      buffer.ads.clear();
+    }
+  }
+
+  /** Returns load, fill, failure and destroy counts. */
+  public synchronized String describe() {
+    return String.format(
+        "Fake ad loads: %d, fills: %d, failures: %d, destroyed: %d.",
+        loadCount, fillCount, failureCount, destroyCount);
+  }
+
+  private void refill(String preloadId, Buffer<T> buffer) {
+    int missingCount;
+    synchronized (this) {
+      if (buffers.get(preloadId) != buffer) {
+        return;
+      }
+      missingCount = buffer.bufferSize - buffer.ads.size() - buffer.loadingCount;
+      buffer.loadingCount += Math.max(0, missingCount);
+    }
+    for (int i = 0; i < missingCount; i++) {
+      load(
+          buffer.adUnitId,
+          new AdBackend.LoadCallback<T>() {
+            @Override
+            public void onAdLoaded(T ad) {
+              synchronized (FakeAdBackend.this) {
+                buffer.loadingCount--;
+                if (buffers.get(preloadId) != buffer) {
+                  // The preloader was destroyed while loading.
+                  destroyCount++;
+                  return;
+                }
+                buffer.ads.add(ad);
+              }
+              buffer.listener.onAdPreloaded(preloadId);
+            }
+
+            @Override
+            public void onAdFailedToLoad(AdFailure failure) {
+              synchronized (FakeAdBackend.this) {
+                buffer.loadingCount--;
+                if (buffers.get(preloadId) != buffer) {
+                  return;
+                }
+              }
+              buffer.listener.onAdFailedToPreload(preloadId, failure);
+              scheduler.schedule(
+                  () -> refill(preloadId, buffer),
+                  PRELOAD_RETRY_DELAY_MILLIS,
+                  TimeUnit.MILLISECONDS);
+            }
+          });
+    }
+  }
+}
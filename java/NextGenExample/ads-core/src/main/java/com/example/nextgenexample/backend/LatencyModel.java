@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import java.util.Random;
+
+/** A distribution of simulated load latencies. */
+public interface LatencyModel {
+
+  /** Returns the latency of one load in milliseconds. */
+  long sampleMillis(Random random);
+
+  /** Every load takes {@code millis}. */
+  static LatencyModel fixed(long millis) {
+    return random -> millis;
+  }
+
+  /** Loads take between {@code minMillis} and {@code maxMillis}, uniformly. */
+  static LatencyModel uniform(long minMillis, long maxMillis) {
+    return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+  }
+
+  /**
+   * Loads follow a log-normal distribution around {@code medianMillis}, the long-tailed shape of
+   * network latency. A {@code sigma} of 0.5 puts the 95th percentile at about 2.3 times the median.
+   */
+  static LatencyModel logNormal(long medianMillis, double sigma) {
+    return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+  }
+}
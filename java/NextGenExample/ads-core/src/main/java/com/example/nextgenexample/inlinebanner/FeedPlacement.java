@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.inlinebanner;
+
+/**
+ * Where ads go in a feed that places one ad after every {@code itemsPerAd} content items. An ad is
+ * only placed when content follows it, so a feed never ends with an ad.
+ */
+public final class FeedPlacement {
+
+  private final int itemsPerAd;
+
+  /**
+   * @param itemsPerAd the content items between two ads.
+   * @throws IllegalArgumentException if {@code itemsPerAd} is not positive.
+   */
+  public FeedPlacement(int itemsPerAd) {
+    if (itemsPerAd <= 0) {
+      throw new IllegalArgumentException("itemsPerAd must be positive: " + itemsPerAd);
+    }
+    this.itemsPerAd = itemsPerAd;
+  }
+
+  /** Returns the number of ads placed among {@code contentCount} content items. */
+  public int getAdCount(int contentCount) {
+    return contentCount > 0 ? (contentCount - 1) / itemsPerAd : 0;
+  }
+
+  /**
+   * Returns the list positions of the ads among {@code contentCount} content items, in ascending
+   * order. Inserting an ad at each position in order produces the final list.
+   */
+  public int[] getAdPositions(int contentCount) {
+    int[] positions = new int[getAdCount(contentCount)];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = itemsPerAd + i * (itemsPerAd + 1);
+    }
+    return positions;
+  }
+
+  /** Returns whether {@code position} of the final list holds an ad. */
+  public boolean isAdPosition(int position, int contentCount) {
+    int offset = position - itemsPerAd;
+    return offset >= 0
+        && offset % (itemsPerAd + 1) == 0
+        && offset / (itemsPerAd + 1) < getAdCount(contentCount);
+  }
+}
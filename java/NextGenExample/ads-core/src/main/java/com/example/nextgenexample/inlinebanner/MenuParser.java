@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.inlinebanner;
+
+import androidx.annotation.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/** Parses the menu items of the inline banner example from JSON. */
+public final class MenuParser {
+
+  private MenuParser() {}
+
+  /**
+   * Reads UTF-8 JSON from {@code inputStream} and parses it. Does not close the stream.
+   *
+   * @throws IOException if unable to read the stream.
+   * @throws JSONException if the JSON is not an array of menu items.
+   */
+  @NonNull
+  public static List<FoodMenuItem> parse(@NonNull InputStream inputStream)
+      throws IOException, JSONException {
+    StringBuilder builder = new StringBuilder();
+    Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    char[] buffer = new char[8192];
+    int length;
+    while ((length = reader.read(buffer)) != -1) {
+      builder.append(buffer, 0, length);
+    }
+    return parse(builder.toString());
+  }
+
+  /**
+   * Parses a JSON array of menu items.
+   *
+   * @throws JSONException if the JSON is not an array of menu items.
+   */
+  @NonNull
+  public static List<FoodMenuItem> parse(@NonNull String json) throws JSONException {
+    JSONArray menuItemsJsonArray = new JSONArray(json);
+    List<FoodMenuItem> menuItems = new ArrayList<>(menuItemsJsonArray.length());
+    for (int i = 0; i < menuItemsJsonArray.length(); i++) {
+      JSONObject menuItemObject = menuItemsJsonArray.getJSONObject(i);
+      menuItems.add(
+          new FoodMenuItem(
+              menuItemObject.getString("name"),
+              menuItemObject.getString("description"),
+              menuItemObject.getString("price"),
+              menuItemObject.getString("category"),
+              menuItemObject.getString("photo")));
+    }
+    return menuItems;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.pacing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Counts shown ads in one-minute buckets over a rolling hour, plus the session count and the time
+ * of the last ad.
+ *
+ * <p>The buckets form a ring indexed by minute and a running total is kept as buckets expire, so
+ * recording and querying take constant time regardless of how many ads were shown. Times come from
+ * the wall clock because they are persisted, so a clock set backwards is tolerated: shows that
+ * now appear to be in the future are treated as if they happened at the current time, which
+ * bounds any block to one interval or one hour. Not thread-safe.
+ */
+final class ImpressionCounter {
+
+  private static final long BUCKET_MILLIS = 60_000L;
+  private static final int BUCKET_COUNT = 60;
+
+  // bucketMinutes[i] is the minute since the epoch that counts[i] belongs to.
+  private final long[] bucketMinutes = new long[BUCKET_COUNT];
+  private final int[] counts = new int[BUCKET_COUNT];
+  private int hourTotal;
+  private int sessionCount;
+  private long lastShowMillis = Long.MIN_VALUE;
+
+  /** Records an ad shown at {@code nowMillis}. */
+  void record(long nowMillis) {
+    clampToNow(nowMillis);
+    long minute = nowMillis / BUCKET_MILLIS;
+    int index = (int) (minute % BUCKET_COUNT);
+    if (bucketMinutes[index] != minute) {
+      hourTotal -= counts[index];
+      counts[index] = 0;
+      bucketMinutes[index] = minute;
+    }
+    counts[index]++;
+    hourTotal++;
+    sessionCount++;
+    lastShowMillis = nowMillis;
+  }
+
+  /** Returns whether {@code rule} allows another ad at {@code nowMillis}. */
+  boolean allows(@NonNull PacingRule rule, long nowMillis) {
+    if (sessionCount >= rule.maxPerSession()) {
+      return false;
+    }
+    clampToNow(nowMillis);
+    if (lastShowMillis != Long.MIN_VALUE
+        && nowMillis - lastShowMillis < rule.minIntervalMillis()) {
+      return false;
+    }
+    return rule.maxPerHour() == PacingRule.NO_LIMIT || countLastHour(nowMillis) < rule.maxPerHour();
+  }
+
+  /** Returns the number of ads recorded in the hour before {@code nowMillis}. */
+  int countLastHour(long nowMillis) {
+    clampToNow(nowMillis);
+    long oldestMinute = nowMillis / BUCKET_MILLIS - BUCKET_COUNT + 1;
+    // Expire buckets that fell out of the window.
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      if (counts[i] != 0 && bucketMinutes[i] < oldestMinute) {
+        hourTotal -= counts[i];
+        counts[i] = 0;
+      }
+    }
+    return hourTotal;
+  }
+
+  /** Moves the last show time and any buckets that are later than {@code nowMillis} to now. */
+  private void clampToNow(long nowMillis) {
+    if (lastShowMillis > nowMillis) {
+      lastShowMillis = nowMillis;
+    }
+    long minute = nowMillis / BUCKET_MILLIS;
+    int future = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      if (counts[i] != 0 && bucketMinutes[i] > minute) {
+        future += counts[i];
+        counts[i] = 0;
+      }
+    }
+    if (future == 0) {
+      return;
+    }
+    int index = (int) (minute % BUCKET_COUNT);
+    if (bucketMinutes[index] != minute) {
+      hourTotal -= counts[index];
+      counts[index] = 0;
+      bucketMinutes[index] = minute;
+    }
+    // hourTotal already includes the moved shows.
+    counts[index] += future;
+  }
+
+  /**
+   * Serializes the persistent part of the counter: the last show time and the non-empty buckets.
+   * The session count is intentionally not persisted.
+   */
+  @NonNull
+  String serialize() {
+    StringBuilder builder = new StringBuilder().append(lastShowMillis);
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      if (counts[i] != 0) {
+        builder.append(';').append(bucketMinutes[i]).append(':').append(counts[i]);
+      }
+    }
+    return builder.toString();
+  }
+
+  /** Restores a counter written by {@link #serialize()}, ignoring malformed input. */
+  @NonNull
+  static ImpressionCounter deserialize(@Nullable String serialized) {
+    ImpressionCounter counter = new ImpressionCounter();
+    if (serialized == null || serialized.isEmpty()) {
+      return counter;
+    }
+    try {
+      String[] parts = serialized.split(";");
+      counter.lastShowMillis = Long.parseLong(parts[0]);
+      for (int i = 1; i < parts.length; i++) {
+        int separator = parts[i].indexOf(':');
+        long minute = Long.parseLong(parts[i].substring(0, separator));
+        int count = Integer.parseInt(parts[i].substring(separator + 1));
+        int index = (int) (minute % BUCKET_COUNT);
+        counter.bucketMinutes[index] = minute;
+        counter.counts[index] = count;
+        counter.hourTotal += count;
+      }
+    } catch (RuntimeException e) {
+      return new ImpressionCounter();
+    }
+    return counter;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.pacing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.nextgenexample.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides whether an ad of a format may be shown, based on per-format and global {@link
+ * PacingRule}s.
+ *
+ * <p>Rolling hour counts and last show times are written to a {@link Store} on every show so that
+ * caps survive process restarts; session caps reset with the process. Formats are identified by
+ * name.
+ */
+public final class PacingPolicy {
+
+  /** Persists the counters of each format. */
+  public interface Store {
+    /** Returns the value saved for {@code key}, or null if there is none. */
+    @Nullable
+    String read(@NonNull String key);
+
+    /** Saves {@code values} by key. */
+    void write(@NonNull Map<String, String> values);
+  }
+
+  private static final String KEY_GLOBAL = "global";
+
+  private final Clock clock;
+  private final Store store;
+  private final PacingRule globalRule;
+  private final Map<String, PacingRule> formatRules;
+  private final ImpressionCounter globalCounter;
+  private final Map<String, ImpressionCounter> formatCounters = new HashMap<>();
+
+  /**
+   * @param globalRule the rule for all formats combined.
+   * @param formatRules the rule of each format. Formats without a rule are only paced globally.
+   */
+  public PacingPolicy(
+      @NonNull Clock clock,
+      @NonNull Store store,
+      @NonNull PacingRule globalRule,
+      @NonNull Map<String, PacingRule> formatRules) {
+    this.clock = clock;
+    this.store = store;
+    this.globalRule = globalRule;
+    this.formatRules = Map.copyOf(formatRules);
+    globalCounter = ImpressionCounter.deserialize(store.read(KEY_GLOBAL));
+  }
+
+  /** Returns whether an ad of {@code format} may be shown now. */
+  public synchronized boolean canShow(@NonNull String format) {
+    long nowMillis = clock.millis();
+    PacingRule formatRule = formatRules.getOrDefault(format, PacingRule.UNLIMITED);
+    return globalCounter.allows(globalRule, nowMillis)
+        && getCounter(format).allows(formatRule, nowMillis);
+  }
+
+  /** Records that an ad of {@code format} was shown. */
+  public synchronized void recordShow(@NonNull String format) {
+    long nowMillis = clock.millis();
+    ImpressionCounter formatCounter = getCounter(format);
+    globalCounter.record(nowMillis);
+    formatCounter.record(nowMillis);
+    store.write(Map.of(KEY_GLOBAL, globalCounter.serialize(), format, formatCounter.serialize()));
+  }
+
+  private ImpressionCounter getCounter(String format) {
+    ImpressionCounter counter = formatCounters.get(format);
+    if (counter == null) {
+      counter = ImpressionCounter.deserialize(store.read(format));
+      formatCounters.put(format, counter);
+    }
+    return counter;
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.pacing;
+
+/**
+ * Limits how often ads may be shown.
+ *
+ * @param maxPerSession the maximum number of ads per app process, or {@link #NO_LIMIT}.
+ * @param minIntervalMillis the minimum time between two ads, or 0 for none.
+ * @param maxPerHour the maximum number of ads in any rolling hour, or {@link #NO_LIMIT}.
+ */
+public record PacingRule(int maxPerSession, long minIntervalMillis, int maxPerHour) {
+
+  public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  /** A rule that never blocks an ad. */
+  public static final PacingRule UNLIMITED = new PacingRule(NO_LIMIT, 0L, NO_LIMIT);
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.prefetch;
+
+import androidx.annotation.NonNull;
+import com.example.nextgenexample.Clock;
+import com.example.nextgenexample.TaskScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.request.RetryPolicy;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Loads the ad of a destination the user is likely to open next, so that the destination finds it
+ * ready or in flight instead of starting its load on arrival.
+ *
+ * <p>Speculative loads are limited by a {@link Budget}: a cap on the prefetched ads not yet taken,
+ * a cap on the loads started per time window, and a time to live after which an unused ad is
+ * destroyed. Ad units in backoff under the {@link RetryPolicy} are not prefetched. A result that
+ * no destination waits for is reported to the retry policy here; otherwise the destination reports
+ * it, as it does for its own loads.
+ *
+ * <p>Must be used on the scheduler's thread. Loader callbacks may arrive on any thread; the
+ * callbacks passed to {@link #take} are always called on the scheduler's thread.
+ */
+public final class PrefetchScheduler {
+
+  /**
+   * The ad of a destination.
+   *
+   * @param destinationId the destination, such as a navigation destination ID. Not 0.
+   * @param adUnitId the ad unit the destination loads first.
+   * @param loader loads and releases the destination's ads.
+   * @param <T> the ad type.
+   */
+  public record Target<T>(int destinationId, String adUnitId, AdBackend.Loader<T> loader) {}
+
+  /**
+   * The limits on speculative loads.
+   *
+   * @param maxOutstanding the most prefetched ads, loading or loaded, that are not taken yet.
+   * @param maxStartsPerWindow the most prefetches started within {@code windowMillis}.
+   * @param windowMillis the length of the rolling start window.
+   * @param ttlMillis how long a loaded ad waits to be taken before it is destroyed.
+   */
+  public record Budget(
+      int maxOutstanding, int maxStartsPerWindow, long windowMillis, long ttlMillis) {
+    public static final Budget DEFAULT = new Budget(2, 6, 60_000L, 60_000L);
+  }
+
+  /**
+   * The prefetch counters.
+   *
+   * @param started prefetches started.
+   * @param hits takes that found a loaded ad.
+   * @param joins takes that waited for a prefetch in flight.
+   * @param misses takes that found no prefetch.
+   * @param wasted loaded ads destroyed without being taken.
+   * @param failed prefetches that failed to load.
+   * @param denied prefetches not started because the budget was used up.
+   */
+  public record Stats(
+      int started, int hits, int joins, int misses, int wasted, int failed, int denied) {
+
+    /** Returns the share of takes served by a prefetch, or 0 without takes. */
+    public double getHitRate() {
+      int takes = hits + joins + misses;
+      return takes == 0 ? 0d : (double) (hits + joins) / takes;
+    }
+
+    /** Returns the share of started prefetches that were taken, or 0 without prefetches. */
+    public double getPrecision() {
+      return started == 0 ? 0d : (double) (hits + joins) / started;
+    }
+  }
+
+  /** A prefetch, loading while {@code ad} is null and not failed. */
+  private static final class Entry<T> {
+    final Target<T> target;
+    T ad;
+    AdBackend.LoadCallback<T> waiter;
+    Runnable expire;
+
+    Entry(Target<T> target) {
+      this.target = target;
+    }
+  }
+
+  private final Budget budget;
+  private final RetryPolicy retryPolicy;
+  private final Clock clock;
+  private final TaskScheduler scheduler;
+  private final Map<Integer, Target<?>> targets = new HashMap<>();
+  private final Map<Integer, Entry<?>> entries = new HashMap<>();
+  private final Map<Integer, Integer> visitCounts = new HashMap<>();
+  private final ArrayDeque<Long> startTimes = new ArrayDeque<>();
+  private int started;
+  private int hits;
+  private int joins;
+  private int misses;
+  private int wasted;
+  private int failed;
+  private int denied;
+
+  /**
+   * Creates a scheduler whose start window is measured with {@code clock}, which must be monotonic,
+   * such as {@code SystemClock::elapsedRealtime}, so that a wall clock change neither frees nor
+   * blocks starts.
+   */
+  public PrefetchScheduler(
+      @NonNull Budget budget,
+      @NonNull RetryPolicy retryPolicy,
+      @NonNull Clock clock,
+      @NonNull TaskScheduler scheduler) {
+    this.budget = budget;
+    this.retryPolicy = retryPolicy;
+    this.clock = clock;
+    this.scheduler = scheduler;
+  }
+
+  /** Makes the ad of {@code target}'s destination available to {@link #prefetch}. */
+  public void register(@NonNull Target<?> target) {
+    targets.put(target.destinationId(), target);
+  }
+
+  /** Returns whether {@code destinationId} has a registered target. */
+  public boolean isRegistered(int destinationId) {
+    return targets.containsKey(destinationId);
+  }
+
+  /** Counts a visit to {@code destinationId}, which makes it more likely to be prefetched. */
+  public void onDestinationVisited(int destinationId) {
+    if (isRegistered(destinationId)) {
+      Integer visitCount = visitCounts.get(destinationId);
+      visitCounts.put(destinationId, visitCount == null ? 1 : visitCount + 1);
+    }
+  }
+
+  /** Returns the registered destination visited most often, or 0 if none was visited. */
+  public int getLikelyDestination() {
+    int likelyDestinationId = 0;
+    int maxVisitCount = 0;
+    for (Map.Entry<Integer, Integer> visitCount : visitCounts.entrySet()) {
+      if (visitCount.getValue() > maxVisitCount) {
+        likelyDestinationId = visitCount.getKey();
+        maxVisitCount = visitCount.getValue();
+      }
+    }
+    return likelyDestinationId;
+  }
+
+  /**
+   * Starts loading the ad of {@code destinationId} if the budget allows it. Returns whether an ad
+   * for the destination is now loading or loaded.
+   */
+  public boolean prefetch(int destinationId) {
+    Target<?> target = targets.get(destinationId);
+    if (target == null) {
+      return false;
+    }
+    if (entries.containsKey(destinationId)) {
+      return true;
+    }
+    if (retryPolicy.getDelayMillis(target.adUnitId()) > 0) {
+      return false;
+    }
+    long nowMillis = clock.millis();
+    while (!startTimes.isEmpty() && nowMillis - startTimes.peekFirst() >= budget.windowMillis()) {
+      startTimes.pollFirst();
+    }
+    if (entries.size() >= budget.maxOutstanding()
+        || startTimes.size() >= budget.maxStartsPerWindow()) {
+      denied++;
+      return false;
+    }
+    startTimes.addLast(nowMillis);
+    started++;
+    load(target);
+    return true;
+  }
+
+  /**
+   * Hands the prefetched ad of {@code target}'s destination to {@code callback}, now if it is
+   * loaded or once its load completes. Returns false if there is no prefetch, in which case the
+   * caller loads the ad itself.
+   */
+  public <T> boolean take(@NonNull Target<T> target, @NonNull AdBackend.LoadCallback<T> callback) {
+    Entry<?> anyEntry = entries.get(target.destinationId());
+    if (anyEntry == null || anyEntry.target != target || anyEntry.waiter != null) {
+      misses++;
+      return false;
+    }
+    @SuppressWarnings("unchecked") // Entries are keyed by their own target.
+    Entry<T> entry = (Entry<T>) anyEntry;
+    if (entry.ad == null) {
+      joins++;
+      entry.waiter = callback;
+      return true;
+    }
+    hits++;
+    entries.remove(target.destinationId());
+    scheduler.cancel(entry.expire);
+    callback.onAdLoaded(entry.ad);
+    return true;
+  }
+
+  /** Destroys the loaded ads nobody took and drops the loads in flight. */
+  public void clear() {
+    for (Entry<?> entry : entries.values()) {
+      if (entry.ad != null) {
+        scheduler.cancel(entry.expire);
+        destroy(entry);
+      }
+    }
+    entries.clear();
+  }
+
+  @NonNull
+  public Stats getStats() {
+    return new Stats(started, hits, joins, misses, wasted, failed, denied);
+  }
+
+  /** Returns the counters and rates for logging. */
+  @NonNull
+  public String describe() {
+    Stats stats = getStats();
+    return String.format(
+        Locale.US,
+        "Prefetch started: %d, hits: %d, joins: %d, misses: %d, wasted: %d, failed: %d, "
+            + "denied: %d, hit rate: %.2f, precision: %.2f.",
+        stats.started(),
+        stats.hits(),
+        stats.joins(),
+        stats.misses(),
+        stats.wasted(),
+        stats.failed(),
+        stats.denied(),
+        stats.getHitRate(),
+        stats.getPrecision());
+  }
+
+  private <T> void load(Target<T> target) {
+    Entry<T> entry = new Entry<>(target);
+    entries.put(target.destinationId(), entry);
+    target
+        .loader()
+        .load(
+            target.adUnitId(),
+            new AdBackend.LoadCallback<T>() {
+              @Override
+              public void onAdLoaded(T ad) {
+                scheduler.post(() -> onLoaded(entry, ad));
+              }
+
+              @Override
+              public void onAdFailedToLoad(AdFailure failure) {
+                scheduler.post(() -> onFailed(entry, failure));
+              }
+            });
+  }
+
+  private <T> void onLoaded(Entry<T> entry, T ad) {
+    int destinationId = entry.target.destinationId();
+    if (entries.get(destinationId) != entry) {
+      // Cleared while loading.
+      entry.target.loader().destroy(ad);
+      return;
+    }
+    if (entry.waiter != null) {
+      entries.remove(destinationId);
+      entry.waiter.onAdLoaded(ad);
+      return;
+    }
+    retryPolicy.onSuccess(entry.target.adUnitId());
+    entry.ad = ad;
+    entry.expire =
+        () -> {
+          entries.remove(destinationId);
+          destroy(entry);
+        };
+    scheduler.postDelayed(entry.expire, budget.ttlMillis());
+  }
+
+  private <T> void onFailed(Entry<T> entry, AdFailure failure) {
+    int destinationId = entry.target.destinationId();
+    if (entries.get(destinationId) != entry) {
+      return;
+    }
+    entries.remove(destinationId);
+    failed++;
+    if (entry.waiter != null) {
+      entry.waiter.onAdFailedToLoad(failure);
+    } else {
+      retryPolicy.onFailure(entry.target.adUnitId(), failure);
+    }
+  }
+
+  private <T> void destroy(Entry<T> entry) {
+    wasted++;
+    entry.target.loader().destroy(entry.ad);
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.preloading;
+
+/**
+ * A snapshot of a preloader's buffer as observed from its preload callbacks.
+ *
+ * @param bufferedAdCount the number of preloaded ads that have not been polled yet.
+ * @param lastFillTimeMillis the wall clock time of the last {@code onAdPreloaded} callback, or 0
+ *     if no ad was preloaded yet.
+ * @param exhausted whether {@code onAdsExhausted} was called since the last fill.
+ */
+public record AdAvailability(int bufferedAdCount, long lastFillTimeMillis, boolean exhausted) {
+
+  /** The state of a preloader before any callback was received. */
+  public static final AdAvailability EMPTY = new AdAvailability(0, 0L, false);
+
+  /** Returns whether an ad can be polled from the buffer. */
+  public boolean isAdAvailable() {
+    return bufferedAdCount > 0;
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.preloading;
+
+import androidx.annotation.NonNull;
+import com.example.nextgenexample.Clock;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizes preload buffers from the observed poll rate and fill latency of each preload ID.
+ *
+ * <p>Polls are modeled as a Poisson process. While an ad is being refilled, the buffer runs empty
+ * if more polls arrive than there are buffered ads, so the recommended size is the smallest buffer
+ * for which that probability stays below the target. The buffer only grows once polls actually miss
+ * more often than the target, because the estimated rates are noisy. Resizes are rate limited, and
+ * shrinking happens one ad at a time after a longer cooldown, to avoid restarting preloaders back
+ * and forth. {@code AdaptiveBufferControllerSimulationTest} checks this against simulated Poisson
+ * traffic.
+ *
+ * <p>This class only computes sizes. Callers restart their preloader with the size returned by
+ * {@link #consumeResize} outside of preload callbacks.
+ */
+public final class AdaptiveBufferController {
+
+  // Weight of the newest sample in the moving averages.
+  private static final double SMOOTHING = 0.1;
+  private static final long GROW_COOLDOWN_MILLIS = 30_000L;
+  private static final long SHRINK_COOLDOWN_MILLIS = 10 * 60_000L;
+
+  private static AdaptiveBufferController instance;
+
+  private final Clock clock;
+  private final double targetEmptyProbability;
+  private final int minBufferSize;
+  private final int maxBufferSize;
+  private final Map<String, Stats> statsById = new HashMap<>();
+
+  private static final class Stats {
+    int bufferSize;
+    long lastPollMillis = -1L;
+    double meanPollIntervalMillis = Double.NaN;
+    double meanFillLatencyMillis = Double.NaN;
+    // Start times of refills that have not been answered by onAdPreloaded yet.
+    final ArrayDeque<Long> pendingFills = new ArrayDeque<>();
+    long lastResizeMillis;
+    int exhaustedCount;
+    int missCount;
+    int pollsSinceResize;
+    int missesSinceResize;
+    long lastMissMillis;
+    // Ads preloaded since the last start. Until the started buffer has been filled once, misses
+    // are caused by the restart rather than by the buffer size.
+    int preloadedSinceStart;
+  }
+
+  public static synchronized AdaptiveBufferController getInstance() {
+    if (instance == null) {
+      instance = new AdaptiveBufferController(Clock.ELAPSED, 0.1, 1, 5);
+    }
+    return instance;
+  }
+
+  /**
+   * @param clock the time source.
+   * @param targetEmptyProbability the acceptable probability of finding the buffer empty.
+   * @param minBufferSize the smallest buffer size that is recommended.
+   * @param maxBufferSize the largest buffer size that is recommended.
+   */
+  public AdaptiveBufferController(
+      @NonNull Clock clock, double targetEmptyProbability, int minBufferSize, int maxBufferSize) {
+    this.clock = clock;
+    this.targetEmptyProbability = targetEmptyProbability;
+    this.minBufferSize = minBufferSize;
+    this.maxBufferSize = maxBufferSize;
+  }
+
+  /**
+   * Returns the buffer size to start {@code preloadId} with: the last size in use, or the minimum
+   * size for a preload ID that was never started.
+   */
+  public synchronized int getBufferSize(@NonNull String preloadId) {
+    Stats stats = statsById.get(preloadId);
+    return stats == null ? minBufferSize : stats.bufferSize;
+  }
+
+  /** Records that {@code preloadId} was started with {@code bufferSize} ads. */
+  public synchronized void onStarted(@NonNull String preloadId, int bufferSize) {
+    Stats stats = getStats(preloadId);
+    long nowMillis = clock.millis();
+    stats.bufferSize = bufferSize;
+    stats.lastResizeMillis = nowMillis;
+    stats.pollsSinceResize = 0;
+    stats.missesSinceResize = 0;
+    stats.preloadedSinceStart = 0;
+    stats.pendingFills.clear();
+    for (int i = 0; i < bufferSize; i++) {
+      stats.pendingFills.addLast(nowMillis);
+    }
+  }
+
+  /**
+   * Records a poll of {@code preloadId}.
+   *
+   * @param adReturned whether the poll returned an ad. A poll that finds the buffer empty is a
+   *     miss and causes the buffer to grow.
+   */
+  public synchronized void onPolled(@NonNull String preloadId, boolean adReturned) {
+    Stats stats = getStats(preloadId);
+    long nowMillis = clock.millis();
+    if (stats.lastPollMillis >= 0) {
+      stats.meanPollIntervalMillis =
+          smooth(stats.meanPollIntervalMillis, nowMillis - stats.lastPollMillis);
+    }
+    stats.lastPollMillis = nowMillis;
+    boolean isFilled = stats.preloadedSinceStart >= stats.bufferSize;
+    if (isFilled) {
+      stats.pollsSinceResize++;
+    }
+    if (adReturned) {
+      // Each polled ad is replaced in the background.
+      if (stats.pendingFills.size() < maxBufferSize) {
+        stats.pendingFills.addLast(nowMillis);
+      }
+    } else {
+      stats.missCount++;
+      if (isFilled) {
+        stats.missesSinceResize++;
+        stats.lastMissMillis = nowMillis;
+      }
+    }
+  }
+
+  /** Records an {@code onAdPreloaded} callback for {@code preloadId}. */
+  public synchronized void onPreloaded(@NonNull String preloadId) {
+    Stats stats = getStats(preloadId);
+    stats.preloadedSinceStart++;
+    Long requestMillis = stats.pendingFills.pollFirst();
+    if (requestMillis != null) {
+      stats.meanFillLatencyMillis =
+          smooth(stats.meanFillLatencyMillis, clock.millis() - requestMillis);
+    }
+  }
+
+  /** Records an {@code onAdsExhausted} callback for {@code preloadId}. */
+  public synchronized void onExhausted(@NonNull String preloadId) {
+    getStats(preloadId).exhaustedCount++;
+  }
+
+  /**
+   * Returns the smallest buffer size that keeps the probability of an empty buffer below the
+   * target, or the current size until both the poll rate and fill latency have been observed.
+   */
+  public synchronized int recommendBufferSize(@NonNull String preloadId) {
+    Stats stats = getStats(preloadId);
+    int recommended = stats.bufferSize;
+    if (!Double.isNaN(stats.meanPollIntervalMillis)
+        && !Double.isNaN(stats.meanFillLatencyMillis)
+        && stats.meanPollIntervalMillis > 0) {
+      // Expected number of polls while one ad is refilled.
+      double expectedPolls = stats.meanFillLatencyMillis / stats.meanPollIntervalMillis;
+      recommended = smallestSizeForTarget(expectedPolls);
+    }
+    if (isMissingTooOften(stats)) {
+      recommended = Math.max(recommended, stats.bufferSize + 1);
+    }
+    return Math.max(minBufferSize, Math.min(maxBufferSize, recommended));
+  }
+
+  /**
+   * Returns the size {@code preloadId} should be restarted with, or 0 if it should keep its
+   * current size. Growing waits until the buffer is empty so that no preloaded ad is discarded by
+   * the restart, while shrinking releases buffered ads on purpose.
+   *
+   * @param isAdAvailable whether the preloader currently holds an ad.
+   */
+  public synchronized int consumeResize(@NonNull String preloadId, boolean isAdAvailable) {
+    Stats stats = getStats(preloadId);
+    int recommended = recommendBufferSize(preloadId);
+    long sinceResizeMillis = clock.millis() - stats.lastResizeMillis;
+    if (recommended > stats.bufferSize
+        && isMissingTooOften(stats)
+        && !isAdAvailable
+        && sinceResizeMillis >= GROW_COOLDOWN_MILLIS) {
+      return recommended;
+    }
+    if (recommended < stats.bufferSize && sinceResizeMillis >= SHRINK_COOLDOWN_MILLIS) {
+      return stats.bufferSize - 1;
+    }
+    return 0;
+  }
+
+  /** Returns a summary of the statistics of {@code preloadId} for logging. */
+  @NonNull
+  public synchronized String describe(@NonNull String preloadId) {
+    Stats stats = getStats(preloadId);
+    return String.format(
+        "buffer: %d, poll interval: %.0f ms, fill latency: %.0f ms, exhausted: %d, misses: %d",
+        stats.bufferSize,
+        stats.meanPollIntervalMillis,
+        stats.meanFillLatencyMillis,
+        stats.exhaustedCount,
+        stats.missCount);
+  }
+
+  /**
+   * Returns whether the buffer ran empty more often than the target since it was last filled. One
+   * miss is tolerated so that a single early miss does not count as a rate, and misses stop
+   * counting once the last one is a shrink cooldown old so that they do not pin the size.
+   */
+  private boolean isMissingTooOften(Stats stats) {
+    return stats.missesSinceResize > 1 + targetEmptyProbability * stats.pollsSinceResize
+        && clock.millis() - stats.lastMissMillis < SHRINK_COOLDOWN_MILLIS;
+  }
+
+  private int smallestSizeForTarget(double expectedPolls) {
+    // Walk the Poisson CDF until P(polls < size) >= 1 - target.
+    double probability = Math.exp(-expectedPolls);
+    double cumulative = probability;
+    int size = 1;
+    while (cumulative < 1 - targetEmptyProbability && size < maxBufferSize) {
+      probability *= expectedPolls / size;
+      cumulative += probability;
+      size++;
+    }
+    return size;
+  }
+
+  private static double smooth(double mean, double sample) {
+    return Double.isNaN(mean) ? sample : mean + SMOOTHING * (sample - mean);
+  }
+
+  private Stats getStats(String preloadId) {
+    Stats stats = statsById.get(preloadId);
+    if (stats == null) {
+      stats = new Stats();
+      stats.bufferSize = minBufferSize;
+      statsById.put(preloadId, stats);
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.preloading;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.nextgenexample.TaskScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.request.RetryPolicy;
+
+/**
+ * Runs the preload buffer of one preload ID through its states and hands out its ads.
+ *
+ * <p>The buffer starts with the size recommended by the {@link AdaptiveBufferController} and is
+ * restarted with a new size when the poll rate calls for it. While the {@link RetryPolicy}'s
+ * circuit for the ad unit is open, preloading is paused so that the preloader stops retrying on
+ * its own, and resumes once the circuit allows a trial.
+ *
+ * <p>The states go from IDLE to PRELOADING, then between PRELOADING and PAUSED, and from any
+ * state to DESTROYED.
+ *
+ * <p>Must be used on the scheduler's thread. Preloader callbacks may arrive on any thread; the
+ * listener is always called on the scheduler's thread. Each start of the preloader gets its own
+ * callback, and callbacks of a preloader that was since paused, restarted or destroyed are
+ * ignored.
+ *
+ * @param <T> the ad type.
+ */
+public final class PreloadController<T> {
+
+  /** The state of the preload buffer. */
+  public enum State {
+    /** Not started yet. */
+    IDLE,
+    /** The preloader is filling and refilling the buffer. */
+    PRELOADING,
+    /** The preloader is stopped until the ad unit may load again. */
+    PAUSED,
+    /** The preloader is stopped for good. */
+    DESTROYED
+  }
+
+  /** Receives the events of a preload buffer. */
+  public interface Listener {
+    /** Called when the preloader starts or restarts with {@code bufferSize} ads. */
+    default void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {}
+
+    /** Called when the preloader is destroyed, including before a restart. */
+    default void onStopped(@NonNull String preloadId) {}
+
+    /** Called when an ad was polled from the buffer. */
+    default void onAdPolled(@NonNull String preloadId) {}
+
+    default void onAdPreloaded(@NonNull String preloadId) {}
+
+    default void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {}
+
+    default void onAdsExhausted(@NonNull String preloadId) {}
+
+    /** Called when preloading stops for {@code delayMillis} after repeated failures. */
+    default void onPaused(@NonNull String preloadId, long delayMillis) {}
+  }
+
+  private final String preloadId;
+  private final String adUnitId;
+  private final AdBackend.Preloader<T> preloader;
+  private final RetryPolicy retryPolicy;
+  private final AdaptiveBufferController bufferController;
+  private final TaskScheduler scheduler;
+  private final Listener listener;
+  private final Runnable resume = this::resume;
+  private State state = State.IDLE;
+  // Incremented whenever the preloader is started or stopped, so that callbacks of an earlier
+  // start can be told apart. Read from the preloader's threads.
+  private volatile int generation;
+
+  public PreloadController(
+      @NonNull String preloadId,
+      @NonNull String adUnitId,
+      @NonNull AdBackend.Preloader<T> preloader,
+      @NonNull RetryPolicy retryPolicy,
+      @NonNull AdaptiveBufferController bufferController,
+      @NonNull TaskScheduler scheduler,
+      @NonNull Listener listener) {
+    this.preloadId = preloadId;
+    this.adUnitId = adUnitId;
+    this.preloader = preloader;
+    this.retryPolicy = retryPolicy;
+    this.bufferController = bufferController;
+    this.scheduler = scheduler;
+    this.listener = listener;
+  }
+
+  /** Starts preloading. A controller can only be started once. */
+  public void start() {
+    if (state != State.IDLE) {
+      throw new IllegalStateException("Preloading was already started: " + state);
+    }
+    startPreloading(bufferController.getBufferSize(preloadId));
+  }
+
+  /**
+   * Returns the next buffered ad, or null if none is available or preloading is paused. The
+   * preloader replaces a polled ad in the background.
+   */
+  @Nullable
+  public T pollAd() {
+    if (state != State.PRELOADING) {
+      return null;
+    }
+    T ad = preloader.pollAd(preloadId);
+    bufferController.onPolled(preloadId, ad != null);
+    if (ad != null) {
+      listener.onAdPolled(preloadId);
+    }
+    adaptBufferSize();
+    return ad;
+  }
+
+  /** Stops preloading and drops the buffered ads. */
+  public void destroy() {
+    if (state == State.DESTROYED) {
+      return;
+    }
+    state = State.DESTROYED;
+    scheduler.cancel(resume);
+    stopPreloader();
+  }
+
+  @NonNull
+  public State getState() {
+    return state;
+  }
+
+  private void startPreloading(int bufferSize) {
+    state = State.PRELOADING;
+    generation++;
+    preloader.start(preloadId, adUnitId, bufferSize, new PreloadListener(generation));
+    bufferController.onStarted(preloadId, bufferSize);
+    listener.onStarted(preloadId, bufferSize, preloader.isAdAvailable(preloadId));
+  }
+
+  /** Restarts the preloader if the observed poll rate and fill latency call for another size. */
+  private void adaptBufferSize() {
+    int bufferSize = bufferController.consumeResize(preloadId, preloader.isAdAvailable(preloadId));
+    if (bufferSize > 0) {
+      stopPreloader();
+      startPreloading(bufferSize);
+    }
+  }
+
+  private void stopPreloader() {
+    generation++;
+    preloader.destroy(preloadId);
+    listener.onStopped(preloadId);
+  }
+
+  private void pause(long delayMillis) {
+    if (state != State.PRELOADING) {
+      return;
+    }
+    state = State.PAUSED;
+    stopPreloader();
+    listener.onPaused(preloadId, delayMillis);
+    scheduler.postDelayed(resume, delayMillis);
+  }
+
+  /** Restarts preloading as a trial once the circuit allows it. */
+  private void resume() {
+    if (state == State.PAUSED) {
+      startPreloading(bufferController.getBufferSize(preloadId));
+    }
+  }
+
+  // [Important] The preloader must not be started or polled within its callbacks, so state
+  // changes are posted to the scheduler.
+  private final class PreloadListener implements AdBackend.PreloadListener {
+    private final int startGeneration;
+
+    PreloadListener(int startGeneration) {
+      this.startGeneration = startGeneration;
+    }
+
+    /** Returns whether the preloader this listener was started with is still running. */
+    private boolean isCurrent() {
+      return generation == startGeneration;
+    }
+
+    @Override
+    public void onAdPreloaded(String preloadId) {
+      if (!isCurrent()) {
+        return;
+      }
+      bufferController.onPreloaded(preloadId);
+      retryPolicy.onSuccess(adUnitId);
+      scheduler.post(
+          () -> {
+            if (isCurrent()) {
+              listener.onAdPreloaded(preloadId);
+            }
+          });
+    }
+
+    @Override
+    public void onAdFailedToPreload(String preloadId, AdFailure failure) {
+      if (!isCurrent()) {
+        return;
+      }
+      long delayMillis = retryPolicy.onFailure(adUnitId, failure);
+      boolean isCircuitOpen = retryPolicy.isCircuitOpen(adUnitId);
+      scheduler.post(
+          () -> {
+            if (!isCurrent()) {
+              return;
+            }
+            listener.onAdFailedToPreload(preloadId, failure);
+            if (isCircuitOpen) {
+              pause(delayMillis);
+            }
+          });
+    }
+
+    @Override
+    public void onAdsExhausted(String preloadId) {
+      if (!isCurrent()) {
+        return;
+      }
+      bufferController.onExhausted(preloadId);
+      scheduler.post(
+          () -> {
+            if (isCurrent()) {
+              listener.onAdsExhausted(preloadId);
+            }
+          });
+    }
+  }
+}
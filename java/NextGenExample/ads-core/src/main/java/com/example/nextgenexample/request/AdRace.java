@@ -0,0 +1,245 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.nextgenexample.Clock;
+import com.example.nextgenexample.TaskScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads one ad from a list of ad units ordered from highest to lowest floor.
+ *
+ * <p>The primary ad unit loads first. Each backup starts after a delay, or right away when a load
+ * fails, and races the loads already in flight. The highest-floor ad unit that
+ * fills wins: a backup that fills first waits up to an upgrade window for higher-floor loads still
+ * in flight. Ads that lose the race, or fill after it ends, are destroyed.
+ *
+ * <p>The estimated value of an ad is only reported after it is shown, so the ad unit order stands
+ * in for value when choosing between fills. Must be used on the scheduler's thread, where the
+ * callbacks also run.
+ *
+ * @param <T> the ad type.
+ */
+public final class AdRace<T> {
+
+  /** Receives the outcome of a race. */
+  public interface Callback<T> {
+    /** Called with the winning ad, which the caller now owns. */
+    void onAdLoaded(@NonNull T ad, @NonNull String adUnitId, long timeToFillMillis);
+
+    /** Called when every ad unit failed, with the error of the last one. */
+    void onAdFailedToLoad(@NonNull AdFailure failure);
+  }
+
+  private enum Status {
+    PENDING,
+    LOADING,
+    LOADED,
+    FAILED
+  }
+
+  private final List<String> adUnitIds;
+  private final AdBackend.Loader<T> loader;
+  private final long backupDelayMillis;
+  private final long upgradeWindowMillis;
+  private final TaskScheduler scheduler;
+  private final Clock clock;
+  private final Status[] statuses;
+  private final List<T> ads;
+  private final Runnable startNextLoad = this::startNextLoad;
+  private final Runnable pickWinner = this::pickWinner;
+  private Callback<T> callback;
+  private long startMillis;
+  private int nextIndex;
+  private boolean isUpgradeWindowOpen;
+  private boolean isFinished;
+
+  /**
+   * @param adUnitIds the ad units, from highest to lowest floor.
+   * @param loader loads an ad from one ad unit and destroys ads that lose the race.
+   * @param backupDelayMillis the delay before each backup ad unit starts.
+   * @param upgradeWindowMillis how long a backup fill waits for higher-floor loads in flight.
+   * @param scheduler runs the race and its callbacks.
+   * @param clock measures the time to fill. It should be monotonic, such as {@code
+   *     SystemClock::elapsedRealtime}.
+   */
+  public AdRace(
+      @NonNull List<String> adUnitIds,
+      @NonNull AdBackend.Loader<T> loader,
+      long backupDelayMillis,
+      long upgradeWindowMillis,
+      @NonNull TaskScheduler scheduler,
+      @NonNull Clock clock) {
+    if (adUnitIds.isEmpty()) {
+      throw new IllegalArgumentException("At least one ad unit is required.");
+    }
+    this.adUnitIds = List.copyOf(adUnitIds);
+    this.loader = loader;
+    this.backupDelayMillis = backupDelayMillis;
+    this.upgradeWindowMillis = upgradeWindowMillis;
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.statuses = new Status[adUnitIds.size()];
+    this.ads = new ArrayList<>(adUnitIds.size());
+    for (int i = 0; i < adUnitIds.size(); i++) {
+      statuses[i] = Status.PENDING;
+      ads.add(null);
+    }
+  }
+
+  /** Starts the race. A race can only be started once. Must be called on the scheduler's thread. */
+  public void start(@NonNull Callback<T> callback) {
+    if (this.callback != null) {
+      throw new IllegalStateException("The race was already started.");
+    }
+    this.callback = callback;
+    startMillis = clock.millis();
+    startNextLoad();
+  }
+
+  /** Ends the race without a winner and destroys any loaded ad. Late fills are destroyed. */
+  public void cancel() {
+    scheduler.post(() -> finish(-1, null));
+  }
+
+  private void startNextLoad() {
+    if (isFinished || nextIndex >= statuses.length) {
+      return;
+    }
+    int index = nextIndex++;
+    statuses[index] = Status.LOADING;
+    scheduler.cancel(startNextLoad);
+    if (nextIndex < statuses.length) {
+      scheduler.postDelayed(startNextLoad, backupDelayMillis);
+    }
+    loader.load(
+        adUnitIds.get(index),
+        new AdBackend.LoadCallback<T>() {
+          @Override
+          public void onAdLoaded(T ad) {
+            scheduler.post(() -> onLoaded(index, ad));
+          }
+
+          @Override
+          public void onAdFailedToLoad(AdFailure failure) {
+            scheduler.post(() -> onFailed(index, failure));
+          }
+        });
+  }
+
+  private void onLoaded(int index, T ad) {
+    if (isFinished) {
+      loader.destroy(ad);
+      return;
+    }
+    statuses[index] = Status.LOADED;
+    ads.set(index, ad);
+    if (isHigherFloorLoading(index)) {
+      // Give the higher-floor loads a chance to win, once per race.
+      if (!isUpgradeWindowOpen) {
+        isUpgradeWindowOpen = true;
+        scheduler.postDelayed(pickWinner, upgradeWindowMillis);
+      }
+    } else {
+      pickWinner();
+    }
+  }
+
+  private void onFailed(int index, AdFailure failure) {
+    if (isFinished) {
+      return;
+    }
+    statuses[index] = Status.FAILED;
+    if (isAnyLoaded()) {
+      if (!isHigherFloorLoading(firstLoadedIndex())) {
+        pickWinner();
+      }
+    } else if (nextIndex < statuses.length) {
+      // Start the next backup without waiting out its delay.
+      startNextLoad();
+    } else if (!isAnyLoading()) {
+      finish(-1, failure);
+    }
+  }
+
+  private void pickWinner() {
+    if (!isFinished) {
+      finish(firstLoadedIndex(), null);
+    }
+  }
+
+  private void finish(int winnerIndex, @Nullable AdFailure failure) {
+    if (isFinished) {
+      return;
+    }
+    isFinished = true;
+    scheduler.cancel(startNextLoad);
+    scheduler.cancel(pickWinner);
+    T winner = null;
+    for (int i = 0; i < ads.size(); i++) {
+      T ad = ads.get(i);
+      if (ad == null) {
+        continue;
+      }
+      if (i == winnerIndex) {
+        winner = ad;
+      } else {
+        loader.destroy(ad);
+      }
+      ads.set(i, null);
+    }
+    if (callback == null) {
+      return;
+    }
+    if (winner != null) {
+      callback.onAdLoaded(
+          winner, adUnitIds.get(winnerIndex), clock.millis() - startMillis);
+    } else if (failure != null) {
+      callback.onAdFailedToLoad(failure);
+    }
+  }
+
+  private boolean isHigherFloorLoading(int index) {
+    for (int i = 0; i < index; i++) {
+      if (statuses[i] == Status.LOADING) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isAnyLoading() {
+    return isHigherFloorLoading(statuses.length);
+  }
+
+  private boolean isAnyLoaded() {
+    return firstLoadedIndex() >= 0;
+  }
+
+  private int firstLoadedIndex() {
+    for (int i = 0; i < statuses.length; i++) {
+      if (statuses[i] == Status.LOADED) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Singleton that schedules ad loads.
+ *
+ * <ul>
+ *   <li>A load whose {@link AdRequestKey} matches a queued or in-flight load is coalesced into it
+ *       instead of being sent again. The result goes to the callback of the latest request, since
+ *       the earlier requests of the same consumer are superseded.
+ *   <li>At most a fixed number of loads per ad unit are in flight. Further loads wait in a queue,
+ *       ordered by {@link Priority} and then by arrival.
+ * </ul>
+ *
+ * <p>Safe to use from any thread. Loads are started and callbacks are invoked outside the lock.
+ */
+public final class AdRequestCoordinator {
+
+  /** Loads sharing an ad unit beyond this number are queued. */
+  public static final int DEFAULT_MAX_CONCURRENT_LOADS_PER_AD_UNIT = 2;
+
+  /** Order in which queued loads start. */
+  public enum Priority {
+    /** For ads that are about to be seen. */
+    HIGH,
+    NORMAL,
+    /** For ads that are speculative or far from view. */
+    LOW
+  }
+
+  /** Starts one load, for example by calling {@code BannerAd.load}. */
+  public interface Loader<T> {
+    void load(@NonNull AdBackend.LoadCallback<T> callback);
+  }
+
+  private static AdRequestCoordinator instance;
+
+  private static final Comparator<Call<?>> QUEUE_ORDER =
+      Comparator.<Call<?>, Priority>comparing(call -> call.priority)
+          .thenComparingLong(call -> call.sequence);
+
+  private final int maxConcurrentLoadsPerAdUnit;
+  // Queued and in-flight loads.
+  private final Map<AdRequestKey, Call<?>> calls = new HashMap<>();
+  private final Map<String, PriorityQueue<Call<?>>> queues = new HashMap<>();
+  private final Map<String, Integer> inFlightCounts = new HashMap<>();
+  private long nextSequence;
+  private long requestCount;
+  private long coalescedCount;
+  private long startedCount;
+
+  private final class Call<T> implements AdBackend.LoadCallback<T> {
+    final AdRequestKey key;
+    final Loader<T> loader;
+    final long sequence;
+    Priority priority;
+    AdBackend.LoadCallback<T> callback;
+    boolean isStarted;
+
+    Call(
+        AdRequestKey key,
+        Priority priority,
+        Loader<T> loader,
+        AdBackend.LoadCallback<T> callback) {
+      this.key = key;
+      this.priority = priority;
+      this.loader = loader;
+      this.callback = callback;
+      this.sequence = nextSequence++;
+    }
+
+    @Override
+    public void onAdLoaded(@NonNull T ad) {
+      finish(this).onAdLoaded(ad);
+    }
+
+    @Override
+    public void onAdFailedToLoad(@NonNull AdFailure failure) {
+      finish(this).onAdFailedToLoad(failure);
+    }
+  }
+
+  public static synchronized AdRequestCoordinator getInstance() {
+    if (instance == null) {
+      instance = new AdRequestCoordinator(DEFAULT_MAX_CONCURRENT_LOADS_PER_AD_UNIT);
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  public AdRequestCoordinator(int maxConcurrentLoadsPerAdUnit) {
+    this.maxConcurrentLoadsPerAdUnit = maxConcurrentLoadsPerAdUnit;
+  }
+
+  /**
+   * Loads an ad for {@code key}, or joins the matching load that is already queued or in flight.
+   *
+   * @param key the canonical request.
+   * @param priority the queue priority. Joining a queued load raises its priority if needed.
+   * @param loader starts the load when a slot is free.
+   * @param callback receives the result, unless a later request for the same key supersedes it.
+   */
+  public <T> void load(
+      @NonNull AdRequestKey key,
+      @NonNull Priority priority,
+      @NonNull Loader<T> loader,
+      @NonNull AdBackend.LoadCallback<T> callback) {
+    Call<?> callToStart;
+    synchronized (this) {
+      requestCount++;
+      @SuppressWarnings("unchecked")
+      Call<T> existing = (Call<T>) calls.get(key);
+      if (existing != null) {
+        coalescedCount++;
+        existing.callback = callback;
+        if (!existing.isStarted && priority.compareTo(existing.priority) < 0) {
+          PriorityQueue<Call<?>> queue = queues.get(key.adUnitId());
+          queue.remove(existing);
+          existing.priority = priority;
+          queue.add(existing);
+        }
+        return;
+      }
+      Call<T> call = new Call<>(key, priority, loader, callback);
+      calls.put(key, call);
+      queues.computeIfAbsent(key.adUnitId(), unused -> new PriorityQueue<>(QUEUE_ORDER)).add(call);
+      callToStart = pollStartable(key.adUnitId());
+    }
+    start(callToStart);
+  }
+
+  /**
+   * Drops the queued load for {@code key}. Loads already in flight are not affected.
+   *
+   * @return {@code true} if a queued load was dropped.
+   */
+  public synchronized boolean cancel(@NonNull AdRequestKey key) {
+    Call<?> call = calls.get(key);
+    if (call == null || call.isStarted) {
+      return false;
+    }
+    calls.remove(key);
+    queues.get(key.adUnitId()).remove(call);
+    return true;
+  }
+
+  /** Returns the number of loads requested. */
+  public synchronized long getRequestCount() {
+    return requestCount;
+  }
+
+  /** Returns the number of requests served by a load that was already queued or in flight. */
+  public synchronized long getCoalescedCount() {
+    return coalescedCount;
+  }
+
+  /** Returns the number of loads started. */
+  public synchronized long getStartedCount() {
+    return startedCount;
+  }
+
+  /** Returns a summary of the counters for logging. */
+  @NonNull
+  public synchronized String describe() {
+    return String.format(
+        "Ad loads requested: %d, coalesced: %d, started: %d, queued or in flight: %d.",
+        requestCount, coalescedCount, startedCount, calls.size());
+  }
+
+  /** Completes {@code call} and returns the callback that receives its result. */
+  private <T> AdBackend.LoadCallback<T> finish(Call<T> call) {
+    AdBackend.LoadCallback<T> callback;
+    Call<?> callToStart;
+    synchronized (this) {
+      if (calls.get(call.key) == call) {
+        calls.remove(call.key);
+      }
+      String adUnitId = call.key.adUnitId();
+      inFlightCounts.merge(adUnitId, -1, Integer::sum);
+      callback = call.callback;
+      callToStart = pollStartable(adUnitId);
+    }
+    start(callToStart);
+    return callback;
+  }
+
+  // Guarded by this.
+  private Call<?> pollStartable(String adUnitId) {
+    int inFlightCount = inFlightCounts.getOrDefault(adUnitId, 0);
+    PriorityQueue<Call<?>> queue = queues.get(adUnitId);
+    if (inFlightCount >= maxConcurrentLoadsPerAdUnit || queue == null || queue.isEmpty()) {
+      return null;
+    }
+    Call<?> call = queue.poll();
+    call.isStarted = true;
+    inFlightCounts.put(adUnitId, inFlightCount + 1);
+    startedCount++;
+    return call;
+  }
+
+  private static <T> void start(Call<T> call) {
+    if (call != null) {
+      call.loader.load(call);
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Canonical identity of an ad load. Two keys are equal when they request the same ad unit with the
+ * same sizes, custom targeting, category exclusions and extras, regardless of the order in which
+ * those were added, on behalf of the same consumer.
+ *
+ * <p>The consumer identifies where the ad is shown, for example a slot index or an {@code AdView}.
+ * Loads are only coalesced for the same consumer, since a loaded ad can be shown in only one place.
+ *
+ * @param adUnitId the ad unit ID.
+ * @param sizes the requested sizes as {@code WIDTHxHEIGHT}, sorted.
+ * @param customTargeting the custom targeting values by key, each sorted.
+ * @param categoryExclusions the excluded categories.
+ * @param extras the network extras.
+ * @param consumer the consumer of the loaded ad.
+ */
+public record AdRequestKey(
+    @NonNull String adUnitId,
+    @NonNull SortedSet<String> sizes,
+    @NonNull SortedMap<String, SortedSet<String>> customTargeting,
+    @NonNull SortedSet<String> categoryExclusions,
+    @NonNull SortedMap<String, String> extras,
+    @Nullable Object consumer) {
+
+  /** Returns a builder for a key of {@code adUnitId}. */
+  @NonNull
+  public static Builder builder(@NonNull String adUnitId) {
+    return new Builder(adUnitId);
+  }
+
+  /** Builds an {@link AdRequestKey} from the same values passed to the SDK's request builder. */
+  public static final class Builder {
+    private final String adUnitId;
+    private final SortedSet<String> sizes = new TreeSet<>();
+    private final SortedMap<String, SortedSet<String>> customTargeting = new TreeMap<>();
+    private final SortedSet<String> categoryExclusions = new TreeSet<>();
+    private final SortedMap<String, String> extras = new TreeMap<>();
+    private Object consumer;
+
+    private Builder(String adUnitId) {
+      this.adUnitId = adUnitId;
+    }
+
+    /** Adds a requested size, in dp. */
+    @NonNull
+    public Builder addSize(int width, int height) {
+      sizes.add(width + "x" + height);
+      return this;
+    }
+
+    /** Adds a custom targeting value. */
+    @NonNull
+    public Builder putCustomTargeting(@NonNull String key, @NonNull String value) {
+      SortedSet<String> values = customTargeting.get(key);
+      if (values == null) {
+        values = new TreeSet<>();
+        customTargeting.put(key, values);
+      }
+      values.add(value);
+      return this;
+    }
+
+    /** Adds an excluded category. */
+    @NonNull
+    public Builder addCategoryExclusion(@NonNull String category) {
+      categoryExclusions.add(category);
+      return this;
+    }
+
+    /** Adds a network extra. */
+    @NonNull
+    public Builder putExtra(@NonNull String key, @NonNull String value) {
+      extras.put(key, value);
+      return this;
+    }
+
+    /** Sets the consumer of the loaded ad. */
+    @NonNull
+    public Builder setConsumer(@Nullable Object consumer) {
+      this.consumer = consumer;
+      return this;
+    }
+
+    @NonNull
+    public AdRequestKey build() {
+      SortedMap<String, SortedSet<String>> targeting = new TreeMap<>();
+      for (Map.Entry<String, SortedSet<String>> entry : customTargeting.entrySet()) {
+        targeting.put(
+            entry.getKey(), Collections.unmodifiableSortedSet(new TreeSet<>(entry.getValue())));
+      }
+      return new AdRequestKey(
+          adUnitId,
+          Collections.unmodifiableSortedSet(new TreeSet<>(sizes)),
+          Collections.unmodifiableSortedMap(targeting),
+          Collections.unmodifiableSortedSet(new TreeSet<>(categoryExclusions)),
+          Collections.unmodifiableSortedMap(new TreeMap<>(extras)),
+          consumer);
+    }
+  }
+
+  /** Returns a copy of this key for another consumer. */
+  @NonNull
+  public AdRequestKey withConsumer(@Nullable Object consumer) {
+    return new AdRequestKey(
+        adUnitId, sizes, customTargeting, categoryExclusions, extras, consumer);
+  }
+}
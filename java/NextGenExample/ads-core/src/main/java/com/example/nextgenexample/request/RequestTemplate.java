@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import androidx.annotation.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The ad request of one placement. The placement's fixed parameters live in the request factory,
+ * and a variant, typically a record, holds the parameters that change between loads, such as a
+ * targeting value or a size. Built requests and their {@link AdRequestKey}s are interned per
+ * variant, so repeated loads of the same variant reuse them instead of rebuilding.
+ *
+ * @param <V> the variant type, which must implement value equality.
+ * @param <R> the request type.
+ */
+public final class RequestTemplate<V, R> {
+
+  // Bounds the cache in case a variant does not implement value equality.
+  private static final int MAX_INTERNED_VARIANTS = 32;
+
+  private final String placement;
+  private final Function<V, R> requestFactory;
+  private final Function<V, AdRequestKey> keyFactory;
+  // Guarded by this. Evicts the least recently used variant when full.
+  private final Map<V, Interned<R>> interned =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<V, Interned<R>> eldest) {
+          return size() > MAX_INTERNED_VARIANTS;
+        }
+      };
+  private long hitCount;
+  private long missCount;
+
+  private record Interned<R>(R request, AdRequestKey key) {}
+
+  RequestTemplate(
+      @NonNull String placement,
+      @NonNull Function<V, R> requestFactory,
+      @NonNull Function<V, AdRequestKey> keyFactory) {
+    this.placement = placement;
+    this.requestFactory = requestFactory;
+    this.keyFactory = keyFactory;
+  }
+
+  /** Returns the request for {@code variant}, building it on first use. */
+  @NonNull
+  public R getRequest(@NonNull V variant) {
+    return intern(variant).request();
+  }
+
+  /** Returns the canonical key of the request for {@code variant}. */
+  @NonNull
+  public AdRequestKey getKey(@NonNull V variant) {
+    return intern(variant).key();
+  }
+
+  /** Returns the placement name. */
+  @NonNull
+  public String getPlacement() {
+    return placement;
+  }
+
+  /** Returns a summary of the interned requests for logging. */
+  @NonNull
+  public synchronized String describe() {
+    return String.format(
+        "%s: %d requests interned, %d reused, %d built.",
+        placement, interned.size(), hitCount, missCount);
+  }
+
+  private synchronized Interned<R> intern(V variant) {
+    Interned<R> entry = interned.get(variant);
+    if (entry != null) {
+      hitCount++;
+      return entry;
+    }
+    missCount++;
+    entry = new Interned<>(requestFactory.apply(variant), keyFactory.apply(variant));
+    interned.put(variant, entry);
+    return entry;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.example.nextgenexample.Clock;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Singleton that decides when a failed ad unit may load again.
+ *
+ * <p>Failures back off exponentially with random jitter, with a longer schedule for no fill than
+ * for transient errors. An invalid request is not retried until the circuit closes again. After a
+ * number of consecutive failures the ad unit's circuit opens and all loads are refused for a
+ * while; the first load after that is a trial that closes the circuit on success and reopens it
+ * on failure.
+ */
+public final class RetryPolicy {
+
+  /** How a failed load is retried. */
+  public enum FailureKind {
+    /** No ad was available. Retrying soon is unlikely to help. */
+    NO_FILL,
+    /** A transient network or server error. */
+    NETWORK,
+    /** The request is misconfigured and fails the same way on every retry. */
+    INVALID_REQUEST,
+    /** Any other error. */
+    OTHER;
+
+    /** Classifies {@code failure} by its error code. */
+    @NonNull
+    public static FailureKind of(@NonNull AdFailure failure) {
+      switch (failure.code()) {
+        case NO_FILL:
+          return NO_FILL;
+        case NETWORK_ERROR:
+          return NETWORK;
+        case INVALID_REQUEST:
+          return INVALID_REQUEST;
+        default:
+          return OTHER;
+      }
+    }
+  }
+
+  /**
+   * Tuning of the policy.
+   *
+   * @param transientBackoffMillis the first backoff after a network or other error.
+   * @param noFillBackoffMillis the first backoff after no fill.
+   * @param maxBackoffMillis the upper bound of any backoff.
+   * @param multiplier the growth of the backoff per consecutive failure.
+   * @param jitterFraction the maximum fraction of the backoff that is randomly removed.
+   * @param failuresToOpenCircuit the consecutive failures after which the circuit opens.
+   * @param circuitOpenMillis how long an open circuit refuses loads.
+   */
+  public record Config(
+      long transientBackoffMillis,
+      long noFillBackoffMillis,
+      long maxBackoffMillis,
+      double multiplier,
+      double jitterFraction,
+      int failuresToOpenCircuit,
+      long circuitOpenMillis) {
+
+    public static final Config DEFAULT =
+        new Config(1_000L, 15_000L, 5 * 60_000L, 2.0, 0.5, 5, 10 * 60_000L);
+  }
+
+  private static RetryPolicy instance;
+
+  private final Clock clock;
+  private final Random random;
+  private final Config config;
+  private final Map<String, State> states = new HashMap<>();
+
+  private static final class State {
+    int consecutiveFailures;
+    long nextAttemptMillis;
+    boolean isCircuitOpen;
+  }
+
+  public static synchronized RetryPolicy getInstance() {
+    if (instance == null) {
+      instance = new RetryPolicy(Clock.ELAPSED, new Random(), Config.DEFAULT);
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  public RetryPolicy(@NonNull Clock clock, @NonNull Random random, @NonNull Config config) {
+    this.clock = clock;
+    this.random = random;
+    this.config = config;
+  }
+
+  /** Returns how long to wait before {@code adUnitId} may load, or 0 if it may load now. */
+  public synchronized long getDelayMillis(@NonNull String adUnitId) {
+    State state = states.get(adUnitId);
+    if (state == null) {
+      return 0L;
+    }
+    return Math.max(0L, state.nextAttemptMillis - clock.millis());
+  }
+
+  /** Returns whether {@code adUnitId} may load now. */
+  public boolean canLoad(@NonNull String adUnitId) {
+    return getDelayMillis(adUnitId) == 0L;
+  }
+
+  /** Returns whether the circuit of {@code adUnitId} is open. */
+  public synchronized boolean isCircuitOpen(@NonNull String adUnitId) {
+    State state = states.get(adUnitId);
+    return state != null && state.isCircuitOpen;
+  }
+
+  /** Records a successful load, which resets the backoff and closes the circuit. */
+  public synchronized void onSuccess(@NonNull String adUnitId) {
+    states.remove(adUnitId);
+  }
+
+  /** Records {@code failure} and returns the delay before the next attempt. */
+  public long onFailure(@NonNull String adUnitId, @NonNull AdFailure failure) {
+    return onFailure(adUnitId, FailureKind.of(failure));
+  }
+
+  /** Records a failure and returns the delay before the next attempt. */
+  public synchronized long onFailure(@NonNull String adUnitId, @NonNull FailureKind kind) {
+    State state = states.computeIfAbsent(adUnitId, unused -> new State());
+    state.consecutiveFailures++;
+    long delayMillis;
+    if (kind == FailureKind.INVALID_REQUEST
+        || state.isCircuitOpen
+        || state.consecutiveFailures >= config.failuresToOpenCircuit()) {
+      // Open, or reopen after a failed trial.
+      state.isCircuitOpen = true;
+      delayMillis = config.circuitOpenMillis();
+    } else {
+      long baseMillis =
+          kind == FailureKind.NO_FILL
+              ? config.noFillBackoffMillis()
+              : config.transientBackoffMillis();
+      double backoffMillis =
+          Math.min(
+              config.maxBackoffMillis(),
+              baseMillis * Math.pow(config.multiplier(), state.consecutiveFailures - 1));
+      // Jitter keeps many clients that failed together from retrying together.
+      delayMillis =
+          Math.round(backoffMillis * (1.0 - config.jitterFraction() * random.nextDouble()));
+    }
+    state.nextAttemptMillis = clock.millis() + delayMillis;
+    return delayMillis;
+  }
+}
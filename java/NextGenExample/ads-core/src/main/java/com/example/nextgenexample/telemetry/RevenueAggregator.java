@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.telemetry;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Singleton that sums the estimated revenue reported by the ads' paid events, per currency and ad
+ * unit. Values stay in micros of their currency; no conversion is made between currencies.
+ */
+public final class RevenueAggregator {
+
+  private static RevenueAggregator instance;
+
+  private static final class Totals {
+    long eventCount;
+    long valueMicros;
+  }
+
+  // Guarded by this. Totals by currency code, then by ad unit ID.
+  private final Map<String, Map<String, Totals>> totalsByCurrency = new HashMap<>();
+
+  public static synchronized RevenueAggregator getInstance() {
+    if (instance == null) {
+      instance = new RevenueAggregator();
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  public RevenueAggregator() {}
+
+  /** Adds a paid event of {@code valueMicros} in {@code currencyCode} from {@code adUnitId}. */
+  public synchronized void record(
+      @NonNull String adUnitId, long valueMicros, @NonNull String currencyCode) {
+    Map<String, Totals> totalsByAdUnit = totalsByCurrency.get(currencyCode);
+    if (totalsByAdUnit == null) {
+      totalsByAdUnit = new HashMap<>();
+      totalsByCurrency.put(currencyCode, totalsByAdUnit);
+    }
+    Totals totals = totalsByAdUnit.get(adUnitId);
+    if (totals == null) {
+      totals = new Totals();
+      totalsByAdUnit.put(adUnitId, totals);
+    }
+    totals.eventCount++;
+    totals.valueMicros += valueMicros;
+  }
+
+  /** Returns the revenue in micros of {@code currencyCode} across all ad units. */
+  public synchronized long getTotalMicros(@NonNull String currencyCode) {
+    Map<String, Totals> totalsByAdUnit = totalsByCurrency.get(currencyCode);
+    if (totalsByAdUnit == null) {
+      return 0L;
+    }
+    long valueMicros = 0L;
+    for (Totals totals : totalsByAdUnit.values()) {
+      valueMicros += totals.valueMicros;
+    }
+    return valueMicros;
+  }
+
+  /** Returns the revenue in micros of {@code currencyCode} from {@code adUnitId}. */
+  public synchronized long getTotalMicros(@NonNull String adUnitId, @NonNull String currencyCode) {
+    Map<String, Totals> totalsByAdUnit = totalsByCurrency.get(currencyCode);
+    Totals totals = totalsByAdUnit == null ? null : totalsByAdUnit.get(adUnitId);
+    return totals == null ? 0L : totals.valueMicros;
+  }
+
+  /** Returns a summary of the revenue per currency for logging. */
+  @NonNull
+  public synchronized String describe() {
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, Map<String, Totals>> entry : totalsByCurrency.entrySet()) {
+      long eventCount = 0L;
+      long valueMicros = 0L;
+      for (Totals totals : entry.getValue().values()) {
+        eventCount += totals.eventCount;
+        valueMicros += totals.valueMicros;
+      }
+      if (builder.length() > 0) {
+        builder.append(' ');
+      }
+      builder.append(
+          String.format(
+              "%s: %d micros from %d paid events across %d ad units.",
+              entry.getKey(), valueMicros, eventCount, entry.getValue().size()));
+    }
+    return builder.length() > 0 ? builder.toString() : "No paid events.";
+  }
+}
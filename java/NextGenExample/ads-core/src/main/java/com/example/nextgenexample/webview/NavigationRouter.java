@@ -0,0 +1,199 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.webview;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Decides where a navigation started inside the in-app browser's WebView should open.
+ *
+ * <p>The host of the current page is parsed once per page load. Each navigation is then routed by
+ * comparing regions of its URL in place, so routing allocates nothing and never throws. Instances
+ * are not thread-safe; use one from the WebView's thread.
+ */
+public final class NavigationRouter {
+
+  /** Where a navigation opens. */
+  public enum Route {
+    /** Stays in the WebView: same host as the current page, an allowed host, or no host. */
+    WEB_VIEW,
+    /** Opens in a Custom Tab, preserving the WebView's page. */
+    CUSTOM_TAB,
+    /** An {@code intent://} URL, parsed into the intent it describes. */
+    INTENT_URI,
+    /** Another non-web scheme such as {@code market://} or {@code tel:}, opened by an app. */
+    EXTERNAL_APP
+  }
+
+  // Hosts that always stay in the WebView, in lower case.
+  private final String[] allowedHosts;
+  // Whether the host at the same index also allows its subdomains.
+  private final boolean[] allowsSubdomains;
+  private String currentHost;
+  // Bounds of the last host found by findHost.
+  private int hostStart;
+  private int hostEnd;
+
+  /**
+   * @param allowedHosts hosts that stay in the WebView. A leading dot, as in {@code .example.com},
+   *     also allows every subdomain.
+   */
+  public NavigationRouter(Collection<String> allowedHosts) {
+    this.allowedHosts = new String[allowedHosts.size()];
+    this.allowsSubdomains = new boolean[allowedHosts.size()];
+    int i = 0;
+    for (String allowedHost : allowedHosts) {
+      boolean isWildcard = allowedHost.startsWith(".");
+      String host = isWildcard ? allowedHost.substring(1) : allowedHost;
+      this.allowedHosts[i] = host.toLowerCase(Locale.ROOT);
+      this.allowsSubdomains[i] = isWildcard;
+      i++;
+    }
+  }
+
+  /** Records the URL of the page that started loading. Call once per page load. */
+  public void onPageStarted(String url) {
+    currentHost =
+        url != null && isWebScheme(url, schemeEnd(url)) && findHost(url)
+            ? url.substring(hostStart, hostEnd).toLowerCase(Locale.ROOT)
+            : null;
+  }
+
+  /** Returns where {@code url}, navigated to from the current page, should open. */
+  public Route route(String url) {
+    if (url == null) {
+      return Route.WEB_VIEW;
+    }
+    int schemeEnd = schemeEnd(url);
+    if (schemeEnd < 0) {
+      // A relative or malformed URL is left to the WebView.
+      return Route.WEB_VIEW;
+    }
+    if (!isWebScheme(url, schemeEnd)) {
+      return regionEquals(url, 0, schemeEnd, "intent") ? Route.INTENT_URI : Route.EXTERNAL_APP;
+    }
+    if (!findHost(url) || currentHost == null) {
+      return Route.WEB_VIEW;
+    }
+    if (regionEquals(url, hostStart, hostEnd, currentHost) || isAllowed(url, hostStart, hostEnd)) {
+      return Route.WEB_VIEW;
+    }
+    // The user is navigating away from the site.
+    return Route.CUSTOM_TAB;
+  }
+
+  private boolean isAllowed(String url, int start, int end) {
+    for (int i = 0; i < allowedHosts.length; i++) {
+      String allowedHost = allowedHosts[i];
+      if (regionEquals(url, start, end, allowedHost)) {
+        return true;
+      }
+      // A subdomain ends with "." followed by the allowed host.
+      int suffixStart = end - allowedHost.length();
+      if (allowsSubdomains[i]
+          && suffixStart - 1 > start
+          && url.charAt(suffixStart - 1) == '.'
+          && regionEquals(url, suffixStart, end, allowedHost)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the host of {@code url}, which has a web scheme, and stores its bounds in {@link
+   * #hostStart} and {@link #hostEnd}. Returns false if the URL has no host.
+   */
+  private boolean findHost(String url) {
+    int authorityStart = schemeEnd(url) + 1;
+    if (!url.startsWith("//", authorityStart)) {
+      return false;
+    }
+    authorityStart += 2;
+    int authorityEnd = url.length();
+    for (int i = authorityStart; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == '/' || c == '?' || c == '#' || c == '\\') {
+        authorityEnd = i;
+        break;
+      }
+    }
+    // Skip user info, which ends at the last '@' of the authority.
+    int start = authorityStart;
+    for (int i = authorityEnd - 1; i >= authorityStart; i--) {
+      if (url.charAt(i) == '@') {
+        start = i + 1;
+        break;
+      }
+    }
+    int end = authorityEnd;
+    if (start < end && url.charAt(start) == '[') {
+      // An IPv6 literal ends at the closing bracket.
+      int bracket = url.indexOf(']', start);
+      if (bracket < 0 || bracket >= end) {
+        return false;
+      }
+      end = bracket + 1;
+    } else {
+      // Drop the port.
+      for (int i = start; i < end; i++) {
+        if (url.charAt(i) == ':') {
+          end = i;
+          break;
+        }
+      }
+    }
+    // Ignore the trailing dot of a fully qualified host.
+    if (end > start && url.charAt(end - 1) == '.') {
+      end--;
+    }
+    if (start == end) {
+      return false;
+    }
+    hostStart = start;
+    hostEnd = end;
+    return true;
+  }
+
+  /** Returns the index of the ':' that ends the scheme, or -1 if the URL has no valid scheme. */
+  private static int schemeEnd(String url) {
+    for (int i = 0; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == ':') {
+        return i == 0 ? -1 : i;
+      }
+      boolean isSchemeChar =
+          (c >= 'a' && c <= 'z')
+              || (c >= 'A' && c <= 'Z')
+              || (i > 0 && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'));
+      if (!isSchemeChar) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isWebScheme(String url, int schemeEnd) {
+    return regionEquals(url, 0, schemeEnd, "https") || regionEquals(url, 0, schemeEnd, "http");
+  }
+
+  /** Returns whether {@code url} between {@code start} and {@code end} is {@code lowerCase}. */
+  private static boolean regionEquals(String url, int start, int end, String lowerCase) {
+    return end - start == lowerCase.length()
+        && url.regionMatches(/* ignoreCase= */ true, start, lowerCase, 0, lowerCase.length());
+  }
+}
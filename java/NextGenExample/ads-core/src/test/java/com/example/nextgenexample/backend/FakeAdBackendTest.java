@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public final class FakeAdBackendTest {
+
+  private static final String AD_UNIT_ID = "ad_unit";
+  private static final FakeAdBackend.Profile ALWAYS_FAIL =
+      new FakeAdBackend.Profile(LatencyModel.fixed(0L), 1.0, 1.0, AdFailure.Code.NETWORK_ERROR);
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final FakeAdBackend<FakeAd> backend = FakeAdBackend.create(scheduler, 1L);
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void load_deliversAdOfTheAdUnit() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    FakeAd[] loadedAd = new FakeAd[1];
+
+    backend.load(
+        AD_UNIT_ID,
+        new AdBackend.LoadCallback<>() {
+          @Override
+          public void onAdLoaded(FakeAd ad) {
+            loadedAd[0] = ad;
+            latch.countDown();
+          }
+
+          @Override
+          public void onAdFailedToLoad(AdFailure failure) {
+            latch.countDown();
+          }
+        });
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(new FakeAd(AD_UNIT_ID, 1L), loadedAd[0]);
+  }
+
+  @Test
+  public void pollAd_reportsExhaustedOnceWhenTheLastAdIsTaken() throws Exception {
+    CountDownLatch preloaded = new CountDownLatch(1);
+    AtomicInteger exhaustedCount = new AtomicInteger();
+    backend.start(
+        AD_UNIT_ID,
+        AD_UNIT_ID,
+        1,
+        new AdBackend.PreloadListener() {
+          @Override
+          public void onAdPreloaded(String preloadId) {
+            preloaded.countDown();
+          }
+
+          @Override
+          public void onAdFailedToPreload(String preloadId, AdFailure failure) {}
+
+          @Override
+          public void onAdsExhausted(String preloadId) {
+            exhaustedCount.incrementAndGet();
+          }
+        });
+    assertTrue(preloaded.await(5, TimeUnit.SECONDS));
+    // Keep the buffer empty once its ad is taken.
+    backend.setDefaultProfile(ALWAYS_FAIL);
+
+    assertNotNull(backend.pollAd(AD_UNIT_ID));
+    assertNull(backend.pollAd(AD_UNIT_ID));
+    assertNull(backend.pollAd(AD_UNIT_ID));
+    // Run the callbacks posted so far.
+    scheduler.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, exhaustedCount.get());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.pacing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public final class ImpressionCounterTest {
+
+  private static final long MINUTE = 60_000L;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  public void countLastHour_expiresShowsOlderThanAnHour() {
+    ImpressionCounter counter = new ImpressionCounter();
+    counter.record(START);
+    counter.record(START + 30 * MINUTE);
+
+    assertEquals(2, counter.countLastHour(START + 59 * MINUTE));
+    assertEquals(1, counter.countLastHour(START + HOUR));
+    assertEquals(0, counter.countLastHour(START + 30 * MINUTE + HOUR));
+  }
+
+  @Test
+  public void allows_enforcesMinInterval() {
+    PacingRule rule = new PacingRule(PacingRule.NO_LIMIT, 10_000L, PacingRule.NO_LIMIT);
+    ImpressionCounter counter = new ImpressionCounter();
+    assertTrue(counter.allows(rule, START));
+
+    counter.record(START);
+
+    assertFalse(counter.allows(rule, START + 9_999L));
+    assertTrue(counter.allows(rule, START + 10_000L));
+  }
+
+  @Test
+  public void allows_enforcesSessionAndHourlyCaps() {
+    ImpressionCounter counter = new ImpressionCounter();
+    counter.record(START);
+    counter.record(START + MINUTE);
+
+    assertFalse(counter.allows(new PacingRule(2, 0L, PacingRule.NO_LIMIT), START + 2 * MINUTE));
+    assertFalse(counter.allows(new PacingRule(PacingRule.NO_LIMIT, 0L, 2), START + 2 * MINUTE));
+    assertTrue(counter.allows(new PacingRule(PacingRule.NO_LIMIT, 0L, 2), START + MINUTE + HOUR));
+  }
+
+  @Test
+  public void allows_clockSetBackwards_blocksForAtMostOneInterval() {
+    PacingRule rule = new PacingRule(PacingRule.NO_LIMIT, 10 * MINUTE, PacingRule.NO_LIMIT);
+    ImpressionCounter counter = new ImpressionCounter();
+    counter.record(START);
+    long rewound = START - 24 * HOUR;
+
+    assertFalse(counter.allows(rule, rewound));
+    assertTrue(counter.allows(rule, rewound + 10 * MINUTE));
+  }
+
+  @Test
+  public void countLastHour_clockSetBackwards_expiresFutureShowsWithinAnHour() {
+    ImpressionCounter counter = new ImpressionCounter();
+    counter.record(START);
+    counter.record(START + MINUTE);
+    long rewound = START - 24 * HOUR;
+
+    assertEquals(2, counter.countLastHour(rewound));
+    assertEquals(2, counter.countLastHour(rewound + 59 * MINUTE));
+    assertEquals(0, counter.countLastHour(rewound + HOUR));
+  }
+
+  @Test
+  public void serialize_roundTripsLastShowAndBuckets() {
+    PacingRule rule = new PacingRule(PacingRule.NO_LIMIT, 10_000L, 2);
+    ImpressionCounter counter = new ImpressionCounter();
+    counter.record(START);
+    counter.record(START + 5_000L);
+
+    ImpressionCounter restored = ImpressionCounter.deserialize(counter.serialize());
+
+    assertEquals(2, restored.countLastHour(START + 10 * MINUTE));
+    assertFalse(restored.allows(rule, START + 14_999L));
+    assertFalse(restored.allows(rule, START + 10 * MINUTE));
+  }
+
+  @Test
+  public void deserialize_malformedInput_returnsEmptyCounter() {
+    assertEquals(0, ImpressionCounter.deserialize("not;a:counter").countLastHour(START));
+    assertEquals(0, ImpressionCounter.deserialize(null).countLastHour(START));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.pacing;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.example.nextgenexample.FakeClock;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public final class PacingPolicyTest {
+
+  private static final long MINUTE = 60_000L;
+  private static final long HOUR = 60 * MINUTE;
+
+  private final FakeClock clock = new FakeClock(1_700_000_000_000L);
+  private final MapStore store = new MapStore();
+
+  @Test
+  public void canShow_appliesFormatAndGlobalRules() {
+    PacingPolicy policy =
+        newPolicy(
+            new PacingRule(PacingRule.NO_LIMIT, MINUTE, PacingRule.NO_LIMIT),
+            Map.of("interstitial", new PacingRule(PacingRule.NO_LIMIT, 5 * MINUTE, 3)));
+
+    policy.recordShow("interstitial");
+    clock.advance(2 * MINUTE);
+
+    assertFalse(policy.canShow("interstitial"));
+    assertTrue(policy.canShow("rewarded"));
+    clock.advance(3 * MINUTE);
+    assertTrue(policy.canShow("interstitial"));
+  }
+
+  @Test
+  public void canShow_capsSurviveRestart() {
+    PacingRule hourly = new PacingRule(PacingRule.NO_LIMIT, 0L, 1);
+    newPolicy(PacingRule.UNLIMITED, Map.of("app_open", hourly)).recordShow("app_open");
+    clock.advance(30 * MINUTE);
+
+    PacingPolicy restarted = newPolicy(PacingRule.UNLIMITED, Map.of("app_open", hourly));
+
+    assertFalse(restarted.canShow("app_open"));
+    clock.advance(30 * MINUTE);
+    assertTrue(restarted.canShow("app_open"));
+  }
+
+  @Test
+  public void canShow_sessionCapResetsOnRestart() {
+    PacingRule once = new PacingRule(1, 0L, PacingRule.NO_LIMIT);
+    PacingPolicy policy = newPolicy(once, Map.of());
+    policy.recordShow("banner");
+
+    assertFalse(policy.canShow("banner"));
+    assertTrue(newPolicy(once, Map.of()).canShow("banner"));
+  }
+
+  @Test
+  public void canShow_clockSetBackwardsAfterRestart_doesNotBlockIndefinitely() {
+    PacingRule rule = new PacingRule(PacingRule.NO_LIMIT, 10 * MINUTE, 1);
+    newPolicy(rule, Map.of()).recordShow("interstitial");
+    clock.advance(-7 * 24 * HOUR);
+
+    PacingPolicy restarted = newPolicy(rule, Map.of());
+
+    assertFalse(restarted.canShow("interstitial"));
+    clock.advance(HOUR);
+    assertTrue(restarted.canShow("interstitial"));
+  }
+
+  private PacingPolicy newPolicy(PacingRule globalRule, Map<String, PacingRule> formatRules) {
+    return new PacingPolicy(clock, store, globalRule, formatRules);
+  }
+
+  private static final class MapStore implements PacingPolicy.Store {
+    private final Map<String, String> values = new HashMap<>();
+
+    @Nullable
+    @Override
+    public String read(@NonNull String key) {
+      return values.get(key);
+    }
+
+    @Override
+    public void write(@NonNull Map<String, String> values) {
+      this.values.putAll(values);
+    }
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.prefetch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.FakeClock;
+import com.example.nextgenexample.TaskScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.request.RetryPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public final class PrefetchSchedulerTest {
+
+  private static final int FIRST = 1;
+  private static final int SECOND = 2;
+  private static final int UNREGISTERED = 3;
+  private static final long TTL_MILLIS = 30_000L;
+  private static final AdFailure NETWORK_ERROR =
+      new AdFailure(AdFailure.Code.NETWORK_ERROR, "network error");
+
+  private final FakeClock clock = new FakeClock(0L);
+  // Backs off on the first failure.
+  private final RetryPolicy retryPolicy =
+      new RetryPolicy(
+          clock,
+          new Random(1),
+          new RetryPolicy.Config(1_000L, 1_000L, 1_000L, 2.0, 0.0, 1, 10_000L));
+  private final ManualScheduler scheduler = new ManualScheduler();
+  private final FakeLoader loader = new FakeLoader();
+  private final PrefetchScheduler.Target<String> firstTarget =
+      new PrefetchScheduler.Target<>(FIRST, "first_unit", loader);
+  private final PrefetchScheduler.Target<String> secondTarget =
+      new PrefetchScheduler.Target<>(SECOND, "second_unit", loader);
+  private final RecordingCallback callback = new RecordingCallback();
+
+  @Test
+  public void prefetch_unregisteredDestination_isNotStarted() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+
+    assertFalse(prefetchScheduler.prefetch(UNREGISTERED));
+    assertEquals(0, loader.callbacks.size());
+  }
+
+  @Test
+  public void take_loadedAd_isHandedOverRightAway() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+    prefetchScheduler.prefetch(FIRST);
+    loader.complete("first_unit", "ad");
+    scheduler.runPending();
+
+    assertTrue(prefetchScheduler.take(firstTarget, callback));
+
+    assertEquals(List.of("loaded ad"), callback.events);
+    PrefetchScheduler.Stats stats = prefetchScheduler.getStats();
+    assertEquals(1, stats.hits());
+    assertEquals(1.0, stats.getHitRate(), 0.0);
+    assertEquals(1.0, stats.getPrecision(), 0.0);
+  }
+
+  @Test
+  public void take_adInFlight_joinsTheLoad() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+    prefetchScheduler.prefetch(FIRST);
+
+    assertTrue(prefetchScheduler.take(firstTarget, callback));
+    assertEquals(List.of(), callback.events);
+
+    loader.complete("first_unit", "ad");
+    scheduler.runPending();
+
+    assertEquals(List.of("loaded ad"), callback.events);
+    assertEquals(1, prefetchScheduler.getStats().joins());
+  }
+
+  @Test
+  public void take_withoutPrefetch_isMiss() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+
+    assertFalse(prefetchScheduler.take(firstTarget, callback));
+
+    assertEquals(1, prefetchScheduler.getStats().misses());
+    assertEquals(0.0, prefetchScheduler.getStats().getHitRate(), 0.0);
+  }
+
+  @Test
+  public void prefetch_overOutstandingCap_isDenied() {
+    PrefetchScheduler prefetchScheduler =
+        newScheduler(new PrefetchScheduler.Budget(1, 6, 60_000L, TTL_MILLIS));
+
+    assertTrue(prefetchScheduler.prefetch(FIRST));
+    assertTrue(prefetchScheduler.prefetch(FIRST));
+    assertFalse(prefetchScheduler.prefetch(SECOND));
+
+    assertEquals(1, loader.callbacks.size());
+    assertEquals(1, prefetchScheduler.getStats().started());
+    assertEquals(1, prefetchScheduler.getStats().denied());
+  }
+
+  @Test
+  public void prefetch_overStartWindow_isDeniedUntilTheWindowPasses() {
+    PrefetchScheduler prefetchScheduler =
+        newScheduler(new PrefetchScheduler.Budget(2, 1, 1_000L, TTL_MILLIS));
+    prefetchScheduler.prefetch(FIRST);
+
+    assertFalse(prefetchScheduler.prefetch(SECOND));
+
+    scheduler.advance(999L);
+    assertFalse(prefetchScheduler.prefetch(SECOND));
+
+    scheduler.advance(1L);
+    assertTrue(prefetchScheduler.prefetch(SECOND));
+    assertEquals(2, prefetchScheduler.getStats().denied());
+  }
+
+  @Test
+  public void loadedAd_notTakenWithinTtl_isDestroyed() {
+    PrefetchScheduler prefetchScheduler =
+        newScheduler(new PrefetchScheduler.Budget(2, 6, 60_000L, TTL_MILLIS));
+    prefetchScheduler.prefetch(FIRST);
+    loader.complete("first_unit", "ad");
+    scheduler.runPending();
+
+    scheduler.advance(TTL_MILLIS);
+
+    assertEquals(List.of("ad"), loader.destroyed);
+    assertFalse(prefetchScheduler.take(firstTarget, callback));
+    PrefetchScheduler.Stats stats = prefetchScheduler.getStats();
+    assertEquals(1, stats.wasted());
+    assertEquals(0.0, stats.getPrecision(), 0.0);
+  }
+
+  @Test
+  public void failedPrefetch_withoutWaiter_backsOffTheAdUnit() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+    prefetchScheduler.prefetch(FIRST);
+    loader.fail("first_unit");
+    scheduler.runPending();
+
+    assertFalse(prefetchScheduler.prefetch(FIRST));
+
+    PrefetchScheduler.Stats stats = prefetchScheduler.getStats();
+    assertEquals(1, stats.failed());
+    assertEquals(0, stats.denied());
+    assertEquals(1, loader.callbacks.size());
+  }
+
+  @Test
+  public void failedPrefetch_withWaiter_passesTheFailureOn() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+    prefetchScheduler.prefetch(FIRST);
+    prefetchScheduler.take(firstTarget, callback);
+    loader.fail("first_unit");
+    scheduler.runPending();
+
+    assertEquals(List.of("failed NETWORK_ERROR"), callback.events);
+    // The waiting destination reports the failure to the retry policy, as for its own loads.
+    assertEquals(0L, retryPolicy.getDelayMillis("first_unit"));
+  }
+
+  @Test
+  public void clear_destroysLoadedAdsAndAdsStillLoading() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+    prefetchScheduler.prefetch(FIRST);
+    prefetchScheduler.prefetch(SECOND);
+    loader.complete("first_unit", "first ad");
+    scheduler.runPending();
+
+    prefetchScheduler.clear();
+    loader.complete("second_unit", "second ad");
+    scheduler.runPending();
+
+    assertEquals(List.of("first ad", "second ad"), loader.destroyed);
+    assertFalse(prefetchScheduler.take(secondTarget, callback));
+    scheduler.advance(TTL_MILLIS);
+    assertEquals(2, loader.destroyed.size());
+  }
+
+  @Test
+  public void getLikelyDestination_isTheMostVisitedRegisteredDestination() {
+    PrefetchScheduler prefetchScheduler = newScheduler(PrefetchScheduler.Budget.DEFAULT);
+
+    assertEquals(0, prefetchScheduler.getLikelyDestination());
+
+    prefetchScheduler.onDestinationVisited(FIRST);
+    prefetchScheduler.onDestinationVisited(SECOND);
+    prefetchScheduler.onDestinationVisited(SECOND);
+    prefetchScheduler.onDestinationVisited(UNREGISTERED);
+    prefetchScheduler.onDestinationVisited(UNREGISTERED);
+    prefetchScheduler.onDestinationVisited(UNREGISTERED);
+
+    assertEquals(SECOND, prefetchScheduler.getLikelyDestination());
+  }
+
+  private PrefetchScheduler newScheduler(PrefetchScheduler.Budget budget) {
+    PrefetchScheduler prefetchScheduler =
+        new PrefetchScheduler(budget, retryPolicy, clock, scheduler);
+    prefetchScheduler.register(firstTarget);
+    prefetchScheduler.register(secondTarget);
+    return prefetchScheduler;
+  }
+
+  /** Holds the callbacks of loads until the test completes them. */
+  private static final class FakeLoader implements AdBackend.Loader<String> {
+    final Map<String, AdBackend.LoadCallback<String>> callbacks = new HashMap<>();
+    final List<String> destroyed = new ArrayList<>();
+
+    @Override
+    public void load(String adUnitId, AdBackend.LoadCallback<String> callback) {
+      callbacks.put(adUnitId, callback);
+    }
+
+    @Override
+    public void destroy(String ad) {
+      destroyed.add(ad);
+    }
+
+    void complete(String adUnitId, String ad) {
+      callbacks.get(adUnitId).onAdLoaded(ad);
+    }
+
+    void fail(String adUnitId) {
+      callbacks.get(adUnitId).onAdFailedToLoad(NETWORK_ERROR);
+    }
+  }
+
+  /** Runs posted tasks on demand and delayed tasks as the fake clock passes their time. */
+  private final class ManualScheduler implements TaskScheduler {
+    final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+    final Map<Runnable, Long> delayed = new HashMap<>();
+
+    @Override
+    public void post(Runnable task) {
+      pending.add(task);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+      delayed.put(task, clock.millis() + delayMillis);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+      pending.remove(task);
+      delayed.remove(task);
+    }
+
+    void runPending() {
+      Runnable task;
+      while ((task = pending.poll()) != null) {
+        task.run();
+      }
+    }
+
+    void advance(long millis) {
+      clock.advance(millis);
+      List<Runnable> due = new ArrayList<>();
+      for (Map.Entry<Runnable, Long> entry : delayed.entrySet()) {
+        if (entry.getValue() <= clock.millis()) {
+          due.add(entry.getKey());
+        }
+      }
+      for (Runnable task : due) {
+        delayed.remove(task);
+        task.run();
+      }
+    }
+  }
+
+  private static final class RecordingCallback implements AdBackend.LoadCallback<String> {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onAdLoaded(String ad) {
+      events.add("loaded " + ad);
+    }
+
+    @Override
+    public void onAdFailedToLoad(AdFailure failure) {
+      events.add("failed " + failure.code());
+    }
+  }
+}
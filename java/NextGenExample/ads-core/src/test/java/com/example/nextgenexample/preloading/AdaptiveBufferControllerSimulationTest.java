@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.preloading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.FakeClock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Drives {@link AdaptiveBufferController} with a simulated preloader: polls arrive as a Poisson
+ * process, each polled ad is refilled after an exponentially distributed latency, and the buffer
+ * is restarted whenever the controller asks for a resize. Seeds are fixed, so runs are
+ * deterministic.
+ */
+public final class AdaptiveBufferControllerSimulationTest {
+
+  private static final String PRELOAD_ID = "preload";
+  private static final long MINUTE = 60_000L;
+
+  @Test
+  public void settlesOnPoissonSizeAndKeepsMissesNearTarget() {
+    Simulation simulation = new Simulation(new AdaptiveBufferController(clock(), 0.1, 1, 5), 1);
+
+    // One poll and one refill every 3 s on average: 1 expected poll per refill, so P(polls <= 2)
+    // is 0.92 and the smallest buffer for a 10% target is 3.
+    simulation.run(3_000L, 3_000L, 30 * MINUTE);
+    Result result = simulation.run(3_000L, 3_000L, 120 * MINUTE);
+
+    assertEquals(3, result.mostUsedSize());
+    assertTrue("miss rate " + result.missRate(), result.missRate() < 0.1);
+  }
+
+  @Test
+  public void missesLessThanAFixedMinimumBuffer() {
+    Result adaptive =
+        new Simulation(new AdaptiveBufferController(clock(), 0.1, 1, 5), 1)
+            .run(2_000L, 4_000L, 120 * MINUTE);
+    Result fixed =
+        new Simulation(new AdaptiveBufferController(clock(), 0.1, 1, 1), 1)
+            .run(2_000L, 4_000L, 120 * MINUTE);
+
+    assertTrue(
+        "adaptive " + adaptive.missRate() + " fixed " + fixed.missRate(),
+        adaptive.missRate() < fixed.missRate() / 3);
+  }
+
+  @Test
+  public void shrinksOneAdAtATimeWhenPollsSlowDown() {
+    Simulation simulation = new Simulation(new AdaptiveBufferController(clock(), 0.1, 1, 5), 1);
+    simulation.run(1_000L, 4_000L, 30 * MINUTE);
+    int busySize = simulation.bufferSize;
+
+    Result idle = simulation.run(5 * MINUTE, 4_000L, 120 * MINUTE);
+
+    assertEquals(5, busySize);
+    assertEquals(1, idle.finalBufferSize);
+    assertEquals(busySize - 1, idle.resizes);
+  }
+
+  private FakeClock clock;
+
+  private FakeClock clock() {
+    clock = new FakeClock(0L);
+    return clock;
+  }
+
+  private static final class Result {
+    int polls;
+    int misses;
+    int resizes;
+    int finalBufferSize;
+    final Map<Integer, Long> millisBySize = new HashMap<>();
+
+    double missRate() {
+      return polls == 0 ? 0 : (double) misses / polls;
+    }
+
+    int mostUsedSize() {
+      return Collections.max(millisBySize.entrySet(), Map.Entry.comparingByValue()).getKey();
+    }
+  }
+
+  /** A preloader that keeps {@code bufferSize} ads, refilling each ad as it is polled. */
+  private final class Simulation {
+    private final AdaptiveBufferController controller;
+    private final Random random;
+    // Completion times of refills in flight.
+    private final PriorityQueue<Long> fills = new PriorityQueue<>();
+    private int available;
+    private int bufferSize;
+
+    Simulation(AdaptiveBufferController controller, long seed) {
+      this.controller = controller;
+      this.random = new Random(seed);
+      restart(controller.getBufferSize(PRELOAD_ID), 0L);
+    }
+
+    Result run(long meanPollIntervalMillis, long meanFillMillis, long durationMillis) {
+      Result result = new Result();
+      long endMillis = clock.millis() + durationMillis;
+      long nextPollMillis = clock.millis() + exponential(meanPollIntervalMillis);
+      while (nextPollMillis < endMillis) {
+        Long nextFillMillis = fills.peek();
+        if (nextFillMillis != null && nextFillMillis <= nextPollMillis) {
+          result.millisBySize.merge(bufferSize, nextFillMillis - clock.millis(), Long::sum);
+          clock.set(fills.poll());
+          available++;
+          controller.onPreloaded(PRELOAD_ID);
+          continue;
+        }
+        result.millisBySize.merge(bufferSize, nextPollMillis - clock.millis(), Long::sum);
+        clock.set(nextPollMillis);
+        nextPollMillis += exponential(meanPollIntervalMillis);
+        result.polls++;
+        boolean adReturned = available > 0;
+        if (adReturned) {
+          available--;
+          fills.add(clock.millis() + exponential(meanFillMillis));
+        } else {
+          result.misses++;
+        }
+        controller.onPolled(PRELOAD_ID, adReturned);
+        int newSize = controller.consumeResize(PRELOAD_ID, available > 0);
+        if (newSize > 0) {
+          result.resizes++;
+          restart(newSize, meanFillMillis);
+        }
+      }
+      clock.set(endMillis);
+      result.finalBufferSize = bufferSize;
+      return result;
+    }
+
+    private void restart(int size, long meanFillMillis) {
+      // Restarting discards buffered ads and fills the new buffer from scratch.
+      available = 0;
+      fills.clear();
+      bufferSize = size;
+      for (int i = 0; i < size; i++) {
+        fills.add(clock.millis() + exponential(meanFillMillis));
+      }
+      controller.onStarted(PRELOAD_ID, size);
+    }
+
+    private long exponential(long meanMillis) {
+      return (long) (-meanMillis * Math.log(1 - random.nextDouble()));
+    }
+  }
+}
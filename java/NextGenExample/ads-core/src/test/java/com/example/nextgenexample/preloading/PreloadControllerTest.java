@@ -0,0 +1,301 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.preloading;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.FakeClock;
+import com.example.nextgenexample.TaskScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.request.RetryPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public final class PreloadControllerTest {
+
+  private static final String PRELOAD_ID = "preload";
+  private static final String AD_UNIT_ID = "ad_unit";
+  private static final long CIRCUIT_OPEN_MILLIS = 10_000L;
+  private static final AdFailure NETWORK_ERROR =
+      new AdFailure(AdFailure.Code.NETWORK_ERROR, "network error");
+
+  private final FakeClock clock = new FakeClock(0L);
+  // Opens the circuit on the first failure.
+  private final RetryPolicy retryPolicy =
+      new RetryPolicy(
+          clock,
+          new Random(1),
+          new RetryPolicy.Config(1_000L, 1_000L, 1_000L, 2.0, 0.0, 1, CIRCUIT_OPEN_MILLIS));
+  private final FakePreloader preloader = new FakePreloader();
+  private final ManualScheduler scheduler = new ManualScheduler();
+  private final RecordingListener listener = new RecordingListener();
+  private final PreloadController<String> controller =
+      new PreloadController<>(
+          PRELOAD_ID,
+          AD_UNIT_ID,
+          preloader,
+          retryPolicy,
+          new AdaptiveBufferController(clock, 0.1, 1, 1),
+          scheduler,
+          listener);
+
+  @Test
+  public void start_startsPreloaderAndReportsIt() {
+    controller.start();
+
+    assertEquals(PreloadController.State.PRELOADING, controller.getState());
+    assertEquals(1, preloader.listeners.size());
+    assertEquals(List.of("started 1"), listener.events);
+  }
+
+  @Test
+  public void callbacks_areDeliveredOnTheScheduler() {
+    controller.start();
+
+    preloader.current().onAdPreloaded(PRELOAD_ID);
+    preloader.current().onAdsExhausted(PRELOAD_ID);
+
+    assertEquals(List.of("started 1"), listener.events);
+    scheduler.runPending();
+    assertEquals(List.of("started 1", "preloaded", "exhausted"), listener.events);
+  }
+
+  @Test
+  public void pollAd_returnsBufferedAd() {
+    controller.start();
+    preloader.ads.add("ad");
+
+    assertEquals("ad", controller.pollAd());
+    assertEquals(List.of("started 1", "polled"), listener.events);
+  }
+
+  @Test
+  public void failureWithOpenCircuit_pausesAndResumesAfterTheCircuitDelay() {
+    controller.start();
+
+    preloader.current().onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+
+    assertEquals(PreloadController.State.PAUSED, controller.getState());
+    assertEquals(1, preloader.destroyCount);
+    assertEquals(CIRCUIT_OPEN_MILLIS, scheduler.lastDelayMillis);
+    preloader.ads.add("ad");
+    assertNull(controller.pollAd());
+
+    scheduler.runDelayed();
+
+    assertEquals(PreloadController.State.PRELOADING, controller.getState());
+    assertEquals(2, preloader.listeners.size());
+  }
+
+  @Test
+  public void callbacksOfPausedPreloader_areIgnored() {
+    controller.start();
+    AdBackend.PreloadListener paused = preloader.current();
+    paused.onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+    listener.events.clear();
+
+    // A fill that was in flight when the preloader was stopped must not close the circuit.
+    paused.onAdPreloaded(PRELOAD_ID);
+    paused.onAdsExhausted(PRELOAD_ID);
+    paused.onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+
+    assertEquals(List.of(), listener.events);
+    assertTrue(retryPolicy.isCircuitOpen(AD_UNIT_ID));
+    assertEquals(PreloadController.State.PAUSED, controller.getState());
+  }
+
+  @Test
+  public void callbacksOfRestartedPreloader_areIgnored() {
+    controller.start();
+    AdBackend.PreloadListener first = preloader.current();
+    first.onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+    scheduler.runDelayed();
+    listener.events.clear();
+
+    // The first preloader's late failure must not pause the trial of the second.
+    first.onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+
+    assertEquals(List.of(), listener.events);
+    assertEquals(PreloadController.State.PRELOADING, controller.getState());
+
+    preloader.current().onAdPreloaded(PRELOAD_ID);
+    scheduler.runPending();
+
+    assertEquals(List.of("preloaded"), listener.events);
+    assertFalse(retryPolicy.isCircuitOpen(AD_UNIT_ID));
+  }
+
+  @Test
+  public void callbackPostedBeforePause_isDroppedWhenItRuns() {
+    controller.start();
+    AdBackend.PreloadListener current = preloader.current();
+
+    current.onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    current.onAdsExhausted(PRELOAD_ID);
+    scheduler.runPending();
+
+    assertEquals(List.of("started 1", "failed", "stopped", "paused"), listener.events);
+  }
+
+  @Test
+  public void callbacksAfterDestroy_areIgnored() {
+    controller.start();
+    AdBackend.PreloadListener current = preloader.current();
+    current.onAdPreloaded(PRELOAD_ID);
+
+    controller.destroy();
+    current.onAdsExhausted(PRELOAD_ID);
+    scheduler.runPending();
+
+    assertEquals(PreloadController.State.DESTROYED, controller.getState());
+    assertEquals(List.of("started 1", "stopped"), listener.events);
+    assertNull(controller.pollAd());
+  }
+
+  @Test
+  public void destroy_whilePaused_cancelsTheResume() {
+    controller.start();
+    preloader.current().onAdFailedToPreload(PRELOAD_ID, NETWORK_ERROR);
+    scheduler.runPending();
+
+    controller.destroy();
+    scheduler.runDelayed();
+
+    assertEquals(PreloadController.State.DESTROYED, controller.getState());
+    assertEquals(1, preloader.listeners.size());
+  }
+
+  /** Records the listener of each start and serves the ads added to {@link #ads}. */
+  private static final class FakePreloader implements AdBackend.Preloader<String> {
+    final List<AdBackend.PreloadListener> listeners = new ArrayList<>();
+    final ArrayDeque<String> ads = new ArrayDeque<>();
+    int destroyCount;
+
+    AdBackend.PreloadListener current() {
+      return listeners.get(listeners.size() - 1);
+    }
+
+    @Override
+    public void start(
+        String preloadId, String adUnitId, int bufferSize, AdBackend.PreloadListener listener) {
+      listeners.add(listener);
+    }
+
+    @Override
+    public String pollAd(String preloadId) {
+      return ads.poll();
+    }
+
+    @Override
+    public boolean isAdAvailable(String preloadId) {
+      return !ads.isEmpty();
+    }
+
+    @Override
+    public void destroy(String preloadId) {
+      destroyCount++;
+      ads.clear();
+    }
+  }
+
+  /** Runs posted tasks when the test asks. */
+  private static final class ManualScheduler implements TaskScheduler {
+    final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+    final List<Runnable> delayed = new ArrayList<>();
+    long lastDelayMillis;
+
+    @Override
+    public void post(Runnable task) {
+      pending.add(task);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+      delayed.add(task);
+      lastDelayMillis = delayMillis;
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+      pending.remove(task);
+      delayed.remove(task);
+    }
+
+    void runPending() {
+      Runnable task;
+      while ((task = pending.poll()) != null) {
+        task.run();
+      }
+    }
+
+    void runDelayed() {
+      List<Runnable> tasks = new ArrayList<>(delayed);
+      delayed.clear();
+      tasks.forEach(Runnable::run);
+    }
+  }
+
+  private static final class RecordingListener implements PreloadController.Listener {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onStarted(String preloadId, int bufferSize, boolean isAdAvailable) {
+      events.add("started " + bufferSize);
+    }
+
+    @Override
+    public void onStopped(String preloadId) {
+      events.add("stopped");
+    }
+
+    @Override
+    public void onAdPolled(String preloadId) {
+      events.add("polled");
+    }
+
+    @Override
+    public void onAdPreloaded(String preloadId) {
+      events.add("preloaded");
+    }
+
+    @Override
+    public void onAdFailedToPreload(String preloadId, AdFailure failure) {
+      events.add("failed");
+    }
+
+    @Override
+    public void onAdsExhausted(String preloadId) {
+      events.add("exhausted");
+    }
+
+    @Override
+    public void onPaused(String preloadId, long delayMillis) {
+      events.add("paused");
+    }
+  }
+}
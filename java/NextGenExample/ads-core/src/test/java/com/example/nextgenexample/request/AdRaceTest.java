@@ -0,0 +1,282 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.FakeClock;
+import com.example.nextgenexample.FakeScheduler;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.backend.FakeAd;
+import com.example.nextgenexample.backend.FakeAdBackend;
+import com.example.nextgenexample.backend.LatencyModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/** Races a primary and a backup ad unit of a {@link FakeAdBackend} on a fake timeline. */
+public final class AdRaceTest {
+
+  private static final String PRIMARY = "primary";
+  private static final String BACKUP = "backup";
+  private static final long BACKUP_DELAY_MILLIS = 500L;
+  private static final long UPGRADE_WINDOW_MILLIS = 300L;
+
+  private final FakeClock clock = new FakeClock(0L);
+  private final FakeScheduler scheduler = new FakeScheduler(clock);
+  private final FakeAdBackend<FakeAd> backend =
+      new FakeAdBackend<>(FakeAd::new, scheduler, new Random(1L));
+  private final RecordingLoader loader = new RecordingLoader();
+  private final RecordingCallback callback = new RecordingCallback();
+
+  @Test
+  public void primaryFillsBeforeBackupDelay_backupNeverStarts() {
+    backend.setProfile(PRIMARY, fills(100L));
+
+    newRace(PRIMARY, BACKUP).start(callback);
+    scheduler.runAll();
+
+    assertEquals(new FakeAd(PRIMARY, 1L), callback.ad);
+    assertEquals(PRIMARY, callback.adUnitId);
+    assertEquals(100L, callback.timeToFillMillis);
+    assertEquals(List.of(PRIMARY + "@0"), loader.loads);
+  }
+
+  @Test
+  public void slowPrimary_backupStartsAfterDelayAndPrimaryFillIsDestroyed() {
+    backend.setProfile(PRIMARY, fills(2_000L));
+    backend.setProfile(BACKUP, fills(100L));
+
+    newRace(PRIMARY, BACKUP).start(callback);
+    scheduler.runAll();
+
+    assertEquals(List.of(PRIMARY + "@0", BACKUP + "@500"), loader.loads);
+    // The backup filled at 600 and waited out the upgrade window for the primary.
+    assertEquals(BACKUP, callback.adUnitId);
+    assertEquals(900L, callback.timeToFillMillis);
+    assertEquals(List.of(PRIMARY), loader.destroyedAdUnitIds());
+  }
+
+  @Test
+  public void primaryFillsWithinUpgradeWindow_winsAndBackupIsDestroyed() {
+    backend.setProfile(PRIMARY, fills(700L));
+    backend.setProfile(BACKUP, fills(100L));
+
+    newRace(PRIMARY, BACKUP).start(callback);
+    scheduler.runAll();
+
+    assertEquals(PRIMARY, callback.adUnitId);
+    assertEquals(700L, callback.timeToFillMillis);
+    assertEquals(List.of(BACKUP), loader.destroyedAdUnitIds());
+  }
+
+  @Test
+  public void primaryFails_backupStartsWithoutWaiting() {
+    backend.setProfile(PRIMARY, fails(100L, AdFailure.Code.NETWORK_ERROR));
+    backend.setProfile(BACKUP, fills(100L));
+
+    newRace(PRIMARY, BACKUP).start(callback);
+    scheduler.runAll();
+
+    assertEquals(List.of(PRIMARY + "@0", BACKUP + "@100"), loader.loads);
+    assertEquals(BACKUP, callback.adUnitId);
+    assertEquals(200L, callback.timeToFillMillis);
+    assertTrue(loader.destroyed.isEmpty());
+  }
+
+  @Test
+  public void allAdUnitsFail_reportsTheLastFailure() {
+    backend.setProfile(PRIMARY, fails(100L, AdFailure.Code.NETWORK_ERROR));
+    backend.setProfile(BACKUP, fails(100L, AdFailure.Code.NO_FILL));
+
+    newRace(PRIMARY, BACKUP).start(callback);
+    scheduler.runAll();
+
+    assertNull(callback.ad);
+    assertEquals(AdFailure.Code.NO_FILL, callback.failure.code());
+  }
+
+  @Test
+  public void cancel_destroysAdWaitingForUpgradeAndLateFills() {
+    backend.setProfile(PRIMARY, fills(2_000L));
+    backend.setProfile(BACKUP, fills(100L));
+    AdRace<FakeAd> race = newRace(PRIMARY, BACKUP);
+
+    race.start(callback);
+    scheduler.advance(700L);
+    race.cancel();
+    scheduler.runAll();
+
+    assertEquals(0, callback.callCount);
+    assertEquals(List.of(BACKUP, PRIMARY), loader.destroyedAdUnitIds());
+  }
+
+  @Test
+  public void cancel_beforeBackupDelay_neverStartsBackup() {
+    backend.setProfile(PRIMARY, fills(2_000L));
+    AdRace<FakeAd> race = newRace(PRIMARY, BACKUP);
+
+    race.start(callback);
+    scheduler.advance(100L);
+    race.cancel();
+    scheduler.runAll();
+
+    assertEquals(List.of(PRIMARY + "@0"), loader.loads);
+    assertEquals(0, callback.callCount);
+    assertEquals(List.of(PRIMARY), loader.destroyedAdUnitIds());
+  }
+
+  @Test
+  public void backup_cutsTimeToFillOfSlowAndUnfilledPrimary() {
+    // The primary has the higher floor, so it fills less often and with a long tail.
+    backend.setProfile(
+        PRIMARY,
+        new FakeAdBackend.Profile(
+            LatencyModel.logNormal(600L, 0.8), 0.7, 0.02, AdFailure.Code.NETWORK_ERROR));
+    backend.setProfile(
+        BACKUP,
+        new FakeAdBackend.Profile(
+            LatencyModel.logNormal(300L, 0.4), 0.95, 0.02, AdFailure.Code.NETWORK_ERROR));
+
+    Outcome primaryOnly = runTrials(List.of(PRIMARY));
+    Outcome raced = runTrials(List.of(PRIMARY, BACKUP));
+
+    assertTrue(
+        "fills " + raced.fills + " vs " + primaryOnly.fills, raced.fills > primaryOnly.fills);
+    assertTrue(
+        "p90 " + raced.p90Millis() + " vs " + primaryOnly.p90Millis(),
+        raced.p90Millis() < primaryOnly.p90Millis());
+    // Every ad that did not win was destroyed.
+    assertEquals(raced.fills, raced.loadedAds - raced.destroyedAds);
+  }
+
+  private AdRace<FakeAd> newRace(String... adUnitIds) {
+    return new AdRace<>(
+        List.of(adUnitIds), loader, BACKUP_DELAY_MILLIS, UPGRADE_WINDOW_MILLIS, scheduler, clock);
+  }
+
+  /** Loads 500 times in a row, counting a load that found no ad as the slowest. */
+  private Outcome runTrials(List<String> adUnitIds) {
+    Outcome outcome = new Outcome();
+    int loadedBefore = loader.loadedCount;
+    int destroyedBefore = loader.destroyed.size();
+    for (int i = 0; i < 500; i++) {
+      RecordingCallback trial = new RecordingCallback();
+      new AdRace<>(adUnitIds, loader, BACKUP_DELAY_MILLIS, UPGRADE_WINDOW_MILLIS, scheduler, clock)
+          .start(trial);
+      scheduler.runAll();
+      if (trial.ad != null) {
+        outcome.fills++;
+        outcome.timesToFillMillis.add(trial.timeToFillMillis);
+      } else {
+        outcome.timesToFillMillis.add(Long.MAX_VALUE);
+      }
+    }
+    outcome.loadedAds = loader.loadedCount - loadedBefore;
+    outcome.destroyedAds = loader.destroyed.size() - destroyedBefore;
+    return outcome;
+  }
+
+  private static FakeAdBackend.Profile fills(long latencyMillis) {
+    return new FakeAdBackend.Profile(
+        LatencyModel.fixed(latencyMillis), 1.0, 0.0, AdFailure.Code.NETWORK_ERROR);
+  }
+
+  private static FakeAdBackend.Profile fails(long latencyMillis, AdFailure.Code code) {
+    return new FakeAdBackend.Profile(LatencyModel.fixed(latencyMillis), 1.0, 1.0, code);
+  }
+
+  private static final class Outcome {
+    final List<Long> timesToFillMillis = new ArrayList<>();
+    int fills;
+    int loadedAds;
+    int destroyedAds;
+
+    /** Returns the 90th percentile time to fill, where no fill counts as the longest. */
+    long p90Millis() {
+      List<Long> sorted = new ArrayList<>(timesToFillMillis);
+      Collections.sort(sorted);
+      return sorted.get(sorted.size() * 9 / 10);
+    }
+  }
+
+  /** Records when each load starts and which ads are destroyed. */
+  private final class RecordingLoader implements AdBackend.Loader<FakeAd> {
+    final List<String> loads = new ArrayList<>();
+    final List<FakeAd> destroyed = new ArrayList<>();
+    int loadedCount;
+
+    @Override
+    public void load(String adUnitId, AdBackend.LoadCallback<FakeAd> callback) {
+      loads.add(adUnitId + "@" + clock.millis());
+      backend.load(
+          adUnitId,
+          new AdBackend.LoadCallback<FakeAd>() {
+            @Override
+            public void onAdLoaded(FakeAd ad) {
+              loadedCount++;
+              callback.onAdLoaded(ad);
+            }
+
+            @Override
+            public void onAdFailedToLoad(AdFailure failure) {
+              callback.onAdFailedToLoad(failure);
+            }
+          });
+    }
+
+    @Override
+    public void destroy(FakeAd ad) {
+      destroyed.add(ad);
+      backend.destroy(ad);
+    }
+
+    List<String> destroyedAdUnitIds() {
+      List<String> adUnitIds = new ArrayList<>();
+      for (FakeAd ad : destroyed) {
+        adUnitIds.add(ad.adUnitId());
+      }
+      return adUnitIds;
+    }
+  }
+
+  private static final class RecordingCallback implements AdRace.Callback<FakeAd> {
+    FakeAd ad;
+    String adUnitId;
+    long timeToFillMillis;
+    AdFailure failure;
+    int callCount;
+
+    @Override
+    public void onAdLoaded(FakeAd ad, String adUnitId, long timeToFillMillis) {
+      callCount++;
+      this.ad = ad;
+      this.adUnitId = adUnitId;
+      this.timeToFillMillis = timeToFillMillis;
+    }
+
+    @Override
+    public void onAdFailedToLoad(AdFailure failure) {
+      callCount++;
+      this.failure = failure;
+    }
+  }
+}
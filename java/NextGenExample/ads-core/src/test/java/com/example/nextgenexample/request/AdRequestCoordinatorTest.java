@@ -0,0 +1,170 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public final class AdRequestCoordinatorTest {
+
+  private static final String AD_UNIT_ID = "ad_unit";
+
+  private final AdRequestCoordinator coordinator = new AdRequestCoordinator(2);
+  // Loads started by the coordinator, in start order, with the keys they were started for.
+  private final List<AdBackend.LoadCallback<String>> startedLoads = new ArrayList<>();
+  private final List<String> startedNames = new ArrayList<>();
+
+  @Test
+  public void load_sameKeyWhileInFlight_coalescesAndDeliversToLatestCallback() {
+    AdRequestKey key = AdRequestKey.builder(AD_UNIT_ID).setConsumer("slot").build();
+    RecordingCallback first = new RecordingCallback();
+    RecordingCallback second = new RecordingCallback();
+
+    load(key, "first", AdRequestCoordinator.Priority.NORMAL, first);
+    load(key, "second", AdRequestCoordinator.Priority.NORMAL, second);
+    startedLoads.get(0).onAdLoaded("ad");
+
+    assertEquals(List.of("first"), startedNames);
+    assertNull(first.ad);
+    assertEquals("ad", second.ad);
+    assertEquals(2, coordinator.getRequestCount());
+    assertEquals(1, coordinator.getCoalescedCount());
+    assertEquals(1, coordinator.getStartedCount());
+  }
+
+  @Test
+  public void load_sameKeyAfterCompletion_startsNewLoad() {
+    AdRequestKey key = AdRequestKey.builder(AD_UNIT_ID).build();
+    load(key, "first", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    startedLoads.get(0).onAdFailedToLoad(new AdFailure(AdFailure.Code.NO_FILL, "no fill"));
+
+    RecordingCallback retry = new RecordingCallback();
+    load(key, "retry", AdRequestCoordinator.Priority.NORMAL, retry);
+    startedLoads.get(1).onAdLoaded("ad");
+
+    assertEquals(List.of("first", "retry"), startedNames);
+    assertEquals("ad", retry.ad);
+    assertEquals(0, coordinator.getCoalescedCount());
+  }
+
+  @Test
+  public void load_differentConsumers_loadSeparately() {
+    load(key("a"), "a", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("b"), "b", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+
+    assertEquals(List.of("a", "b"), startedNames);
+    assertEquals(0, coordinator.getCoalescedCount());
+  }
+
+  @Test
+  public void load_overConcurrencyCap_queuesByPriorityThenArrival() {
+    load(key("a"), "a", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("b"), "b", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("low"), "low", AdRequestCoordinator.Priority.LOW, new RecordingCallback());
+    load(key("normal"), "normal", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("high"), "high", AdRequestCoordinator.Priority.HIGH, new RecordingCallback());
+    assertEquals(List.of("a", "b"), startedNames);
+
+    startedLoads.get(0).onAdLoaded("ad");
+    startedLoads.get(1).onAdLoaded("ad");
+    startedLoads.get(2).onAdLoaded("ad");
+
+    assertEquals(List.of("a", "b", "high", "normal", "low"), startedNames);
+  }
+
+  @Test
+  public void load_joiningQueuedLoad_raisesItsPriority() {
+    load(key("a"), "a", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("b"), "b", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("normal"), "normal", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("late"), "late", AdRequestCoordinator.Priority.LOW, new RecordingCallback());
+    load(key("late"), "late again", AdRequestCoordinator.Priority.HIGH, new RecordingCallback());
+
+    startedLoads.get(0).onAdLoaded("ad");
+
+    assertEquals(List.of("a", "b", "late"), startedNames);
+  }
+
+  @Test
+  public void cancel_dropsQueuedLoadOnly() {
+    load(key("a"), "a", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("b"), "b", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+    load(key("queued"), "queued", AdRequestCoordinator.Priority.NORMAL, new RecordingCallback());
+
+    assertFalse(coordinator.cancel(key("a")));
+    assertTrue(coordinator.cancel(key("queued")));
+    startedLoads.get(0).onAdLoaded("ad");
+
+    assertEquals(List.of("a", "b"), startedNames);
+  }
+
+  @Test
+  public void load_manyRequestsForOneSlot_startOneLoad() {
+    AdRequestKey key = key("slot");
+    RecordingCallback last = null;
+    for (int i = 0; i < 100; i++) {
+      last = new RecordingCallback();
+      load(key, "load " + i, AdRequestCoordinator.Priority.NORMAL, last);
+    }
+    startedLoads.get(0).onAdLoaded("ad");
+
+    assertEquals(1, coordinator.getStartedCount());
+    assertEquals(99, coordinator.getCoalescedCount());
+    assertEquals("ad", last.ad);
+  }
+
+  private static AdRequestKey key(String consumer) {
+    return AdRequestKey.builder(AD_UNIT_ID).addSize(320, 50).setConsumer(consumer).build();
+  }
+
+  private void load(
+      AdRequestKey key,
+      String name,
+      AdRequestCoordinator.Priority priority,
+      AdBackend.LoadCallback<String> callback) {
+    coordinator.load(
+        key,
+        priority,
+        loadCallback -> {
+          startedNames.add(name);
+          startedLoads.add(loadCallback);
+        },
+        callback);
+  }
+
+  private static final class RecordingCallback implements AdBackend.LoadCallback<String> {
+    String ad;
+    AdFailure failure;
+
+    @Override
+    public void onAdLoaded(String ad) {
+      this.ad = ad;
+    }
+
+    @Override
+    public void onAdFailedToLoad(AdFailure failure) {
+      this.failure = failure;
+    }
+  }
+}
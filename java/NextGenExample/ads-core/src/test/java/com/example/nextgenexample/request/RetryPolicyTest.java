@@ -0,0 +1,192 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.nextgenexample.FakeClock;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.request.RetryPolicy.FailureKind;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public final class RetryPolicyTest {
+
+  private static final String AD_UNIT_ID = "ad_unit";
+  private static final long CIRCUIT_OPEN_MILLIS = 10 * 60_000L;
+  private static final RetryPolicy.Config NO_JITTER =
+      new RetryPolicy.Config(1_000L, 15_000L, 60_000L, 2.0, 0.0, 5, CIRCUIT_OPEN_MILLIS);
+  private static final RetryPolicy.Config HALF_JITTER =
+      new RetryPolicy.Config(1_000L, 15_000L, 60_000L, 2.0, 0.5, 100, CIRCUIT_OPEN_MILLIS);
+
+  private final FakeClock clock = new FakeClock(1_000_000L);
+
+  @Test
+  public void failureKind_classifiesErrorCodes() {
+    assertEquals(FailureKind.NO_FILL, FailureKind.of(failure(AdFailure.Code.NO_FILL)));
+    assertEquals(FailureKind.NETWORK, FailureKind.of(failure(AdFailure.Code.NETWORK_ERROR)));
+    assertEquals(
+        FailureKind.INVALID_REQUEST, FailureKind.of(failure(AdFailure.Code.INVALID_REQUEST)));
+    assertEquals(FailureKind.OTHER, FailureKind.of(failure(AdFailure.Code.INTERNAL_ERROR)));
+  }
+
+  @Test
+  public void onFailure_noFillBacksOffLongerThanNetworkError() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+
+    assertEquals(1_000L, policy.onFailure("network", failure(AdFailure.Code.NETWORK_ERROR)));
+    assertEquals(1_000L, policy.onFailure("other", failure(AdFailure.Code.INTERNAL_ERROR)));
+    assertEquals(15_000L, policy.onFailure("no_fill", failure(AdFailure.Code.NO_FILL)));
+    assertFalse(policy.isCircuitOpen("no_fill"));
+  }
+
+  @Test
+  public void onFailure_invalidRequest_isNotRetried() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+
+    long delayMillis = policy.onFailure(AD_UNIT_ID, failure(AdFailure.Code.INVALID_REQUEST));
+
+    assertEquals(CIRCUIT_OPEN_MILLIS, delayMillis);
+    assertTrue(policy.isCircuitOpen(AD_UNIT_ID));
+    clock.advance(CIRCUIT_OPEN_MILLIS - 1L);
+    assertFalse(policy.canLoad(AD_UNIT_ID));
+  }
+
+  @Test
+  public void onFailure_backoffGrowsExponentiallyUpToCap() {
+    RetryPolicy.Config config =
+        new RetryPolicy.Config(1_000L, 15_000L, 60_000L, 2.0, 0.0, 100, CIRCUIT_OPEN_MILLIS);
+    RetryPolicy policy = newPolicy(config);
+
+    long[] expectedMillis = {1_000L, 2_000L, 4_000L, 8_000L, 16_000L, 32_000L, 60_000L, 60_000L};
+    for (long expected : expectedMillis) {
+      assertEquals(expected, policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK));
+    }
+  }
+
+  @Test
+  public void onFailure_jitterStaysWithinBounds() {
+    RetryPolicy policy = newPolicy(HALF_JITTER);
+    Set<Long> firstDelays = new HashSet<>();
+
+    for (int i = 0; i < 200; i++) {
+      String adUnitId = "ad_unit_" + i;
+      long firstMillis = policy.onFailure(adUnitId, FailureKind.NETWORK);
+      assertInRange(500L, 1_000L, firstMillis);
+      firstDelays.add(firstMillis);
+      long secondMillis = policy.onFailure(adUnitId, FailureKind.NETWORK);
+      assertInRange(1_000L, 2_000L, secondMillis);
+      for (int failures = 3; failures <= 10; failures++) {
+        policy.onFailure(adUnitId, FailureKind.NETWORK);
+      }
+      // Jitter is taken off the capped backoff, so the cap is never exceeded.
+      assertInRange(30_000L, 60_000L, policy.onFailure(adUnitId, FailureKind.NETWORK));
+    }
+    // Clients that failed together spread their retries.
+    assertTrue(firstDelays.size() > 100);
+  }
+
+  @Test
+  public void getDelayMillis_countsDownWithClock() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+    policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK);
+
+    clock.advance(400L);
+    assertEquals(600L, policy.getDelayMillis(AD_UNIT_ID));
+    assertFalse(policy.canLoad(AD_UNIT_ID));
+    clock.advance(600L);
+    assertEquals(0L, policy.getDelayMillis(AD_UNIT_ID));
+    assertTrue(policy.canLoad(AD_UNIT_ID));
+  }
+
+  @Test
+  public void onFailure_opensCircuitAfterConsecutiveFailures() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+
+    for (int i = 0; i < 4; i++) {
+      policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK);
+      assertFalse(policy.isCircuitOpen(AD_UNIT_ID));
+    }
+    long delayMillis = policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK);
+
+    assertEquals(CIRCUIT_OPEN_MILLIS, delayMillis);
+    assertTrue(policy.isCircuitOpen(AD_UNIT_ID));
+    assertEquals(CIRCUIT_OPEN_MILLIS, policy.getDelayMillis(AD_UNIT_ID));
+  }
+
+  @Test
+  public void circuit_halfOpensAfterCoolDownAndReopensOnFailedTrial() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+    openCircuit(policy);
+
+    clock.advance(CIRCUIT_OPEN_MILLIS);
+    // Half open: one trial load is allowed while the circuit is still open.
+    assertTrue(policy.canLoad(AD_UNIT_ID));
+    assertTrue(policy.isCircuitOpen(AD_UNIT_ID));
+
+    // A failed trial reopens the circuit for the full time instead of backing off.
+    assertEquals(CIRCUIT_OPEN_MILLIS, policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK));
+    assertFalse(policy.canLoad(AD_UNIT_ID));
+  }
+
+  @Test
+  public void onSuccess_closesCircuitAndResetsBackoff() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+    openCircuit(policy);
+    clock.advance(CIRCUIT_OPEN_MILLIS);
+
+    policy.onSuccess(AD_UNIT_ID);
+
+    assertFalse(policy.isCircuitOpen(AD_UNIT_ID));
+    assertTrue(policy.canLoad(AD_UNIT_ID));
+    assertEquals(1_000L, policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK));
+  }
+
+  @Test
+  public void adUnits_backOffIndependently() {
+    RetryPolicy policy = newPolicy(NO_JITTER);
+    openCircuit(policy);
+
+    assertTrue(policy.canLoad("other_ad_unit"));
+    assertFalse(policy.isCircuitOpen("other_ad_unit"));
+  }
+
+  private RetryPolicy newPolicy(RetryPolicy.Config config) {
+    // A seeded random keeps the jitter the same on every run.
+    return new RetryPolicy(clock, new Random(42L), config);
+  }
+
+  private static void openCircuit(RetryPolicy policy) {
+    for (int i = 0; i < NO_JITTER.failuresToOpenCircuit(); i++) {
+      policy.onFailure(AD_UNIT_ID, FailureKind.NETWORK);
+    }
+    assertTrue(policy.isCircuitOpen(AD_UNIT_ID));
+  }
+
+  private static AdFailure failure(AdFailure.Code code) {
+    return new AdFailure(code, code.name());
+  }
+
+  private static void assertInRange(long minMillis, long maxMillis, long actualMillis) {
+    assertTrue(
+        actualMillis + " not in [" + minMillis + ", " + maxMillis + "]",
+        actualMillis >= minMillis && actualMillis <= maxMillis);
+  }
+}
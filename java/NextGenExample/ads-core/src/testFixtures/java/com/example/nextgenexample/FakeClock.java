@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+/** A {@link Clock} that only moves when a test advances it. */
+public final class FakeClock implements Clock {
+
+  private long millis;
+
+  public FakeClock(long millis) {
+    this.millis = millis;
+  }
+
+  @Override
+  public long millis() {
+    return millis;
+  }
+
+  /** Moves the clock by {@code deltaMillis}, which may be negative. */
+  public void advance(long deltaMillis) {
+    millis += deltaMillis;
+  }
+
+  public void set(long millis) {
+    this.millis = millis;
+  }
+}
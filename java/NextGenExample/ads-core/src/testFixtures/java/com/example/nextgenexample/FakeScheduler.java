@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on the test thread when a {@link FakeClock} reaches their time, so that code on a
+ * {@link TaskScheduler} and a {@link com.example.nextgenexample.backend.FakeAdBackend} share one
+ * deterministic timeline.
+ *
+ * <p>Tasks due at the same time run in the order they were posted. Periodic scheduling is not
+ * supported.
+ */
+public final class FakeScheduler extends AbstractExecutorService
+    implements ScheduledExecutorService, TaskScheduler {
+
+  private final FakeClock clock;
+  private final PriorityQueue<Task> tasks =
+      new PriorityQueue<>(
+          (first, second) ->
+              first.timeMillis != second.timeMillis
+                  ? Long.compare(first.timeMillis, second.timeMillis)
+                  : Long.compare(first.sequence, second.sequence));
+  private long nextSequence;
+  private boolean isShutdown;
+
+  public FakeScheduler(FakeClock clock) {
+    this.clock = clock;
+  }
+
+  /** Runs the tasks that are due now, including the ones they post. */
+  public void runPending() {
+    advance(0L);
+  }
+
+  /** Moves the clock forward by {@code deltaMillis}, running each task at its time. */
+  public void advance(long deltaMillis) {
+    long endMillis = clock.millis() + deltaMillis;
+    while (!tasks.isEmpty() && tasks.peek().timeMillis <= endMillis) {
+      Task task = tasks.poll();
+      clock.set(Math.max(clock.millis(), task.timeMillis));
+      task.run();
+    }
+    clock.set(endMillis);
+  }
+
+  /** Runs tasks until none is left, moving the clock to the time of each. */
+  public void runAll() {
+    while (!tasks.isEmpty()) {
+      advance(Math.max(0L, tasks.peek().timeMillis - clock.millis()));
+    }
+  }
+
+  /** Returns the number of tasks not run yet. */
+  public int getPendingCount() {
+    return tasks.size();
+  }
+
+  @Override
+  public void post(Runnable task) {
+    postDelayed(task, 0L);
+  }
+
+  @Override
+  public void postDelayed(Runnable task, long delayMillis) {
+    add(task, delayMillis);
+  }
+
+  @Override
+  public void cancel(Runnable task) {
+    tasks.removeIf(pending -> pending.runnable == task);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    add(command, 0L);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return add(command, unit.toMillis(delay));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void shutdown() {
+    isShutdown = true;
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    isShutdown = true;
+    List<Runnable> pending = new ArrayList<>();
+    for (Task task : tasks) {
+      pending.add(task.runnable);
+    }
+    tasks.clear();
+    return pending;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return isShutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return isShutdown && tasks.isEmpty();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) {
+    return isTerminated();
+  }
+
+  private Task add(Runnable runnable, long delayMillis) {
+    Task task = new Task(runnable, clock.millis() + Math.max(0L, delayMillis), nextSequence++);
+    tasks.add(task);
+    return task;
+  }
+
+  /** A task and the time it runs at. */
+  private final class Task implements ScheduledFuture<Void>, Runnable {
+    final Runnable runnable;
+    final long timeMillis;
+    final long sequence;
+    boolean isDone;
+    boolean isCancelled;
+
+    Task(Runnable runnable, long timeMillis, long sequence) {
+      this.runnable = runnable;
+      this.timeMillis = timeMillis;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+      isDone = true;
+      runnable.run();
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(timeMillis - clock.millis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!tasks.remove(this)) {
+        return false;
+      }
+      isCancelled = true;
+      isDone = true;
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return isCancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return isDone;
+    }
+
+    @Override
+    public Void get() {
+      return null;
+    }
+
+    @Override
+    public Void get(long timeout, TimeUnit unit) {
+      return null;
+    }
+  }
+}
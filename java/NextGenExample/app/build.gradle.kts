@@ -25,18 +25,34 @@ android {
     targetCompatibility = JavaVersion.VERSION_17
   }
   buildFeatures { viewBinding = true }
+  // Robolectric tests need the merged resources and manifest.
+  testOptions { unitTests.isIncludeAndroidResources = true }
 }
 
 dependencies {
+  implementation(project(":ads-core"))
   implementation(libs.ads.mobile.sdk)
   implementation(libs.appcompat)
+  implementation(libs.asynclayoutinflater)
   implementation(libs.constraintlayout)
   implementation(libs.lifecycle.process)
+  implementation(libs.lifecycle.viewmodel.android)
   implementation(libs.material)
   implementation(libs.navigation.fragment)
   implementation(libs.navigation.ui)
   implementation(libs.preference)
   implementation(libs.recyclerview)
+
+  // Declares the activity that hosts fragments under test. Debug only, so the unit tests that
+  // launch fragments live in src/testDebug.
+  debugImplementation(libs.fragment.testing.manifest)
+
+  testImplementation(libs.androidx.test.core)
+  testImplementation(libs.fragment.testing)
+  testImplementation(libs.junit)
+  testImplementation(libs.mockito.core)
+  testImplementation(libs.robolectric)
+  testImplementation(testFixtures(project(":ads-core")))
 }
 
 configurations.configureEach {
@@ -25,7 +25,9 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
 import androidx.viewbinding.ViewBinding;
+import java.util.function.Consumer;
 
 /** A [Fragment] with a self-contained example of an ad's features. */
 public abstract class AdFragment<T extends ViewBinding> extends Fragment {
@@ -37,27 +39,52 @@ public abstract class AdFragment<T extends ViewBinding> extends Fragment {
   // Property to override.
   protected abstract BindingInflater<T> getBindingInflater();
 
+  /** Returns the main-thread budget of this example's flow, from view creation to destruction. */
+  @NonNull
+  protected MainThreadBudgetMonitor.Budget getMainThreadBudget() {
+    return MainThreadBudgetMonitor.Budget.DEFAULT;
+  }
+
   // This property is only valid between onCreateView and onDestroyView.
   protected T binding;
 
+  // Coalesces UI updates and toasts; only valid between onCreateView and onDestroyView.
+  private UiUpdateScheduler uiUpdateScheduler;
+
+  // Destroys the ads loaded for the current view when it is destroyed.
+  private final AdRegistry adRegistry = new AdRegistry(getClass().getSimpleName());
+
   @Nullable
   @Override
   public View onCreateView(
       @NonNull LayoutInflater inflater,
       @Nullable ViewGroup container,
       @Nullable Bundle savedInstanceState) {
+    MainThreadBudgetMonitor.getInstance()
+        .beginFlow(getClass().getSimpleName(), getMainThreadBudget());
     binding = getBindingInflater().inflate(inflater, container, false);
+    uiUpdateScheduler = new UiUpdateScheduler(requireContext());
+    adRegistry.open();
     return binding.getRoot();
   }
 
   @Override
   public void onDestroyView() {
     super.onDestroyView();
+    uiUpdateScheduler.release();
+    uiUpdateScheduler = null;
+    adRegistry.close();
+    MainThreadBudgetMonitor monitor = MainThreadBudgetMonitor.getInstance();
+    monitor.watchReleased(getClass().getSimpleName(), binding.getRoot());
     binding = null;
+    monitor.endFlow(getClass().getSimpleName());
   }
 
   protected void showToast(@NonNull final String text) {
-    if (getActivity() != null) {
+    UiUpdateScheduler scheduler = uiUpdateScheduler;
+    if (scheduler != null) {
+      scheduler.showMessage(text);
+    } else if (getActivity() != null) {
       getActivity()
           .runOnUiThread(() -> Toast.makeText(getContext(), text, Toast.LENGTH_SHORT).show());
     }
@@ -70,4 +97,41 @@ public abstract class AdFragment<T extends ViewBinding> extends Fragment {
     }
     activity.runOnUiThread(action);
   }
+
+  /**
+   * Runs {@code update} on the UI thread before the next frame. Scheduling the same {@link
+   * Runnable} again before it runs is a no-op, so callers should reuse a single instance per kind
+   * of update. Updates scheduled outside of the view lifecycle are dropped.
+   */
+  protected void scheduleUiUpdate(@NonNull Runnable update) {
+    UiUpdateScheduler scheduler = uiUpdateScheduler;
+    if (scheduler != null) {
+      scheduler.scheduleUpdate(update);
+    }
+  }
+
+  /**
+   * Observes {@code data} while the view exists and renders its latest value before the next
+   * frame, so a burst of changes within a frame renders once.
+   */
+  protected <V> void observeOnFrame(@NonNull LiveData<V> data, @NonNull Consumer<V> render) {
+    Runnable update = () -> render.accept(data.getValue());
+    data.observe(getViewLifecycleOwner(), unusedValue -> scheduleUiUpdate(update));
+  }
+
+  /**
+   * Destroys {@code ad} with {@code destroyer} when the view is destroyed, unless it is destroyed
+   * earlier with {@link #destroyAd}. An ad that arrives after the view was destroyed is destroyed
+   * immediately.
+   *
+   * @return {@code true} if the view is alive and the ad is tracked.
+   */
+  protected <A> boolean trackAd(@NonNull A ad, @NonNull Consumer<? super A> destroyer) {
+    return adRegistry.track(ad, destroyer);
+  }
+
+  /** Destroys an ad passed to {@link #trackAd} and stops tracking it. */
+  protected void destroyAd(@Nullable Object ad) {
+    adRegistry.destroy(ad);
+  }
 }
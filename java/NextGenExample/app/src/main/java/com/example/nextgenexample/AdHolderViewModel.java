@@ -0,0 +1,139 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.lifecycle.ViewModelStoreOwner;
+import java.util.function.Consumer;
+
+/**
+ * A {@link ViewModel} that keeps a loaded ad of type {@code T} across configuration changes, so a
+ * recreated view shows the same ad instead of requesting a new one.
+ *
+ * <p>The held ad is destroyed when it is replaced and when the owner is cleared for good. Ads
+ * expire some time after loading, so an ad older than its maximum age is destroyed instead of
+ * being returned. Safe to use from any thread.
+ *
+ * @param <T> the ad type.
+ */
+public final class AdHolderViewModel<T> extends ViewModel {
+
+  /** How long an ad may be held, matching the hour after which the SDK's ads expire. */
+  public static final long DEFAULT_MAX_AGE_MILLIS = 60 * 60 * 1000L;
+
+  private final AdRegistry adRegistry = new AdRegistry(getClass().getSimpleName());
+  private Consumer<? super T> destroyer;
+  private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+  private T ad;
+  private long heldSinceMillis;
+
+  public AdHolderViewModel() {
+    adRegistry.open();
+  }
+
+  /**
+   * Returns the holder of {@code adType} ads scoped to {@code owner}.
+   *
+   * @param destroyer releases an ad, typically a method reference to its {@code destroy()}. It
+   *     outlives the view, so it must not capture a fragment or view.
+   */
+  @NonNull
+  public static <T> AdHolderViewModel<T> of(
+      @NonNull ViewModelStoreOwner owner,
+      @NonNull Class<T> adType,
+      @NonNull Consumer<? super T> destroyer) {
+    @SuppressWarnings("unchecked") // Holders are keyed by their ad type.
+    AdHolderViewModel<T> holder =
+        new ViewModelProvider(owner)
+            .get(
+                AdHolderViewModel.class.getName() + ":" + adType.getName(),
+                AdHolderViewModel.class);
+    holder.setDestroyer(destroyer);
+    return holder;
+  }
+
+  /** Sets how long an ad may be held before it is destroyed as expired. */
+  public synchronized void setMaxAgeMillis(long maxAgeMillis) {
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  /** Returns the held ad, or null if there is none or it expired. */
+  @Nullable
+  public T get() {
+    T expiredAd;
+    synchronized (this) {
+      if (ad == null || getAgeMillis() <= maxAgeMillis) {
+        return ad;
+      }
+      expiredAd = ad;
+      ad = null;
+    }
+    adRegistry.destroy(expiredAd);
+    return null;
+  }
+
+  /**
+   * Holds {@code ad} and destroys the ad held before. An ad set after the holder was cleared is
+   * destroyed right away.
+   *
+   * @return {@code true} if the ad is held.
+   */
+  public boolean set(@NonNull T ad) {
+    T previousAd;
+    Consumer<? super T> adDestroyer;
+    synchronized (this) {
+      previousAd = this.ad;
+      this.ad = ad;
+      heldSinceMillis = SystemClock.elapsedRealtime();
+      adDestroyer = destroyer;
+    }
+    if (previousAd != ad) {
+      adRegistry.destroy(previousAd);
+    }
+    return adRegistry.track(ad, adDestroyer);
+  }
+
+  /** Destroys the held ad, if any. */
+  public void clear() {
+    T previousAd;
+    synchronized (this) {
+      previousAd = ad;
+      ad = null;
+    }
+    adRegistry.destroy(previousAd);
+  }
+
+  /** Returns how long the held ad has been held, or 0 if there is none. */
+  public synchronized long getAgeMillis() {
+    return ad == null ? 0L : SystemClock.elapsedRealtime() - heldSinceMillis;
+  }
+
+  @Override
+  protected void onCleared() {
+    synchronized (this) {
+      ad = null;
+    }
+    adRegistry.close();
+  }
+
+  private synchronized void setDestroyer(Consumer<? super T> destroyer) {
+    this.destroyer = destroyer;
+  }
+}
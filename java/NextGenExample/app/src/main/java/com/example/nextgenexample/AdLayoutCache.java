@@ -0,0 +1,277 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Singleton that inflates ad layouts on a background thread ahead of time and hands them out when
+ * an ad is displayed.
+ *
+ * <p>Views are inflated with the app theme into a {@link MutableContextWrapper}, which is pointed
+ * at the caller's context when the view is handed out. The cache refills while the main thread is
+ * idle, and is dropped under memory pressure or when the configuration changes. Display-time
+ * inflation is timed with and without a cached view, so the two can be compared with {@link
+ * #describe()}.
+ */
+public final class AdLayoutCache implements ComponentCallbacks2 {
+
+  /** The number of views of each ad layout kept ready by default. */
+  public static final Map<Integer, Integer> DEFAULT_COUNTS =
+      Map.of(
+          R.layout.native_ad, 1,
+          R.layout.icon_ad, 1,
+          R.layout.custom_native_ad, 1,
+          R.layout.inline_banner_ad, 3);
+
+  private static AdLayoutCache instance;
+
+  private static final class Entry {
+    final int targetCount;
+    final ArrayDeque<View> views = new ArrayDeque<>();
+    int inflatingCount;
+    // Set when the layout cannot be inflated off the main thread.
+    boolean isDisabled;
+    long hitCount;
+    long missCount;
+    long hitNanos;
+    long missNanos;
+
+    Entry(int targetCount) {
+      this.targetCount = targetCount;
+    }
+  }
+
+  private final Object lock = new Object();
+  // Guarded by lock.
+  private final Map<Integer, Entry> entries = new HashMap<>();
+  private final MessageQueue.IdleHandler refillWhenIdle = this::refillWhenIdle;
+  private Context themedContext;
+  private Handler backgroundHandler;
+  // Only touched on the main thread.
+  private boolean isRefillScheduled;
+
+  public static synchronized AdLayoutCache getInstance() {
+    if (instance == null) {
+      instance = new AdLayoutCache();
+    }
+    return instance;
+  }
+
+  /**
+   * Starts inflating {@code countsByLayout} views of each layout in the background. Call once the
+   * Mobile Ads SDK is initialized. Safe to call from any thread; later calls are ignored.
+   */
+  public void start(@NonNull Context context, @NonNull Map<Integer, Integer> countsByLayout) {
+    synchronized (lock) {
+      if (backgroundHandler != null) {
+        return;
+      }
+      themedContext =
+          new ContextThemeWrapper(context.getApplicationContext(), R.style.Theme_NextGenExample);
+      HandlerThread thread = new HandlerThread("AdLayoutCache");
+      thread.start();
+      backgroundHandler = new Handler(thread.getLooper());
+      for (Map.Entry<Integer, Integer> count : countsByLayout.entrySet()) {
+        entries.put(count.getKey(), new Entry(count.getValue()));
+      }
+      refillLocked();
+    }
+    context.getApplicationContext().registerComponentCallbacks(this);
+  }
+
+  /**
+   * Returns a cached view of {@code layoutRes} bound to {@code context}, or null if none is ready.
+   * The view is not attached to a parent.
+   */
+  @MainThread
+  @Nullable
+  public View poll(@NonNull Context context, @LayoutRes int layoutRes) {
+    View view;
+    synchronized (lock) {
+      Entry entry = entries.get(layoutRes);
+      view = entry == null ? null : entry.views.poll();
+      if (entry != null) {
+        if (view != null) {
+          entry.hitCount++;
+        } else {
+          entry.missCount++;
+        }
+      }
+    }
+    if (view == null) {
+      return null;
+    }
+    ((MutableContextWrapper) view.getContext()).setBaseContext(context);
+    // Refill once the main thread has nothing else to do.
+    if (!isRefillScheduled) {
+      isRefillScheduled = true;
+      Looper.myQueue().addIdleHandler(refillWhenIdle);
+    }
+    return view;
+  }
+
+  /**
+   * Returns a cached view of {@code layoutRes}, or inflates one with {@code inflater}. The view is
+   * not attached to {@code parent}.
+   */
+  @MainThread
+  @NonNull
+  public View inflate(
+      @NonNull LayoutInflater inflater, @LayoutRes int layoutRes, @Nullable ViewGroup parent) {
+    long startNanos = System.nanoTime();
+    View view = poll(inflater.getContext(), layoutRes);
+    boolean isHit = view != null;
+    if (!isHit) {
+      view = inflater.inflate(layoutRes, parent, false);
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+    synchronized (lock) {
+      Entry entry = entries.get(layoutRes);
+      if (entry != null) {
+        if (isHit) {
+          entry.hitNanos += elapsedNanos;
+        } else {
+          entry.missNanos += elapsedNanos;
+        }
+      }
+    }
+    return view;
+  }
+
+  /** Drops all cached views, for example when the system is low on memory. */
+  public void clear() {
+    synchronized (lock) {
+      for (Entry entry : entries.values()) {
+        entry.views.clear();
+      }
+    }
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      clear();
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    clear();
+  }
+
+  @Override
+  public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    // Cached views were inflated with the previous configuration's resources.
+    synchronized (lock) {
+      for (Entry entry : entries.values()) {
+        entry.views.clear();
+      }
+      refillLocked();
+    }
+  }
+
+  /** Returns hit and miss counts and the average display-time inflation per layout. */
+  @NonNull
+  public String describe() {
+    StringBuilder builder = new StringBuilder();
+    synchronized (lock) {
+      for (Map.Entry<Integer, Entry> layoutEntry : entries.entrySet()) {
+        Entry entry = layoutEntry.getValue();
+        String name =
+            themedContext == null
+                ? String.valueOf(layoutEntry.getKey())
+                : themedContext.getResources().getResourceEntryName(layoutEntry.getKey());
+        builder.append(
+            String.format(
+                "%s: cached %d (%.2f ms avg), uncached %d (%.2f ms avg). ",
+                name,
+                entry.hitCount,
+                averageMillis(entry.hitNanos, entry.hitCount),
+                entry.missCount,
+                averageMillis(entry.missNanos, entry.missCount)));
+      }
+    }
+    return builder.toString().trim();
+  }
+
+  private boolean refillWhenIdle() {
+    isRefillScheduled = false;
+    synchronized (lock) {
+      refillLocked();
+    }
+    // Run once.
+    return false;
+  }
+
+  private void refillLocked() {
+    if (backgroundHandler == null) {
+      return;
+    }
+    for (Map.Entry<Integer, Entry> layoutEntry : entries.entrySet()) {
+      int layoutRes = layoutEntry.getKey();
+      Entry entry = layoutEntry.getValue();
+      while (!entry.isDisabled
+          && entry.views.size() + entry.inflatingCount < entry.targetCount) {
+        entry.inflatingCount++;
+        backgroundHandler.post(() -> inflateInBackground(layoutRes, entry));
+      }
+    }
+  }
+
+  private void inflateInBackground(int layoutRes, Entry entry) {
+    View view = null;
+    try {
+      Context context = new MutableContextWrapper(themedContext);
+      // A throwaway parent gives the root view its layout params.
+      view = LayoutInflater.from(context).inflate(layoutRes, new FrameLayout(context), false);
+    } catch (RuntimeException e) {
+      Log.w(Constant.TAG, "Ad layout cannot be inflated in the background: " + e);
+    }
+    synchronized (lock) {
+      entry.inflatingCount--;
+      if (view == null) {
+        entry.isDisabled = true;
+      } else {
+        entry.views.add(view);
+      }
+    }
+  }
+
+  private static double averageMillis(long nanos, long count) {
+    return count == 0 ? 0d : nanos / 1_000_000d / count;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Debug-only singleton that reports destroyed ads that are still reachable some time after their
+ * owner released them, which means something still holds a reference to them.
+ *
+ * <p>The detector is disabled until {@link #install} is called with a debuggable context.
+ */
+public final class AdLeakDetector {
+
+  // Time given to the owner's views and callbacks to drop their references.
+  static final long RETENTION_CHECK_DELAY_MILLIS = 5_000L;
+  // Time given to the runtime to enqueue the references cleared by a collection.
+  private static final long REFERENCE_ENQUEUE_WAIT_MILLIS = 100L;
+
+  private static final AdLeakDetector instance = new AdLeakDetector();
+
+  private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+  private final Set<WatchedReference> watched = new HashSet<>();
+  private final Runnable checkRetained = this::checkRetained;
+  private volatile Handler handler;
+  private long leakCount;
+  // Whether a check is posted for the oldest watched reference.
+  private boolean isCheckScheduled;
+
+  private static final class WatchedReference extends WeakReference<Object> {
+    final String description;
+    final long watchUptimeMillis;
+
+    WatchedReference(Object ad, String ownerName, ReferenceQueue<Object> queue) {
+      super(ad, queue);
+      this.description = ad.getClass().getSimpleName() + " owned by " + ownerName;
+      this.watchUptimeMillis = SystemClock.uptimeMillis();
+    }
+  }
+
+  public static AdLeakDetector getInstance() {
+    return instance;
+  }
+
+  /** Enables leak detection if the app is debuggable. */
+  public synchronized void install(@NonNull Context context) {
+    boolean debuggable =
+        (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    if (!debuggable || handler != null) {
+      return;
+    }
+    HandlerThread thread = new HandlerThread("AdLeakDetector");
+    thread.start();
+    handler = new Handler(thread.getLooper());
+  }
+
+  /** Expects {@code ad}, which was just destroyed, to become unreachable soon. */
+  public void watch(@NonNull Object ad, @NonNull String ownerName) {
+    Handler currentHandler = handler;
+    if (currentHandler == null) {
+      return;
+    }
+    long checkUptimeMillis;
+    synchronized (this) {
+      WatchedReference reference = new WatchedReference(ad, ownerName, queue);
+      watched.add(reference);
+      // A posted check is due no later than this reference, and reschedules for the next one, so
+      // steady churn cannot postpone it.
+      if (isCheckScheduled) {
+        return;
+      }
+      isCheckScheduled = true;
+      checkUptimeMillis = reference.watchUptimeMillis + RETENTION_CHECK_DELAY_MILLIS;
+    }
+    currentHandler.postAtTime(checkRetained, checkUptimeMillis);
+  }
+
+  /** Returns the number of leaked ads reported so far. */
+  public synchronized long getLeakCount() {
+    return leakCount;
+  }
+
+  private void checkRetained() {
+    collectGarbage();
+    synchronized (this) {
+      removeCollected();
+      long deadline = SystemClock.uptimeMillis() - RETENTION_CHECK_DELAY_MILLIS;
+      long oldestWatchUptimeMillis = Long.MAX_VALUE;
+      Iterator<WatchedReference> iterator = watched.iterator();
+      while (iterator.hasNext()) {
+        WatchedReference reference = iterator.next();
+        if (reference.watchUptimeMillis > deadline) {
+          oldestWatchUptimeMillis = Math.min(oldestWatchUptimeMillis, reference.watchUptimeMillis);
+        } else {
+          // Report each leak once.
+          iterator.remove();
+          leakCount++;
+          Log.w(
+              Constant.TAG,
+              "Possible ad leak: destroyed "
+                  + reference.description
+                  + " is still reachable after "
+                  + RETENTION_CHECK_DELAY_MILLIS
+                  + " ms.");
+        }
+      }
+      isCheckScheduled = !watched.isEmpty();
+      if (isCheckScheduled) {
+        handler.postAtTime(checkRetained, oldestWatchUptimeMillis + RETENTION_CHECK_DELAY_MILLIS);
+      }
+    }
+  }
+
+  /**
+   * Runs a garbage collection and waits for the cleared references to be enqueued, which the
+   * runtime does after {@code gc()} returns. Polling right away would report collected ads.
+   */
+  private static void collectGarbage() {
+    Runtime.getRuntime().gc();
+    SystemClock.sleep(REFERENCE_ENQUEUE_WAIT_MILLIS);
+    System.runFinalization();
+  }
+
+  private void removeCollected() {
+    WatchedReference reference;
+    while ((reference = (WatchedReference) queue.poll()) != null) {
+      watched.remove(reference);
+    }
+  }
+}
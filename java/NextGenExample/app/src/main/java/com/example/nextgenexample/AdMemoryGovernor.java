@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Singleton that tracks the estimated memory held by ad objects and releases them when the system
+ * reports memory pressure.
+ *
+ * <p>Ads are registered with a {@link Tier} and an evictor that destroys them. On {@link
+ * #onTrimMemory}, evictable ads are released tier by tier: offscreen inline banners first, then
+ * native video ads, then preload buffers, depending on how severe the trim level is.
+ */
+public final class AdMemoryGovernor implements ComponentCallbacks2 {
+
+  /** Eviction tiers, in the order they are released. */
+  public enum Tier {
+    OFFSCREEN_INLINE_BANNER,
+    NATIVE_VIDEO,
+    PRELOAD_BUFFER
+  }
+
+  // Rough per-ad footprints. Banners and video ads hold a WebView or a decoder, native image ads
+  // hold decoded bitmaps.
+  public static final long BANNER_AD_BYTES = 3L * 1024 * 1024;
+  public static final long NATIVE_IMAGE_AD_BYTES = 1L * 1024 * 1024;
+  public static final long NATIVE_VIDEO_AD_BYTES = 8L * 1024 * 1024;
+  public static final long FULL_SCREEN_AD_BYTES = 4L * 1024 * 1024;
+
+  private static AdMemoryGovernor instance;
+
+  // Guarded by this.
+  private final List<Handle> handles = new ArrayList<>();
+  private final Map<String, Handle> preloadBufferHandles = new HashMap<>();
+  private long evictionCount;
+  private long reclaimedBytes;
+
+  /** A registered ad. Release it when the ad is destroyed by its owner. */
+  public final class Handle {
+    private final Tier tier;
+    private final long estimatedBytes;
+    private final Runnable evictor;
+    private boolean evictable;
+
+    private Handle(Tier tier, long estimatedBytes, Runnable evictor, boolean evictable) {
+      this.tier = tier;
+      this.estimatedBytes = estimatedBytes;
+      this.evictor = evictor;
+      this.evictable = evictable;
+    }
+
+    /**
+     * Sets whether the ad may be evicted, for example whether an inline banner is currently
+     * offscreen.
+     */
+    public void setEvictable(boolean evictable) {
+      synchronized (AdMemoryGovernor.this) {
+        this.evictable = evictable;
+      }
+    }
+
+    /** Stops tracking the ad. Its evictor will not be run. */
+    public void release() {
+      synchronized (AdMemoryGovernor.this) {
+        handles.remove(this);
+        preloadBufferHandles.values().remove(this);
+      }
+    }
+  }
+
+  public static synchronized AdMemoryGovernor getInstance() {
+    if (instance == null) {
+      instance = new AdMemoryGovernor();
+    }
+    return instance;
+  }
+
+  /**
+   * Tracks an ad object.
+   *
+   * @param tier the eviction tier of the ad.
+   * @param estimatedBytes the estimated memory held by the ad.
+   * @param evictor destroys the ad and detaches it from the UI. Runs on the main thread.
+   * @param evictable whether the ad may be evicted right away.
+   * @return a handle to update or release the registration.
+   */
+  @NonNull
+  public synchronized Handle register(
+      @NonNull Tier tier, long estimatedBytes, @NonNull Runnable evictor, boolean evictable) {
+    Handle handle = new Handle(tier, estimatedBytes, evictor, evictable);
+    handles.add(handle);
+    return handle;
+  }
+
+  /**
+   * Tracks the buffer of a preloader, replacing an earlier registration for the same preload ID.
+   * The evictor must not hold a reference to a fragment or activity.
+   */
+  @NonNull
+  public synchronized Handle registerPreloadBuffer(
+      @NonNull String preloadId, long estimatedBytes, @NonNull Runnable evictor) {
+    Handle previous = preloadBufferHandles.remove(preloadId);
+    if (previous != null) {
+      handles.remove(previous);
+    }
+    Handle handle = register(Tier.PRELOAD_BUFFER, estimatedBytes, evictor, true);
+    preloadBufferHandles.put(preloadId, handle);
+    return handle;
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    Tier highestTier;
+    if (level >= TRIM_MEMORY_COMPLETE) {
+      highestTier = Tier.PRELOAD_BUFFER;
+    } else if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+      highestTier = Tier.NATIVE_VIDEO;
+    } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+      highestTier = Tier.OFFSCREEN_INLINE_BANNER;
+    } else {
+      return;
+    }
+    evictUpTo(highestTier);
+  }
+
+  @Override
+  public void onLowMemory() {
+    evictUpTo(Tier.PRELOAD_BUFFER);
+  }
+
+  @Override
+  public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+  /** Returns the estimated memory held by all tracked ads. */
+  public synchronized long getTrackedBytes() {
+    long total = 0;
+    for (Handle handle : handles) {
+      total += handle.estimatedBytes;
+    }
+    return total;
+  }
+
+  /** Returns the number of ads evicted since the process started. */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Returns the estimated memory reclaimed by evictions since the process started. */
+  public synchronized long getReclaimedBytes() {
+    return reclaimedBytes;
+  }
+
+  private void evictUpTo(Tier highestTier) {
+    List<Handle> evicted = new ArrayList<>();
+    synchronized (this) {
+      for (Tier tier : Tier.values()) {
+        if (tier.compareTo(highestTier) > 0) {
+          break;
+        }
+        for (Handle handle : handles) {
+          if (handle.tier == tier && handle.evictable) {
+            evicted.add(handle);
+          }
+        }
+      }
+      for (Handle handle : evicted) {
+        handles.remove(handle);
+        preloadBufferHandles.values().remove(handle);
+        evictionCount++;
+        reclaimedBytes += handle.estimatedBytes;
+      }
+    }
+    // Run evictors outside the lock; they may release other handles.
+    for (Handle handle : evicted) {
+      handle.evictor.run();
+    }
+    if (!evicted.isEmpty()) {
+      Log.i(
+          Constant.TAG,
+          String.format(
+              "Evicted %d ads up to %s. Total evictions: %d, reclaimed: %d KB.",
+              evicted.size(), highestTier, getEvictionCount(), getReclaimedBytes() / 1024));
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the ad objects owned by a view lifecycle and destroys them deterministically when it
+ * ends.
+ *
+ * <p>Ads are destroyed in reverse order of tracking. An ad that is tracked after the lifecycle
+ * ended, for example from a load callback that arrives late, is destroyed right away. Safe to use
+ * from any thread.
+ */
+public final class AdRegistry {
+
+  private final String ownerName;
+  // Preserves tracking order; keyed by identity since ads do not define equality.
+  private final Map<Object, Consumer<Object>> destroyers = new IdentityHashMap<>();
+  private final List<Object> ads = new ArrayList<>();
+  private boolean open;
+
+  /**
+   * @param ownerName the name of the owner, used when reporting leaks. Destroyed ads count toward
+   *     the {@link MainThreadBudgetMonitor} flow of the same name.
+   */
+  public AdRegistry(@NonNull String ownerName) {
+    this.ownerName = ownerName;
+  }
+
+  /** Starts accepting ads. */
+  public synchronized void open() {
+    open = true;
+  }
+
+  /**
+   * Tracks {@code ad} until it is destroyed with {@link #destroy} or {@link #close}.
+   *
+   * @param ad the ad object.
+   * @param destroyer releases the ad, typically a method reference to its {@code destroy()}.
+   * @return {@code true} if the ad is tracked, or {@code false} if the registry is closed and the
+   *     ad was destroyed.
+   */
+  @SuppressWarnings("unchecked")
+  public <A> boolean track(@NonNull A ad, @NonNull Consumer<? super A> destroyer) {
+    synchronized (this) {
+      if (open) {
+        if (destroyers.put(ad, (Consumer<Object>) destroyer) == null) {
+          ads.add(ad);
+        }
+        return true;
+      }
+    }
+    destroyer.accept(ad);
+    return false;
+  }
+
+  /** Destroys {@code ad} if it is tracked, and stops tracking it. */
+  public void destroy(@Nullable Object ad) {
+    if (ad == null) {
+      return;
+    }
+    Consumer<Object> destroyer;
+    synchronized (this) {
+      destroyer = destroyers.remove(ad);
+      if (destroyer == null) {
+        return;
+      }
+      ads.remove(ad);
+    }
+    destroyer.accept(ad);
+    watchReleased(ad);
+  }
+
+  /** Destroys all tracked ads and destroys further ads as soon as they are tracked. */
+  public void close() {
+    List<Object> closedAds;
+    Map<Object, Consumer<Object>> closedDestroyers;
+    synchronized (this) {
+      open = false;
+      closedAds = new ArrayList<>(ads);
+      closedDestroyers = new IdentityHashMap<>(destroyers);
+      ads.clear();
+      destroyers.clear();
+    }
+    for (int i = closedAds.size() - 1; i >= 0; i--) {
+      Object ad = closedAds.get(i);
+      closedDestroyers.get(ad).accept(ad);
+      watchReleased(ad);
+    }
+  }
+
+  /** Expects the destroyed {@code ad} to become unreachable. */
+  private void watchReleased(Object ad) {
+    AdLeakDetector.getInstance().watch(ad, ownerName);
+    MainThreadBudgetMonitor.getInstance().watchReleased(ownerName, ad);
+  }
+
+  /** Returns the number of ads currently tracked. */
+  public synchronized int size() {
+    return ads.size();
+  }
+}
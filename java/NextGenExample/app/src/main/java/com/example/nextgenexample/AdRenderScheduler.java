@@ -0,0 +1,284 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Splits ad rendering into preparation off the main thread and short commits on it.
+ *
+ * <p>Layouts come from the {@link AdLayoutCache} or are inflated with {@link
+ * AsyncLayoutInflater}, and other preparation, such as precomputing text or decoding assets, runs
+ * on a background thread. The commits that attach and bind the prepared views run before the next
+ * frame within a per-frame time budget. Urgent commits always run; deferrable commits that do not
+ * fit the budget move to the next frame, and at least one commit runs per frame. Main-thread time
+ * is recorded per ad.
+ */
+public final class AdRenderScheduler implements Choreographer.FrameCallback {
+
+  /** Whether a commit may be moved to a later frame. */
+  public enum Urgency {
+    /** Runs in the next frame regardless of the budget, for example the first ad on screen. */
+    URGENT,
+    /** Runs in the next frame with room in the budget. */
+    DEFERRABLE
+  }
+
+  private static final class Commit {
+    final String adKey;
+    final Urgency urgency;
+    final Runnable action;
+    boolean isDeferred;
+
+    Commit(String adKey, Urgency urgency, Runnable action) {
+      this.adKey = adKey;
+      this.urgency = urgency;
+      this.action = action;
+    }
+  }
+
+  private final long frameBudgetNanos;
+  private final Context context;
+  private final Choreographer choreographer;
+  private final AsyncLayoutInflater inflater;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final HandlerThread prepareThread = new HandlerThread("AdRenderScheduler");
+  private final Handler prepareHandler;
+  private final Object lock = new Object();
+
+  // Guarded by lock.
+  private final ArrayDeque<Commit> pendingCommits = new ArrayDeque<>();
+  private boolean frameScheduled;
+  private boolean released;
+
+  // Only touched on the main thread.
+  private final ArrayList<Commit> runningCommits = new ArrayList<>();
+  private final ArrayList<Commit> deferredCommits = new ArrayList<>();
+  private final Map<String, Long> mainThreadNanosByAd = new HashMap<>();
+  private long commitCount;
+  private long deferredCommitCount;
+
+  /**
+   * @param context the context whose theme inflates layouts.
+   * @param frameBudgetMillis the main-thread time per frame available to deferrable commits.
+   */
+  @MainThread
+  public AdRenderScheduler(@NonNull Context context, long frameBudgetMillis) {
+    this.frameBudgetNanos = frameBudgetMillis * 1_000_000L;
+    this.context = context;
+    this.choreographer = Choreographer.getInstance();
+    this.inflater = new AsyncLayoutInflater(context);
+    prepareThread.start();
+    prepareHandler = new Handler(prepareThread.getLooper());
+  }
+
+  /**
+   * Inflates {@code layoutRes} off the main thread and passes the view to {@code onInflated} on the
+   * main thread, without attaching it to {@code parent}. Safe to call from any thread.
+   */
+  public void inflate(
+      @NonNull String adKey,
+      @LayoutRes int layoutRes,
+      @Nullable ViewGroup parent,
+      @NonNull Consumer<View> onInflated) {
+    // AsyncLayoutInflater must be called on the main thread.
+    mainHandler.post(
+        () -> {
+          if (isReleased()) {
+            return;
+          }
+          // Use a view inflated ahead of time when one is ready.
+          View cachedView = AdLayoutCache.getInstance().poll(context, layoutRes);
+          if (cachedView != null) {
+            long startNanos = System.nanoTime();
+            onInflated.accept(cachedView);
+            recordMainThreadTime(adKey, System.nanoTime() - startNanos);
+            return;
+          }
+          inflater.inflate(
+              layoutRes,
+              parent,
+              (view, unusedResId, unusedParent) -> {
+                if (isReleased()) {
+                  return;
+                }
+                long startNanos = System.nanoTime();
+                onInflated.accept(view);
+                recordMainThreadTime(adKey, System.nanoTime() - startNanos);
+              });
+        });
+  }
+
+  /**
+   * Runs {@code work} on a background thread, then commits its result with {@code commit}. Safe to
+   * call from any thread.
+   */
+  public <T> void prepare(
+      @NonNull String adKey,
+      @NonNull Urgency urgency,
+      @NonNull Supplier<T> work,
+      @NonNull Consumer<T> commit) {
+    prepareHandler.post(
+        () -> {
+          if (isReleased()) {
+            return;
+          }
+          T result = work.get();
+          commit(adKey, urgency, () -> commit.accept(result));
+        });
+  }
+
+  /** Runs {@code action} on the main thread before a coming frame. Safe to call from any thread. */
+  public void commit(@NonNull String adKey, @NonNull Urgency urgency, @NonNull Runnable action) {
+    synchronized (lock) {
+      if (released) {
+        return;
+      }
+      pendingCommits.add(new Commit(adKey, urgency, action));
+      if (frameScheduled) {
+        return;
+      }
+      frameScheduled = true;
+    }
+    // Choreographer synchronizes internally, so this may be called off the main thread.
+    choreographer.postFrameCallback(this);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    synchronized (lock) {
+      frameScheduled = false;
+      if (released) {
+        return;
+      }
+      runningCommits.addAll(pendingCommits);
+      pendingCommits.clear();
+    }
+    long frameStartNanos = System.nanoTime();
+    int ranCount = 0;
+    for (int i = 0; i < runningCommits.size(); i++) {
+      Commit commit = runningCommits.get(i);
+      boolean isOverBudget = System.nanoTime() - frameStartNanos >= frameBudgetNanos;
+      if (commit.urgency == Urgency.DEFERRABLE && isOverBudget && ranCount > 0) {
+        if (!commit.isDeferred) {
+          commit.isDeferred = true;
+          deferredCommitCount++;
+        }
+        deferredCommits.add(commit);
+        continue;
+      }
+      long startNanos = System.nanoTime();
+      commit.action.run();
+      recordMainThreadTime(commit.adKey, System.nanoTime() - startNanos);
+      commitCount++;
+      ranCount++;
+    }
+    runningCommits.clear();
+    if (!deferredCommits.isEmpty()) {
+      deferToNextFrame();
+    }
+  }
+
+  private void deferToNextFrame() {
+    synchronized (lock) {
+      // Deferred commits stay ahead of commits queued during this frame.
+      for (int i = deferredCommits.size() - 1; i >= 0; i--) {
+        pendingCommits.addFirst(deferredCommits.get(i));
+      }
+      deferredCommits.clear();
+      if (released || frameScheduled) {
+        return;
+      }
+      frameScheduled = true;
+    }
+    choreographer.postFrameCallback(this);
+  }
+
+  /** Drops pending work and stops the background thread. Logs the counters. */
+  @MainThread
+  public void release() {
+    synchronized (lock) {
+      released = true;
+      pendingCommits.clear();
+    }
+    choreographer.removeFrameCallback(this);
+    prepareThread.quit();
+    Log.d(
+        Constant.TAG,
+        String.format(
+            "Ad render commits: %d, deferred: %d. Main thread ms per ad: %s.",
+            commitCount, deferredCommitCount, describeMainThreadMillis()));
+  }
+
+  /** Returns the number of commits that ran. */
+  @MainThread
+  public long getCommitCount() {
+    return commitCount;
+  }
+
+  /** Returns the number of commits that were moved to a later frame at least once. */
+  @MainThread
+  public long getDeferredCommitCount() {
+    return deferredCommitCount;
+  }
+
+  /** Returns the main-thread time spent inflating callbacks and commits for {@code adKey}. */
+  @MainThread
+  public double getMainThreadMillis(@NonNull String adKey) {
+    Long nanos = mainThreadNanosByAd.get(adKey);
+    return nanos == null ? 0d : nanos / 1_000_000d;
+  }
+
+  private String describeMainThreadMillis() {
+    StringBuilder builder = new StringBuilder("{");
+    for (String adKey : mainThreadNanosByAd.keySet()) {
+      if (builder.length() > 1) {
+        builder.append(", ");
+      }
+      builder.append(adKey).append('=').append(String.format("%.2f", getMainThreadMillis(adKey)));
+    }
+    return builder.append('}').toString();
+  }
+
+  private void recordMainThreadTime(String adKey, long nanos) {
+    Long totalNanos = mainThreadNanosByAd.get(adKey);
+    mainThreadNanosByAd.put(adKey, totalNanos == null ? nanos : totalNanos + nanos);
+  }
+
+  private boolean isReleased() {
+    synchronized (lock) {
+      return released;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.annotation.SuppressLint;
+import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.nextgenexample.databinding.ExampleListItemBinding;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binds the {@link ExampleRegistry.Example}s to a {@link RecyclerView}. Item IDs are the examples'
+ * navigation actions, so they stay stable across views. Entries report when they are pressed,
+ * ahead of the click.
+ */
+final class ExampleAdapter extends RecyclerView.Adapter<ExampleAdapter.ViewHolder> {
+
+  private final List<ExampleRegistry.Example> examples;
+  private final Consumer<ExampleRegistry.Example> onPress;
+  private final Consumer<ExampleRegistry.Example> onClick;
+
+  static final class ViewHolder extends RecyclerView.ViewHolder {
+    private final ExampleListItemBinding binding;
+    private ExampleRegistry.Example example;
+
+    ViewHolder(ExampleListItemBinding binding) {
+      super(binding.getRoot());
+      this.binding = binding;
+    }
+  }
+
+  ExampleAdapter(
+      @NonNull List<ExampleRegistry.Example> examples,
+      @NonNull Consumer<ExampleRegistry.Example> onPress,
+      @NonNull Consumer<ExampleRegistry.Example> onClick) {
+    this.examples = examples;
+    this.onPress = onPress;
+    this.onClick = onClick;
+    setHasStableIds(true);
+  }
+
+  // The touch listener only observes the press; the click listener still handles the click.
+  @SuppressLint("ClickableViewAccessibility")
+  @NonNull
+  @Override
+  public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+    ViewHolder holder = new ViewHolder(ExampleListItemBinding.inflate(inflater, parent, false));
+    // One listener per holder, reading the example bound last.
+    holder.binding.getRoot().setOnClickListener(view -> onClick.accept(holder.example));
+    holder
+        .binding
+        .getRoot()
+        .setOnTouchListener(
+            (view, event) -> {
+              if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                onPress.accept(holder.example);
+              }
+              return false;
+            });
+    return holder;
+  }
+
+  @Override
+  public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+    holder.example = examples.get(position);
+    holder.binding.exampleTitle.setText(holder.example.titleResId());
+  }
+
+  @Override
+  public int getItemCount() {
+    return examples.size();
+  }
+
+  @Override
+  public long getItemId(int position) {
+    return examples.get(position).navActionId();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.StringRes;
+import java.util.List;
+
+/**
+ * Singleton that lists the ad examples shown by {@link MenuFragment}. The list is built once per
+ * process and shared by every menu view.
+ */
+public final class ExampleRegistry {
+
+  /**
+   * An ad example.
+   *
+   * @param titleResId the title shown in the menu.
+   * @param navActionId the navigation action from the menu to the example, which is unique.
+   */
+  public record Example(@StringRes int titleResId, @IdRes int navActionId) {}
+
+  private static ExampleRegistry instance;
+
+  private final List<Example> examples;
+
+  public static synchronized ExampleRegistry getInstance() {
+    if (instance == null) {
+      instance = new ExampleRegistry();
+    }
+    return instance;
+  }
+
+  private ExampleRegistry() {
+    examples =
+        List.of(
+            new Example(R.string.app_open, R.id.action_MenuFragment_to_AppOpenFragment),
+            new Example(R.string.banner, R.id.action_MenuFragment_to_BannerFragment),
+            new Example(
+                R.string.collapsible_banner,
+                R.id.action_MenuFragment_to_CollapsibleBannerFragment),
+            new Example(
+                R.string.inline_banner, R.id.action_MenuFragment_to_InlineBannerFragment),
+            new Example(
+                R.string.interstitial_single_load,
+                R.id.action_MenuFragment_to_InterstitialSingleLoadFragment),
+            new Example(
+                R.string.rewarded_single_load,
+                R.id.action_MenuFragment_to_RewardedSingleLoadFragment),
+            new Example(R.string.native_ad, R.id.action_MenuFragment_to_NativeFragment),
+            new Example(R.string.preloading, R.id.action_MenuFragment_to_PreloadingFragment),
+            new Example(
+                R.string.full_screen_native,
+                R.id.action_MenuFragment_to_FullScreenNativeControllerFragment),
+            new Example(R.string.custom_native, R.id.action_MenuFragment_to_CustomNativeFragment),
+            new Example(
+                R.string.rewarded_interstitial_single_load,
+                R.id.action_MenuFragment_to_RewardedInterstitialSingleLoadFragment),
+            new Example(R.string.icon_ad, R.id.action_MenuFragment_to_IconFragment),
+            new Example(
+                R.string.webview_api_for_ads, R.id.action_MenuFragment_to_InAppBrowserFragment),
+            new Example(
+                R.string.ad_manager_multiple_ad_sizes,
+                R.id.action_MenuFragment_to_AdManagerMultipleAdSizesFragment),
+            new Example(
+                R.string.ad_manager_category_exclusion,
+                R.id.action_MenuFragment_to_AdManagerCategoryExclusionFragment),
+            new Example(
+                R.string.ad_manager_fluid_size,
+                R.id.action_MenuFragment_to_AdManagerFluidSizeFragment),
+            new Example(
+                R.string.ad_manager_custom_targeting,
+                R.id.action_MenuFragment_to_AdManagerCustomTargetingFragment));
+  }
+
+  /** Returns the examples in menu order. */
+  @NonNull
+  public List<Example> getExamples() {
+    return examples;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how much of each ad slot in a {@link RecyclerView} is on screen, and for how long.
+ *
+ * <p>One pre-draw listener per list evaluates the attached slots on every frame, so the cost is
+ * independent of the number of ads and scrolling allocates nothing. A slot is in view while at
+ * least a given fraction of it is visible, and becomes viewable once it stays in view for a given
+ * continuous time.
+ */
+@MainThread
+public final class FeedVisibilityTracker implements ViewTreeObserver.OnPreDrawListener {
+
+  /** Receives viewability events. */
+  public interface Listener {
+    /** Called once when {@code slot} first stays in view long enough to count as viewable. */
+    void onSlotViewable(@NonNull Slot slot);
+  }
+
+  /** Visibility metrics of one ad slot. */
+  public static final class Slot {
+    private final Object key;
+    @Nullable private View view;
+    private float visibleFraction;
+    private float maxVisibleFraction;
+    private long inViewSinceMillis = -1L;
+    private long inViewMillis;
+    private boolean isViewable;
+
+    private Slot(Object key) {
+      this.key = key;
+    }
+
+    /** Returns the key the slot was registered with. */
+    @NonNull
+    public Object getKey() {
+      return key;
+    }
+
+    /** Returns the fraction of the slot visible in the last frame. */
+    public float getVisibleFraction() {
+      return visibleFraction;
+    }
+
+    /** Returns the largest fraction of the slot that was ever visible. */
+    public float getMaxVisibleFraction() {
+      return maxVisibleFraction;
+    }
+
+    /** Returns the total time the slot spent in view, including the current period. */
+    public long getInViewMillis(long nowMillis) {
+      return inViewMillis + getContinuousInViewMillis(nowMillis);
+    }
+
+    /** Returns how long the slot has been in view without interruption, or 0 if it is not. */
+    public long getContinuousInViewMillis(long nowMillis) {
+      return inViewSinceMillis < 0 ? 0L : nowMillis - inViewSinceMillis;
+    }
+
+    /** Returns whether the slot has been viewable. */
+    public boolean isViewable() {
+      return isViewable;
+    }
+  }
+
+  private final Clock clock;
+  private final float inViewFraction;
+  private final long viewableMillis;
+  @Nullable private final Listener listener;
+  private final Map<Object, Slot> slots = new HashMap<>();
+  // Only attached slots are evaluated per frame.
+  private final List<Slot> attachedSlots = new ArrayList<>();
+  private final Rect visibleRect = new Rect();
+  // Re-evaluates when a slot may turn viewable while nothing is drawn.
+  private final Runnable checkViewable = this::checkViewable;
+  private long scheduledCheckMillis = Long.MAX_VALUE;
+  private RecyclerView recyclerView;
+
+  /**
+   * @param clock a monotonic time source, such as {@code SystemClock::elapsedRealtime}, so that
+   *     time in view is not skewed when the wall clock changes.
+   * @param inViewFraction the fraction of a slot that must be visible for it to be in view.
+   * @param viewableMillis the continuous time in view after which a slot is viewable.
+   * @param listener receives viewability events.
+   */
+  public FeedVisibilityTracker(
+      @NonNull Clock clock,
+      float inViewFraction,
+      long viewableMillis,
+      @Nullable Listener listener) {
+    this.clock = clock;
+    this.inViewFraction = inViewFraction;
+    this.viewableMillis = viewableMillis;
+    this.listener = listener;
+  }
+
+  /** Starts tracking the slots shown in {@code recyclerView}. */
+  public void attach(@NonNull RecyclerView recyclerView) {
+    detach();
+    this.recyclerView = recyclerView;
+    recyclerView.getViewTreeObserver().addOnPreDrawListener(this);
+  }
+
+  /** Stops tracking and closes the in-view period of all attached slots. */
+  public void detach() {
+    if (recyclerView == null) {
+      return;
+    }
+    recyclerView.getViewTreeObserver().removeOnPreDrawListener(this);
+    recyclerView.removeCallbacks(checkViewable);
+    scheduledCheckMillis = Long.MAX_VALUE;
+    recyclerView = null;
+    long nowMillis = clock.millis();
+    for (int i = 0; i < attachedSlots.size(); i++) {
+      Slot slot = attachedSlots.get(i);
+      setVisibleFraction(slot, 0f, nowMillis);
+      slot.view = null;
+    }
+    attachedSlots.clear();
+  }
+
+  /** Returns the slot registered for {@code key}, creating it if needed. */
+  @NonNull
+  public Slot getSlot(@NonNull Object key) {
+    Slot slot = slots.get(key);
+    if (slot == null) {
+      slot = new Slot(key);
+      slots.put(key, slot);
+    }
+    return slot;
+  }
+
+  /** Returns all slots registered so far. */
+  @NonNull
+  public Iterable<Slot> getSlots() {
+    return slots.values();
+  }
+
+  /** Records that the slot for {@code key} is shown in {@code view}, typically on attach. */
+  public void onSlotAttached(@NonNull Object key, @NonNull View view) {
+    Slot slot = getSlot(key);
+    if (slot.view == null) {
+      attachedSlots.add(slot);
+    }
+    slot.view = view;
+  }
+
+  /** Records that the slot for {@code key} is no longer shown, typically on detach or recycle. */
+  public void onSlotDetached(@NonNull Object key) {
+    Slot slot = slots.get(key);
+    if (slot == null || slot.view == null) {
+      return;
+    }
+    setVisibleFraction(slot, 0f, clock.millis());
+    slot.view = null;
+    attachedSlots.remove(slot);
+  }
+
+  @Override
+  public boolean onPreDraw() {
+    update();
+    return true;
+  }
+
+  private void update() {
+    if (recyclerView == null) {
+      return;
+    }
+    long nowMillis = clock.millis();
+    long nextViewableMillis = Long.MAX_VALUE;
+    for (int i = 0; i < attachedSlots.size(); i++) {
+      Slot slot = attachedSlots.get(i);
+      setVisibleFraction(slot, computeVisibleFraction(slot.view), nowMillis);
+      if (slot.inViewSinceMillis >= 0 && !slot.isViewable) {
+        nextViewableMillis = Math.min(nextViewableMillis, slot.inViewSinceMillis + viewableMillis);
+      }
+    }
+    // Reschedule only when the deadline moves, not on every frame.
+    if (nextViewableMillis != scheduledCheckMillis) {
+      recyclerView.removeCallbacks(checkViewable);
+      scheduledCheckMillis = nextViewableMillis;
+      if (nextViewableMillis != Long.MAX_VALUE) {
+        recyclerView.postDelayed(checkViewable, Math.max(0L, nextViewableMillis - nowMillis));
+      }
+    }
+  }
+
+  private void checkViewable() {
+    scheduledCheckMillis = Long.MAX_VALUE;
+    update();
+  }
+
+  private void setVisibleFraction(Slot slot, float visibleFraction, long nowMillis) {
+    slot.visibleFraction = visibleFraction;
+    slot.maxVisibleFraction = Math.max(slot.maxVisibleFraction, visibleFraction);
+    boolean isInView = visibleFraction >= inViewFraction && visibleFraction > 0f;
+    if (isInView && slot.inViewSinceMillis < 0) {
+      slot.inViewSinceMillis = nowMillis;
+    } else if (!isInView && slot.inViewSinceMillis >= 0) {
+      slot.inViewMillis += nowMillis - slot.inViewSinceMillis;
+      slot.inViewSinceMillis = -1L;
+    }
+    if (isInView && !slot.isViewable && nowMillis - slot.inViewSinceMillis >= viewableMillis) {
+      slot.isViewable = true;
+      if (listener != null) {
+        listener.onSlotViewable(slot);
+      }
+    }
+  }
+
+  private float computeVisibleFraction(View view) {
+    long area = (long) view.getWidth() * view.getHeight();
+    if (area == 0
+        || !view.isShown()
+        || view.getWindowVisibility() != View.VISIBLE
+        || !view.getGlobalVisibleRect(visibleRect)) {
+      return 0f;
+    }
+    return (float) ((long) visibleRect.width() * visibleRect.height()) / area;
+  }
+}
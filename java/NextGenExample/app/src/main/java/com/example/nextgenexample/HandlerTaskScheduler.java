@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+
+/** A {@link TaskScheduler} that runs tasks on the thread of a {@link Looper}. */
+public final class HandlerTaskScheduler implements TaskScheduler {
+
+  private final Handler handler;
+
+  public HandlerTaskScheduler(@NonNull Looper looper) {
+    handler = new Handler(looper);
+  }
+
+  @Override
+  public void post(@NonNull Runnable task) {
+    handler.post(task);
+  }
+
+  @Override
+  public void postDelayed(@NonNull Runnable task, long delayMillis) {
+    handler.postDelayed(task, delayMillis);
+  }
+
+  @Override
+  public void cancel(@NonNull Runnable task) {
+    handler.removeCallbacks(task);
+  }
+}
@@ -25,7 +25,9 @@ import androidx.navigation.NavController;
 import androidx.navigation.Navigation;
 import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
+import com.example.nextgenexample.backend.AdBackends;
 import com.example.nextgenexample.databinding.ActivityMainBinding;
+import com.example.nextgenexample.prefetch.NavigationPrefetcher;
 
 /** An activity showing a list of ad formats. */
 public class MainActivity extends AppCompatActivity {
@@ -46,6 +48,8 @@ public class MainActivity extends AppCompatActivity {
         Navigation.findNavController(this, R.id.nav_host_fragment_content_main);
     appBarConfiguration = new AppBarConfiguration.Builder(navController.getGraph()).build();
     NavigationUI.setupActionBarWithNavController(this, navController, appBarConfiguration);
+    // Prefetch ads for the destinations the user is likely to open from the menu.
+    navController.addOnDestinationChangedListener(NavigationPrefetcher.getInstance());
 
     googleMobileAdsConsentManager =
         GoogleMobileAdsConsentManager.getInstance(getApplicationContext());
@@ -64,6 +68,9 @@ public class MainActivity extends AppCompatActivity {
     MenuItem privacySettingsItem = menu.findItem(R.id.privacy_settings);
     privacySettingsItem
         .setVisible(googleMobileAdsConsentManager.isPrivacyOptionsRequired());
+    MenuItem fakeAdBackendItem = menu.findItem(R.id.fake_ad_backend);
+    fakeAdBackendItem.setVisible(AdBackends.isDebuggable(this));
+    fakeAdBackendItem.setChecked(AdBackends.isFakeAdBackendEnabled(this));
     return true;
   }
 
@@ -80,6 +87,15 @@ public class MainActivity extends AppCompatActivity {
           });
       return true;
     }
+    if (item.getItemId() == R.id.fake_ad_backend) {
+      // The backend is chosen when the application starts. Examples that call the SDK directly,
+      // such as those that load into an AdView, do not use it.
+      boolean isEnabled = !item.isChecked();
+      item.setChecked(isEnabled);
+      AdBackends.setFakeAdBackendEnabled(this, isEnabled);
+      Toast.makeText(this, R.string.fake_ad_backend_restart, Toast.LENGTH_SHORT).show();
+      return true;
+    }
     return super.onOptionsItemSelected(item);
   }
 
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.Printer;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Debug-only singleton that measures the main-thread cost of each ad flow against a {@link
+ * Budget} and reports flows that exceed it.
+ *
+ * <p>A flow runs from a fragment's view creation, through loading and showing its ads, to the
+ * view's destruction. During a flow the monitor counts the messages the main looper dispatches,
+ * their total and longest duration, and the bytes the process allocates. Objects the flow released,
+ * such as its destroyed ads and view, that are still reachable {@link
+ * #RETENTION_CHECK_DELAY_MILLIS} after it count as retained; the monitor runs a garbage collection
+ * on the main thread to tell. The cost of the last run of each flow is kept as a {@link Report}.
+ * The monitor is disabled until {@link #install} is called with a debuggable context.
+ *
+ * <p>Messages are timed with the looper's message logging, for which the looper builds a line of
+ * text before and after every message. The monitor therefore sets its printer only while a flow
+ * runs, passes every line on to the printer that was set before, and restores that printer when
+ * the last flow ends.
+ */
+public final class MainThreadBudgetMonitor {
+
+  /**
+   * The main-thread cost a flow may have.
+   *
+   * @param maxMessages the maximum number of messages dispatched on the main thread.
+   * @param maxBusyMillis the maximum total time spent dispatching those messages.
+   * @param maxMessageMillis the maximum time of a single message.
+   * @param maxAllocatedBytes the maximum bytes allocated by the process.
+   * @param maxRetainedObjects the maximum number of released objects still reachable after the
+   *     flow.
+   */
+  public record Budget(
+      int maxMessages,
+      long maxBusyMillis,
+      long maxMessageMillis,
+      long maxAllocatedBytes,
+      int maxRetainedObjects) {
+
+    /** The budget of a flow that loads, shows and destroys a few ads. */
+    public static final Budget DEFAULT = new Budget(5_000, 1_500L, 48L, 64L << 20, 0);
+  }
+
+  /**
+   * The cost of a flow.
+   *
+   * @param flow the name of the flow.
+   * @param budget the budget the flow was measured against.
+   * @param messageCount the number of messages dispatched on the main thread.
+   * @param busyMillis the total time spent dispatching those messages.
+   * @param longestMessageMillis the time of the longest message.
+   * @param allocatedBytes the bytes allocated by the process.
+   * @param retainedObjects the number of released objects still reachable after the flow.
+   */
+  public record Report(
+      String flow,
+      Budget budget,
+      int messageCount,
+      long busyMillis,
+      long longestMessageMillis,
+      long allocatedBytes,
+      int retainedObjects) {
+
+    /** Returns whether the flow's main-thread cost exceeds its budget. */
+    public boolean isMainThreadOverBudget() {
+      return messageCount > budget.maxMessages()
+          || busyMillis > budget.maxBusyMillis()
+          || longestMessageMillis > budget.maxMessageMillis()
+          || allocatedBytes > budget.maxAllocatedBytes();
+    }
+
+    /** Returns whether the flow exceeds any part of its budget. */
+    public boolean isOverBudget() {
+      return isMainThreadOverBudget() || retainedObjects > budget.maxRetainedObjects();
+    }
+  }
+
+  /** Time given to the owner's views and callbacks to drop their references after a flow. */
+  @VisibleForTesting
+  static final long RETENTION_CHECK_DELAY_MILLIS = AdLeakDetector.RETENTION_CHECK_DELAY_MILLIS;
+
+  // The looper's printer, which has no public getter. Null if the field cannot be read.
+  @Nullable private static final Field LOGGING_FIELD = findLoggingField();
+
+  private static MainThreadBudgetMonitor instance;
+
+  private static final class Flow {
+    final String name;
+    final Budget budget;
+    final long startAllocatedBytes;
+    // The objects released during the flow.
+    final List<WeakReference<Object>> released = new ArrayList<>();
+    int messageCount;
+    long busyNanos;
+    long longestMessageNanos;
+
+    Flow(String name, Budget budget, long startAllocatedBytes) {
+      this.name = name;
+      this.budget = budget;
+      this.startAllocatedBytes = startAllocatedBytes;
+    }
+  }
+
+  private final Looper looper;
+  private final LongSupplier nanoTime;
+  private final LongSupplier allocatedBytes;
+  private final Handler mainHandler;
+  private final DispatchPrinter printer = new DispatchPrinter();
+  // Only touched on the main thread.
+  private final Map<String, Flow> activeFlows = new HashMap<>();
+  // The report of the last completed run of each flow. Only touched on the main thread.
+  private final Map<String, Report> reports = new HashMap<>();
+  private long dispatchStartNanos = -1L;
+  private boolean installed;
+  private long overBudgetCount;
+
+  @VisibleForTesting
+  MainThreadBudgetMonitor(
+      @NonNull Looper looper,
+      @NonNull LongSupplier nanoTime,
+      @NonNull LongSupplier allocatedBytes) {
+    this.looper = looper;
+    this.nanoTime = nanoTime;
+    this.allocatedBytes = allocatedBytes;
+    mainHandler = new Handler(looper);
+  }
+
+  public static synchronized MainThreadBudgetMonitor getInstance() {
+    if (instance == null) {
+      instance =
+          new MainThreadBudgetMonitor(
+              Looper.getMainLooper(), System::nanoTime, MainThreadBudgetMonitor::getAllocatedBytes);
+    }
+    return instance;
+  }
+
+  /** Replaces the monitor that {@link #getInstance} returns. */
+  @VisibleForTesting
+  static synchronized void setInstance(@NonNull MainThreadBudgetMonitor monitor) {
+    instance = monitor;
+  }
+
+  /** Enables the monitor if the app is debuggable. */
+  @MainThread
+  public void install(@NonNull Context context) {
+    boolean debuggable =
+        (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    if (debuggable) {
+      installed = true;
+    }
+  }
+
+  /** Starts measuring the flow {@code name}. Restarts the flow if it is already running. */
+  @MainThread
+  public void beginFlow(@NonNull String name, @NonNull Budget budget) {
+    if (!installed) {
+      return;
+    }
+    if (activeFlows.isEmpty()) {
+      attachPrinter();
+    }
+    activeFlows.put(name, new Flow(name, budget, allocatedBytes.getAsLong()));
+  }
+
+  /**
+   * Expects {@code object}, which the flow {@code name} released, to be unreachable once the
+   * retention check after the flow runs. Ignored unless the flow is running. Safe to call from any
+   * thread.
+   */
+  public void watchReleased(@NonNull String name, @NonNull Object object) {
+    if (Looper.myLooper() != looper) {
+      mainHandler.post(() -> watchReleased(name, object));
+      return;
+    }
+    Flow flow = activeFlows.get(name);
+    if (flow != null) {
+      flow.released.add(new WeakReference<>(object));
+    }
+  }
+
+  /**
+   * Stops measuring the flow {@code name} and reports its main-thread cost. Its retained objects
+   * are counted {@link #RETENTION_CHECK_DELAY_MILLIS} later, which completes its {@link Report}.
+   */
+  @MainThread
+  public void endFlow(@NonNull String name) {
+    Flow flow = activeFlows.remove(name);
+    if (flow == null) {
+      return;
+    }
+    if (activeFlows.isEmpty()) {
+      detachPrinter();
+    }
+    Budget budget = flow.budget;
+    long busyMillis = flow.busyNanos / 1_000_000L;
+    long longestMessageMillis = flow.longestMessageNanos / 1_000_000L;
+    long flowAllocatedBytes = allocatedBytes.getAsLong() - flow.startAllocatedBytes;
+    String summary =
+        String.format(
+            "%s main thread: %d messages, %d ms busy, longest %d ms, %d KiB allocated.",
+            name, flow.messageCount, busyMillis, longestMessageMillis, flowAllocatedBytes >> 10);
+    Report mainThreadReport =
+        new Report(
+            name,
+            budget,
+            flow.messageCount,
+            busyMillis,
+            longestMessageMillis,
+            flowAllocatedBytes,
+            0);
+    if (mainThreadReport.isMainThreadOverBudget()) {
+      overBudgetCount++;
+      Log.w(Constant.TAG, "Over budget " + budget + ". " + summary);
+    } else {
+      Log.d(Constant.TAG, summary);
+    }
+    mainHandler.postDelayed(
+        () -> checkRetained(mainThreadReport, flow.released), RETENTION_CHECK_DELAY_MILLIS);
+  }
+
+  /** Returns the number of flows that exceeded their budget so far. */
+  @MainThread
+  public long getOverBudgetCount() {
+    return overBudgetCount;
+  }
+
+  /**
+   * Returns the cost of the last run of the flow {@code name} whose retention check ran, or null
+   * if there is none.
+   */
+  @MainThread
+  @Nullable
+  public Report getReport(@NonNull String name) {
+    return reports.get(name);
+  }
+
+  /** Times each message between the lines the looper prints before and after it. */
+  private final class DispatchPrinter implements Printer {
+    // The printer that was set before this one; it receives every line too.
+    @Nullable Printer previous;
+
+    @Override
+    public void println(String line) {
+      // The previous printer's time is kept out of the message's duration.
+      if (line.startsWith(">")) {
+        if (previous != null) {
+          previous.println(line);
+        }
+        dispatchStartNanos = nanoTime.getAsLong();
+        return;
+      }
+      if (line.startsWith("<") && dispatchStartNanos >= 0) {
+        onMessageDispatched(nanoTime.getAsLong() - dispatchStartNanos);
+        dispatchStartNanos = -1L;
+      }
+      if (previous != null) {
+        previous.println(line);
+      }
+    }
+  }
+
+  private void attachPrinter() {
+    printer.previous = getMessageLogging(looper);
+    looper.setMessageLogging(printer);
+  }
+
+  private void detachPrinter() {
+    // A printer that replaced this one since stays in place, unless it cannot be read.
+    if (LOGGING_FIELD == null || getMessageLogging(looper) == printer) {
+      looper.setMessageLogging(printer.previous);
+    }
+    printer.previous = null;
+    dispatchStartNanos = -1L;
+  }
+
+  private void onMessageDispatched(long durationNanos) {
+    for (Flow flow : activeFlows.values()) {
+      flow.messageCount++;
+      flow.busyNanos += durationNanos;
+      flow.longestMessageNanos = Math.max(flow.longestMessageNanos, durationNanos);
+    }
+  }
+
+  /** Counts the objects the flow released that are still reachable, and completes its report. */
+  private void checkRetained(Report mainThreadReport, List<WeakReference<Object>> released) {
+    int retainedObjects = 0;
+    if (!released.isEmpty()) {
+      // A collection clears the references to unreachable objects before it returns; only their
+      // enqueueing is deferred.
+      Runtime.getRuntime().gc();
+      for (WeakReference<Object> reference : released) {
+        if (reference.get() != null) {
+          retainedObjects++;
+        }
+      }
+    }
+    Report report =
+        new Report(
+            mainThreadReport.flow(),
+            mainThreadReport.budget(),
+            mainThreadReport.messageCount(),
+            mainThreadReport.busyMillis(),
+            mainThreadReport.longestMessageMillis(),
+            mainThreadReport.allocatedBytes(),
+            retainedObjects);
+    reports.put(report.flow(), report);
+    if (retainedObjects > report.budget().maxRetainedObjects()) {
+      overBudgetCount++;
+      Log.w(
+          Constant.TAG,
+          report.flow() + " retained " + retainedObjects + " released objects after it ended.");
+    }
+  }
+
+  /** Returns the printer set on {@code looper}, or null if there is none or it cannot be read. */
+  @VisibleForTesting
+  @Nullable
+  static Printer getMessageLogging(@NonNull Looper looper) {
+    if (LOGGING_FIELD == null) {
+      return null;
+    }
+    try {
+      return (Printer) LOGGING_FIELD.get(looper);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Field findLoggingField() {
+    try {
+      Field field = Looper.class.getDeclaredField("mLogging");
+      field.setAccessible(true);
+      return field;
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      Log.w(Constant.TAG, "Cannot read the looper's printer; it is not chained.", e);
+      return null;
+    }
+  }
+
+  /** Returns the bytes allocated by the process since it started. */
+  private static long getAllocatedBytes() {
+    String bytes = Debug.getRuntimeStat("art.gc.bytes-allocated");
+    try {
+      return bytes == null ? 0L : Long.parseLong(bytes);
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+}
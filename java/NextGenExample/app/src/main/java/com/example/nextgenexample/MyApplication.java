@@ -30,6 +30,7 @@ import androidx.lifecycle.ProcessLifecycleOwner;
 import androidx.navigation.fragment.NavHostFragment;
 import com.example.nextgenexample.appopen.AppOpenAdManager;
 import com.example.nextgenexample.appopen.AppOpenFragment;
+import com.example.nextgenexample.backend.AdBackends;
 
 /** Application class that initializes, loads and show ads when activities change states. */
 public class MyApplication extends Application
@@ -40,8 +41,16 @@ public class MyApplication extends Application
   @Override
   public void onCreate() {
     super.onCreate();
+    // Choose where full-screen ads load from before any example loads one.
+    AdBackends.install(this);
     registerActivityLifecycleCallbacks(this);
     ProcessLifecycleOwner.get().getLifecycle().addObserver(this);
+    // Release held ads when the system is low on memory.
+    registerComponentCallbacks(AdMemoryGovernor.getInstance());
+    // Report destroyed ads that are still referenced in debug builds.
+    AdLeakDetector.getInstance().install(this);
+    // Report ad flows that exceed their main-thread budget in debug builds.
+    MainThreadBudgetMonitor.getInstance().install(this);
   }
 
   @Override
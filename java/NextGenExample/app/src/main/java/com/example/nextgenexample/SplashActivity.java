@@ -27,6 +27,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.preference.PreferenceManager;
 import com.example.nextgenexample.appopen.AppOpenAdManager;
 import com.example.nextgenexample.databinding.ActivitySplashBinding;
+import com.example.nextgenexample.webview.CustomTabsConnectionManager;
+import com.example.nextgenexample.webview.WebViewPool;
 import com.google.android.libraries.ads.mobile.sdk.MobileAds;
 import com.google.android.libraries.ads.mobile.sdk.common.RequestConfiguration;
 import com.google.android.libraries.ads.mobile.sdk.initialization.InitializationConfig;
@@ -161,9 +163,17 @@ public class SplashActivity extends AppCompatActivity {
                       .setTestDeviceIds(List.of(Constant.TEST_DEVICE_HASHED_ID))
                       .build());
 
+              // Inflate ad layouts ahead of their first display.
+              AdLayoutCache.getInstance()
+                  .start(getApplicationContext(), AdLayoutCache.DEFAULT_COUNTS);
+
               if (googleMobileAdsConsentManager.canRequestAds()) {
                 // Load an app open ad when Mobile Ads SDK initialization is complete.
                 AppOpenAdManager.getInstance().startPreloading();
+                // Warm up the browser so ad landing pages open quickly.
+                CustomTabsConnectionManager.getInstance().connect(getApplicationContext());
+                // Create the in-app browser's WebView while the app is idle.
+                WebViewPool.getInstance().prewarm(getApplicationContext());
               }
             })
         .start();
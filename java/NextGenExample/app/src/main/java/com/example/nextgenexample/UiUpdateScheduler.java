@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.widget.Toast;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Coalesces UI work posted from ad callbacks into at most one pass per frame.
+ *
+ * <p>Preload callbacks arrive in bursts while a buffer refills. Updates are keyed by their {@link
+ * Runnable} instance, so scheduling the same status refresh several times before the next frame
+ * runs it once. User-visible messages are rate limited, and the latest pending message wins.
+ */
+public final class UiUpdateScheduler implements Choreographer.FrameCallback {
+
+  // Minimum time between two toasts shown by the same scheduler.
+  private static final long MIN_MESSAGE_INTERVAL_MILLIS = 1500L;
+
+  private final Context context;
+  private final Choreographer choreographer;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Runnable showPendingMessage = this::showPendingMessage;
+  private final Object lock = new Object();
+
+  // Guarded by lock.
+  private final Set<Runnable> pendingUpdates = new LinkedHashSet<>();
+  private boolean frameScheduled;
+  private String pendingMessage;
+  private boolean messageScheduled;
+  private long lastMessageUptimeMillis = -MIN_MESSAGE_INTERVAL_MILLIS;
+  private boolean released;
+  private long postedUpdateCount;
+  private long coalescedUpdateCount;
+  private long shownMessageCount;
+  private long coalescedMessageCount;
+
+  // Only touched on the main thread; reused between frames to avoid allocating per frame.
+  private final ArrayList<Runnable> runningUpdates = new ArrayList<>();
+  private Toast currentToast;
+
+  /** Creates a scheduler bound to the main thread's {@link Choreographer}. */
+  @MainThread
+  public UiUpdateScheduler(@NonNull Context context) {
+    this.context = context.getApplicationContext();
+    this.choreographer = Choreographer.getInstance();
+  }
+
+  /**
+   * Runs {@code update} on the main thread before the next frame is drawn. Scheduling an update
+   * that is already pending is a no-op. Safe to call from any thread.
+   */
+  public void scheduleUpdate(@NonNull Runnable update) {
+    synchronized (lock) {
+      if (released) {
+        return;
+      }
+      if (!pendingUpdates.add(update)) {
+        coalescedUpdateCount++;
+        return;
+      }
+      postedUpdateCount++;
+      if (frameScheduled) {
+        return;
+      }
+      frameScheduled = true;
+    }
+    // Choreographer synchronizes internally, so this may be called off the main thread.
+    choreographer.postFrameCallback(this);
+  }
+
+  /**
+   * Shows {@code text} in a toast, at most once every {@link #MIN_MESSAGE_INTERVAL_MILLIS}. A
+   * message that arrives while another is waiting replaces it. Safe to call from any thread.
+   */
+  public void showMessage(@NonNull String text) {
+    long delayMillis;
+    synchronized (lock) {
+      if (released) {
+        return;
+      }
+      if (pendingMessage != null) {
+        coalescedMessageCount++;
+      }
+      pendingMessage = text;
+      if (messageScheduled) {
+        return;
+      }
+      messageScheduled = true;
+      long nextAllowedUptimeMillis = lastMessageUptimeMillis + MIN_MESSAGE_INTERVAL_MILLIS;
+      delayMillis = Math.max(0L, nextAllowedUptimeMillis - SystemClock.uptimeMillis());
+    }
+    mainHandler.postDelayed(showPendingMessage, delayMillis);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    synchronized (lock) {
+      frameScheduled = false;
+      if (released) {
+        return;
+      }
+      runningUpdates.addAll(pendingUpdates);
+      pendingUpdates.clear();
+    }
+    for (int i = 0; i < runningUpdates.size(); i++) {
+      runningUpdates.get(i).run();
+    }
+    runningUpdates.clear();
+  }
+
+  private void showPendingMessage() {
+    String text;
+    synchronized (lock) {
+      messageScheduled = false;
+      text = pendingMessage;
+      pendingMessage = null;
+      if (released || text == null) {
+        return;
+      }
+      lastMessageUptimeMillis = SystemClock.uptimeMillis();
+      shownMessageCount++;
+    }
+    if (currentToast != null) {
+      currentToast.cancel();
+    }
+    currentToast = Toast.makeText(context, text, Toast.LENGTH_SHORT);
+    currentToast.show();
+  }
+
+  /**
+   * Drops all pending updates and messages. Further calls to {@link #scheduleUpdate} and {@link
+   * #showMessage} are ignored.
+   */
+  @MainThread
+  public void release() {
+    synchronized (lock) {
+      released = true;
+      pendingUpdates.clear();
+      pendingMessage = null;
+      Log.d(
+          Constant.TAG,
+          String.format(
+              "UI updates posted: %d, coalesced: %d. Messages shown: %d, coalesced: %d.",
+              postedUpdateCount, coalescedUpdateCount, shownMessageCount, coalescedMessageCount));
+    }
+    choreographer.removeFrameCallback(this);
+    mainHandler.removeCallbacks(showPendingMessage);
+  }
+
+  /** Returns the number of updates that were queued for a frame. */
+  public long getPostedUpdateCount() {
+    synchronized (lock) {
+      return postedUpdateCount;
+    }
+  }
+
+  /** Returns the number of updates that were merged into an already pending update. */
+  public long getCoalescedUpdateCount() {
+    synchronized (lock) {
+      return coalescedUpdateCount;
+    }
+  }
+
+  /** Returns the number of toasts that were shown. */
+  public long getShownMessageCount() {
+    synchronized (lock) {
+      return shownMessageCount;
+    }
+  }
+
+  /** Returns the number of messages that were replaced by a newer message before being shown. */
+  public long getCoalescedMessageCount() {
+    synchronized (lock) {
+      return coalescedMessageCount;
+    }
+  }
+}
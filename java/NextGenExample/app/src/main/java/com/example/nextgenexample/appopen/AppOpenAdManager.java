@@ -26,13 +26,18 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
+import com.example.nextgenexample.AdMemoryGovernor;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.HandlerTaskScheduler;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.pacing.AdPacer;
+import com.example.nextgenexample.preloading.AdaptiveBufferController;
+import com.example.nextgenexample.preloading.PreloadController;
+import com.example.nextgenexample.request.RetryPolicy;
 import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAd;
 import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAdPreloader;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
 
 /** Singleton object that loads and shows app open ads. */
 public class AppOpenAdManager {
@@ -41,9 +46,17 @@ public class AppOpenAdManager {
 
   // Replace this test ad unit ID with your own ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/9257395921";
+  // The manager owns its preloader, so it does not share the ad unit ID as the preload ID with
+  // the app open preload example. Otherwise whichever started last would replace the other's
+  // callback.
+  private static final String PRELOAD_ID = "app_open_ad_manager";
   private static final String KEY_ENABLE_APP_OPEN_AD_ON_COLD_START =
       "enable_app_open_ad_on_cold_start";
   private boolean isShowingAd = false;
+  // Set when the preload buffer was released under memory pressure.
+  private boolean isPreloadingEvicted = false;
+  private AdMemoryGovernor.Handle preloadMemoryHandle;
+  @Nullable private PreloadController<AppOpenAd> preloadController;
 
   public static synchronized AppOpenAdManager getInstance() {
     if (instance == null) {
@@ -82,15 +95,70 @@ public class AppOpenAdManager {
 
   /** Starts the preloading process for an App Open Ad. */
   public void startPreloading() {
-    AdRequest adRequest = new AdRequest.Builder(AD_UNIT_ID).build();
-    // Preload the app open ad with a single ad request.
-    PreloadConfiguration preloadConfig = new PreloadConfiguration(adRequest, 1);
-    AppOpenAdPreloader.start(AD_UNIT_ID, preloadConfig);
+    if (preloadController != null) {
+      preloadController.destroy();
+    }
+    isPreloadingEvicted = false;
+    // Starts with a single ad, or the size the buffer was last adapted to, and restarts with a
+    // new size when the poll rate calls for it.
+    preloadController =
+        new PreloadController<>(
+            PRELOAD_ID,
+            AD_UNIT_ID,
+            AdBackends.appOpenPreloader(),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            new PreloadListener());
+    preloadController.start();
   }
 
   /** Stops the preloading process for an App Open Ad. */
   public void stopPreloading() {
-    AppOpenAdPreloader.destroy(AD_UNIT_ID);
+    if (preloadController != null) {
+      preloadController.destroy();
+      preloadController = null;
+    }
+  }
+
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {
+      Log.d(
+          Constant.TAG,
+          "App open ad buffer started with "
+              + bufferSize
+              + " ("
+              + AdaptiveBufferController.getInstance().describe(preloadId)
+              + ").");
+      preloadMemoryHandle =
+          AdMemoryGovernor.getInstance()
+              .registerPreloadBuffer(
+                  preloadId,
+                  bufferSize * AdMemoryGovernor.FULL_SCREEN_AD_BYTES,
+                  () -> {
+                    stopPreloading();
+                    isPreloadingEvicted = true;
+                  });
+    }
+
+    @Override
+    public void onStopped(@NonNull String preloadId) {
+      if (preloadMemoryHandle != null) {
+        preloadMemoryHandle.release();
+        preloadMemoryHandle = null;
+      }
+    }
+
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.d(Constant.TAG, "App open ad failed to preload: " + failure.message());
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.d(Constant.TAG, "App open preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   /**
@@ -110,8 +178,24 @@ public class AppOpenAdManager {
       return;
     }
 
-    // Poll for the app open ad.
-    AppOpenAd appOpenAd = AppOpenAdPreloader.pollAd(AD_UNIT_ID);
+    // Check the frequency cap before polling so that a capped ad stays in the buffer.
+    AdPacer adPacer = AdPacer.getInstance(activity);
+    if (!adPacer.canShow(AdPacer.Format.APP_OPEN)) {
+      Log.d(Constant.TAG, "App open ad skipped by frequency cap.");
+      if (onShowAdComplete != null) {
+        onShowAdComplete.run();
+      }
+      return;
+    }
+
+    // Restart preloading if the buffer was released under memory pressure. The next show
+    // attempt uses the refilled buffer.
+    if (isPreloadingEvicted) {
+      startPreloading();
+    }
+
+    // Poll for the app open ad. The controller resizes the buffer if the poll rate calls for it.
+    AppOpenAd appOpenAd = preloadController != null ? preloadController.pollAd() : null;
 
     // If the app open ad is not available yet, invoke the callback.
     if (appOpenAd == null) {
@@ -127,6 +211,7 @@ public class AppOpenAdManager {
           @Override
           public void onAdShowedFullScreenContent() {
             Log.d(Constant.TAG, "App open ad shown.");
+            adPacer.recordShow(AdPacer.Format.APP_OPEN);
             new Handler(Looper.getMainLooper())
                 .post(
                     () ->
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.preference.PreferenceManager;
+import com.example.nextgenexample.Constant;
+import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAd;
+import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
+import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoOptions;
+import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAd;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd.NativeAdType;
+import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAd;
+import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAd;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * The backend the examples load ads from: the Google Mobile Ads SDK or, in debug builds, an
+ * in-process {@link FakeAdBackend} that serves stand-in ads without network access.
+ *
+ * <p>The choice is a debug setting read once by {@link #install}, so it applies from the next
+ * start. Stand-in banners show a placeholder view of any size. Stand-in native ads have empty
+ * assets, and are not registered with {@code NativeAdView}, which only accepts ads the SDK
+ * created; see {@link #isStandIn}. Examples that call the SDK directly, such as those that load
+ * into the SDK's {@code AdView}, always load from the SDK.
+ */
+public final class AdBackends {
+
+  private static final String KEY_USE_FAKE_AD_BACKEND = "use_fake_ad_backend";
+  // Seeds the fake outcomes, so runs are reproducible.
+  private static final long FAKE_SEED = 1L;
+  // Every fake ad unit behaves roughly like a live test ad unit.
+  private static final FakeAdBackend.Profile FAKE_PROFILE =
+      new FakeAdBackend.Profile(
+          LatencyModel.logNormal(600L, 0.5), 0.9, 0.02, AdFailure.Code.NETWORK_ERROR);
+
+  private static boolean isFakeInstalled;
+  private static ScheduledExecutorService fakeScheduler;
+  private static FakeAdBackend.Profile fakeProfile = FAKE_PROFILE;
+  // Fake backends by ad type.
+  private static final Map<Class<?>, FakeAdBackend<?>> fakeBackends = new HashMap<>();
+
+  private AdBackends() {}
+
+  /** Selects the backend from the debug setting. Call once, when the application is created. */
+  public static synchronized void install(@NonNull Context context) {
+    isFakeInstalled = isDebuggable(context) && isFakeAdBackendEnabled(context);
+    fakeScheduler = null;
+    fakeProfile = FAKE_PROFILE;
+    fakeBackends.clear();
+    if (isFakeInstalled) {
+      Log.i(Constant.TAG, "Ads load from the fake ad backend.");
+    }
+  }
+
+  /** Returns whether ads load from the fake backend in this process. */
+  public static synchronized boolean isFakeInstalled() {
+    return isFakeInstalled;
+  }
+
+  /**
+   * Serves ads from the fake backend, which loads on {@code scheduler} and gives every ad unit
+   * {@code profile}, until {@link #install} is called again.
+   */
+  @VisibleForTesting
+  public static synchronized void installFake(
+      @NonNull ScheduledExecutorService scheduler, @NonNull FakeAdBackend.Profile profile) {
+    isFakeInstalled = true;
+    fakeScheduler = scheduler;
+    fakeProfile = profile;
+    fakeBackends.clear();
+  }
+
+  /**
+   * Returns whether {@code ad} is a stand-in from the fake backend. The SDK's views cannot
+   * register a stand-in native ad.
+   */
+  public static boolean isStandIn(@NonNull Object ad) {
+    return FakeSdkAds.isStandIn(ad);
+  }
+
+  /** Returns whether this build can use the fake backend. */
+  public static boolean isDebuggable(@NonNull Context context) {
+    return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+  }
+
+  /** Returns whether the fake backend is selected for the next start. */
+  public static boolean isFakeAdBackendEnabled(@NonNull Context context) {
+    return getPreferences(context).getBoolean(KEY_USE_FAKE_AD_BACKEND, false);
+  }
+
+  /** Selects the fake backend, or the SDK, for the next start. Persisted in SharedPreferences. */
+  public static void setFakeAdBackendEnabled(@NonNull Context context, boolean enabled) {
+    getPreferences(context).edit().putBoolean(KEY_USE_FAKE_AD_BACKEND, enabled).apply();
+  }
+
+  /** Loads banner ads of {@code adSize}. */
+  @NonNull
+  public static AdBackend.Loader<BannerAd> banner(@NonNull AdSize adSize) {
+    return isFakeInstalled() ? fake(BannerAd.class) : SdkAdBackends.banner(adSize);
+  }
+
+  /** Preloads banner ads of {@code adSize}. */
+  @NonNull
+  public static AdBackend.Preloader<BannerAd> bannerPreloader(@NonNull AdSize adSize) {
+    return isFakeInstalled() ? fake(BannerAd.class) : SdkAdBackends.bannerPreloader(adSize);
+  }
+
+  /** Loads native ads of {@code nativeAdTypes} that play video with {@code videoOptions}. */
+  @NonNull
+  public static AdBackend.Loader<NativeAd> nativeAd(
+      @NonNull List<NativeAdType> nativeAdTypes, @NonNull VideoOptions videoOptions) {
+    return isFakeInstalled()
+        ? fake(NativeAd.class)
+        : SdkAdBackends.nativeAd(nativeAdTypes, videoOptions);
+  }
+
+  /** Preloads native ads of {@code nativeAdTypes} that play video with {@code videoOptions}. */
+  @NonNull
+  public static AdBackend.Preloader<NativeAd> nativePreloader(
+      @NonNull List<NativeAdType> nativeAdTypes, @NonNull VideoOptions videoOptions) {
+    return isFakeInstalled()
+        ? fake(NativeAd.class)
+        : SdkAdBackends.nativePreloader(nativeAdTypes, videoOptions);
+  }
+
+  /** Loads interstitial ads. */
+  @NonNull
+  public static AdBackend.Loader<InterstitialAd> interstitial() {
+    return isFakeInstalled() ? fake(InterstitialAd.class) : SdkAdBackends.interstitial();
+  }
+
+  /** Preloads interstitial ads. */
+  @NonNull
+  public static AdBackend.Preloader<InterstitialAd> interstitialPreloader() {
+    return isFakeInstalled() ? fake(InterstitialAd.class) : SdkAdBackends.interstitialPreloader();
+  }
+
+  /** Loads rewarded ads. */
+  @NonNull
+  public static AdBackend.Loader<RewardedAd> rewarded() {
+    return isFakeInstalled() ? fake(RewardedAd.class) : SdkAdBackends.rewarded();
+  }
+
+  /** Preloads rewarded ads. */
+  @NonNull
+  public static AdBackend.Preloader<RewardedAd> rewardedPreloader() {
+    return isFakeInstalled() ? fake(RewardedAd.class) : SdkAdBackends.rewardedPreloader();
+  }
+
+  /** Loads rewarded interstitial ads. */
+  @NonNull
+  public static AdBackend.Loader<RewardedInterstitialAd> rewardedInterstitial() {
+    return isFakeInstalled()
+        ? fake(RewardedInterstitialAd.class)
+        : SdkAdBackends.rewardedInterstitial();
+  }
+
+  /** Preloads rewarded interstitial ads. */
+  @NonNull
+  public static AdBackend.Preloader<RewardedInterstitialAd> rewardedInterstitialPreloader() {
+    return isFakeInstalled()
+        ? fake(RewardedInterstitialAd.class)
+        : SdkAdBackends.rewardedInterstitialPreloader();
+  }
+
+  /** Loads app open ads. */
+  @NonNull
+  public static AdBackend.Loader<AppOpenAd> appOpen() {
+    return isFakeInstalled() ? fake(AppOpenAd.class) : SdkAdBackends.appOpen();
+  }
+
+  /** Preloads app open ads. */
+  @NonNull
+  public static AdBackend.Preloader<AppOpenAd> appOpenPreloader() {
+    return isFakeInstalled() ? fake(AppOpenAd.class) : SdkAdBackends.appOpenPreloader();
+  }
+
+  /** Returns the fake backend that serves stand-ins of {@code type}. */
+  private static synchronized <T> FakeAdBackend<T> fake(Class<T> type) {
+    @SuppressWarnings("unchecked") // Backends are keyed by the type they serve.
+    FakeAdBackend<T> backend = (FakeAdBackend<T>) fakeBackends.get(type);
+    if (backend == null) {
+      if (fakeScheduler == null) {
+        fakeScheduler = Executors.newSingleThreadScheduledExecutor();
+      }
+      backend =
+          new FakeAdBackend<>(
+              (adUnitId, serial) -> FakeSdkAds.create(type, adUnitId, serial),
+              fakeScheduler,
+              new Random(FAKE_SEED ^ type.getName().hashCode()));
+      backend.setDefaultProfile(fakeProfile);
+      fakeBackends.put(type, backend);
+    }
+    return backend;
+  }
+
+  private static SharedPreferences getPreferences(Context context) {
+    return PreferenceManager.getDefaultSharedPreferences(context.getApplicationContext());
+  }
+}
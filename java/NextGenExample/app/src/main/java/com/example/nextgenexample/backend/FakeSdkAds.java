@@ -0,0 +1,245 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import com.example.nextgenexample.Constant;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates stand-ins for the SDK's ad types, which {@link FakeAdBackend} serves.
+ *
+ * <p>The SDK declares these ad types as interfaces, so a stand-in is a dynamic proxy. It keeps the
+ * callbacks passed to its setters, and {@code show} plays the events of a shown ad on the main
+ * thread: showed, impression, the reward of rewarded formats, then dismissed. A banner's {@code
+ * getView} returns a placeholder that plays the impression when it is first attached. Other
+ * methods return a stand-in for interface types and null, zero or false otherwise.
+ */
+final class FakeSdkAds {
+
+  // The events of a shown ad, in order.
+  private static final String[] SHOW_EVENTS = {
+    "onAdShowedFullScreenContent", "onAdImpression", "onUserEarnedReward",
+  };
+  private static final String DISMISS_EVENT = "onAdDismissedFullScreenContent";
+  private static final String IMPRESSION_EVENT = "onAdImpression";
+
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  private FakeSdkAds() {}
+
+  /** Returns a stand-in ad of {@code type}. */
+  @NonNull
+  static <T> T create(@NonNull Class<T> type, @NonNull String adUnitId, long serial) {
+    String description = "Fake " + type.getSimpleName() + " #" + serial + " of " + adUnitId;
+    return stub(type, new AdHandler(description, adUnitId));
+  }
+
+  /** Returns whether {@code ad} was created by {@link #create}. */
+  static boolean isStandIn(@NonNull Object ad) {
+    return Proxy.isProxyClass(ad.getClass()) && Proxy.getInvocationHandler(ad) instanceof AdHandler;
+  }
+
+  private static <T> T stub(Class<T> type, StubHandler handler) {
+    return type.cast(
+        Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+  }
+
+  /** Answers every call with a default value. */
+  private static class StubHandler implements InvocationHandler {
+    final String description;
+
+    StubHandler(String description) {
+      this.description = description;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "toString":
+          return description;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return args != null && args.length == 1 && proxy == args[0];
+        default:
+          return defaultValue(method.getReturnType(), description + "." + method.getName());
+      }
+    }
+  }
+
+  /** Keeps the callbacks of a stand-in ad and plays them when the ad is shown. */
+  private static final class AdHandler extends StubHandler {
+    final String adUnitId;
+    // Callbacks by the name of their setter.
+    final Map<String, Object> callbacks = new LinkedHashMap<>();
+    // The placeholder of a banner, created on the main thread by the first getView call.
+    private TextView view;
+
+    AdHandler(String description, String adUnitId) {
+      super(description);
+      this.adUnitId = adUnitId;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if (name.equals("show")) {
+        show(args);
+        return null;
+      }
+      if (name.equals("getAdUnitId")) {
+        return adUnitId;
+      }
+      if (name.equals("getView")
+          && args != null
+          && args.length == 1
+          && args[0] instanceof Context
+          && method.getReturnType().isAssignableFrom(TextView.class)) {
+        return getView((Context) args[0]);
+      }
+      if (name.startsWith("set") && args != null && args.length == 1) {
+        synchronized (callbacks) {
+          callbacks.put(name, args[0]);
+        }
+        return null;
+      }
+      return super.invoke(proxy, method, args);
+    }
+
+    private TextView getView(Context context) {
+      if (view == null) {
+        view = new TextView(context);
+        view.setText(description);
+        view.setGravity(Gravity.CENTER);
+        view.addOnAttachStateChangeListener(
+            new View.OnAttachStateChangeListener() {
+              @Override
+              public void onViewAttachedToWindow(@NonNull View attachedView) {
+                attachedView.removeOnAttachStateChangeListener(this);
+                for (Object listener : getCallbacks()) {
+                  dispatch(listener, IMPRESSION_EVENT);
+                }
+              }
+
+              @Override
+              public void onViewDetachedFromWindow(@NonNull View detachedView) {}
+            });
+      }
+      return view;
+    }
+
+    private List<Object> getCallbacks() {
+      synchronized (callbacks) {
+        return new ArrayList<>(callbacks.values());
+      }
+    }
+
+    private void show(Object[] args) {
+      List<Object> listeners = getCallbacks();
+      // Listeners passed to show, such as the reward listener, follow the activity.
+      if (args != null) {
+        for (Object arg : args) {
+          if (arg != null && !(arg instanceof Activity)) {
+            listeners.add(arg);
+          }
+        }
+      }
+      Log.d(Constant.TAG, "Showing " + description + ".");
+      mainHandler.post(
+          () -> {
+            for (String event : SHOW_EVENTS) {
+              for (Object listener : listeners) {
+                dispatch(listener, event);
+              }
+            }
+            for (Object listener : listeners) {
+              dispatch(listener, DISMISS_EVENT);
+            }
+          });
+    }
+  }
+
+  /** Calls the public method {@code name} of {@code listener}, if it has one. */
+  private static void dispatch(Object listener, String name) {
+    for (Method method : listener.getClass().getMethods()) {
+      if (!method.getName().equals(name) || method.getParameterCount() > 1) {
+        continue;
+      }
+      Object[] args = new Object[method.getParameterCount()];
+      if (args.length == 1) {
+        // Pass a stand-in, such as a reward item.
+        args[0] = defaultValue(method.getParameterTypes()[0], "Fake " + name + " argument");
+      }
+      try {
+        method.setAccessible(true);
+        method.invoke(listener, args);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        Log.w(Constant.TAG, "Fake ad event " + name + " failed.", e);
+      }
+      return;
+    }
+  }
+
+  private static Object defaultValue(Class<?> type, String description) {
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == char.class) {
+      return '\0';
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == float.class) {
+      return 0f;
+    }
+    if (type == double.class) {
+      return 0d;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == short.class) {
+      return (short) 0;
+    }
+    if (type == byte.class) {
+      return (byte) 0;
+    }
+    if (type == String.class) {
+      return "";
+    }
+    if (type.isInterface()) {
+      return stub(type, new StubHandler(description));
+    }
+    return null;
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import androidx.annotation.NonNull;
+import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAd;
+import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAdPreloader;
+import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
+import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
+import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdPreloader;
+import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
+import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
+import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
+import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
+import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
+import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoOptions;
+import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAd;
+import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAdPreloader;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd.NativeAdType;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdLoadResult;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdLoader;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdLoaderCallback;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdPreloader;
+import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdRequest;
+import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAd;
+import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAdPreloader;
+import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAd;
+import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAdPreloader;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * {@link AdBackend} implementations backed by the Google Mobile Ads SDK.
+ *
+ * <p>The SDK's interstitial, rewarded, rewarded interstitial and app open ads have no {@code
+ * destroy} method: they hold no views or native resources until shown, and release what they
+ * hold when dismissed. Their loaders' {@link AdBackend.Loader#destroy} therefore only drops the
+ * reference, which the caller does anyway.
+ */
+public final class SdkAdBackends {
+
+  private SdkAdBackends() {}
+
+  /** Starts an SDK preloader. */
+  private interface PreloaderStarter {
+    void start(String preloadId, PreloadConfiguration configuration, PreloadCallback callback);
+  }
+
+  /** Builds the configuration an SDK preloader is started with. */
+  private interface ConfigurationFactory {
+    PreloadConfiguration create(String adUnitId, int bufferSize);
+  }
+
+  /** Loads banner ads of {@code adSize}. */
+  @NonNull
+  public static AdBackend.Loader<BannerAd> banner(@NonNull AdSize adSize) {
+    return loader(
+        (adUnitId, callback) ->
+            BannerAd.load(new BannerAdRequest.Builder(adUnitId, adSize).build(), callback),
+        BannerAd::destroy);
+  }
+
+  /** Preloads banner ads of {@code adSize}. */
+  @NonNull
+  public static AdBackend.Preloader<BannerAd> bannerPreloader(@NonNull AdSize adSize) {
+    return preloader(
+        (adUnitId, bufferSize) ->
+            new PreloadConfiguration(
+                new BannerAdRequest.Builder(adUnitId, adSize).build(), bufferSize),
+        BannerAdPreloader::start,
+        BannerAdPreloader::pollAd,
+        BannerAdPreloader::isAdAvailable,
+        BannerAdPreloader::destroy);
+  }
+
+  /** Loads native ads of {@code nativeAdTypes}. */
+  @NonNull
+  public static AdBackend.Loader<NativeAd> nativeAd(@NonNull List<NativeAdType> nativeAdTypes) {
+    return nativeAd(nativeAdTypes, new VideoOptions.Builder().build());
+  }
+
+  /** Loads native ads of {@code nativeAdTypes} that play video with {@code videoOptions}. */
+  @NonNull
+  public static AdBackend.Loader<NativeAd> nativeAd(
+      @NonNull List<NativeAdType> nativeAdTypes, @NonNull VideoOptions videoOptions) {
+    return new AdBackend.Loader<>() {
+      @Override
+      public void load(String adUnitId, AdBackend.LoadCallback<NativeAd> callback) {
+        NativeAdLoader.load(
+            new NativeAdRequest.Builder(adUnitId, nativeAdTypes)
+                .setVideoOptions(videoOptions)
+                .build(),
+            // The native loader reports through its own callback type.
+            new NativeAdLoaderCallback() {
+              @Override
+              public void onNativeAdLoaded(@NonNull NativeAd nativeAd) {
+                callback.onAdLoaded(nativeAd);
+              }
+
+              @Override
+              public void onAdFailedToLoad(@NonNull LoadAdError adError) {
+                callback.onAdFailedToLoad(toFailure(adError));
+              }
+            });
+      }
+
+      @Override
+      public void destroy(NativeAd ad) {
+        ad.destroy();
+      }
+    };
+  }
+
+  /** Preloads native ads of {@code nativeAdTypes} that play video with {@code videoOptions}. */
+  @NonNull
+  public static AdBackend.Preloader<NativeAd> nativePreloader(
+      @NonNull List<NativeAdType> nativeAdTypes, @NonNull VideoOptions videoOptions) {
+    return preloader(
+        (adUnitId, bufferSize) ->
+            new PreloadConfiguration(
+                new NativeAdRequest.Builder(adUnitId, nativeAdTypes)
+                    .setVideoOptions(videoOptions)
+                    .build(),
+                bufferSize),
+        NativeAdPreloader::start,
+        SdkAdBackends::pollNativeAd,
+        NativeAdPreloader::isAdAvailable,
+        NativeAdPreloader::destroy);
+  }
+
+  /** Loads interstitial ads. */
+  @NonNull
+  public static AdBackend.Loader<InterstitialAd> interstitial() {
+    return loader(
+        (adUnitId, callback) ->
+            InterstitialAd.load(new AdRequest.Builder(adUnitId).build(), callback),
+        SdkAdBackends::releaseNothing);
+  }
+
+  /** Preloads interstitial ads. */
+  @NonNull
+  public static AdBackend.Preloader<InterstitialAd> interstitialPreloader() {
+    return preloader(
+        InterstitialAdPreloader::start,
+        InterstitialAdPreloader::pollAd,
+        InterstitialAdPreloader::isAdAvailable,
+        InterstitialAdPreloader::destroy);
+  }
+
+  /** Loads rewarded ads. */
+  @NonNull
+  public static AdBackend.Loader<RewardedAd> rewarded() {
+    return loader(
+        (adUnitId, callback) -> RewardedAd.load(new AdRequest.Builder(adUnitId).build(), callback),
+        SdkAdBackends::releaseNothing);
+  }
+
+  /** Preloads rewarded ads. */
+  @NonNull
+  public static AdBackend.Preloader<RewardedAd> rewardedPreloader() {
+    return preloader(
+        RewardedAdPreloader::start,
+        RewardedAdPreloader::pollAd,
+        RewardedAdPreloader::isAdAvailable,
+        RewardedAdPreloader::destroy);
+  }
+
+  /** Loads rewarded interstitial ads. */
+  @NonNull
+  public static AdBackend.Loader<RewardedInterstitialAd> rewardedInterstitial() {
+    return loader(
+        (adUnitId, callback) ->
+            RewardedInterstitialAd.load(new AdRequest.Builder(adUnitId).build(), callback),
+        SdkAdBackends::releaseNothing);
+  }
+
+  /** Preloads rewarded interstitial ads. */
+  @NonNull
+  public static AdBackend.Preloader<RewardedInterstitialAd> rewardedInterstitialPreloader() {
+    return preloader(
+        RewardedInterstitialAdPreloader::start,
+        RewardedInterstitialAdPreloader::pollAd,
+        RewardedInterstitialAdPreloader::isAdAvailable,
+        RewardedInterstitialAdPreloader::destroy);
+  }
+
+  /** Loads app open ads. */
+  @NonNull
+  public static AdBackend.Loader<AppOpenAd> appOpen() {
+    return loader(
+        (adUnitId, callback) -> AppOpenAd.load(new AdRequest.Builder(adUnitId).build(), callback),
+        SdkAdBackends::releaseNothing);
+  }
+
+  /** Preloads app open ads. */
+  @NonNull
+  public static AdBackend.Preloader<AppOpenAd> appOpenPreloader() {
+    return preloader(
+        AppOpenAdPreloader::start,
+        AppOpenAdPreloader::pollAd,
+        AppOpenAdPreloader::isAdAvailable,
+        AppOpenAdPreloader::destroy);
+  }
+
+  /** Converts the SDK's {@code adError}. */
+  @NonNull
+  public static AdFailure toFailure(@NonNull LoadAdError adError) {
+    AdFailure.Code code;
+    switch (adError.getCode()) {
+      case NO_FILL:
+        code = AdFailure.Code.NO_FILL;
+        break;
+      case NETWORK_ERROR:
+        code = AdFailure.Code.NETWORK_ERROR;
+        break;
+      case INVALID_REQUEST:
+        code = AdFailure.Code.INVALID_REQUEST;
+        break;
+      default:
+        code = AdFailure.Code.INTERNAL_ERROR;
+        break;
+    }
+    return new AdFailure(code, adError.getMessage());
+  }
+
+  /** Adapts {@code callback} to the SDK's callback type. */
+  @NonNull
+  public static <T> AdLoadCallback<T> toSdkCallback(@NonNull AdBackend.LoadCallback<T> callback) {
+    return new AdLoadCallback<T>() {
+      @Override
+      public void onAdLoaded(@NonNull T ad) {
+        callback.onAdLoaded(ad);
+      }
+
+      @Override
+      public void onAdFailedToLoad(@NonNull LoadAdError adError) {
+        callback.onAdFailedToLoad(toFailure(adError));
+      }
+    };
+  }
+
+  /** Loads an ad with the SDK's callback type. */
+  private interface SdkLoad<T> {
+    void load(String adUnitId, AdLoadCallback<T> callback);
+  }
+
+  /** Releases an ad. */
+  private interface SdkDestroy<T> {
+    void destroy(T ad);
+  }
+
+  /** Releases a full-screen ad that was not shown, which holds nothing to release. */
+  private static <T> void releaseNothing(T unusedAd) {}
+
+  private static <T> AdBackend.Loader<T> loader(SdkLoad<T> sdkLoad, SdkDestroy<T> sdkDestroy) {
+    return new AdBackend.Loader<>() {
+      @Override
+      public void load(String adUnitId, AdBackend.LoadCallback<T> callback) {
+        sdkLoad.load(adUnitId, toSdkCallback(callback));
+      }
+
+      @Override
+      public void destroy(T ad) {
+        sdkDestroy.destroy(ad);
+      }
+    };
+  }
+
+  /** Polls a native ad, which the SDK wraps in a load result. */
+  private static NativeAd pollNativeAd(String preloadId) {
+    NativeAdLoadResult.NativeAdLoadSuccessResult result = NativeAdPreloader.pollAd(preloadId);
+    return result instanceof NativeAdLoadResult.NativeAdSuccess
+        ? ((NativeAdLoadResult.NativeAdSuccess) result).getAd()
+        : null;
+  }
+
+  /** Returns a preloader of full-screen ads, which are requested without options. */
+  private static <T> AdBackend.Preloader<T> preloader(
+      PreloaderStarter starter,
+      Function<String, T> poll,
+      Predicate<String> isAvailable,
+      SdkDestroy<String> destroy) {
+    return preloader(
+        (adUnitId, bufferSize) ->
+            new PreloadConfiguration(new AdRequest.Builder(adUnitId).build(), bufferSize),
+        starter,
+        poll,
+        isAvailable,
+        destroy);
+  }
+
+  private static <T> AdBackend.Preloader<T> preloader(
+      ConfigurationFactory configurationFactory,
+      PreloaderStarter starter,
+      Function<String, T> poll,
+      Predicate<String> isAvailable,
+      SdkDestroy<String> destroy) {
+    return new AdBackend.Preloader<>() {
+      @Override
+      public void start(
+          String preloadId, String adUnitId, int bufferSize, AdBackend.PreloadListener listener) {
+        PreloadConfiguration configuration = configurationFactory.create(adUnitId, bufferSize);
+        // [Important] Do not call start() or pollAd() within the callback.
+        starter.start(
+            preloadId,
+            configuration,
+            new PreloadCallback() {
+              @Override
+              public void onAdFailedToPreload(
+                  @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
+                listener.onAdFailedToPreload(preloadId, toFailure(loadAdError));
+              }
+
+              @Override
+              public void onAdsExhausted(@NonNull String preloadId) {
+                listener.onAdsExhausted(preloadId);
+              }
+
+              @Override
+              public void onAdPreloaded(
+                  @NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
+                listener.onAdPreloaded(preloadId);
+              }
+            });
+      }
+
+      @Override
+      public T pollAd(String preloadId) {
+        return poll.apply(preloadId);
+      }
+
+      @Override
+      public boolean isAdAvailable(String preloadId) {
+        return isAvailable.test(preloadId);
+      }
+
+      @Override
+      public void destroy(String preloadId) {
+        destroy.destroy(preloadId);
+      }
+    };
+  }
+}
@@ -23,15 +23,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.backend.SdkAdBackends;
 import com.example.nextgenexample.databinding.FragmentCategoryExclusionBinding;
+import com.example.nextgenexample.request.AdRequestCoordinator;
+import com.example.nextgenexample.request.AdRequestKey;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdView;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdEventCallback;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRefreshCallback;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
+import java.util.ArrayList;
+import java.util.List;
 
 /** An [AdFragment] subclass that loads ads configured to use category exclusions. */
 public class AdManagerCategoryExclusionFragment
@@ -45,6 +51,9 @@ public class AdManagerCategoryExclusionFragment
   private static final String DOGS_EXCLUSION_KEY = "apidemo_exclude_dogs";
   private static final String CATS_EXCLUSION_KEY = "apidemo_exclude_cats";
 
+  // Loads of the current view, some of which may still be queued.
+  private final List<AdRequestKey> requestKeys = new ArrayList<>();
+
   @Override
   protected BindingInflater<FragmentCategoryExclusionBinding> getBindingInflater() {
     return FragmentCategoryExclusionBinding::inflate;
@@ -61,6 +70,11 @@ public class AdManagerCategoryExclusionFragment
 
   @Override
   public void onDestroyView() {
+    // Drop the loads that have not started yet.
+    for (AdRequestKey requestKey : requestKeys) {
+      AdRequestCoordinator.getInstance().cancel(requestKey);
+    }
+    requestKeys.clear();
     binding.noneExcludedBanner.destroy();
     binding.dogsExcludedBanner.destroy();
     binding.catsExcludedBanner.destroy();
@@ -71,10 +85,20 @@ public class AdManagerCategoryExclusionFragment
     AdSize adSize = AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(requireContext(), 360);
 
     BannerAdRequest.Builder requestBuilder = new BannerAdRequest.Builder(AD_UNIT_ID, adSize);
+    // The key mirrors the request. The AdView is the consumer, so only repeated loads into the
+    // same view are coalesced.
+    AdRequestKey.Builder keyBuilder =
+        AdRequestKey.builder(AD_UNIT_ID)
+            .addSize(adSize.getWidth(), adSize.getHeight())
+            .setConsumer(adView);
 
     if (exclusionKey != null) {
       requestBuilder.addCategoryExclusion(exclusionKey);
+      keyBuilder.addCategoryExclusion(exclusionKey);
     }
+    BannerAdRequest adRequest = requestBuilder.build();
+    AdRequestKey requestKey = keyBuilder.build();
+    requestKeys.add(requestKey);
 
     final String logPrefix;
     if (exclusionKey != null) {
@@ -83,48 +107,52 @@ public class AdManagerCategoryExclusionFragment
       logPrefix = "Banner ad";
     }
 
-    adView.loadAd(
-        requestBuilder.build(),
-        new AdLoadCallback<>() {
-          @Override
-          public void onAdLoaded(@NonNull BannerAd ad) {
-
-            // Interact with the loaded ad object as needed.
-            ad.setAdEventCallback(
-                new BannerAdEventCallback() {
-                  @Override
-                  public void onAdImpression() {
-                    Log.d(Constant.TAG, logPrefix + " recorded an impression.");
-                  }
-
-                  @Override
-                  public void onAdClicked() {
-                    Log.d(Constant.TAG, logPrefix + " clicked.");
-                  }
-                });
-
-            ad.setBannerAdRefreshCallback(
-                new BannerAdRefreshCallback() {
-                  @Override
-                  public void onAdRefreshed() {
-                    showToast(logPrefix + " refreshed.");
-                    Log.d(Constant.TAG, logPrefix + " refreshed.");
-                  }
-
-                  @Override
-                  public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
-                    showToast(
-                        logPrefix + " failed to refresh with error code: " + adError.getCode());
-                    Log.w(Constant.TAG, logPrefix + " failed to refresh: " + adError);
-                  }
-                });
-          }
-
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            showToast(logPrefix + " failed to load with error code: " + adError.getCode());
-            Log.w(Constant.TAG, logPrefix + " failed to load: " + adError);
-          }
-        });
+    // The three banners share an ad unit, so the coordinator caps how many load at once.
+    AdRequestCoordinator.getInstance()
+        .load(
+            requestKey,
+            AdRequestCoordinator.Priority.NORMAL,
+            callback -> adView.loadAd(adRequest, SdkAdBackends.toSdkCallback(callback)),
+            new AdBackend.LoadCallback<BannerAd>() {
+              @Override
+              public void onAdLoaded(@NonNull BannerAd ad) {
+
+                // Interact with the loaded ad object as needed.
+                ad.setAdEventCallback(
+                    new BannerAdEventCallback() {
+                      @Override
+                      public void onAdImpression() {
+                        Log.d(Constant.TAG, logPrefix + " recorded an impression.");
+                      }
+
+                      @Override
+                      public void onAdClicked() {
+                        Log.d(Constant.TAG, logPrefix + " clicked.");
+                      }
+                    });
+
+                ad.setBannerAdRefreshCallback(
+                    new BannerAdRefreshCallback() {
+                      @Override
+                      public void onAdRefreshed() {
+                        showToast(logPrefix + " refreshed.");
+                        Log.d(Constant.TAG, logPrefix + " refreshed.");
+                      }
+
+                      @Override
+                      public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
+                        showToast(
+                            logPrefix + " failed to refresh with error code: " + adError.getCode());
+                        Log.w(Constant.TAG, logPrefix + " failed to refresh: " + adError);
+                      }
+                    });
+              }
+
+              @Override
+              public void onAdFailedToLoad(@NonNull AdFailure failure) {
+                showToast(logPrefix + " failed to load with error code: " + failure.code());
+                Log.w(Constant.TAG, logPrefix + " failed to load: " + failure);
+              }
+            });
   }
 }
@@ -25,14 +25,20 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import com.example.nextgenexample.backend.SdkAdBackends;
 import com.example.nextgenexample.databinding.FragmentCustomTargetingBinding;
+import com.example.nextgenexample.request.AdRequestCoordinator;
+import com.example.nextgenexample.request.AdRequestKey;
+import com.example.nextgenexample.request.RequestTemplate;
+import com.example.nextgenexample.request.RequestTemplateRegistry;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdView;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdEventCallback;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRefreshCallback;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,6 +51,30 @@ public class AdManagerCustomTargetingFragment extends AdFragment<FragmentCustomT
   // Sample ad unit ID.
   private static final String AD_UNIT_ID = "/21775744923/example/api-demo/custom-targeting";
   private static final String CUSTOM_TARGETING_KEY = "sportpref";
+
+  /** The request parameters that change between loads. */
+  private record TargetingVariant(String customTargetingValue, AdSize adSize) {}
+
+  // [START create_ad_request]
+  // Create an ad request with selected custom targeting string. Requests are built once per
+  // targeting value and size, and reused.
+  private static final RequestTemplate<TargetingVariant, BannerAdRequest> REQUEST_TEMPLATE =
+      RequestTemplateRegistry.getInstance()
+          .register(
+              "custom_targeting_banner",
+              variant ->
+                  new BannerAdRequest.Builder(AD_UNIT_ID, variant.adSize())
+                      // Put the custom key-value pairs set the in Ad Manager UI to target
+                      // specific campaigns (line items).
+                      .putCustomTargeting(CUSTOM_TARGETING_KEY, variant.customTargetingValue())
+                      .build(),
+              variant ->
+                  AdRequestKey.builder(AD_UNIT_ID)
+                      .addSize(variant.adSize().getWidth(), variant.adSize().getHeight())
+                      .putCustomTargeting(CUSTOM_TARGETING_KEY, variant.customTargetingValue())
+                      .build());
+  // [END create_ad_request]
+
   private AdView adView;
   private Spinner sportPicker;
   private ArrayList<String> sports =
@@ -76,65 +106,62 @@ public class AdManagerCustomTargetingFragment extends AdFragment<FragmentCustomT
         new ArrayAdapter<>(
             requireView().getContext(), android.R.layout.simple_spinner_item, sports));
 
-    binding.loadAdButton.setOnClickListener(
-        v ->
-            loadAd(
-                AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(requireContext(), 360)));
+    // Compute the size once so that every load reuses the same interned request.
+    AdSize adSize = AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(requireContext(), 360);
+    binding.loadAdButton.setOnClickListener(v -> loadAd(adSize));
   }
 
   private void loadAd(AdSize adSize) {
     String customTargetingValue = (String) sportPicker.getSelectedItem();
-    // [START create_ad_request]
-    // Create an ad request with selected custom targeting string.
-    BannerAdRequest adRequest =
-        new BannerAdRequest.Builder(AD_UNIT_ID, adSize)
-            // Put the custom key-value pairs set the in Ad Manager UI to target specific
-            // campaigns (line items).
-            .putCustomTargeting(CUSTOM_TARGETING_KEY, customTargetingValue)
-            .build();
-    // [END create_ad_request]
-
-    adView.loadAd(
-        adRequest,
-        new AdLoadCallback<>() {
-          @Override
-          public void onAdLoaded(@NonNull BannerAd ad) {
-            ad.setAdEventCallback(
-                new BannerAdEventCallback() {
-                  @Override
-                  public void onAdImpression() {
-                    Log.d(Constant.TAG, "Banner ad recorded an impression.");
-                  }
-
-                  @Override
-                  public void onAdClicked() {
-                    Log.d(Constant.TAG, "Banner ad recorded a click.");
-                  }
-                });
-            ad.setBannerAdRefreshCallback(
-                new BannerAdRefreshCallback() {
-                  @Override
-                  public void onAdRefreshed() {
-                    showToast("Banner ad refreshed.");
-                    Log.d(Constant.TAG, "Banner ad refreshed.");
-                  }
-
-                  @Override
-                  public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
-                    showToast("Banner ad failed to refresh.");
-                    Log.w(Constant.TAG, "Banner ad failed to refresh: " + adError);
-                  }
-                });
-            showToast("Banner ad loaded.");
-            Log.d(Constant.TAG, "Banner ad loaded.");
-          }
-
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            showToast("Banner ad failed to load.");
-            Log.w(Constant.TAG, "Banner ad failed to load: " + adError);
-          }
-        });
+    TargetingVariant variant = new TargetingVariant(customTargetingValue, adSize);
+    BannerAdRequest adRequest = REQUEST_TEMPLATE.getRequest(variant);
+    // Repeated taps while the same request is loading into this view join the pending load.
+    AdRequestKey requestKey = REQUEST_TEMPLATE.getKey(variant).withConsumer(adView);
+
+    AdRequestCoordinator.getInstance()
+        .load(
+            requestKey,
+            AdRequestCoordinator.Priority.HIGH,
+            callback -> adView.loadAd(adRequest, SdkAdBackends.toSdkCallback(callback)),
+            new AdBackend.LoadCallback<BannerAd>() {
+              @Override
+              public void onAdLoaded(@NonNull BannerAd ad) {
+                ad.setAdEventCallback(
+                    new BannerAdEventCallback() {
+                      @Override
+                      public void onAdImpression() {
+                        Log.d(Constant.TAG, "Banner ad recorded an impression.");
+                      }
+
+                      @Override
+                      public void onAdClicked() {
+                        Log.d(Constant.TAG, "Banner ad recorded a click.");
+                      }
+                    });
+                ad.setBannerAdRefreshCallback(
+                    new BannerAdRefreshCallback() {
+                      @Override
+                      public void onAdRefreshed() {
+                        showToast("Banner ad refreshed.");
+                        Log.d(Constant.TAG, "Banner ad refreshed.");
+                      }
+
+                      @Override
+                      public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
+                        showToast("Banner ad failed to refresh.");
+                        Log.w(Constant.TAG, "Banner ad failed to refresh: " + adError);
+                      }
+                    });
+                showToast("Banner ad loaded.");
+                Log.d(Constant.TAG, "Banner ad loaded.");
+              }
+
+              @Override
+              public void onAdFailedToLoad(@NonNull AdFailure failure) {
+                showToast("Banner ad failed to load.");
+                Log.w(Constant.TAG, "Banner ad failed to load: " + failure);
+              }
+            });
   }
 
   @Override
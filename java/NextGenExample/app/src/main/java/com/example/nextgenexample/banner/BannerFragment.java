@@ -24,14 +24,14 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentBannerBinding;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
-import com.google.android.libraries.ads.mobile.sdk.banner.AdView;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdEventCallback;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRefreshCallback;
-import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 
 /** An [AdFragment] subclass that loads a banner ad. */
@@ -41,7 +41,6 @@ public class BannerFragment extends AdFragment<FragmentBannerBinding> {
 
   // Sample banner ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/9214589741";
-  private AdView adView;
 
   @Override
   protected BindingInflater<FragmentBannerBinding> getBindingInflater() {
@@ -52,9 +51,6 @@ public class BannerFragment extends AdFragment<FragmentBannerBinding> {
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
 
-    // Get the ad size based on the screen width.
-    adView = binding.adView;
-
     // Get the ad size based on the screen width.
     AdSize adSize =
         AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(requireContext(), getAdWidth());
@@ -70,55 +66,69 @@ public class BannerFragment extends AdFragment<FragmentBannerBinding> {
   }
 
   private void loadAd(AdSize adSize) {
-    adView.loadAd(
-        new BannerAdRequest.Builder(AD_UNIT_ID, adSize).build(),
-        new AdLoadCallback<BannerAd>() {
-          @Override
-          public void onAdLoaded(@NonNull BannerAd bannerAd) {
-            bannerAd.setAdEventCallback(
-                new BannerAdEventCallback() {
-                  @Override
-                  public void onAdImpression() {
-                    Log.d(Constant.TAG, "Banner ad recorded an impression.");
-                  }
-
-                  @Override
-                  public void onAdClicked() {
-                    Log.d(Constant.TAG, "Banner ad clicked.");
-                  }
-                });
-
-            bannerAd.setBannerAdRefreshCallback(
-                new BannerAdRefreshCallback() {
-                  @Override
-                  public void onAdRefreshed() {
-                    showToast("Banner ad refreshed.");
-                    Log.d(Constant.TAG, "Banner ad refreshed.");
-                  }
-
-                  @Override
-                  public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
-                    showToast("Banner ad failed to refresh with error code: " + adError.getCode());
-                    Log.w(Constant.TAG, "Banner ad failed to refresh: " + adError);
-                  }
-                });
-            showToast("Banner ad loaded.");
-            Log.d(Constant.TAG, "Banner ad loaded.");
-          }
-
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            showToast("Banner ad failed to load with error code: " + adError.getCode());
-            Log.w(Constant.TAG, "Banner ad failed to load: " + adError);
-          }
-        });
+    AdBackends.banner(adSize)
+        .load(
+            AD_UNIT_ID,
+            new AdBackend.LoadCallback<BannerAd>() {
+              @Override
+              public void onAdLoaded(@NonNull BannerAd bannerAd) {
+                // Ads loaded after the view was destroyed are destroyed right away.
+                if (!trackAd(bannerAd, BannerAd::destroy)) {
+                  return;
+                }
+                bannerAd.setAdEventCallback(
+                    new BannerAdEventCallback() {
+                      @Override
+                      public void onAdImpression() {
+                        Log.d(Constant.TAG, "Banner ad recorded an impression.");
+                      }
+
+                      @Override
+                      public void onAdClicked() {
+                        Log.d(Constant.TAG, "Banner ad clicked.");
+                      }
+                    });
+
+                bannerAd.setBannerAdRefreshCallback(
+                    new BannerAdRefreshCallback() {
+                      @Override
+                      public void onAdRefreshed() {
+                        showToast("Banner ad refreshed.");
+                        Log.d(Constant.TAG, "Banner ad refreshed.");
+                      }
+
+                      @Override
+                      public void onAdFailedToRefresh(@NonNull LoadAdError adError) {
+                        showToast(
+                            "Banner ad failed to refresh with error code: " + adError.getCode());
+                        Log.w(Constant.TAG, "Banner ad failed to refresh: " + adError);
+                      }
+                    });
+                runOnUiThread(() -> showBannerAd(bannerAd));
+                showToast("Banner ad loaded.");
+                Log.d(Constant.TAG, "Banner ad loaded.");
+              }
+
+              @Override
+              public void onAdFailedToLoad(@NonNull AdFailure failure) {
+                showToast("Banner ad failed to load with error code: " + failure.code());
+                Log.w(Constant.TAG, "Banner ad failed to load: " + failure.message());
+              }
+            });
+  }
+
+  private void showBannerAd(BannerAd bannerAd) {
+    // The view may have been destroyed, along with the ad, since the ad loaded.
+    if (binding == null) {
+      return;
+    }
+    binding.adViewContainer.addView(bannerAd.getView(requireActivity()));
   }
 
   @Override
   public void onDestroyView() {
-    if (adView != null) {
-      adView.destroy();
-    }
+    binding.adViewContainer.removeAllViews();
+    // AdFragment destroys the banner ad.
     super.onDestroyView();
   }
 }
@@ -23,7 +23,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
-import com.example.nextgenexample.databinding.FragmentBannerBinding;
+import com.example.nextgenexample.databinding.FragmentCollapsibleBannerBinding;
 import com.google.android.gms.ads.mediation.admob.AdMobAdapter;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdView;
@@ -35,7 +35,7 @@ import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 
 /** An [AdFragment] subclass that loads a collapsible banner ad. */
-public class CollapsibleBannerFragment extends AdFragment<FragmentBannerBinding> {
+public class CollapsibleBannerFragment extends AdFragment<FragmentCollapsibleBannerBinding> {
   // Default constructor required for fragment instantiation.
   public CollapsibleBannerFragment() {}
 
@@ -44,8 +44,8 @@ public class CollapsibleBannerFragment extends AdFragment<FragmentBannerBinding>
   private AdView adView;
 
   @Override
-  protected BindingInflater<FragmentBannerBinding> getBindingInflater() {
-    return FragmentBannerBinding::inflate;
+  protected BindingInflater<FragmentCollapsibleBannerBinding> getBindingInflater() {
+    return FragmentCollapsibleBannerBinding::inflate;
   }
 
   @Override
@@ -21,8 +21,8 @@ import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.lifecycle.ViewModelProvider;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.R;
 import com.example.nextgenexample.databinding.FragmentFullScreenNativeControllerBinding;
@@ -44,7 +44,7 @@ public class FullScreenNativeControllerFragment
 
   // Sample native ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/2247696110";
-  private NativeAdViewModel viewModel;
+  private AdHolderViewModel<NativeAd> nativeAdHolder;
 
   @Override
   protected BindingInflater<FragmentFullScreenNativeControllerBinding> getBindingInflater() {
@@ -54,7 +54,7 @@ public class FullScreenNativeControllerFragment
   @Override
   public void onCreate(@Nullable Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
-    viewModel = new ViewModelProvider(this).get(NativeAdViewModel.class);
+    nativeAdHolder = AdHolderViewModel.of(this, NativeAd.class, NativeAd::destroy);
   }
 
   @Override
@@ -86,7 +86,7 @@ public class FullScreenNativeControllerFragment
           public void onNativeAdLoaded(@NonNull NativeAd nativeAd) {
             Log.d(Constant.TAG, "Native ad loaded.");
             showToast("Native ad loaded.");
-            viewModel.setNativeAd(nativeAd);
+            nativeAdHolder.set(nativeAd);
             setNativeAdEventCallback(nativeAd);
             if (getActivity() != null) {
               getActivity().runOnUiThread(() -> binding.showAdButton.setEnabled(true));
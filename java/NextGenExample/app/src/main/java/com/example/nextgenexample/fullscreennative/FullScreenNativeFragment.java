@@ -21,8 +21,8 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.ViewModelProvider;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
 import com.example.nextgenexample.databinding.FragmentFullScreenNativeBinding;
 import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd;
 
@@ -31,7 +31,7 @@ public class FullScreenNativeFragment extends AdFragment<FragmentFullScreenNativ
   // Default constructor required for fragment instantiation.
   public FullScreenNativeFragment() {}
 
-  private NativeAdViewModel viewModel;
+  private AdHolderViewModel<NativeAd> nativeAdHolder;
 
   @Override
   protected BindingInflater<FragmentFullScreenNativeBinding> getBindingInflater() {
@@ -41,7 +41,9 @@ public class FullScreenNativeFragment extends AdFragment<FragmentFullScreenNativ
   @Override
   public void onCreate(@Nullable Bundle savedInstanceState) {
     super.onCreate(savedInstanceState);
-    viewModel = new ViewModelProvider(requireParentFragment()).get(NativeAdViewModel.class);
+    // The controller fragment owns the ad; this fragment only shows it.
+    nativeAdHolder =
+        AdHolderViewModel.of(requireParentFragment(), NativeAd.class, NativeAd::destroy);
   }
 
   @Override
@@ -53,7 +55,7 @@ public class FullScreenNativeFragment extends AdFragment<FragmentFullScreenNativ
       appCompatActivity.getSupportActionBar().hide();
     }
 
-    NativeAd nativeAd = viewModel.getNativeAd();
+    NativeAd nativeAd = nativeAdHolder.get();
     if (nativeAd != null) {
       displayNativeAd(nativeAd);
     }
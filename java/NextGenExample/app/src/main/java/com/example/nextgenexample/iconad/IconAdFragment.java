@@ -21,8 +21,13 @@ import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
+import com.example.nextgenexample.AdRenderScheduler;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.R;
 import com.example.nextgenexample.databinding.FragmentIconBinding;
 import com.example.nextgenexample.databinding.IconAdBinding;
 import com.google.android.libraries.ads.mobile.sdk.common.AdChoicesPlacement;
@@ -44,28 +49,45 @@ public class IconAdFragment extends AdFragment<FragmentIconBinding> {
   // Sample icon ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/1476272466";
 
-  private IconAd iconAd;
+  // Main-thread time per frame available to ad rendering.
+  private static final long FRAME_BUDGET_MILLIS = 4L;
+
+  // Keeps the displayed ad across configuration changes.
+  private AdHolderViewModel<IconAd> iconAdHolder;
+  private AdRenderScheduler renderScheduler;
 
   @Override
   protected BindingInflater<FragmentIconBinding> getBindingInflater() {
     return com.example.nextgenexample.databinding.FragmentIconBinding::inflate;
   }
 
+  @Override
+  public void onCreate(@Nullable Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    iconAdHolder = AdHolderViewModel.of(this, IconAd.class, IconAd::destroy);
+  }
+
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
+    renderScheduler = new AdRenderScheduler(requireContext(), FRAME_BUDGET_MILLIS);
+
+    // Show the ad kept across a configuration change instead of loading a new one.
+    IconAd iconAd = iconAdHolder.get();
+    if (iconAd != null) {
+      Log.d(Constant.TAG, "Icon ad kept for " + iconAdHolder.getAgeMillis() + " ms.");
+      setAdEventCallback(iconAd);
+      renderIconAd(iconAd);
+      return;
+    }
     loadIconAd();
   }
 
   @Override
   public void onDestroyView() {
-      super.onDestroyView();
-
-      // Always call destroy() on ads on removal.
-      if (iconAd != null) {
-          iconAd.destroy();
-          iconAd = null;
-      }
+    renderScheduler.release();
+    // The icon ad holder destroys the icon ad once this fragment is finished.
+    super.onDestroyView();
   }
 
   // [START load_ad]
@@ -92,12 +114,6 @@ public class IconAdFragment extends AdFragment<FragmentIconBinding> {
           @Override
           public void onAdLoaded(@NonNull IconAd ad) {
             Log.d(Constant.TAG, "Icon ad loaded.");
-
-            // Always call destroy() on ads on removal.
-            if (iconAd != null) {
-                iconAd.destroy();
-            }
-            iconAd = ad;
             setAdEventCallback(ad);
             displayIconAd(ad);
           }
@@ -145,39 +161,66 @@ public class IconAdFragment extends AdFragment<FragmentIconBinding> {
   }
 
   private void displayIconAd(IconAd iconAd) {
-    if (getActivity() == null) {
-      return;
+    // Replacing the held ad destroys the previous one. Ads loaded after this fragment was finished
+    // are destroyed right away.
+    if (iconAdHolder.set(iconAd)) {
+      renderIconAd(iconAd);
+    }
+  }
+
+  private void renderIconAd(IconAd iconAd) {
+    String renderKey = "icon_ad_" + System.identityHashCode(iconAd);
+    // Inflate and measure off the main thread, then attach and bind in one short commit.
+    renderScheduler.inflate(
+        renderKey,
+        R.layout.icon_ad,
+        binding.iconAdContainer,
+        view -> {
+          IconAdBinding iconAdViewBinding = IconAdBinding.bind(view);
+          // Text metrics are read on the main thread and used by the background measurement.
+          PrecomputedTextCompat.Params headlineParams =
+              TextViewCompat.getTextMetricsParams(iconAdViewBinding.adHeadline);
+          PrecomputedTextCompat.Params callToActionParams =
+              TextViewCompat.getTextMetricsParams(iconAdViewBinding.adCallToAction);
+          renderScheduler.prepare(
+              renderKey,
+              AdRenderScheduler.Urgency.DEFERRABLE,
+              () -> {
+                // Measuring fills the shared text layout cache, so the plain setText() calls in
+                // bindIconAd() reuse these measurements instead of repeating them.
+                PrecomputedTextCompat.create(iconAd.getHeadline(), headlineParams);
+                PrecomputedTextCompat.create(iconAd.getCallToAction(), callToActionParams);
+                return iconAdViewBinding;
+              },
+              measuredBinding -> bindIconAd(iconAd, measuredBinding));
+        });
+  }
+
+  private void bindIconAd(IconAd iconAd, IconAdBinding iconAdViewBinding) {
+    // [START populate_ad]
+    // Add the ad view to the active view hierarchy.
+    binding.iconAdContainer.addView(iconAdViewBinding.getRoot());
+    IconAdView iconAdView = iconAdViewBinding.getRoot();
+
+    // Populate the view elements with their respective icon ad asset.
+    iconAdView.setCallToActionView(iconAdViewBinding.adCallToAction);
+    iconAdView.setHeadlineView(iconAdViewBinding.adHeadline);
+    iconAdView.setIconView(iconAdViewBinding.adIcon);
+    iconAdView.setStarRatingView(iconAdViewBinding.adStars);
+    // [END populate_ad]
+
+    // [START register_ad]
+    // Map each asset view property to the corresponding view in your view hierarchy.
+    iconAdViewBinding.adCallToAction.setText(iconAd.getCallToAction());
+    iconAdViewBinding.adHeadline.setText(iconAd.getHeadline());
+    iconAdViewBinding.adIcon.setImageDrawable(iconAd.getIcon().getDrawable());
+
+    if (iconAd.getStarRating() != null) {
+      iconAdViewBinding.adStars.setRating(iconAd.getStarRating().floatValue());
     }
 
-    getActivity()
-        .runOnUiThread(
-            () -> {
-              // [START populate_ad]
-              IconAdBinding iconAdViewBinding = IconAdBinding.inflate(getLayoutInflater());
-              // Add the ad view to the active view hierarchy.
-              binding.iconAdContainer.addView(iconAdViewBinding.getRoot());
-              IconAdView iconAdView = iconAdViewBinding.getRoot();
-
-              // Populate the view elements with their respective icon ad asset.
-              iconAdView.setCallToActionView(iconAdViewBinding.adCallToAction);
-              iconAdView.setHeadlineView(iconAdViewBinding.adHeadline);
-              iconAdView.setIconView(iconAdViewBinding.adIcon);
-              iconAdView.setStarRatingView(iconAdViewBinding.adStars);
-              // [END populate_ad]
-
-              // [START register_ad]
-              // Map each asset view property to the corresponding view in your view hierarchy.
-              iconAdViewBinding.adCallToAction.setText(iconAd.getCallToAction());
-              iconAdViewBinding.adHeadline.setText(iconAd.getHeadline());
-              iconAdViewBinding.adIcon.setImageDrawable(iconAd.getIcon().getDrawable());
-
-              if (iconAd.getStarRating() != null) {
-                iconAdViewBinding.adStars.setRating(iconAd.getStarRating().floatValue());
-              }
-
-              // Register the icon ad with the view presenting it.
-              iconAdView.registerIconAd(iconAd);
-              // [END register_ad]
-            });
+    // Register the icon ad with the view presenting it.
+    iconAdView.registerIconAd(iconAd);
+    // [END register_ad]
   }
 }
@@ -1,5 +1,6 @@
 package com.example.nextgenexample.inlinebanner;
 
+import com.example.nextgenexample.AdMemoryGovernor;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 
 /**
@@ -8,4 +9,6 @@ import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
  */
 public class BannerItem {
   BannerAd bannerAd;
+  // Tracks the banner's memory while it is loaded; evictable while the banner is offscreen.
+  AdMemoryGovernor.Handle memoryHandle;
 }
@@ -1,6 +1,7 @@
 package com.example.nextgenexample.inlinebanner;
 
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
@@ -8,26 +9,26 @@ import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdLayoutCache;
+import com.example.nextgenexample.AdMemoryGovernor;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.FeedVisibilityTracker;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentInlineBannerBinding;
+import com.example.nextgenexample.request.AdRequestCoordinator;
+import com.example.nextgenexample.request.AdRequestKey;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 
 /** An [AdFragment] subclass that loads inline banner ads. */
 public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerBinding> {
@@ -35,9 +36,19 @@ public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerB
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/9214589741";
   // A banner ad is placed after every 8 menu items in the list.
   private static final int ITEMS_PER_AD = 8;
+  private static final FeedPlacement FEED_PLACEMENT = new FeedPlacement(ITEMS_PER_AD);
+  // A banner slot is viewable once half of it stays on screen for one second.
+  private static final float IN_VIEW_FRACTION = 0.5f;
+  private static final long VIEWABLE_MILLIS = 1000L;
 
-  // List of banner ads and menu items populated in the RecyclerView.
-  private final List<Object> recyclerViewItems = new ArrayList<>();
+  // List of banner ads and menu items populated in the RecyclerView. Each view gets a new list, so
+  // work posted for a destroyed view can tell that its list is no longer displayed.
+  private List<Object> recyclerViewItems = new ArrayList<>();
+
+  // Measures the visibility of the banner slots; only valid while the view exists.
+  private FeedVisibilityTracker visibilityTracker;
+  // Loads of the current view, some of which may still be queued.
+  private final List<AdRequestKey> requestKeys = new ArrayList<>();
 
   // Default constructor required for fragment instantiation.
   public InlineBannerFragment() {}
@@ -51,6 +62,7 @@ public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerB
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
 
+    recyclerViewItems = new ArrayList<>();
     RecyclerView recyclerView = binding.recyclerView;
     recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
 
@@ -58,6 +70,21 @@ public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerB
     RecyclerViewAdapter adapter =
         RecyclerViewAdapter.newInstance(requireActivity(), recyclerViewItems);
     recyclerView.setAdapter(adapter);
+    visibilityTracker =
+        new FeedVisibilityTracker(
+            SystemClock::elapsedRealtime,
+            IN_VIEW_FRACTION,
+            VIEWABLE_MILLIS,
+            slot ->
+                Log.d(
+                    Constant.TAG,
+                    "Banner slot "
+                        + recyclerViewItems.indexOf(slot.getKey())
+                        + " viewable at "
+                        + Math.round(slot.getVisibleFraction() * 100)
+                        + "% visible."));
+    visibilityTracker.attach(recyclerView);
+    adapter.setVisibilityTracker(visibilityTracker);
 
     // Update the RecyclerView item's list with menu items and banner ads.
     addMenuItemsFromJson();
@@ -76,6 +103,7 @@ public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerB
   private void loadBannerAds(RecyclerViewAdapter adapter) {
     // Get the ad size based on the recyclerViewWidth width.
     RecyclerView recyclerView = binding.recyclerView;
+    List<Object> items = recyclerViewItems;
     int recyclerViewWidthPixels = recyclerView.getWidth();
     float density = getResources().getDisplayMetrics().density;
     // Set width to 320 width if density is 0.
@@ -84,109 +112,164 @@ public final class InlineBannerFragment extends AdFragment<FragmentInlineBannerB
 
     AdSize adSize =
         AdSize.getCurrentOrientationInlineAdaptiveBannerAdSize(requireContext(), adWidth);
+    AdBackend.Loader<BannerAd> loader = AdBackends.banner(adSize);
 
-    for (int i = ITEMS_PER_AD; i < recyclerViewItems.size(); i += ITEMS_PER_AD + 1) {
-      final int adIndex = i;
-
+    for (int adIndex : FEED_PLACEMENT.getAdPositions(items.size())) {
       // Add the banner item.
       BannerItem bannerItem = new BannerItem();
-      recyclerViewItems.add(adIndex, bannerItem);
+      items.add(adIndex, bannerItem);
       adapter.notifyItemInserted(adIndex);
 
-      BannerAd.load(
-          new BannerAdRequest.Builder(AD_UNIT_ID, adSize).build(),
-        new AdLoadCallback<BannerAd>() {
-          @Override
-          public void onAdLoaded(@NonNull BannerAd bannerAd) {
-            Log.d(Constant.TAG, "Banner ad loaded.");
-            if (getActivity() != null) {
-              getActivity().runOnUiThread(() -> {
-                // Update the banner item with the loaded banner ad.
-                recyclerViewItems.set(adIndex, bannerItem);
-                bannerItem.bannerAd = bannerAd;
-                adapter.notifyItemChanged(adIndex);
+      // Each slot is its own consumer, so a slot that requests again while its previous load is
+      // in flight joins that load, while different slots still get different ads.
+      AdRequestKey requestKey =
+          AdRequestKey.builder(AD_UNIT_ID)
+              .addSize(adSize.getWidth(), adSize.getHeight())
+              .setConsumer("inline_banner_slot_" + adIndex)
+              .build();
+      requestKeys.add(requestKey);
+      // The first slot is the one closest to view.
+      AdRequestCoordinator.Priority priority =
+          adIndex == ITEMS_PER_AD
+              ? AdRequestCoordinator.Priority.HIGH
+              : AdRequestCoordinator.Priority.NORMAL;
+      AdRequestCoordinator.getInstance()
+          .load(
+              requestKey,
+              priority,
+              callback -> loader.load(AD_UNIT_ID, callback),
+              new AdBackend.LoadCallback<BannerAd>() {
+                @Override
+                public void onAdLoaded(@NonNull BannerAd bannerAd) {
+                  Log.d(Constant.TAG, "Banner ad loaded.");
+                  // Ads loaded after the view was destroyed are destroyed right away.
+                  if (!trackAd(bannerAd, BannerAd::destroy)) {
+                    return;
+                  }
+                  runOnUiThread(
+                      () -> {
+                        // The view may have been destroyed, or recreated with a new list, since
+                        // the ad loaded.
+                        if (binding == null || items != recyclerViewItems) {
+                          destroyAd(bannerAd);
+                          return;
+                        }
+                        // Update the banner item with the loaded banner ad.
+                        items.set(adIndex, bannerItem);
+                        bannerItem.bannerAd = bannerAd;
+                        bannerItem.memoryHandle =
+                            AdMemoryGovernor.getInstance()
+                                .register(
+                                    AdMemoryGovernor.Tier.OFFSCREEN_INLINE_BANNER,
+                                    AdMemoryGovernor.BANNER_AD_BYTES,
+                                    () -> evictBannerAd(adapter, bannerItem),
+                                    true);
+                        adapter.notifyItemChanged(adIndex);
+                      });
+                  bannerAd.setAdEventCallback(new BannerAdEventCallback() {
+                    @Override
+                    public void onAdImpression() {
+                      Log.d(Constant.TAG, "Banner ad recorded an impression.");
+                    }
+
+                    @Override
+                    public void onAdClicked() {
+                      Log.d(Constant.TAG, "Banner ad clicked.");
+                    }
+
+                    @Override
+                    public void onAdShowedFullScreenContent() {
+                      Log.d(Constant.TAG, "Banner ad showed.");
+                    }
+
+                    @Override
+                    public void onAdDismissedFullScreenContent() {
+                      Log.d(Constant.TAG, "Banner ad dismissed.");
+                    }
+
+                    @Override
+                    public void onAdFailedToShowFullScreenContent(
+                        @NonNull FullScreenContentError fullScreenContentError) {
+                      Log.w(Constant.TAG, "Banner ad failed to show: " + fullScreenContentError);
+                    }
+                  });
+                }
+
+                @Override
+                public void onAdFailedToLoad(@NonNull AdFailure failure) {
+                  Log.w(Constant.TAG, "Banner ad failed to load: " + failure);
+                }
               });
-            }
-            bannerAd.setAdEventCallback(new BannerAdEventCallback() {
-              @Override
-              public void onAdImpression() {
-                Log.d(Constant.TAG, "Banner ad recorded an impression.");
-              }
-
-              @Override
-              public void onAdClicked() {
-                Log.d(Constant.TAG, "Banner ad clicked.");
-              }
-
-              @Override
-              public void onAdShowedFullScreenContent() {
-                Log.d(Constant.TAG, "Banner ad showed.");
-              }
-
-              @Override
-              public void onAdDismissedFullScreenContent() {
-                Log.d(Constant.TAG, "Banner ad dismissed.");
-              }
-
-              @Override
-              public void onAdFailedToShowFullScreenContent(
-                  @NonNull FullScreenContentError fullScreenContentError) {
-                Log.w(Constant.TAG, "Banner ad failed to show: " + fullScreenContentError);
-              }
-            });
-          }
-
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            Log.w(Constant.TAG, "Banner ad failed to load: " + adError);
-          }
-        });
     }
   }
 
-  /** Adds [InlineMenuItem]'s from a JSON file. */
-  private void addMenuItemsFromJson() {
-    try {
-      String jsonDataString = readJsonDataFromFile();
-      JSONArray menuItemsJsonArray = new JSONArray(jsonDataString);
-      for (int i = 0; i < menuItemsJsonArray.length(); i++) {
-        JSONObject menuItemObject = menuItemsJsonArray.getJSONObject(i);
-        String menuItemName = menuItemObject.getString("name");
-        String menuItemDescription = menuItemObject.getString("description");
-        String menuItemPrice = menuItemObject.getString("price");
-        String menuItemCategory = menuItemObject.getString("category");
-        String menuItemImageName = menuItemObject.getString("photo");
-        FoodMenuItem menuItem = new FoodMenuItem(
-            menuItemName,
-            menuItemDescription,
-            menuItemPrice,
-            menuItemCategory,
-            menuItemImageName
-
-        );
-        recyclerViewItems.add(menuItem);
+  @Override
+  public void onDestroyView() {
+    logViewability();
+    Log.d(Constant.TAG, "Ad layout display latency: " + AdLayoutCache.getInstance().describe());
+    visibilityTracker.detach();
+    visibilityTracker = null;
+    // Drop the loads that have not started yet.
+    for (AdRequestKey requestKey : requestKeys) {
+      AdRequestCoordinator.getInstance().cancel(requestKey);
+    }
+    requestKeys.clear();
+    // AdFragment destroys the tracked banner ads.
+    super.onDestroyView();
+    // Stop tracking the banners' memory; this fragment no longer displays them.
+    for (Object item : recyclerViewItems) {
+      if (item instanceof BannerItem bannerItem) {
+        if (bannerItem.memoryHandle != null) {
+          bannerItem.memoryHandle.release();
+          bannerItem.memoryHandle = null;
+        }
+        bannerItem.bannerAd = null;
       }
-    } catch (IOException | JSONException exception) {
-      Log.e(Constant.TAG, "Unable to parse JSON file.", exception);
     }
+    // The list is not cleared because posted loads may still index into it; the next view gets a
+    // new list.
   }
 
-  /**
-   * Reads the JSON file and converts the JSON data to a [String].
-   *
-   * @return A [String] representation of the JSON data.
-   * @throws IOException if unable to read the JSON file.
-   */
-  private String readJsonDataFromFile() throws IOException {
-    StringBuilder builder = new StringBuilder();
-    try (InputStream inputStream = getResources().openRawResource(R.raw.menu_items);
-        BufferedReader bufferedReader =
-            new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-      String jsonDataString;
-      while ((jsonDataString = bufferedReader.readLine()) != null) {
-        builder.append(jsonDataString);
+  /** Logs how many banner slots were viewable and how long they were in view. */
+  private void logViewability() {
+    long nowMillis = SystemClock.elapsedRealtime();
+    int slotCount = 0;
+    int viewableCount = 0;
+    long inViewMillis = 0L;
+    for (FeedVisibilityTracker.Slot slot : visibilityTracker.getSlots()) {
+      slotCount++;
+      if (slot.isViewable()) {
+        viewableCount++;
       }
+      inViewMillis += slot.getInViewMillis(nowMillis);
+    }
+    Log.d(
+        Constant.TAG,
+        String.format(
+            "Banner slots viewable: %d of %d. Total time in view: %d ms.",
+            viewableCount, slotCount, inViewMillis));
+  }
+
+  /** Destroys an offscreen banner ad to reclaim memory. Its slot stays empty. */
+  private void evictBannerAd(RecyclerViewAdapter adapter, BannerItem bannerItem) {
+    if (bannerItem.bannerAd == null) {
+      return;
+    }
+    destroyAd(bannerItem.bannerAd);
+    bannerItem.bannerAd = null;
+    bannerItem.memoryHandle = null;
+    int position = recyclerViewItems.indexOf(bannerItem);
+    if (position >= 0) {
+      adapter.notifyItemChanged(position);
+    }
+  }
+
+  /** Adds [FoodMenuItem]'s from a JSON file. */
+  private void addMenuItemsFromJson() {
+    try (InputStream inputStream = getResources().openRawResource(R.raw.menu_items)) {
+      recyclerViewItems.addAll(MenuParser.parse(inputStream));
+    } catch (IOException | JSONException exception) {
+      Log.e(Constant.TAG, "Unable to parse JSON file.", exception);
     }
-    return builder.toString();
   }
 }
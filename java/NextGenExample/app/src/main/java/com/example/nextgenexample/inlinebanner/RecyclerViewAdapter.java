@@ -6,10 +6,14 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import androidx.fragment.app.FragmentActivity;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.nextgenexample.AdLayoutCache;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.FeedVisibilityTracker;
+import com.example.nextgenexample.R;
 import com.example.nextgenexample.databinding.InlineBannerAdBinding;
 import com.example.nextgenexample.databinding.RecyclerViewMenuItemBinding;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
@@ -29,6 +33,8 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
   private final FragmentActivity activity;
   // The recyclerViewItems list contains only [InlineMenuItem] and [BannerAd] types.
   private final List<Object> recyclerViewItems;
+  // Measures the visibility of the banner slots, if set.
+  private FeedVisibilityTracker visibilityTracker;
 
   private RecyclerViewAdapter(FragmentActivity activity, List<Object> recyclerViewItems) {
     this.activity = activity;
@@ -40,6 +46,11 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
     return new RecyclerViewAdapter(activity, recyclerViewItems);
   }
 
+  /** Reports the banner slots shown on screen to {@code visibilityTracker}. */
+  public void setVisibilityTracker(@Nullable FeedVisibilityTracker visibilityTracker) {
+    this.visibilityTracker = visibilityTracker;
+  }
+
   private static class MenuItemViewHolder extends RecyclerView.ViewHolder {
     private final RecyclerViewMenuItemBinding binding;
 
@@ -67,6 +78,8 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
 
   private static class BannerAdHolder extends RecyclerView.ViewHolder {
     private final InlineBannerAdBinding binding;
+    // The banner item currently bound to this holder.
+    private BannerItem boundItem;
 
     BannerAdHolder(InlineBannerAdBinding binding) {
       super(binding.getRoot());
@@ -109,7 +122,8 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
       return new MenuItemViewHolder(binding);
     } else {
       InlineBannerAdBinding binding =
-          InlineBannerAdBinding.inflate(inflater, viewGroup, false);
+          InlineBannerAdBinding.bind(
+              AdLayoutCache.getInstance().inflate(inflater, R.layout.inline_banner_ad, viewGroup));
       return new BannerAdHolder(binding);
     }
   }
@@ -138,10 +152,13 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
 
     } else if (holder instanceof BannerAdHolder bannerHolder
         && item instanceof BannerItem bannerItem) {
+      // Get the CardView container from the AdViewHolder.
+      CardView bannerViewContainer = bannerHolder.getBannerViewContainer();
+      // Remove a previously bound banner, which may have been evicted since.
+      bannerViewContainer.removeAllViews();
+      bannerHolder.boundItem = bannerItem;
+      setEvictable(bannerHolder, !bannerHolder.itemView.isAttachedToWindow());
       if (bannerItem.bannerAd != null) {
-        // Get the CardView container from the AdViewHolder.
-        CardView bannerViewContainer = bannerHolder.getBannerViewContainer();
-
         // Add the banner ad view to the CardView container.
         BannerAd bannerAd = bannerItem.bannerAd;
         bannerViewContainer.addView(bannerAd.getView(activity));
@@ -151,9 +168,38 @@ public final class RecyclerViewAdapter extends RecyclerView.Adapter<RecyclerView
     }
   }
 
+  @Override
+  public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+    if (holder instanceof BannerAdHolder bannerHolder) {
+      // Onscreen banners are not evicted under memory pressure.
+      setEvictable(bannerHolder, false);
+      if (visibilityTracker != null && bannerHolder.boundItem != null) {
+        visibilityTracker.onSlotAttached(bannerHolder.boundItem, bannerHolder.itemView);
+      }
+    }
+  }
+
+  @Override
+  public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+    if (holder instanceof BannerAdHolder bannerHolder) {
+      setEvictable(bannerHolder, true);
+      if (visibilityTracker != null && bannerHolder.boundItem != null) {
+        visibilityTracker.onSlotDetached(bannerHolder.boundItem);
+      }
+    }
+  }
+
+  private static void setEvictable(BannerAdHolder bannerHolder, boolean evictable) {
+    BannerItem bannerItem = bannerHolder.boundItem;
+    if (bannerItem != null && bannerItem.memoryHandle != null) {
+      bannerItem.memoryHandle.setEvictable(evictable);
+    }
+  }
+
   @Override
   public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
     if (holder instanceof BannerAdHolder bannerHolder) {
+      bannerHolder.boundItem = null;
       // Detach the banner ad from the recycled view holder.
       CardView bannerViewContainer = bannerHolder.getBannerViewContainer();
       if (bannerViewContainer != null) {
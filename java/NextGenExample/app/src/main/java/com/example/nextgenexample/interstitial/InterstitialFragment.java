@@ -21,22 +21,26 @@ import static com.example.nextgenexample.Constant.TAG;
 import android.app.AlertDialog;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentInterstitialBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.example.nextgenexample.pacing.AdPacer;
+import com.example.nextgenexample.preloading.AdAvailabilityTracker;
+import com.example.nextgenexample.preloading.AdaptiveBufferController;
+import com.example.nextgenexample.preloading.PreloadController;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
 import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAd;
 import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAdPreloader;
 
 /** A [Fragment] subclass that preloads interstitial ads. */
 public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding> {
@@ -49,6 +53,8 @@ public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding
   private boolean gamePaused;
   private boolean gameOver;
   private long timeLeftMillis;
+  // Adapts the buffer size and pauses preloading while the ad unit's circuit is open.
+  private PreloadController<InterstitialAd> preloadController;
 
   @Override
   protected BindingInflater<FragmentInterstitialBinding> getBindingInflater() {
@@ -58,52 +64,69 @@ public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
-    // Start preloading.
-    startPreloading();
+    // Start preloading with the buffer size adapted to previous sessions.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.interstitialPreloader(),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
 
     startGame();
 
     // Initialize the UI.
-    binding.playAgainButton.setOnClickListener(
-        sender -> {
-          startGame();
-          updateUI();
-        });
-    updateUI();
+    binding.playAgainButton.setOnClickListener(sender -> startGame());
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
   }
 
-  private void startPreloading() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call start() or pollAd() within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(TAG, "Interstitial ad failed to preload with error: " + loadAdError.getMessage());
-          }
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {
+      Log.d(TAG, "Interstitial preloading started with a buffer of " + bufferSize + ".");
+    }
 
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "Interstitial ads exhausted.");
-            showToast("Interstitial ads exhausted.");
-            updateUI();
-          }
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "Interstitial ad failed to preload with error: " + failure.message());
+    }
 
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "Interstitial ad preloaded.");
-            showToast("Interstitial ad preloaded.");
-            updateUI();
-          }
-        };
-    AdRequest adRequest = new AdRequest.Builder(AD_UNIT_ID).build();
-    PreloadConfiguration preloadConfiguration = new PreloadConfiguration(adRequest);
-    InterstitialAdPreloader.start(AD_UNIT_ID, preloadConfiguration, preloadCallback);
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "Interstitial ads exhausted.");
+      showToast("Interstitial ads exhausted.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "Interstitial ad preloaded.");
+      showToast("Interstitial ad preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(TAG, "Interstitial preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void showInterstitial() {
+    if (preloadController == null) {
+      return;
+    }
+    // Check the frequency cap before polling so that a capped ad stays in the buffer.
+    AdPacer adPacer = AdPacer.getInstance(requireContext());
+    if (!adPacer.canShow(AdPacer.Format.INTERSTITIAL)) {
+      Log.i(TAG, "Interstitial ad skipped by frequency cap.");
+      return;
+    }
+
     // Polling returns the next available ad and loads another ad in the background.
-    InterstitialAd ad = InterstitialAdPreloader.pollAd(AD_UNIT_ID);
+    InterstitialAd ad = preloadController.pollAd();
     if (ad == null) {
       Log.i(TAG, "No preloaded interstitial ads available.");
       return;
@@ -113,6 +136,11 @@ public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding
     Log.d(TAG, "Interstitial ad response info: " + ad.getResponseInfo());
     ad.setAdEventCallback(
         new InterstitialAdEventCallback() {
+          @Override
+          public void onAdShowedFullScreenContent() {
+            adPacer.recordShow(AdPacer.Format.INTERSTITIAL);
+          }
+
           @Override
           public void onAdImpression() {
             Log.d(TAG, "Interstitial ad recorded an impression.");
@@ -125,22 +153,21 @@ public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding
                 String.format(
                     "Interstitial ad onAdPaid: %d %s",
                     value.getValueMicros(), value.getCurrencyCode()));
+            RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+            revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+            Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
           }
         });
 
     ad.show(requireActivity());
-    updateUI();
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          if (InterstitialAdPreloader.isAdAvailable(AD_UNIT_ID)) {
-            binding.txtStatus.setText(R.string.available);
-          } else {
-            binding.txtStatus.setText(R.string.exhausted);
-          }
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    if (isAdAvailable) {
+      binding.txtStatus.setText(R.string.available);
+    } else {
+      binding.txtStatus.setText(R.string.exhausted);
+    }
   }
 
   /**
@@ -234,7 +261,8 @@ public class InterstitialFragment extends AdFragment<FragmentInterstitialBinding
   @Override
   public void onDestroyView() {
     super.onDestroyView();
-    // To stop preloading ads, call destroy() with a preload ID.
-    InterstitialAdPreloader.destroy(AD_UNIT_ID);
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
   }
 }
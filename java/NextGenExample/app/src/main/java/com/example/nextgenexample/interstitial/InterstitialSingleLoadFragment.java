@@ -19,20 +19,30 @@ package com.example.nextgenexample.interstitial;
 import android.app.AlertDialog;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentInterstitialBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.example.nextgenexample.prefetch.NavigationPrefetcher;
+import com.example.nextgenexample.prefetch.PrefetchScheduler;
+import com.example.nextgenexample.request.AdRace;
+import com.example.nextgenexample.request.RetryPolicy;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAd;
 import com.google.android.libraries.ads.mobile.sdk.interstitial.InterstitialAdEventCallback;
+import java.util.List;
 
 /** An [AdFragment] subclass that loads an interstitial ad. */
 public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstitialBinding> {
@@ -41,9 +51,44 @@ public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstit
 
   // Sample interstitial ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/1033173712";
+  // Sample video interstitial ad unit ID, raced as the lower-floor backup.
+  private static final String BACKUP_AD_UNIT_ID = "ca-app-pub-3940256099942544/8691691433";
+  // The backup starts if the primary has not filled by then, or right away if it fails.
+  private static final long BACKUP_DELAY_MILLIS = 1500L;
+  // How long a backup fill waits for the primary to fill instead.
+  private static final long UPGRADE_WINDOW_MILLIS = 300L;
+  /** The primary ad that the menu may prefetch for this destination. */
+  public static final PrefetchScheduler.Target<InterstitialAd> PREFETCH_TARGET =
+      new PrefetchScheduler.Target<>(
+          R.id.InterstitialSingleLoadFragment, AD_UNIT_ID, AdBackends.interstitial());
   private static final long COUNTDOWN_INTERVAL = 50L;
   private static final long GAME_LENGTH_MILLISECONDS = 5000L;
-  private InterstitialAd interstitialAd;
+  // Keeps the loaded ad across configuration changes.
+  private AdHolderViewModel<InterstitialAd> interstitialAdHolder;
+  private AdRace<InterstitialAd> adRace;
+  private boolean isWaitingForPrefetch;
+  // Retries a failed load once the retry policy allows it.
+  private final Handler retryHandler = new Handler(Looper.getMainLooper());
+  private final Runnable retryLoad = this::loadAd;
+  private final AdBackend.LoadCallback<InterstitialAd> prefetchCallback =
+      new AdBackend.LoadCallback<>() {
+        @Override
+        public void onAdLoaded(InterstitialAd interstitialAd) {
+          isWaitingForPrefetch = false;
+          interstitialAdHolder.set(interstitialAd);
+          RetryPolicy.getInstance().onSuccess(AD_UNIT_ID);
+          showToast("Interstitial ad loaded.");
+          Log.d(Constant.TAG, "Interstitial ad loaded from the prefetch.");
+        }
+
+        @Override
+        public void onAdFailedToLoad(AdFailure failure) {
+          isWaitingForPrefetch = false;
+          Log.w(Constant.TAG, "Prefetched interstitial ad failed to load: " + failure);
+          // Race both ad units instead, which reports a failure to the retry policy.
+          scheduleRetry(0L);
+        }
+      };
   private CountDownTimer countDownTimer;
   private boolean gamePaused;
   private boolean gameOver;
@@ -54,6 +99,13 @@ public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstit
     return FragmentInterstitialBinding::inflate;
   }
 
+  @Override
+  public void onCreate(@Nullable Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    // An interstitial ad holds nothing to release.
+    interstitialAdHolder = AdHolderViewModel.of(this, InterstitialAd.class, unusedAd -> {});
+  }
+
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
@@ -74,32 +126,76 @@ public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstit
 
   /** Load a new interstitial ad if one isn't already loaded. */
   private void loadAd() {
-    if (interstitialAd != null) {
-      Log.d(Constant.TAG, "Interstitial ad already loaded.");
+    if (interstitialAdHolder.get() != null) {
+      Log.d(
+          Constant.TAG,
+          "Interstitial ad already loaded " + interstitialAdHolder.getAgeMillis() + " ms ago.");
+      return;
+    }
+    if (isWaitingForPrefetch || adRace != null) {
+      Log.d(Constant.TAG, "Interstitial ad already loading.");
+      return;
+    }
+
+    // Use the ad prefetched when the menu entry was pressed, if there is one. A loaded ad is
+    // handed over before take() returns.
+    isWaitingForPrefetch = true;
+    if (NavigationPrefetcher.getInstance().take(PREFETCH_TARGET, prefetchCallback)) {
+      Log.d(Constant.TAG, "Interstitial ad served by the prefetch.");
+      return;
+    }
+    isWaitingForPrefetch = false;
+
+    // Wait out the backoff of previous failures instead of loading on every tap.
+    RetryPolicy retryPolicy = RetryPolicy.getInstance();
+    long delayMillis = retryPolicy.getDelayMillis(AD_UNIT_ID);
+    if (delayMillis > 0) {
+      Log.d(Constant.TAG, "Interstitial ad load deferred for " + delayMillis + " ms.");
+      scheduleRetry(delayMillis);
       return;
     }
 
-    InterstitialAd.load(
-        new AdRequest.Builder(AD_UNIT_ID).build(),
-        new AdLoadCallback<InterstitialAd>() {
+    adRace =
+        new AdRace<>(
+            List.of(AD_UNIT_ID, BACKUP_AD_UNIT_ID),
+            AdBackends.interstitial(),
+            BACKUP_DELAY_MILLIS,
+            UPGRADE_WINDOW_MILLIS,
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            SystemClock::elapsedRealtime);
+    adRace.start(
+        new AdRace.Callback<InterstitialAd>() {
           @Override
-          public void onAdLoaded(@NonNull InterstitialAd interstitialAd) {
-            InterstitialSingleLoadFragment.this.interstitialAd = interstitialAd;
+          public void onAdLoaded(
+              @NonNull InterstitialAd interstitialAd,
+              @NonNull String adUnitId,
+              long timeToFillMillis) {
+            adRace = null;
+            interstitialAdHolder.set(interstitialAd);
+            retryPolicy.onSuccess(AD_UNIT_ID);
             showToast("Interstitial ad loaded.");
-            Log.d(Constant.TAG, "Interstitial ad loaded.");
+            Log.d(
+                Constant.TAG,
+                "Interstitial ad loaded from " + adUnitId + " in " + timeToFillMillis + " ms.");
           }
 
           @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            interstitialAd = null;
+          public void onAdFailedToLoad(@NonNull AdFailure failure) {
+            // Called when both ad units failed.
+            adRace = null;
+            interstitialAdHolder.clear();
             showToast("Interstitial ad failed to load.");
-            Log.w(Constant.TAG, "Interstitial ad failed to load: " + adError);
+            Log.w(Constant.TAG, "Interstitial ad failed to load: " + failure);
+            long retryDelayMillis = retryPolicy.onFailure(AD_UNIT_ID, failure);
+            Log.d(Constant.TAG, "Interstitial ad load retry in " + retryDelayMillis + " ms.");
+            scheduleRetry(retryDelayMillis);
           }
         });
   }
 
   /** Show the ad if it's ready. Otherwise attempt to load an ad and restart the game. */
   private void showInterstitial() {
+    InterstitialAd interstitialAd = interstitialAdHolder.get();
     if (interstitialAd == null) {
       loadAd();
       startGame();
@@ -117,14 +213,14 @@ public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstit
 
           @Override
           public void onAdDismissedFullScreenContent() {
-            interstitialAd = null;
+            interstitialAdHolder.clear();
             Log.d(Constant.TAG, "Interstitial ad dismissed.");
           }
 
           @Override
           public void onAdFailedToShowFullScreenContent(
               @NonNull FullScreenContentError fullScreenContentError) {
-            interstitialAd = null;
+            interstitialAdHolder.clear();
             showToast("Interstitial ad failed to show.");
             Log.w(Constant.TAG, "Interstitial ad failed to show: " + fullScreenContentError);
           }
@@ -231,4 +327,24 @@ public class InterstitialSingleLoadFragment extends AdFragment<FragmentInterstit
     super.onPause();
     pauseGame();
   }
+
+  @Override
+  public void onDestroyView() {
+    retryHandler.removeCallbacks(retryLoad);
+    if (adRace != null) {
+      adRace.cancel();
+      adRace = null;
+    }
+    super.onDestroyView();
+  }
+
+  /** Loads again after {@code delayMillis}, replacing any retry already scheduled. */
+  private void scheduleRetry(long delayMillis) {
+    if (getView() == null) {
+      // The view was destroyed while the load was in flight.
+      return;
+    }
+    retryHandler.removeCallbacks(retryLoad);
+    retryHandler.postDelayed(retryLoad, delayMillis);
+  }
 }
@@ -25,6 +25,7 @@ import android.widget.FrameLayout;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdRenderScheduler;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.databinding.FragmentFluidSizeBinding;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
@@ -43,7 +44,11 @@ public class AdManagerFluidSizeFragment extends AdFragment<FragmentFluidSizeBind
 
   private static final String AD_UNIT_ID = "/21775744923/example/api-demo/fluid";
 
+  // Main-thread time per frame available to ad rendering.
+  private static final long FRAME_BUDGET_MILLIS = 4L;
+
   private FrameLayout fluidAdContainer;
+  private AdRenderScheduler renderScheduler;
 
   @Override
   protected BindingInflater<FragmentFluidSizeBinding> getBindingInflater() {
@@ -57,6 +62,7 @@ public class AdManagerFluidSizeFragment extends AdFragment<FragmentFluidSizeBind
     super.onViewCreated(view, savedInstanceState);
 
     fluidAdContainer = binding.adViewContainer;
+    renderScheduler = new AdRenderScheduler(requireContext(), FRAME_BUDGET_MILLIS);
 
     binding.fluidWidthChangeBtn.setOnClickListener(
         v -> {
@@ -89,6 +95,10 @@ public class AdManagerFluidSizeFragment extends AdFragment<FragmentFluidSizeBind
         new AdLoadCallback<>() {
           @Override
           public void onAdLoaded(@NonNull BannerAd ad) {
+            // AdFragment destroys the ad with the view, or right away if the view is gone.
+            if (!trackAd(ad, BannerAd::destroy)) {
+              return;
+            }
             ad.setAdEventCallback(
                 new BannerAdEventCallback() {
                   @Override
@@ -102,8 +112,11 @@ public class AdManagerFluidSizeFragment extends AdFragment<FragmentFluidSizeBind
                   }
                 });
 
+            // The ad renders its own view, so only the attach is scheduled.
             Activity activity = requireActivity();
-            activity.runOnUiThread(
+            renderScheduler.commit(
+                "fluid_ad",
+                AdRenderScheduler.Urgency.DEFERRABLE,
                 () -> {
                   fluidAdContainer.removeAllViews();
                   fluidAdContainer.addView(ad.getView(activity));
@@ -120,4 +133,10 @@ public class AdManagerFluidSizeFragment extends AdFragment<FragmentFluidSizeBind
           }
         });
   }
+
+  @Override
+  public void onDestroyView() {
+    renderScheduler.release();
+    super.onDestroyView();
+  }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.nativead;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.core.content.ContextCompat;
+import androidx.core.view.ViewCompat;
+import com.example.nextgenexample.R;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
+import com.google.android.libraries.ads.mobile.sdk.nativead.MediaContent;
+import java.util.WeakHashMap;
+
+/**
+ * Draws the same play and mute controls as {@link CustomVideoControlsView} without inflating a
+ * layout or creating child views, for native video ads shown in lists.
+ *
+ * <p>All instances that share a theme draw with a single set of state list drawables.
+ */
+public class CompactVideoControlsView extends View
+    implements VideoController.VideoLifecycleCallbacks {
+
+  private static final int[] STATE_ACTIVATED = {android.R.attr.state_activated};
+  private static final int[] STATE_DEFAULT = {};
+
+  private final Drawables drawables;
+  private final Paint backgroundPaint = new Paint();
+  private final int buttonSize;
+  private final VideoControlsState state;
+  private int playActionId = View.NO_ID;
+  private int muteActionId = View.NO_ID;
+
+  /** State list drawables shared by all controls that use the same theme. */
+  private static final class Drawables {
+    // Only accessed on the main thread.
+    private static final WeakHashMap<Resources.Theme, Drawables> cache = new WeakHashMap<>();
+
+    final Drawable playToggle;
+    final Drawable muteToggle;
+
+    private Drawables(Context context) {
+      playToggle = ContextCompat.getDrawable(context, R.drawable.video_play_toggle);
+      muteToggle = ContextCompat.getDrawable(context, R.drawable.video_mute_toggle);
+    }
+
+    @MainThread
+    static Drawables forTheme(Context context) {
+      Drawables drawables = cache.get(context.getTheme());
+      if (drawables == null) {
+        drawables = new Drawables(context);
+        cache.put(context.getTheme(), drawables);
+      }
+      return drawables;
+    }
+  }
+
+  public CompactVideoControlsView(@NonNull Context context) {
+    this(context, null);
+  }
+
+  public CompactVideoControlsView(@NonNull Context context, @Nullable AttributeSet attrs) {
+    this(context, attrs, 0);
+  }
+
+  public CompactVideoControlsView(
+      @NonNull Context context, @Nullable AttributeSet attrs, int defStyle) {
+    super(context, attrs, defStyle);
+    drawables = Drawables.forTheme(context);
+    buttonSize = getResources().getDimensionPixelSize(R.dimen.video_control_size);
+    backgroundPaint.setColor(ContextCompat.getColor(context, R.color.video_control_background));
+    state =
+        new VideoControlsState(
+            new VideoControlsState.Renderer() {
+              @Override
+              public void renderPlaying(boolean isPlaying) {
+                invalidate();
+                describeActions();
+              }
+
+              @Override
+              public void renderMuted(boolean isMuted) {
+                invalidate();
+                describeActions();
+              }
+            });
+    describeActions();
+    setVisibility(View.GONE);
+  }
+
+  /** Sets up the controls for the video in {@code mediaContent} with the given mute state. */
+  public void initialize(MediaContent mediaContent, boolean muted) {
+    setVisibility(state.bind(mediaContent, muted) ? View.VISIBLE : View.GONE);
+  }
+
+  /**
+   * Offers play and mute to screen readers as actions labeled with what they do now, since the
+   * buttons are drawn rather than being views of their own.
+   */
+  private void describeActions() {
+    ViewCompat.removeAccessibilityAction(this, playActionId);
+    ViewCompat.removeAccessibilityAction(this, muteActionId);
+    playActionId =
+        addAction(
+            state.isPlaying() ? R.string.video_controls_pause : R.string.video_controls_play,
+            state::togglePlayback);
+    muteActionId =
+        addAction(
+            state.isMuted() ? R.string.video_controls_unmute : R.string.video_controls_mute,
+            state::toggleMute);
+  }
+
+  private int addAction(@StringRes int labelRes, Runnable command) {
+    return ViewCompat.addAccessibilityAction(
+        this,
+        getContext().getString(labelRes),
+        (view, arguments) -> {
+          command.run();
+          return true;
+        });
+  }
+
+  @Override
+  protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    setMeasuredDimension(
+        resolveSize(2 * buttonSize, widthMeasureSpec), resolveSize(buttonSize, heightMeasureSpec));
+  }
+
+  @Override
+  protected void onDraw(@NonNull Canvas canvas) {
+    super.onDraw(canvas);
+    drawButton(canvas, 0, drawables.playToggle, state.isPlaying());
+    drawButton(canvas, buttonSize, drawables.muteToggle, state.isMuted());
+  }
+
+  private void drawButton(Canvas canvas, int left, Drawable drawable, boolean isActivated) {
+    canvas.drawRect(left, 0, left + buttonSize, buttonSize, backgroundPaint);
+    // The drawable is shared, so set its state and bounds right before drawing it.
+    drawable.setState(isActivated ? STATE_ACTIVATED : STATE_DEFAULT);
+    Drawable icon = drawable.getCurrent();
+    // Scale the icon down to fit the button, like an ImageButton with centerInside.
+    int width = icon.getIntrinsicWidth() > 0 ? icon.getIntrinsicWidth() : buttonSize;
+    int height = icon.getIntrinsicHeight() > 0 ? icon.getIntrinsicHeight() : buttonSize;
+    float scale = Math.min(1f, Math.min((float) buttonSize / width, (float) buttonSize / height));
+    int scaledWidth = Math.round(width * scale);
+    int scaledHeight = Math.round(height * scale);
+    int iconLeft = left + (buttonSize - scaledWidth) / 2;
+    int iconTop = (buttonSize - scaledHeight) / 2;
+    drawable.setBounds(iconLeft, iconTop, iconLeft + scaledWidth, iconTop + scaledHeight);
+    drawable.draw(canvas);
+  }
+
+  @Override
+  public boolean onTouchEvent(MotionEvent event) {
+    if (!isEnabled()) {
+      return false;
+    }
+    switch (event.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        return true;
+      case MotionEvent.ACTION_UP:
+        if (event.getY() < buttonSize) {
+          if (event.getX() < buttonSize) {
+            state.togglePlayback();
+          } else if (event.getX() < 2 * buttonSize) {
+            state.toggleMute();
+          }
+        }
+        performClick();
+        return true;
+      default:
+        return super.onTouchEvent(event);
+    }
+  }
+
+  @Override
+  public boolean performClick() {
+    return super.performClick();
+  }
+
+  @Override
+  public void onVideoMute(boolean muted) {
+    state.onVideoMute(muted);
+  }
+
+  @Override
+  public void onVideoPause() {
+    state.onVideoPause();
+  }
+
+  @Override
+  public void onVideoPlay() {
+    state.onVideoPlay();
+  }
+
+  @Override
+  public void onVideoStart() {
+    state.onVideoStart();
+  }
+
+  @Override
+  public void onVideoEnd() {
+    state.onVideoEnd();
+  }
+}
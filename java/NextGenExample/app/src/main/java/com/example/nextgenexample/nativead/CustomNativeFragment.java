@@ -18,17 +18,25 @@ package com.example.nextgenexample.nativead;
 
 import android.app.Activity;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
+import com.example.nextgenexample.AdLayoutCache;
+import com.example.nextgenexample.AdMemoryGovernor;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.R;
 import com.example.nextgenexample.databinding.CustomNativeAdBinding;
 import com.example.nextgenexample.databinding.FragmentCustomNativeBinding;
 import com.example.nextgenexample.databinding.NativeAdBinding;
+import com.example.nextgenexample.request.AdRequestKey;
+import com.example.nextgenexample.request.RequestTemplate;
+import com.example.nextgenexample.request.RequestTemplateRegistry;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
 import com.google.android.libraries.ads.mobile.sdk.common.Image;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
@@ -61,68 +69,153 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
   public static final String VIDEO_AD_UNIT_ID = "/21775744923/example/native-video";
   // Sample custom native format ID.
   public static final String VIDEO_FORMAT_ID = "12406343";
-
-  private CustomNativeAd lastCustomNativeAd;
-  private NativeAd lastNativeAd;
+  // At most one native video plays at a time, once at least half of it is on screen.
+  private static final int MAX_PLAYING_VIDEOS = 1;
+  private static final float MIN_VISIBLE_FRACTION = 0.5f;
+
+  /** The request options the user can change between loads. */
+  private record NativeVariant(
+      boolean requestVideo,
+      boolean requestCustomNative,
+      boolean startMuted,
+      boolean customControlsRequested) {}
+
+  private static final RequestTemplate<NativeVariant, NativeAdRequest> REQUEST_TEMPLATE =
+      RequestTemplateRegistry.getInstance()
+          .register(
+              "custom_native",
+              CustomNativeFragment::buildAdRequest,
+              // The key has no dedicated fields for native options, so they are keyed as extras.
+              variant ->
+                  AdRequestKey.builder(
+                          variant.requestVideo() ? VIDEO_AD_UNIT_ID : IMAGE_AD_UNIT_ID)
+                      .putExtra("ad_type", variant.requestCustomNative() ? "custom" : "native")
+                      .putExtra("start_muted", String.valueOf(variant.startMuted()))
+                      .putExtra(
+                          "custom_controls", String.valueOf(variant.customControlsRequested()))
+                      .build());
+
+  // Keep the displayed ad across configuration changes.
+  private AdHolderViewModel<CustomNativeAd> customNativeAdHolder;
+  private AdHolderViewModel<NativeAd> nativeAdHolder;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
   private CustomVideoControlsView customControls;
+  // Tracks the memory of the displayed video ad, if any.
+  private AdMemoryGovernor.Handle videoAdMemoryHandle;
   private boolean isUIEnabled = true;
+  private VideoPlaybackCoordinator videoPlaybackCoordinator;
+  private VideoPlaybackCoordinator.Handle videoPlaybackHandle;
 
   @Override
   protected BindingInflater<FragmentCustomNativeBinding> getBindingInflater() {
     return FragmentCustomNativeBinding::inflate;
   }
 
+  @Override
+  public void onCreate(@Nullable Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    customNativeAdHolder =
+        AdHolderViewModel.of(this, CustomNativeAd.class, CustomNativeAd::destroy);
+    nativeAdHolder = AdHolderViewModel.of(this, NativeAd.class, NativeAd::destroy);
+  }
+
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
     binding.refreshAdButton.setOnClickListener(unusedView -> loadAd());
     binding.checkRequestVideo.setOnClickListener(unusedView -> updateUI());
+    videoPlaybackCoordinator =
+        new VideoPlaybackCoordinator(
+            MAX_PLAYING_VIDEOS, MIN_VISIBLE_FRACTION, binding.checkStartMuted.isChecked());
+    videoPlaybackCoordinator.attach(view);
+
+    // Show the ad kept across a configuration change instead of requesting a new one.
+    NativeAd nativeAd = nativeAdHolder.get();
+    CustomNativeAd customNativeAd = customNativeAdHolder.get();
+    if (nativeAd != null) {
+      setNativeAdEventCallback(nativeAd);
+      displayNativeAd(nativeAd);
+    } else if (customNativeAd != null) {
+      displayCustomNativeAd(customNativeAd);
+    }
+  }
+
+  @Override
+  public void onResume() {
+    super.onResume();
+    if (videoPlaybackCoordinator != null) {
+      videoPlaybackCoordinator.setActive(true);
+    }
+  }
+
+  @Override
+  public void onPause() {
+    super.onPause();
+    if (videoPlaybackCoordinator != null) {
+      videoPlaybackCoordinator.setActive(false);
+    }
   }
 
   public void onDestroyView() {
+    videoPlaybackCoordinator.detach();
+    videoPlaybackCoordinator = null;
+    // The ad holders destroy the ads once this fragment is finished.
     super.onDestroyView();
-
-    // Always call destroy() on ads on removal.
-    destroyNativeAds();
+    releaseVideo();
   }
 
   private void destroyNativeAds() {
-    if (lastCustomNativeAd != null) {
-      lastCustomNativeAd.destroy();
-      lastCustomNativeAd = null;
-    }
-    if (lastNativeAd != null) {
-      lastNativeAd.destroy();
-      lastNativeAd = null;
-    }
+    customNativeAdHolder.clear();
+    nativeAdHolder.clear();
+    releaseVideo();
+  }
+
+  /** Releases the video state of the displayed ad, which belongs to the view. */
+  private void releaseVideo() {
     if (customControls != null) {
       customControls = null;
     }
+    if (videoPlaybackHandle != null) {
+      videoPlaybackHandle.release();
+      videoPlaybackHandle = null;
+    }
+    if (videoAdMemoryHandle != null) {
+      videoAdMemoryHandle.release();
+      videoAdMemoryHandle = null;
+    }
+  }
+
+  /** Tracks the displayed video ad so it can be released under memory pressure. */
+  private void registerVideoAdMemory() {
+    videoAdMemoryHandle =
+        AdMemoryGovernor.getInstance()
+            .register(
+                AdMemoryGovernor.Tier.NATIVE_VIDEO,
+                AdMemoryGovernor.NATIVE_VIDEO_AD_BYTES,
+                () -> {
+                  if (binding != null) {
+                    binding.nativeViewContainer.removeAllViews();
+                    binding.textVideoStatus.setText(getString(R.string.nativead_video_none));
+                  }
+                  destroyNativeAds();
+                },
+                true);
   }
 
   private void loadAd() {
     setUIEnabled(false);
 
-    // Build an ad request with native ad options to customize the user experience.
-    String adUnitID = binding.checkRequestVideo.isChecked() ? VIDEO_AD_UNIT_ID : IMAGE_AD_UNIT_ID;
-    String formatID = binding.checkRequestVideo.isChecked() ? VIDEO_FORMAT_ID : IMAGE_FORMAT_ID;
-
-    NativeAdType adType =
-        binding.checkRequestCustomNative.isChecked()
-            ? NativeAdType.CUSTOM_NATIVE
-            : NativeAdType.NATIVE;
-
-    VideoOptions videoOptions =
-        new VideoOptions.Builder()
-            .setStartMuted(binding.checkStartMuted.isChecked())
-            .setCustomControlsRequested(binding.checkCustomControls.isChecked())
-            .build();
-
+    // Reuse the request built for the same options on a previous load.
     NativeAdRequest adRequest =
-        new NativeAdRequest.Builder(adUnitID, List.of(adType))
-            .setVideoOptions(videoOptions)
-            .setCustomFormatIds(Collections.singletonList(formatID))
-            .build();
+        REQUEST_TEMPLATE.getRequest(
+            new NativeVariant(
+                binding.checkRequestVideo.isChecked(),
+                binding.checkRequestCustomNative.isChecked(),
+                binding.checkStartMuted.isChecked(),
+                binding.checkCustomControls.isChecked()));
+
+    // Videos already on screen follow the mute state requested for the new ad.
+    videoPlaybackCoordinator.setMuted(binding.checkStartMuted.isChecked());
 
     // Define the callback to handle successful ad loading or failed ad loading.
     NativeAdLoaderCallback adCallback =
@@ -131,15 +224,20 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
           public void onNativeAdLoaded(@NonNull NativeAd nativeAd) {
             Log.d(Constant.TAG, "Native ad loaded.");
             showToast("Native ad loaded.");
-            runOnUiThread(
+            mainHandler.post(
                 () -> {
+                  // Ads loaded after the view was destroyed are destroyed right away.
+                  if (binding == null) {
+                    nativeAd.destroy();
+                    return;
+                  }
                   // Remove all old ad views when loading a new native ad.
                   binding.nativeViewContainer.removeAllViews();
                   // Always call destroy() on ads on removal.
                   destroyNativeAds();
+                  nativeAdHolder.set(nativeAd);
                   setNativeAdEventCallback(nativeAd);
                   displayNativeAd(nativeAd);
-                  lastNativeAd = nativeAd;
                   setUIEnabled(true);
                 });
           }
@@ -148,14 +246,19 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
           public void onCustomNativeAdLoaded(@NonNull CustomNativeAd customNativeAd) {
             Log.d(Constant.TAG, "Custom native ad loaded.");
             showToast("Custom native ad loaded.");
-            runOnUiThread(
+            mainHandler.post(
                 () -> {
+                  // Ads loaded after the view was destroyed are destroyed right away.
+                  if (binding == null) {
+                    customNativeAd.destroy();
+                    return;
+                  }
                   // Remove all old ad views when loading a new native ad.
                   binding.nativeViewContainer.removeAllViews();
                   // Always call destroy() on ads on removal.
                   destroyNativeAds();
+                  customNativeAdHolder.set(customNativeAd);
                   displayCustomNativeAd(customNativeAd);
-                  lastCustomNativeAd = customNativeAd;
                   setUIEnabled(true);
                 });
           }
@@ -172,6 +275,26 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
     NativeAdLoader.load(adRequest, adCallback);
   }
 
+  private static NativeAdRequest buildAdRequest(NativeVariant variant) {
+    // Build an ad request with native ad options to customize the user experience.
+    String adUnitID = variant.requestVideo() ? VIDEO_AD_UNIT_ID : IMAGE_AD_UNIT_ID;
+    String formatID = variant.requestVideo() ? VIDEO_FORMAT_ID : IMAGE_FORMAT_ID;
+
+    NativeAdType adType =
+        variant.requestCustomNative() ? NativeAdType.CUSTOM_NATIVE : NativeAdType.NATIVE;
+
+    VideoOptions videoOptions =
+        new VideoOptions.Builder()
+            .setStartMuted(variant.startMuted())
+            .setCustomControlsRequested(variant.customControlsRequested())
+            .build();
+
+    return new NativeAdRequest.Builder(adUnitID, List.of(adType))
+        .setVideoOptions(videoOptions)
+        .setCustomFormatIds(Collections.singletonList(formatID))
+        .build();
+  }
+
   private void setNativeAdEventCallback(NativeAd nativeAd) {
     nativeAd.setAdEventCallback(
         new NativeAdEventCallback() {
@@ -208,7 +331,10 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
 
   private void displayNativeAd(NativeAd nativeAd) {
     // Inflate the native ad view and add to the active view hierarchy.
-    NativeAdBinding nativeAdBinding = NativeAdBinding.inflate(getLayoutInflater());
+    NativeAdBinding nativeAdBinding =
+        NativeAdBinding.bind(
+            AdLayoutCache.getInstance()
+                .inflate(getLayoutInflater(), R.layout.native_ad, binding.nativeViewContainer));
     NativeAdView nativeAdView = nativeAdBinding.getRoot();
     binding.nativeViewContainer.addView(nativeAdView);
 
@@ -259,12 +385,15 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
     if (videoController != null && mediaContent.getHasVideoContent() && mediaView != null) {
       // If the main asset is a video, set the videoLifecycleCallbacks.
       binding.textVideoStatus.setText(getString(R.string.nativead_video_play));
-      videoController.setVideoLifecycleCallbacks(getVideoCallbacks());
+      videoPlaybackHandle =
+          videoPlaybackCoordinator.register(mediaView, videoController, getVideoCallbacks());
+      registerVideoAdMemory();
 
       // Initialize custom controls if custom controls are enabled.
       if (videoController.isCustomControlsEnabled()) {
         customControls = new CustomVideoControlsView(requireContext());
         customControls.initialize(mediaContent, binding.checkStartMuted.isChecked());
+        customControls.setOnUserInteractionListener(videoPlaybackHandle::onUserInteraction);
         nativeAdBinding.videoHolder.addView(customControls);
         nativeAdBinding.videoHolder.bringChildToFront(customControls);
       }
@@ -277,7 +406,10 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
   private void displayCustomNativeAd(CustomNativeAd customNativeAd) {
     // Inflate the native ad view and add it to the view hierarchy.
     CustomNativeAdBinding customTemplateBinding =
-        CustomNativeAdBinding.inflate(getLayoutInflater());
+        CustomNativeAdBinding.bind(
+            AdLayoutCache.getInstance()
+                .inflate(
+                    getLayoutInflater(), R.layout.custom_native_ad, binding.nativeViewContainer));
     binding.nativeViewContainer.addView(customTemplateBinding.getRoot());
 
     // Render the text elements.
@@ -309,13 +441,16 @@ public class CustomNativeFragment extends AdFragment<FragmentCustomNativeBinding
       VideoController videoController = mediaContent.getVideoController();
       if (videoController != null) {
         // If the main asset is a video, set the videoLifecycleCallbacks.
-        videoController.setVideoLifecycleCallbacks(getVideoCallbacks());
+        videoPlaybackHandle =
+            videoPlaybackCoordinator.register(mediaView, videoController, getVideoCallbacks());
         binding.textVideoStatus.setText(getString(R.string.nativead_video_play));
+        registerVideoAdMemory();
 
         // Initialize custom controls.
         if (videoController.isCustomControlsEnabled()) {
           customControls = new CustomVideoControlsView(requireContext());
           customControls.initialize(mediaContent, binding.checkStartMuted.isChecked());
+          customControls.setOnUserInteractionListener(videoPlaybackHandle::onUserInteraction);
           customTemplateBinding.mediaPlaceholder.addView(customControls);
           customTemplateBinding.mediaPlaceholder.bringChildToFront(customControls);
         }
@@ -1,14 +1,15 @@
 package com.example.nextgenexample.nativead;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
-import androidx.core.content.ContextCompat;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
 import com.example.nextgenexample.R;
 import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
 import com.google.android.libraries.ads.mobile.sdk.nativead.MediaContent;
@@ -16,13 +17,17 @@ import com.google.android.libraries.ads.mobile.sdk.nativead.MediaContent;
 /**
  * This view represents the status of a video controller and also displays custom controls for the
  * video controller when appropriate.
+ *
+ * <p>The buttons use state list drawables, so a state change only toggles their activated state
+ * and updates what screen readers announce for them.
  */
 public class CustomVideoControlsView extends LinearLayout
     implements VideoController.VideoLifecycleCallbacks {
   private ImageButton playButton;
   private ImageButton muteButton;
   private View controlsView;
-  private boolean isVideoPlaying;
+  private VideoControlsState state;
+  @Nullable private Runnable onUserInteraction;
 
   public CustomVideoControlsView(Context context) {
     super(context);
@@ -48,74 +53,81 @@ public class CustomVideoControlsView extends LinearLayout
     muteButton = findViewById(R.id.btn_mute);
     controlsView = findViewById(R.id.video_controls);
     controlsView.setVisibility(View.GONE);
+    state =
+        new VideoControlsState(
+            new VideoControlsState.Renderer() {
+              @Override
+              public void renderPlaying(boolean isPlaying) {
+                // Activated shows the pause icon.
+                playButton.setActivated(isPlaying);
+                describeAction(
+                    playButton,
+                    isPlaying ? R.string.video_controls_pause : R.string.video_controls_play);
+              }
+
+              @Override
+              public void renderMuted(boolean isMuted) {
+                muteButton.setActivated(isMuted);
+                describeAction(
+                    muteButton,
+                    isMuted ? R.string.video_controls_unmute : R.string.video_controls_mute);
+              }
+            });
+    muteButton.setOnClickListener(unusedView -> state.toggleMute());
+    playButton.setOnClickListener(
+        unusedView -> {
+          if (onUserInteraction != null) {
+            onUserInteraction.run();
+          }
+          state.togglePlayback();
+        });
+  }
+
+  /** Labels {@code button} and its click action with what a tap does now, for screen readers. */
+  private static void describeAction(ImageButton button, @StringRes int actionRes) {
+    CharSequence action = button.getContext().getString(actionRes);
+    button.setContentDescription(action);
+    ViewCompat.replaceAccessibilityAction(
+        button,
+        AccessibilityNodeInfoCompat.AccessibilityActionCompat.ACTION_CLICK,
+        action,
+        (view, arguments) -> view.performClick());
+  }
+
+  /** Runs {@code listener} when the user taps play or pause, before the command is issued. */
+  public void setOnUserInteractionListener(@Nullable Runnable listener) {
+    onUserInteraction = listener;
   }
 
   /*
    * Sets up the custom controls view with the provided VideoController and mute state.
    */
-  @SuppressLint("SetTextI18n")
   public void initialize(MediaContent mediaContent, final boolean muted) {
-    controlsView.setVisibility(View.GONE);
-    VideoController videoController = mediaContent.getVideoController();
-    if (mediaContent != null
-        && mediaContent.getHasVideoContent()
-        && videoController != null
-        && videoController.isCustomControlsEnabled()) {
-      controlsView.setVisibility(View.VISIBLE);
-      onVideoMute(muted);
-      muteButton.setOnClickListener(unusedView -> videoController.mute(!videoController.isMuted()));
-      playButton.setOnClickListener(
-          unusedView -> {
-            if (isVideoPlaying) {
-              videoController.pause();
-            } else {
-              videoController.play();
-            }
-          });
-    }
+    controlsView.setVisibility(state.bind(mediaContent, muted) ? View.VISIBLE : View.GONE);
   }
 
-  @SuppressLint("SetTextI18n")
   @Override
   public void onVideoMute(final boolean muted) {
-    Drawable img;
-    if (muted) {
-      img = ContextCompat.getDrawable(getContext(), R.drawable.video_mute);
-    } else {
-      img = ContextCompat.getDrawable(getContext(), R.drawable.video_unmute);
-    }
-    muteButton.setImageDrawable(img);
-    }
-
-  @SuppressLint("SetTextI18n")
+    state.onVideoMute(muted);
+  }
+
   @Override
   public void onVideoPause() {
-    Drawable img = ContextCompat.getDrawable(getContext(), R.drawable.video_play);
-    playButton.setImageDrawable(img);
-    isVideoPlaying = false;
+    state.onVideoPause();
   }
 
-  @SuppressLint("SetTextI18n")
   @Override
   public void onVideoPlay() {
-    Drawable img = ContextCompat.getDrawable(getContext(), R.drawable.video_pause);
-    playButton.setImageDrawable(img);
-    isVideoPlaying = true;
+    state.onVideoPlay();
   }
 
-  @SuppressLint("SetTextI18n")
   @Override
   public void onVideoStart() {
-    Drawable img = ContextCompat.getDrawable(getContext(), R.drawable.video_pause);
-    playButton.setImageDrawable(img);
-    isVideoPlaying = true;
+    state.onVideoStart();
   }
 
-  @SuppressLint("SetTextI18n")
   @Override
   public void onVideoEnd() {
-    Drawable img = ContextCompat.getDrawable(getContext(), R.drawable.video_play);
-    playButton.setImageDrawable(img);
-    isVideoPlaying = false;
+    state.onVideoEnd();
   }
 }
@@ -23,10 +23,16 @@ import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdLayoutCache;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentNativeBinding;
 import com.example.nextgenexample.databinding.NativeAdBinding;
+import com.example.nextgenexample.prefetch.NavigationPrefetcher;
+import com.example.nextgenexample.prefetch.PrefetchScheduler;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
 import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
@@ -50,6 +56,17 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
   private static final String IMAGE_AD_UNIT_ID = "ca-app-pub-3940256099942544/2247696110";
   // Sample native video ad unit ID.
   private static final String VIDEO_AD_UNIT_ID = "ca-app-pub-3940256099942544/1044960115";
+  /**
+   * The ad that the menu may prefetch for this destination. It matches the first request with the
+   * default options: a video ad that starts muted.
+   */
+  public static final PrefetchScheduler.Target<NativeAd> PREFETCH_TARGET =
+      new PrefetchScheduler.Target<>(
+          R.id.NativeFragment,
+          VIDEO_AD_UNIT_ID,
+          AdBackends.nativeAd(
+              List.of(NativeAdType.NATIVE),
+              new VideoOptions.Builder().setStartMuted(true).build()));
 
   private NativeAd lastNativeAd;
   private boolean isUIEnabled = true;
@@ -76,17 +93,16 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
 
   @Override
   public void onDestroyView() {
+    Log.d(Constant.TAG, "Ad layout display latency: " + AdLayoutCache.getInstance().describe());
+    // AdFragment destroys the tracked native ad.
     super.onDestroyView();
-
-    // Always call destroy() on ads on removal.
-    destroyNativeAd();
-    }
+    lastNativeAd = null;
+    customControls = null;
+  }
 
   private void destroyNativeAd() {
-    if (lastNativeAd != null) {
-      lastNativeAd.destroy();
-      lastNativeAd = null;
-    }
+    destroyAd(lastNativeAd);
+    lastNativeAd = null;
     customControls = null;
   }
 
@@ -111,6 +127,10 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
           @Override
           public void onNativeAdLoaded(@NonNull NativeAd nativeAd) {
             Log.d(Constant.TAG, "Native ad loaded.");
+            // Ads loaded after the view was destroyed are destroyed right away.
+            if (!trackAd(nativeAd, NativeAd::destroy)) {
+              return;
+            }
             showToast("Native ad loaded.");
             runOnUiThread(
                 () -> {
@@ -136,6 +156,29 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
           }
         };
 
+    // Use the ad prefetched when the menu entry was pressed, if there is one and the options still
+    // match it. A failed prefetch falls back to loading the ad.
+    if (adUnitID.equals(VIDEO_AD_UNIT_ID)
+        && binding.checkStartMuted.isChecked()
+        && NavigationPrefetcher.getInstance()
+            .take(
+                PREFETCH_TARGET,
+                new AdBackend.LoadCallback<>() {
+                  @Override
+                  public void onAdLoaded(NativeAd nativeAd) {
+                    adLoaderCallback.onNativeAdLoaded(nativeAd);
+                  }
+
+                  @Override
+                  public void onAdFailedToLoad(AdFailure failure) {
+                    Log.d(Constant.TAG, "Native ad prefetch failed: " + failure);
+                    NativeAdLoader.load(adRequest, adLoaderCallback);
+                  }
+                })) {
+      Log.d(Constant.TAG, "Native ad served by the prefetch.");
+      return;
+    }
+
     // Load the native ad with the ad request and callback.
     NativeAdLoader.load(adRequest, adLoaderCallback);
   }
@@ -176,7 +219,10 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
 
   private void displayNativeAd(NativeAd nativeAd) {
     // Inflate the native ad view and add to the active view hierarchy.
-    NativeAdBinding nativeAdBinding = NativeAdBinding.inflate(getLayoutInflater());
+    NativeAdBinding nativeAdBinding =
+        NativeAdBinding.bind(
+            AdLayoutCache.getInstance()
+                .inflate(getLayoutInflater(), R.layout.native_ad, binding.nativeViewContainer));
     NativeAdView nativeAdView = nativeAdBinding.getRoot();
     binding.nativeViewContainer.addView(nativeAdView);
 
@@ -217,6 +263,12 @@ public class NativeFragment extends AdFragment<FragmentNativeBinding> {
     nativeAdView.setIconView(nativeAdBinding.adIcon);
     nativeAdView.setStarRatingView(nativeAdBinding.adStars);
 
+    // A stand-in from the fake ad backend has no media, and the SDK cannot register it.
+    if (AdBackends.isStandIn(nativeAd)) {
+      binding.textVideoStatus.setText(getString(R.string.nativead_video_none));
+      return;
+    }
+
     // Inform the Google Mobile Ads SDK that you have finished populating the native ad
     // views with this native ad.
     nativeAdView.registerNativeAd(nativeAd, nativeAdBinding.adMedia);
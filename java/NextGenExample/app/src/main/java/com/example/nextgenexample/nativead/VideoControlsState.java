@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.nativead;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
+import com.google.android.libraries.ads.mobile.sdk.nativead.MediaContent;
+
+/**
+ * State machine behind the custom video controls. Video lifecycle events only reach the renderer
+ * when they change what the controls display, so repeated or redundant events cost nothing.
+ */
+final class VideoControlsState implements VideoController.VideoLifecycleCallbacks {
+
+  /** Draws the controls for the current state. */
+  interface Renderer {
+    void renderPlaying(boolean isPlaying);
+
+    void renderMuted(boolean isMuted);
+  }
+
+  private enum Playback {
+    IDLE,
+    PLAYING,
+    PAUSED,
+    ENDED
+  }
+
+  private final Renderer renderer;
+  @Nullable private VideoController videoController;
+  private Playback playback = Playback.IDLE;
+  private boolean isMuted;
+
+  VideoControlsState(@NonNull Renderer renderer) {
+    this.renderer = renderer;
+  }
+
+  /**
+   * Binds the state to the video in {@code mediaContent} and renders it.
+   *
+   * @return {@code true} if the video uses custom controls.
+   */
+  boolean bind(@Nullable MediaContent mediaContent, boolean muted) {
+    videoController = null;
+    if (mediaContent == null || !mediaContent.getHasVideoContent()) {
+      return false;
+    }
+    VideoController controller = mediaContent.getVideoController();
+    if (controller == null || !controller.isCustomControlsEnabled()) {
+      return false;
+    }
+    videoController = controller;
+    playback = Playback.IDLE;
+    isMuted = muted;
+    renderer.renderPlaying(false);
+    renderer.renderMuted(muted);
+    return true;
+  }
+
+  boolean isPlaying() {
+    return playback == Playback.PLAYING;
+  }
+
+  boolean isMuted() {
+    return isMuted;
+  }
+
+  /** Plays a paused video or pauses a playing one. */
+  void togglePlayback() {
+    if (videoController == null) {
+      return;
+    }
+    if (isPlaying()) {
+      videoController.pause();
+    } else {
+      videoController.play();
+    }
+  }
+
+  /** Mutes an unmuted video or unmutes a muted one. */
+  void toggleMute() {
+    if (videoController != null) {
+      videoController.mute(!videoController.isMuted());
+    }
+  }
+
+  @Override
+  public void onVideoStart() {
+    moveTo(Playback.PLAYING);
+  }
+
+  @Override
+  public void onVideoPlay() {
+    moveTo(Playback.PLAYING);
+  }
+
+  @Override
+  public void onVideoPause() {
+    moveTo(Playback.PAUSED);
+  }
+
+  @Override
+  public void onVideoEnd() {
+    moveTo(Playback.ENDED);
+  }
+
+  @Override
+  public void onVideoMute(boolean muted) {
+    if (muted == isMuted) {
+      return;
+    }
+    isMuted = muted;
+    renderer.renderMuted(muted);
+  }
+
+  private void moveTo(Playback next) {
+    if (next == playback) {
+      return;
+    }
+    boolean wasPlaying = isPlaying();
+    playback = next;
+    // Paused, ended and idle videos all show the play button.
+    if (wasPlaying != isPlaying()) {
+      renderer.renderPlaying(isPlaying());
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.nativead;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limits how many native ad videos play at the same time within a view hierarchy.
+ *
+ * <p>The most visible videos, up to a maximum, are allowed to play. Videos that scroll out of view
+ * or lose their slot to a more visible video are paused, and resumed when they qualify again. A
+ * video the user plays, as reported through {@link Handle#onUserInteraction}, takes priority;
+ * videos that start on their own, such as autoplay, do not. A video paused by anything other than
+ * the coordinator is never resumed automatically. Muting or unmuting one video applies to all of
+ * them.
+ */
+@MainThread
+public final class VideoPlaybackCoordinator
+    implements ViewTreeObserver.OnScrollChangedListener,
+        ViewTreeObserver.OnGlobalLayoutListener {
+
+  private final int maxPlayingVideos;
+  private final float minVisibleFraction;
+  private final List<Handle> handles = new ArrayList<>();
+  // Reused between passes to avoid allocating while scrolling.
+  private final List<Handle> ranked = new ArrayList<>();
+  private final Rect visibleRect = new Rect();
+  private final Runnable updatePlayback = this::updatePlayback;
+  private View root;
+  private boolean isUpdateScheduled;
+  private boolean isActive = true;
+  private boolean muted;
+  private long playSequence;
+
+  /** A video registered with the coordinator. */
+  public final class Handle implements VideoController.VideoLifecycleCallbacks {
+    private final View view;
+    private final VideoController videoController;
+    @Nullable private final VideoController.VideoLifecycleCallbacks delegate;
+    private float visibleFraction;
+    private boolean isPlaying;
+    private boolean hasEnded;
+    private boolean isPausedByCoordinator;
+    private boolean isPausedByUser;
+    // Set when the coordinator issues a command, so the resulting event is not taken as user input.
+    private boolean isCommandPending;
+    // Set when the user interacts with the video, so the resulting play counts as user input.
+    private boolean isUserCommandPending;
+    // Orders videos the user played, most recent first.
+    private long userPlaySequence;
+
+    private Handle(
+        View view,
+        VideoController videoController,
+        @Nullable VideoController.VideoLifecycleCallbacks delegate) {
+      this.view = view;
+      this.videoController = videoController;
+      this.delegate = delegate;
+    }
+
+    /**
+     * Marks the next play or pause of this video as requested by the user, for example from a tap
+     * on custom controls. Call it before issuing the command.
+     */
+    public void onUserInteraction() {
+      isUserCommandPending = true;
+    }
+
+    /** Stops coordinating this video. Its playback state is left as is. */
+    public void release() {
+      handles.remove(this);
+      scheduleUpdate();
+    }
+
+    @Override
+    public void onVideoStart() {
+      isPlaying = true;
+      hasEnded = false;
+      onPlaybackStarted();
+      if (delegate != null) {
+        delegate.onVideoStart();
+      }
+    }
+
+    @Override
+    public void onVideoPlay() {
+      isPlaying = true;
+      onPlaybackStarted();
+      if (delegate != null) {
+        delegate.onVideoPlay();
+      }
+    }
+
+    @Override
+    public void onVideoPause() {
+      isPlaying = false;
+      if (isCommandPending) {
+        isCommandPending = false;
+      } else {
+        isUserCommandPending = false;
+        isPausedByUser = true;
+        isPausedByCoordinator = false;
+      }
+      if (delegate != null) {
+        delegate.onVideoPause();
+      }
+    }
+
+    @Override
+    public void onVideoEnd() {
+      isPlaying = false;
+      hasEnded = true;
+      isPausedByCoordinator = false;
+      // A slot opened up for another video.
+      scheduleUpdate();
+      if (delegate != null) {
+        delegate.onVideoEnd();
+      }
+    }
+
+    @Override
+    public void onVideoMute(boolean isMuted) {
+      if (isMuted != muted) {
+        setMuted(isMuted);
+      }
+      if (delegate != null) {
+        delegate.onVideoMute(isMuted);
+      }
+    }
+
+    private void onPlaybackStarted() {
+      isPausedByCoordinator = false;
+      isPausedByUser = false;
+      if (isCommandPending) {
+        isCommandPending = false;
+      } else if (isUserCommandPending) {
+        isUserCommandPending = false;
+        userPlaySequence = ++playSequence;
+      }
+      scheduleUpdate();
+    }
+
+    private void pause() {
+      isCommandPending = true;
+      isPausedByCoordinator = true;
+      videoController.pause();
+    }
+
+    private void play() {
+      isCommandPending = true;
+      videoController.play();
+    }
+  }
+
+  /**
+   * @param maxPlayingVideos the maximum number of videos that play at the same time.
+   * @param minVisibleFraction the fraction of a video's area that must be on screen for it to play.
+   * @param muted the initial mute state applied to registered videos.
+   */
+  public VideoPlaybackCoordinator(int maxPlayingVideos, float minVisibleFraction, boolean muted) {
+    this.maxPlayingVideos = maxPlayingVideos;
+    this.minVisibleFraction = minVisibleFraction;
+    this.muted = muted;
+  }
+
+  /** Re-evaluates playback whenever {@code root}'s hierarchy scrolls or is laid out. */
+  public void attach(@NonNull View root) {
+    detach();
+    this.root = root;
+    ViewTreeObserver observer = root.getViewTreeObserver();
+    observer.addOnScrollChangedListener(this);
+    observer.addOnGlobalLayoutListener(this);
+  }
+
+  /** Stops observing the view hierarchy and releases all videos. */
+  public void detach() {
+    if (root != null) {
+      ViewTreeObserver observer = root.getViewTreeObserver();
+      observer.removeOnScrollChangedListener(this);
+      observer.removeOnGlobalLayoutListener(this);
+      root.removeCallbacks(updatePlayback);
+      root = null;
+    }
+    isUpdateScheduled = false;
+    handles.clear();
+  }
+
+  /**
+   * Coordinates the video shown in {@code view}. The coordinator becomes the controller's {@link
+   * VideoController.VideoLifecycleCallbacks} and forwards every event to {@code delegate}.
+   */
+  @NonNull
+  public Handle register(
+      @NonNull View view,
+      @NonNull VideoController videoController,
+      @Nullable VideoController.VideoLifecycleCallbacks delegate) {
+    Handle handle = new Handle(view, videoController, delegate);
+    handles.add(handle);
+    videoController.setVideoLifecycleCallbacks(handle);
+    if (videoController.isMuted() != muted) {
+      videoController.mute(muted);
+    }
+    scheduleUpdate();
+    return handle;
+  }
+
+  /**
+   * Pauses all videos while inactive, for example when the screen is in the background, and
+   * resumes the ones it paused when active again.
+   */
+  public void setActive(boolean isActive) {
+    if (this.isActive == isActive) {
+      return;
+    }
+    this.isActive = isActive;
+    updatePlayback();
+  }
+
+  /** Applies {@code muted} to all registered videos. */
+  public void setMuted(boolean muted) {
+    this.muted = muted;
+    for (int i = 0; i < handles.size(); i++) {
+      VideoController videoController = handles.get(i).videoController;
+      if (videoController.isMuted() != muted) {
+        videoController.mute(muted);
+      }
+    }
+  }
+
+  @Override
+  public void onScrollChanged() {
+    scheduleUpdate();
+  }
+
+  @Override
+  public void onGlobalLayout() {
+    scheduleUpdate();
+  }
+
+  // Scroll and layout events arrive many times per frame; evaluate at most once per frame.
+  private void scheduleUpdate() {
+    if (isUpdateScheduled || root == null) {
+      return;
+    }
+    isUpdateScheduled = true;
+    root.postOnAnimation(updatePlayback);
+  }
+
+  private void updatePlayback() {
+    isUpdateScheduled = false;
+    ranked.clear();
+    for (int i = 0; i < handles.size(); i++) {
+      Handle handle = handles.get(i);
+      handle.visibleFraction = computeVisibleFraction(handle.view);
+      if (isActive
+          && !handle.hasEnded
+          && !handle.isPausedByUser
+          && handle.visibleFraction >= minVisibleFraction) {
+        ranked.add(handle);
+      }
+    }
+    // Videos the user played come first, then the most visible ones.
+    ranked.sort(
+        (first, second) -> {
+          int byUserPlay = Long.compare(second.userPlaySequence, first.userPlaySequence);
+          return byUserPlay != 0
+              ? byUserPlay
+              : Float.compare(second.visibleFraction, first.visibleFraction);
+        });
+    int allowedCount = Math.min(maxPlayingVideos, ranked.size());
+    for (int i = 0; i < handles.size(); i++) {
+      Handle handle = handles.get(i);
+      int rank = ranked.indexOf(handle);
+      boolean isAllowed = rank >= 0 && rank < allowedCount;
+      if (!isAllowed && handle.isPlaying) {
+        handle.pause();
+      } else if (isAllowed && !handle.isPlaying && handle.isPausedByCoordinator) {
+        handle.play();
+      }
+    }
+    ranked.clear();
+  }
+
+  private float computeVisibleFraction(View view) {
+    int area = view.getWidth() * view.getHeight();
+    if (area == 0 || !view.isShown() || !view.getGlobalVisibleRect(visibleRect)) {
+      return 0f;
+    }
+    return (float) (visibleRect.width() * visibleRect.height()) / area;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.pacing;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.example.nextgenexample.Clock;
+import com.example.nextgenexample.Constant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Singleton that decides whether a full screen ad may be shown, based on per-format and global
+ * {@link PacingRule}s.
+ *
+ * <p>Call {@link #canShow} before polling or showing an ad and {@link #recordShow} once it is
+ * shown. The counters are persisted in shared preferences through a {@link PacingPolicy}.
+ */
+public final class AdPacer {
+
+  /** The full screen formats that are paced. */
+  public enum Format {
+    APP_OPEN,
+    INTERSTITIAL,
+    REWARDED_INTERSTITIAL
+  }
+
+  private static final String PREFERENCES_NAME = "ad_pacing";
+
+  // Applies to all formats combined.
+  private static final PacingRule GLOBAL_RULE = new PacingRule(PacingRule.NO_LIMIT, 30_000L, 10);
+
+  private static AdPacer instance;
+
+  private final PacingPolicy policy;
+
+  public static synchronized AdPacer getInstance(@NonNull Context context) {
+    if (instance == null) {
+      Map<String, PacingRule> rules = new HashMap<>();
+      rules.put(Format.APP_OPEN.name(), new PacingRule(PacingRule.NO_LIMIT, 4 * 60_000L, 4));
+      rules.put(Format.INTERSTITIAL.name(), new PacingRule(10, 60_000L, 6));
+      rules.put(Format.REWARDED_INTERSTITIAL.name(), new PacingRule(10, 30_000L, 6));
+      SharedPreferences preferences =
+          context
+              .getApplicationContext()
+              .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+      PacingPolicy policy =
+          new PacingPolicy(Clock.WALL, new PreferencesStore(preferences), GLOBAL_RULE, rules);
+      instance = new AdPacer(policy);
+    }
+    return instance;
+  }
+
+  /** Paces ads with {@code policy}, or with the default rules again if it is null. */
+  @VisibleForTesting
+  public static synchronized void setPolicy(@Nullable PacingPolicy policy) {
+    instance = policy == null ? null : new AdPacer(policy);
+  }
+
+  private AdPacer(@NonNull PacingPolicy policy) {
+    this.policy = policy;
+  }
+
+  /** Returns whether an ad of {@code format} may be shown now. */
+  public boolean canShow(@NonNull Format format) {
+    boolean allowed = policy.canShow(format.name());
+    if (!allowed) {
+      Log.d(Constant.TAG, format + " ad was frequency capped.");
+    }
+    return allowed;
+  }
+
+  /** Records that an ad of {@code format} was shown. */
+  public void recordShow(@NonNull Format format) {
+    policy.recordShow(format.name());
+  }
+
+  /** Stores the pacing counters in shared preferences. */
+  private static final class PreferencesStore implements PacingPolicy.Store {
+    private final SharedPreferences preferences;
+
+    PreferencesStore(SharedPreferences preferences) {
+      this.preferences = preferences;
+    }
+
+    @Override
+    public String read(@NonNull String key) {
+      return preferences.getString(key, null);
+    }
+
+    @Override
+    public void write(@NonNull Map<String, String> values) {
+      SharedPreferences.Editor editor = preferences.edit();
+      for (Map.Entry<String, String> entry : values.entrySet()) {
+        editor.putString(entry.getKey(), entry.getValue());
+      }
+      editor.apply();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.prefetch;
+
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.IdRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.navigation.NavAction;
+import androidx.navigation.NavController;
+import androidx.navigation.NavDestination;
+import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.HandlerTaskScheduler;
+import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.interstitial.InterstitialSingleLoadFragment;
+import com.example.nextgenexample.nativead.NativeFragment;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.rewarded.RewardedSingleLoadFragment;
+
+/**
+ * Singleton that prefetches the ad of the menu destination the user is likely to open next.
+ *
+ * <p>Pressing a menu entry prefetches the ad of its destination before the tap completes and the
+ * transition runs. Returning to the menu prefetches the ad of the destination visited most often.
+ * Destinations take the prefetched ad with {@link #take} when they load.
+ *
+ * <p>Only destinations that load a single ad on their own are prefetched. App open and preload
+ * destinations show ads from preload buffers that are already filled ahead of time, and banner
+ * destinations render only the ads their {@code AdView}s load.
+ */
+public final class NavigationPrefetcher implements NavController.OnDestinationChangedListener {
+
+  private static NavigationPrefetcher instance;
+
+  private final PrefetchScheduler scheduler;
+
+  public static synchronized NavigationPrefetcher getInstance() {
+    if (instance == null) {
+      instance = new NavigationPrefetcher();
+    }
+    return instance;
+  }
+
+  private NavigationPrefetcher() {
+    scheduler =
+        new PrefetchScheduler(
+            PrefetchScheduler.Budget.DEFAULT,
+            RetryPolicy.getInstance(),
+            SystemClock::elapsedRealtime,
+            new HandlerTaskScheduler(Looper.getMainLooper()));
+    scheduler.register(InterstitialSingleLoadFragment.PREFETCH_TARGET);
+    scheduler.register(RewardedSingleLoadFragment.PREFETCH_TARGET);
+    scheduler.register(NativeFragment.PREFETCH_TARGET);
+  }
+
+  @Override
+  public void onDestinationChanged(
+      @NonNull NavController controller,
+      @NonNull NavDestination destination,
+      @Nullable Bundle arguments) {
+    if (destination.getId() != R.id.MenuFragment) {
+      scheduler.onDestinationVisited(destination.getId());
+      return;
+    }
+    Log.d(Constant.TAG, scheduler.describe());
+    int likelyDestinationId = scheduler.getLikelyDestination();
+    if (likelyDestinationId != 0) {
+      scheduler.prefetch(likelyDestinationId);
+    }
+  }
+
+  /** Prefetches the ad of the destination of the menu's {@code navActionId}, if it has one. */
+  @MainThread
+  public void onMenuEntryPressed(@NonNull NavController controller, @IdRes int navActionId) {
+    NavDestination currentDestination = controller.getCurrentDestination();
+    NavAction action =
+        currentDestination == null ? null : currentDestination.getAction(navActionId);
+    if (action != null && scheduler.prefetch(action.getDestinationId())) {
+      String destinationName =
+          controller.getContext().getResources().getResourceEntryName(action.getDestinationId());
+      Log.d(Constant.TAG, "Prefetching the ad of " + destinationName + ".");
+    }
+  }
+
+  /**
+   * Hands the prefetched ad of {@code target} to {@code callback}. Returns false if there is none,
+   * in which case the caller loads the ad itself.
+   */
+  @MainThread
+  public <T> boolean take(
+      @NonNull PrefetchScheduler.Target<T> target, @NonNull AdBackend.LoadCallback<T> callback) {
+    return scheduler.take(target, callback);
+  }
+
+  @MainThread
+  @NonNull
+  public PrefetchScheduler.Stats getStats() {
+    return scheduler.getStats();
+  }
+}
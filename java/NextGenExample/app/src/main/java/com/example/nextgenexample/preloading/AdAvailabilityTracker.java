@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.preloading;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Singleton that maintains the {@link AdAvailability} of each preload ID from preload callbacks
+ * and polls, and publishes it as {@link LiveData}.
+ *
+ * <p>A new value is only published when the state actually changes, so observers re-render on
+ * real transitions without polling the preloader or locking on the UI thread.
+ */
+public final class AdAvailabilityTracker {
+
+  private static AdAvailabilityTracker instance;
+
+  // Guarded by this.
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  private static final class Entry {
+    final MutableLiveData<AdAvailability> liveData = new MutableLiveData<>(AdAvailability.EMPTY);
+    final MutableLiveData<Boolean> isAdAvailable = new MutableLiveData<>(false);
+    AdAvailability state = AdAvailability.EMPTY;
+  }
+
+  public static synchronized AdAvailabilityTracker getInstance() {
+    if (instance == null) {
+      instance = new AdAvailabilityTracker();
+    }
+    return instance;
+  }
+
+  /** Returns a stream of distinct availability states for {@code preloadId}. */
+  @NonNull
+  public synchronized LiveData<AdAvailability> getAvailability(@NonNull String preloadId) {
+    return getEntry(preloadId).liveData;
+  }
+
+  /**
+   * Returns a stream that only emits when an ad becomes available or the buffer runs empty for
+   * {@code preloadId}. Prefer this over {@link #getAvailability} to drive status views.
+   */
+  @NonNull
+  public synchronized LiveData<Boolean> isAdAvailable(@NonNull String preloadId) {
+    return getEntry(preloadId).isAdAvailable;
+  }
+
+  /** Returns the latest availability state for {@code preloadId}. */
+  @NonNull
+  public synchronized AdAvailability getCurrentAvailability(@NonNull String preloadId) {
+    return getEntry(preloadId).state;
+  }
+
+  /**
+   * Returns a {@link PreloadController.Listener} that records buffer changes for its preload ID
+   * before forwarding each event to {@code delegate}.
+   */
+  @NonNull
+  public PreloadController.Listener track(@NonNull PreloadController.Listener delegate) {
+    return new PreloadController.Listener() {
+      @Override
+      public void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {
+        AdAvailabilityTracker.this.onStarted(preloadId, isAdAvailable);
+        delegate.onStarted(preloadId, bufferSize, isAdAvailable);
+      }
+
+      @Override
+      public void onStopped(@NonNull String preloadId) {
+        onDestroyed(preloadId);
+        delegate.onStopped(preloadId);
+      }
+
+      @Override
+      public void onAdPolled(@NonNull String preloadId) {
+        AdAvailabilityTracker.this.onAdPolled(preloadId);
+        delegate.onAdPolled(preloadId);
+      }
+
+      @Override
+      public void onAdPreloaded(@NonNull String preloadId) {
+        onPreloaded(preloadId);
+        delegate.onAdPreloaded(preloadId);
+      }
+
+      @Override
+      public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+        delegate.onAdFailedToPreload(preloadId, failure);
+      }
+
+      @Override
+      public void onAdsExhausted(@NonNull String preloadId) {
+        onExhausted(preloadId);
+        delegate.onAdsExhausted(preloadId);
+      }
+
+      @Override
+      public void onPaused(@NonNull String preloadId, long delayMillis) {
+        delegate.onPaused(preloadId, delayMillis);
+      }
+    };
+  }
+
+  /**
+   * Reconciles the tracked state with the preloader when it is (re)started. The preloader may
+   * already hold ads, for example when another component started the same preload ID without
+   * this tracker's callback.
+   *
+   * @param preloadId the preload ID that was started.
+   * @param isAdAvailable the result of the preloader's {@code isAdAvailable(preloadId)}.
+   */
+  public synchronized void onStarted(@NonNull String preloadId, boolean isAdAvailable) {
+    AdAvailability state = getEntry(preloadId).state;
+    if (isAdAvailable && !state.isAdAvailable()) {
+      update(preloadId, new AdAvailability(1, System.currentTimeMillis(), false));
+    } else if (!isAdAvailable && state.isAdAvailable()) {
+      update(preloadId, new AdAvailability(0, state.lastFillTimeMillis(), state.exhausted()));
+    }
+  }
+
+  /** Records that an ad was polled from the buffer of {@code preloadId}. */
+  public synchronized void onAdPolled(@NonNull String preloadId) {
+    AdAvailability state = getEntry(preloadId).state;
+    int bufferedAdCount = Math.max(0, state.bufferedAdCount() - 1);
+    update(
+        preloadId,
+        new AdAvailability(bufferedAdCount, state.lastFillTimeMillis(), state.exhausted()));
+  }
+
+  /** Resets the state of {@code preloadId} after its preloader was destroyed. */
+  public synchronized void onDestroyed(@NonNull String preloadId) {
+    update(preloadId, AdAvailability.EMPTY);
+  }
+
+  private synchronized void onPreloaded(String preloadId) {
+    AdAvailability state = getEntry(preloadId).state;
+    update(
+        preloadId,
+        new AdAvailability(state.bufferedAdCount() + 1, System.currentTimeMillis(), false));
+  }
+
+  private synchronized void onExhausted(String preloadId) {
+    AdAvailability state = getEntry(preloadId).state;
+    update(preloadId, new AdAvailability(0, state.lastFillTimeMillis(), true));
+  }
+
+  private void update(String preloadId, AdAvailability newState) {
+    Entry entry = getEntry(preloadId);
+    if (entry.state.equals(newState)) {
+      return;
+    }
+    boolean availabilityChanged = entry.state.isAdAvailable() != newState.isAdAvailable();
+    entry.state = newState;
+    // postValue() is safe from any thread and only dispatches the latest value.
+    entry.liveData.postValue(newState);
+    if (availabilityChanged) {
+      entry.isAdAvailable.postValue(newState.isAdAvailable());
+    }
+  }
+
+  private Entry getEntry(String preloadId) {
+    Entry entry = entries.get(preloadId);
+    if (entry == null) {
+      entry = new Entry();
+      entries.put(preloadId, entry);
+    }
+    return entry;
+  }
+}
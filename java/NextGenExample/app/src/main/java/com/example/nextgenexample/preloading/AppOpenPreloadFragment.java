@@ -19,21 +19,21 @@ package com.example.nextgenexample.preloading;
 import static com.example.nextgenexample.Constant.TAG;
 
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentPreloadBinding;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAd;
 import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.appopen.AppOpenAdPreloader;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /** A [Fragment] subclass that preloads app open ads. */
@@ -42,6 +42,8 @@ public class AppOpenPreloadFragment extends AdFragment<FragmentPreloadBinding> {
   // Replace this test ad unit ID with your own ad unit ID.
   public static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/9257395921";
 
+  private PreloadController<AppOpenAd> preloadController;
+
   @Override
   protected BindingInflater<FragmentPreloadBinding> getBindingInflater() {
     return FragmentPreloadBinding::inflate;
@@ -55,47 +57,55 @@ public class AppOpenPreloadFragment extends AdFragment<FragmentPreloadBinding> {
 
     // Initialize the UI.
     binding.txtTitle.setText(getText(R.string.app_open));
-    binding.btnShow.setOnClickListener(
-        sender -> {
-          pollAndShowAd();
-          updateUI();
-        });
-    updateUI();
+    binding.btnShow.setOnClickListener(sender -> pollAndShowAd());
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
   }
 
   private void startPreloadingWithCallback() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call preload start of poll ad within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(
-                TAG, "App open preload ad failed to load with error: " + loadAdError.getMessage());
-            // [Optional] Get the error response info for additional details.
-            // ResponseInfo responseInfo =   loadAdError.getResponseInfo();
-          }
+    // The controller restarts the buffer with an adapted size and pauses it while the ad unit's
+    // circuit is open.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.appOpenPreloader(),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
+  }
 
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "No preloaded app open ads available.");
-            updateUI();
-          }
+  private static final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "App open preload ad failed to load with error: " + failure.message());
+    }
 
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "App open ad was preloaded.");
-            updateUI();
-          }
-        };
-    AdRequest adRequest = new AdRequest.Builder(AD_UNIT_ID).build();
-    PreloadConfiguration preload = new PreloadConfiguration(adRequest);
-    AppOpenAdPreloader.start(AD_UNIT_ID, preload, preloadCallback);
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "No preloaded app open ads available.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "App open ad was preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(TAG, "App open preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void pollAndShowAd() {
+    if (preloadController == null) {
+      return;
+    }
     // Polling returns the next available ad and loads another ad in the background.
-    AppOpenAd ad = AppOpenAdPreloader.pollAd(AD_UNIT_ID);
+    AppOpenAd ad = preloadController.pollAd();
     if (ad == null) {
       Log.i(TAG, "No preloaded app open ads available.");
       return;
@@ -117,27 +127,30 @@ public class AppOpenPreloadFragment extends AdFragment<FragmentPreloadBinding> {
                 String.format(
                     "App open ad onPaidEvent: %d %s",
                     value.getValueMicros(), value.getCurrencyCode()));
+            RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+            revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+            Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
           }
         });
 
     ad.show(requireActivity());
-    updateUI();
   }
 
-  private boolean isAdAvailable() {
-    return AppOpenAdPreloader.isAdAvailable(AD_UNIT_ID);
+  @Override
+  public void onDestroyView() {
+    super.onDestroyView();
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          if (isAdAvailable()) {
-            binding.txtStatus.setText(getString(R.string.available));
-            binding.btnShow.setEnabled(true);
-          } else {
-            binding.txtStatus.setText(getString(R.string.exhausted));
-            binding.btnShow.setEnabled(false);
-          }
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    if (isAdAvailable) {
+      binding.txtStatus.setText(getString(R.string.available));
+      binding.btnShow.setEnabled(true);
+    } else {
+      binding.txtStatus.setText(getString(R.string.exhausted));
+      binding.btnShow.setEnabled(false);
+    }
   }
 }
@@ -19,24 +19,25 @@ package com.example.nextgenexample.preloading;
 import static com.example.nextgenexample.Constant.TAG;
 
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdMemoryGovernor;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentPreloadBinding;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.banner.AdSize;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAd;
 import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdPreloader;
-import com.google.android.libraries.ads.mobile.sdk.banner.BannerAdRequest;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
 
 /** A [Fragment] subclass that preloads banner ads. */
 public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
@@ -45,6 +46,9 @@ public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
   public static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/9214589741";
 
   BannerAd currentAd;
+  private PreloadController<BannerAd> preloadController;
+  // Tracks the memory of the buffer while it is started.
+  private AdMemoryGovernor.Handle preloadMemoryHandle;
 
   @Override
   protected BindingInflater<FragmentPreloadBinding> getBindingInflater() {
@@ -59,12 +63,10 @@ public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
 
     // Initialize the UI.
     binding.txtTitle.setText(getText(R.string.banner));
-    binding.btnShow.setOnClickListener(
-        sender -> {
-          pollAndShowAd();
-          updateUI();
-        });
-    updateUI();
+    binding.btnShow.setOnClickListener(sender -> pollAndShowAd());
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
   }
 
   @Override
@@ -72,53 +74,84 @@ public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
     // Always call destroy() on ads on removal.
     destroyCurrentAd();
     super.onDestroyView();
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
   }
 
   private void destroyCurrentAd() {
     if (binding != null && binding.placeholder != null) {
       binding.placeholder.removeAllViews();
     }
-    if (currentAd != null) {
-      currentAd.destroy();
-      currentAd = null;
-    }
+    destroyAd(currentAd);
+    currentAd = null;
   }
 
   private void startPreloadingWithCallback() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call preload start of poll ad within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(TAG, "Banner preload ad failed to load with error: " + loadAdError.getMessage());
-            // [Optional] Get the error response info for additional details.
-            // ResponseInfo responseInfo =   loadAdError.getResponseInfo();
-          }
-
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "No preloaded banner ads available.");
-            updateUI();
-          }
-
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "Banner ad was preloaded.");
-            updateUI();
-          }
-        };
     // Get the ad size based on the screen width.
     AdSize adSize =
         AdSize.getCurrentOrientationAnchoredAdaptiveBannerAdSize(requireContext(), getAdWidth());
-    BannerAdRequest adRequest = new BannerAdRequest.Builder(AD_UNIT_ID, adSize).build();
-    PreloadConfiguration preload = new PreloadConfiguration(adRequest);
-    BannerAdPreloader.start(AD_UNIT_ID, preload, preloadCallback);
+    // The controller restarts the buffer with an adapted size and pauses it while the ad unit's
+    // circuit is open.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.bannerPreloader(adSize),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
+  }
+
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {
+      // The buffer is started again the next time this screen is opened.
+      preloadMemoryHandle =
+          AdMemoryGovernor.getInstance()
+              .registerPreloadBuffer(
+                  preloadId,
+                  bufferSize * AdMemoryGovernor.BANNER_AD_BYTES,
+                  preloadController::destroy);
+    }
+
+    @Override
+    public void onStopped(@NonNull String preloadId) {
+      if (preloadMemoryHandle != null) {
+        preloadMemoryHandle.release();
+        preloadMemoryHandle = null;
+      }
+    }
+
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "Banner preload ad failed to load with error: " + failure.message());
+    }
+
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "No preloaded banner ads available.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "Banner ad was preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(TAG, "Banner preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void pollAndShowAd() {
+    if (preloadController == null) {
+      return;
+    }
     // Polling returns the next available ad and loads another ad in the background.
-    BannerAd ad = BannerAdPreloader.pollAd(AD_UNIT_ID);
+    BannerAd ad = preloadController.pollAd();
     if (ad == null) {
       Log.i(TAG, "No preloaded banner ads available.");
       return;
@@ -140,6 +173,9 @@ public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
                 String.format(
                     "Banner ad onPaidEvent: %d %s",
                     value.getValueMicros(), value.getCurrencyCode()));
+            RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+            revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+            Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
           }
         });
 
@@ -147,25 +183,18 @@ public class BannerPreloadFragment extends AdFragment<FragmentPreloadBinding> {
     destroyCurrentAd();
     // Show the new banner.
     binding.placeholder.addView(ad.getView(requireActivity()));
+    trackAd(ad, BannerAd::destroy);
     currentAd = ad;
-    updateUI();
-  }
-
-  private boolean isAdAvailable() {
-    return BannerAdPreloader.isAdAvailable(AD_UNIT_ID);
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          if (isAdAvailable()) {
-            binding.txtStatus.setText(getString(R.string.available));
-            binding.btnShow.setEnabled(true);
-          } else {
-            binding.txtStatus.setText(getString(R.string.exhausted));
-            binding.btnShow.setEnabled(false);
-          }
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    if (isAdAvailable) {
+      binding.txtStatus.setText(getString(R.string.available));
+      binding.btnShow.setEnabled(true);
+    } else {
+      binding.txtStatus.setText(getString(R.string.exhausted));
+      binding.btnShow.setEnabled(false);
+    }
   }
 
   // Determine the screen width to use for the ad width.
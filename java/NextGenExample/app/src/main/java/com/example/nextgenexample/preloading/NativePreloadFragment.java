@@ -17,28 +17,33 @@
 package com.example.nextgenexample.preloading;
 
 import static com.example.nextgenexample.Constant.TAG;
-import static com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdLoadResult.NativeAdSuccess;
 
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
+import android.view.Gravity;
 import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdMemoryGovernor;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentPreloadBinding;
 import com.example.nextgenexample.databinding.NativeAdBinding;
+import com.example.nextgenexample.nativead.CompactVideoControlsView;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
+import com.google.android.libraries.ads.mobile.sdk.common.VideoController;
 import com.google.android.libraries.ads.mobile.sdk.common.VideoOptions;
+import com.google.android.libraries.ads.mobile.sdk.nativead.MediaContent;
 import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAd;
 import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdLoadResult;
-import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdPreloader;
-import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdRequest;
 import com.google.android.libraries.ads.mobile.sdk.nativead.NativeAdView;
 import java.util.List;
 
@@ -47,8 +52,14 @@ public class NativePreloadFragment extends AdFragment<FragmentPreloadBinding> {
 
   // Replace this test ad unit ID with your own ad unit ID.
   public static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/2247696110";
+  private static final boolean START_MUTED = true;
 
   NativeAd currentAd;
+  private PreloadController<NativeAd> preloadController;
+  // Tracks the memory of the buffer while it is started.
+  private AdMemoryGovernor.Handle preloadMemoryHandle;
+  // Tracks the memory of the displayed ad if it has video content.
+  private AdMemoryGovernor.Handle currentAdMemoryHandle;
 
   @Override
   protected BindingInflater<FragmentPreloadBinding> getBindingInflater() {
@@ -63,12 +74,10 @@ public class NativePreloadFragment extends AdFragment<FragmentPreloadBinding> {
 
     // Initialize the UI.
     binding.txtTitle.setText(getText(R.string.native_ad));
-    binding.btnShow.setOnClickListener(
-        sender -> {
-          pollAndShowAd();
-          updateUI();
-        });
-    updateUI();
+    binding.btnShow.setOnClickListener(sender -> pollAndShowAd());
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
   }
 
   @Override
@@ -76,51 +85,82 @@ public class NativePreloadFragment extends AdFragment<FragmentPreloadBinding> {
     // Always call destroy() on ads on removal.
     destroyCurrentAd();
     super.onDestroyView();
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
   }
 
   private void startPreloadingWithCallback() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call preload start of poll ad within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(TAG, "Native preload ad failed to load with error: " + loadAdError.getMessage());
-            // [Optional] Get the error response info for additional details.
-            // ResponseInfo responseInfo =   loadAdError.getResponseInfo();
-          }
-
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "No preloaded native ads available.");
-            updateUI();
-          }
-
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "Native ad was preloaded.");
-            updateUI();
-          }
-        };
-    VideoOptions videoOptions = new VideoOptions.Builder().setStartMuted(true).build();
-    NativeAdRequest adRequest =
-        new NativeAdRequest.Builder(AD_UNIT_ID, List.of(NativeAd.NativeAdType.NATIVE))
-            .setVideoOptions(videoOptions)
+    VideoOptions videoOptions =
+        new VideoOptions.Builder()
+            .setStartMuted(START_MUTED)
+            .setCustomControlsRequested(true)
             .build();
-    PreloadConfiguration preload = new PreloadConfiguration(adRequest);
-    NativeAdPreloader.start(AD_UNIT_ID, preload, preloadCallback);
+    // The controller restarts the buffer with an adapted size and pauses it while the ad unit's
+    // circuit is open.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.nativePreloader(List.of(NativeAd.NativeAdType.NATIVE), videoOptions),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
+  }
+
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onStarted(@NonNull String preloadId, int bufferSize, boolean isAdAvailable) {
+      // The buffer is started again the next time this screen is opened.
+      preloadMemoryHandle =
+          AdMemoryGovernor.getInstance()
+              .registerPreloadBuffer(
+                  preloadId,
+                  bufferSize * AdMemoryGovernor.NATIVE_VIDEO_AD_BYTES,
+                  preloadController::destroy);
+    }
+
+    @Override
+    public void onStopped(@NonNull String preloadId) {
+      if (preloadMemoryHandle != null) {
+        preloadMemoryHandle.release();
+        preloadMemoryHandle = null;
+      }
+    }
+
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "Native preload ad failed to load with error: " + failure.message());
+    }
+
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "No preloaded native ads available.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "Native ad was preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(TAG, "Native preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void pollAndShowAd() {
+    if (preloadController == null) {
+      return;
+    }
     // Polling returns the next available ad and loads another ad in the background.
-    NativeAdLoadResult.NativeAdLoadSuccessResult result = NativeAdPreloader.pollAd(AD_UNIT_ID);
-    if (result instanceof NativeAdSuccess) {
+    NativeAd nativeAd = preloadController.pollAd();
+    if (nativeAd != null) {
       // Destroy the previous native ad.
       destroyCurrentAd();
 
-      // Get the native ad.
-      var nativeAd = ((NativeAdSuccess) result).getAd();
-
       // Interact with the ad object as needed.
       Log.d(TAG, "Native ad response info: " + nativeAd.getResponseInfo());
       nativeAd.setAdEventCallback(
@@ -137,42 +177,49 @@ public class NativePreloadFragment extends AdFragment<FragmentPreloadBinding> {
                   String.format(
                       "Native ad onPaidEvent: %d %s",
                       value.getValueMicros(), value.getCurrencyCode()));
+              RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+              revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+              Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
             }
           });
 
       // Show the new native ad.
       displayNativeAd(nativeAd);
+      trackAd(nativeAd, NativeAd::destroy);
       currentAd = nativeAd;
+      if (!AdBackends.isStandIn(nativeAd) && nativeAd.getMediaContent().getHasVideoContent()) {
+        currentAdMemoryHandle =
+            AdMemoryGovernor.getInstance()
+                .register(
+                    AdMemoryGovernor.Tier.NATIVE_VIDEO,
+                    AdMemoryGovernor.NATIVE_VIDEO_AD_BYTES,
+                    this::destroyCurrentAd,
+                    true);
+      }
     } else {
       Log.i(TAG, "No preloaded native ads available.");
     }
-    updateUI();
-  }
-
-  private boolean isAdAvailable() {
-    return NativeAdPreloader.isAdAvailable(AD_UNIT_ID);
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          if (isAdAvailable()) {
-            binding.txtStatus.setText(getString(R.string.available));
-            binding.btnShow.setEnabled(true);
-          } else {
-            binding.txtStatus.setText(getString(R.string.exhausted));
-            binding.btnShow.setEnabled(false);
-          }
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    if (isAdAvailable) {
+      binding.txtStatus.setText(getString(R.string.available));
+      binding.btnShow.setEnabled(true);
+    } else {
+      binding.txtStatus.setText(getString(R.string.exhausted));
+      binding.btnShow.setEnabled(false);
+    }
   }
 
   private void destroyCurrentAd() {
     if (binding != null && binding.placeholder != null) {
       binding.placeholder.removeAllViews();
     }
-    if (currentAd != null) {
-      currentAd.destroy();
-      currentAd = null;
+    destroyAd(currentAd);
+    currentAd = null;
+    if (currentAdMemoryHandle != null) {
+      currentAdMemoryHandle.release();
+      currentAdMemoryHandle = null;
     }
   }
 
@@ -219,8 +266,28 @@ public class NativePreloadFragment extends AdFragment<FragmentPreloadBinding> {
     nativeAdView.setIconView(nativeAdBinding.adIcon);
     nativeAdView.setStarRatingView(nativeAdBinding.adStars);
 
+    // A stand-in from the fake ad backend has no media, and the SDK cannot register it.
+    if (AdBackends.isStandIn(nativeAd)) {
+      return;
+    }
+
     // Inform the Google Mobile Ads SDK that you have finished populating the native ad
     // views with this native ad.
     nativeAdView.registerNativeAd(nativeAd, nativeAdBinding.adMedia);
+
+    // The slot is refilled on every poll, so its controls are drawn without inflating a layout.
+    MediaContent mediaContent = nativeAd.getMediaContent();
+    VideoController videoController = mediaContent.getVideoController();
+    if (videoController != null && videoController.isCustomControlsEnabled()) {
+      CompactVideoControlsView controls = new CompactVideoControlsView(requireContext());
+      controls.initialize(mediaContent, START_MUTED);
+      videoController.setVideoLifecycleCallbacks(controls);
+      nativeAdBinding.videoHolder.addView(
+          controls,
+          new FrameLayout.LayoutParams(
+              ViewGroup.LayoutParams.WRAP_CONTENT,
+              ViewGroup.LayoutParams.WRAP_CONTENT,
+              Gravity.BOTTOM | Gravity.START));
+    }
   }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.example.nextgenexample.Constant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Singleton that holds the {@link RequestTemplate} of every placement, giving a single place to
+ * audit the parameters the app sends with its ad requests.
+ */
+public final class RequestTemplateRegistry {
+
+  private static RequestTemplateRegistry instance;
+
+  // Guarded by this.
+  private final Map<String, RequestTemplate<?, ?>> templates = new LinkedHashMap<>();
+
+  public static synchronized RequestTemplateRegistry getInstance() {
+    if (instance == null) {
+      instance = new RequestTemplateRegistry();
+    }
+    return instance;
+  }
+
+  private RequestTemplateRegistry() {}
+
+  /**
+   * Registers the request template of {@code placement}.
+   *
+   * @param placement a unique placement name.
+   * @param requestFactory builds the request of a variant.
+   * @param keyFactory builds the canonical key of a variant's request.
+   * @throws IllegalStateException if {@code placement} is already registered.
+   */
+  @NonNull
+  public synchronized <V, R> RequestTemplate<V, R> register(
+      @NonNull String placement,
+      @NonNull Function<V, R> requestFactory,
+      @NonNull Function<V, AdRequestKey> keyFactory) {
+    if (templates.containsKey(placement)) {
+      throw new IllegalStateException("Placement already registered: " + placement);
+    }
+    RequestTemplate<V, R> template = new RequestTemplate<>(placement, requestFactory, keyFactory);
+    templates.put(placement, template);
+    return template;
+  }
+
+  /** Logs the placements and how often their interned requests were reused. */
+  public synchronized void logTemplates() {
+    for (RequestTemplate<?, ?> template : templates.values()) {
+      Log.d(Constant.TAG, template.describe());
+    }
+  }
+}
@@ -20,22 +20,25 @@ import static com.example.nextgenexample.Constant.TAG;
 
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentRewardedBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.example.nextgenexample.preloading.AdAvailabilityTracker;
+import com.example.nextgenexample.preloading.AdaptiveBufferController;
+import com.example.nextgenexample.preloading.PreloadController;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
 import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAd;
 import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAdPreloader;
 
 /** A [Fragment] subclass that preloads rewarded ads. */
 public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
@@ -51,6 +54,7 @@ public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
   private boolean gameOver;
   private long timeLeftMillis;
   private int coinCount;
+  private PreloadController<RewardedAd> preloadController;
 
   @Override
   protected BindingInflater<FragmentRewardedBinding> getBindingInflater() {
@@ -65,52 +69,58 @@ public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
     startGame();
 
     // Initialize the UI.
-    binding.playAgainButton.setOnClickListener(
-        sender -> {
-          startGame();
-          updateUI();
-        });
-
-    binding.watchVideoButton.setOnClickListener(
-        sender -> {
-          showRewardedAd();
-          updateUI();
-        });
-    updateUI();
+    binding.playAgainButton.setOnClickListener(sender -> startGame());
+    binding.watchVideoButton.setOnClickListener(sender -> showRewardedAd());
+    binding.coins.setText(getString(R.string.coins, coinCount));
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
   }
 
   private void startPreloading() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call start() or pollAd() within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(TAG, "Rewarded ad failed to preload with error: " + loadAdError.getMessage());
-          }
+    // Adapts the buffer size and pauses preloading while the ad unit's circuit is open.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.rewardedPreloader(),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
+  }
 
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "Rewarded ads exhausted.");
-            showToast("Rewarded ads exhausted.");
-            updateUI();
-          }
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "Rewarded ad failed to preload with error: " + failure.message());
+    }
 
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "Rewarded ad preloaded.");
-            showToast("Rewarded ad preloaded.");
-            updateUI();
-          }
-        };
-    AdRequest adRequest = new AdRequest.Builder(AD_UNIT_ID).build();
-    PreloadConfiguration preloadConfig = new PreloadConfiguration(adRequest);
-    RewardedAdPreloader.start(AD_UNIT_ID, preloadConfig, preloadCallback);
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "Rewarded ads exhausted.");
+      showToast("Rewarded ads exhausted.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "Rewarded ad preloaded.");
+      showToast("Rewarded ad preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(TAG, "Rewarded preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void showRewardedAd() {
+    if (preloadController == null) {
+      return;
+    }
     // Polling returns the next available ad and loads another ad in the background.
-    RewardedAd ad = RewardedAdPreloader.pollAd(AD_UNIT_ID);
+    RewardedAd ad = preloadController.pollAd();
     if (ad == null) {
       Log.i(TAG, "No preloaded rewarded ads available.");
       return;
@@ -132,6 +142,9 @@ public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
                 String.format(
                     "Rewarded ad onAdPaid: %d %s",
                     value.getValueMicros(), value.getCurrencyCode()));
+            RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+            revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+            Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
           }
 
           @Override
@@ -148,17 +161,11 @@ public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
           String rewardType = rewardItem.getType();
           Log.d(TAG, String.format("User earned reward of %d %s.", rewardAmount, rewardType));
         });
-    updateUI();
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          boolean isAdAvailable = RewardedAdPreloader.isAdAvailable(AD_UNIT_ID);
-          int statusResId = isAdAvailable ? R.string.available : R.string.exhausted;
-          binding.txtStatus.setText(statusResId);
-          binding.coins.setText(getString(R.string.coins, coinCount));
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    int statusResId = isAdAvailable ? R.string.available : R.string.exhausted;
+    binding.txtStatus.setText(statusResId);
   }
 
   private void addCoins(int coins) {
@@ -247,4 +254,12 @@ public class RewardedFragment extends AdFragment<FragmentRewardedBinding> {
     super.onPause();
     pauseGame();
   }
+
+  @Override
+  public void onDestroyView() {
+    super.onDestroyView();
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
+  }
 }
@@ -18,18 +18,24 @@ package com.example.nextgenexample.rewarded;
 
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
+import com.example.nextgenexample.AdHolderViewModel;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentRewardedBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.example.nextgenexample.prefetch.NavigationPrefetcher;
+import com.example.nextgenexample.prefetch.PrefetchScheduler;
+import com.example.nextgenexample.request.RetryPolicy;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAd;
 import com.google.android.libraries.ads.mobile.sdk.rewarded.RewardedAdEventCallback;
 import java.util.Locale;
@@ -42,10 +48,43 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
   // Sample rewarded ad unit ID.
   // TODO: Replace this test ad unit ID with your own ad unit ID.
   private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/5224354917";
+  /** The ad that the menu may prefetch for this destination. */
+  public static final PrefetchScheduler.Target<RewardedAd> PREFETCH_TARGET =
+      new PrefetchScheduler.Target<>(
+          R.id.RewardedSingleLoadFragment, AD_UNIT_ID, AdBackends.rewarded());
   private static final long COUNTDOWN_INTERVAL = 50L;
   private static final long GAME_LENGTH_MILLISECONDS = 5000L;
   private static final int GAME_OVER_REWARD = 1;
-  private RewardedAd rewardedAd;
+  // Keeps the loaded ad across configuration changes.
+  private AdHolderViewModel<RewardedAd> rewardedAdHolder;
+  // Set while a prefetch or a load is in flight, so that taps do not start another. Cleared on the
+  // loader's thread.
+  private volatile boolean isLoading;
+  // Retries a failed load once the retry policy allows it.
+  private final Handler retryHandler = new Handler(Looper.getMainLooper());
+  private final Runnable retryLoad = this::loadAd;
+  private final AdBackend.LoadCallback<RewardedAd> loadCallback =
+      new AdBackend.LoadCallback<>() {
+        @Override
+        public void onAdLoaded(RewardedAd rewardedAd) {
+          isLoading = false;
+          rewardedAdHolder.set(rewardedAd);
+          RetryPolicy.getInstance().onSuccess(AD_UNIT_ID);
+          showToast("Rewarded ad loaded.");
+          Log.d(Constant.TAG, "Rewarded ad loaded.");
+        }
+
+        @Override
+        public void onAdFailedToLoad(AdFailure failure) {
+          isLoading = false;
+          rewardedAdHolder.clear();
+          showToast("Rewarded ad failed to load.");
+          Log.w(Constant.TAG, "Rewarded ad failed to load: " + failure);
+          long retryDelayMillis = RetryPolicy.getInstance().onFailure(AD_UNIT_ID, failure);
+          Log.d(Constant.TAG, "Rewarded ad load retry in " + retryDelayMillis + " ms.");
+          retryHandler.post(() -> scheduleRetry(retryDelayMillis));
+        }
+      };
   private CountDownTimer countDownTimer;
   private boolean gamePaused;
   private boolean gameOver;
@@ -57,6 +96,13 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
     return FragmentRewardedBinding::inflate;
   }
 
+  @Override
+  public void onCreate(@Nullable Bundle savedInstanceState) {
+    super.onCreate(savedInstanceState);
+    // A rewarded ad holds nothing to release.
+    rewardedAdHolder = AdHolderViewModel.of(this, RewardedAd.class, unusedAd -> {});
+  }
+
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     super.onViewCreated(view, savedInstanceState);
@@ -89,32 +135,42 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
 
   /** Load a new rewarded ad if one isn't already loaded. */
   private void loadAd() {
-    if (rewardedAd != null) {
-      Log.d(Constant.TAG, "Rewarded ad already loaded.");
+    if (rewardedAdHolder.get() != null) {
+      Log.d(
+          Constant.TAG,
+          "Rewarded ad already loaded " + rewardedAdHolder.getAgeMillis() + " ms ago.");
+      return;
+    }
+    if (isLoading) {
+      Log.d(Constant.TAG, "Rewarded ad already loading.");
       return;
     }
 
-    RewardedAd.load(
-        new AdRequest.Builder(AD_UNIT_ID).build(),
-        new AdLoadCallback<RewardedAd>() {
-          @Override
-          public void onAdLoaded(@NonNull RewardedAd rewardedAd) {
-            RewardedSingleLoadFragment.this.rewardedAd = rewardedAd;
-            showToast("Rewarded ad loaded.");
-            Log.d(Constant.TAG, "Rewarded ad loaded.");
-          }
+    // Use the ad prefetched when the menu entry was pressed, if there is one. A loaded ad is
+    // handed over before take() returns.
+    isLoading = true;
+    if (NavigationPrefetcher.getInstance().take(PREFETCH_TARGET, loadCallback)) {
+      Log.d(Constant.TAG, "Rewarded ad served by the prefetch.");
+      return;
+    }
+    isLoading = false;
+
+    // Wait out the backoff of previous failures instead of loading on every tap.
+    RetryPolicy retryPolicy = RetryPolicy.getInstance();
+    long delayMillis = retryPolicy.getDelayMillis(AD_UNIT_ID);
+    if (delayMillis > 0) {
+      Log.d(Constant.TAG, "Rewarded ad load deferred for " + delayMillis + " ms.");
+      scheduleRetry(delayMillis);
+      return;
+    }
 
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            rewardedAd = null;
-            showToast("Rewarded ad failed to load.");
-            Log.w(Constant.TAG, "Rewarded ad failed to load: " + adError);
-          }
-        });
+    isLoading = true;
+    AdBackends.rewarded().load(AD_UNIT_ID, loadCallback);
   }
 
   /** Show the ad if it's ready. Otherwise attempt to load an ad and restart the game. */
   private void showRewardedAd() {
+    RewardedAd rewardedAd = rewardedAdHolder.get();
     if (rewardedAd == null) {
       loadAd();
       startGame();
@@ -132,14 +188,14 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
 
           @Override
           public void onAdDismissedFullScreenContent() {
-            rewardedAd = null;
+            rewardedAdHolder.clear();
             Log.d(Constant.TAG, "Rewarded ad dismissed.");
           }
 
           @Override
           public void onAdFailedToShowFullScreenContent(
               @NonNull FullScreenContentError fullScreenContentError) {
-            rewardedAd = null;
+            rewardedAdHolder.clear();
             showToast("Rewarded ad failed to show.");
             Log.w(Constant.TAG, "Rewarded ad failed to show: " + fullScreenContentError);
           }
@@ -206,6 +262,7 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
             binding.playAgainButton.setVisibility(View.VISIBLE);
 
             addCoins(GAME_OVER_REWARD);
+            RewardedAd rewardedAd = rewardedAdHolder.get();
             if (rewardedAd != null) {
               binding.watchVideoButton.setText(
                   getResources()
@@ -263,4 +320,20 @@ public class RewardedSingleLoadFragment extends AdFragment<FragmentRewardedBindi
     super.onPause();
     pauseGame();
   }
+
+  @Override
+  public void onDestroyView() {
+    retryHandler.removeCallbacks(retryLoad);
+    super.onDestroyView();
+  }
+
+  /** Loads again after {@code delayMillis}, replacing any retry already scheduled. */
+  private void scheduleRetry(long delayMillis) {
+    if (getView() == null) {
+      // The view was destroyed while the load was in flight.
+      return;
+    }
+    retryHandler.removeCallbacks(retryLoad);
+    retryHandler.postDelayed(retryLoad, delayMillis);
+  }
 }
@@ -20,23 +20,27 @@ import static com.example.nextgenexample.Constant.TAG;
 
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Looper;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
+import com.example.nextgenexample.HandlerTaskScheduler;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentRewardedInterstitialBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
+import com.example.nextgenexample.pacing.AdPacer;
+import com.example.nextgenexample.preloading.AdAvailabilityTracker;
+import com.example.nextgenexample.preloading.AdaptiveBufferController;
+import com.example.nextgenexample.preloading.PreloadController;
+import com.example.nextgenexample.request.RetryPolicy;
+import com.example.nextgenexample.telemetry.RevenueAggregator;
 import com.google.android.libraries.ads.mobile.sdk.common.AdValue;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.PreloadConfiguration;
-import com.google.android.libraries.ads.mobile.sdk.common.ResponseInfo;
 import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAd;
 import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAdEventCallback;
-import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAdPreloader;
 
 /** An [AdFragment] subclass that preloads rewarded interstitial ads. */
 public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInterstitialBinding> {
@@ -53,6 +57,7 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
   private boolean gameOver;
   private long timeLeftMillis;
   private int coinCount;
+  private PreloadController<RewardedInterstitialAd> preloadController;
 
   @Override
   protected BindingInflater<FragmentRewardedInterstitialBinding> getBindingInflater() {
@@ -66,7 +71,10 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
     startPreloading();
 
     startGame();
-    updateUI();
+    binding.coins.setText(getString(R.string.coins, coinCount));
+    // Bursts of preload callbacks render the status once per frame.
+    observeOnFrame(
+        AdAvailabilityTracker.getInstance().isAdAvailable(AD_UNIT_ID), this::renderStatus);
 
     binding.playAgainButton.setOnClickListener(
         sender -> {
@@ -75,40 +83,58 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
   }
 
   private void startPreloading() {
-    PreloadCallback preloadCallback =
-        // [Important] Do not call start() or pollAd() within the callback.
-        new PreloadCallback() {
-          @Override
-          public void onAdFailedToPreload(
-              @NonNull String preloadId, @NonNull LoadAdError loadAdError) {
-            Log.i(
-                TAG,
-                "Rewarded interstitial ad failed to preload with error: "
-                    + loadAdError.getMessage());
-          }
+    // Adapts the buffer size and pauses preloading while the ad unit's circuit is open.
+    preloadController =
+        new PreloadController<>(
+            AD_UNIT_ID,
+            AD_UNIT_ID,
+            AdBackends.rewardedInterstitialPreloader(),
+            RetryPolicy.getInstance(),
+            AdaptiveBufferController.getInstance(),
+            new HandlerTaskScheduler(Looper.getMainLooper()),
+            AdAvailabilityTracker.getInstance().track(new PreloadListener()));
+    preloadController.start();
+  }
 
-          @Override
-          public void onAdsExhausted(@NonNull String preloadId) {
-            Log.i(TAG, "Rewarded interstitial ads exhausted.");
-            showToast("Rewarded interstitial ads exhausted.");
-            updateUI();
-          }
+  private final class PreloadListener implements PreloadController.Listener {
+    @Override
+    public void onAdFailedToPreload(@NonNull String preloadId, @NonNull AdFailure failure) {
+      Log.i(TAG, "Rewarded interstitial ad failed to preload with error: " + failure.message());
+    }
 
-          @Override
-          public void onAdPreloaded(@NonNull String preloadId, @NonNull ResponseInfo responseInfo) {
-            Log.i(TAG, "Rewarded interstitial ad preloaded.");
-            showToast("Rewarded interstitial ad preloaded.");
-            updateUI();
-          }
-        };
-    AdRequest adRequest = new AdRequest.Builder(AD_UNIT_ID).build();
-    PreloadConfiguration preloadConfiguration = new PreloadConfiguration(adRequest);
-    RewardedInterstitialAdPreloader.start(AD_UNIT_ID, preloadConfiguration, preloadCallback);
+    @Override
+    public void onAdsExhausted(@NonNull String preloadId) {
+      Log.i(TAG, "Rewarded interstitial ads exhausted.");
+      showToast("Rewarded interstitial ads exhausted.");
+    }
+
+    @Override
+    public void onAdPreloaded(@NonNull String preloadId) {
+      Log.i(TAG, "Rewarded interstitial ad preloaded.");
+      showToast("Rewarded interstitial ad preloaded.");
+    }
+
+    @Override
+    public void onPaused(@NonNull String preloadId, long delayMillis) {
+      Log.i(
+          TAG,
+          "Rewarded interstitial preloading paused for " + delayMillis + " ms after failures.");
+    }
   }
 
   private void showRewardedInterstitialAd() {
+    if (preloadController == null) {
+      return;
+    }
+    // Check the frequency cap before polling so that a capped ad stays in the buffer.
+    AdPacer adPacer = AdPacer.getInstance(requireContext());
+    if (!adPacer.canShow(AdPacer.Format.REWARDED_INTERSTITIAL)) {
+      Log.i(TAG, "Rewarded interstitial ad skipped by frequency cap.");
+      return;
+    }
+
     // Polling returns the next available ad and loads another ad in the background.
-    RewardedInterstitialAd ad = RewardedInterstitialAdPreloader.pollAd(AD_UNIT_ID);
+    RewardedInterstitialAd ad = preloadController.pollAd();
     if (ad == null) {
       Log.i(TAG, "No preloaded rewarded interstitial ads available.");
       return;
@@ -118,6 +144,11 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
     Log.d(TAG, "Rewarded interstitial ad response info: " + ad.getResponseInfo());
     ad.setAdEventCallback(
         new RewardedInterstitialAdEventCallback() {
+          @Override
+          public void onAdShowedFullScreenContent() {
+            adPacer.recordShow(AdPacer.Format.REWARDED_INTERSTITIAL);
+          }
+
           @Override
           public void onAdImpression() {
             Log.d(TAG, "Rewarded interstitial ad recorded an impression.");
@@ -130,6 +161,9 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
                 String.format(
                     "Rewarded Interstitial ad onAdPaid: %d %s",
                     value.getValueMicros(), value.getCurrencyCode()));
+            RevenueAggregator revenueAggregator = RevenueAggregator.getInstance();
+            revenueAggregator.record(AD_UNIT_ID, value.getValueMicros(), value.getCurrencyCode());
+            Log.d(TAG, "Ad revenue: " + revenueAggregator.describe());
           }
         });
 
@@ -141,17 +175,11 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
           String rewardType = rewardItem.getType();
           Log.d(TAG, String.format("User earned reward of %d %s.", rewardAmount, rewardType));
         });
-    updateUI();
   }
 
-  public synchronized void updateUI() {
-    runOnUiThread(
-        () -> {
-          boolean isAdAvailable = RewardedInterstitialAdPreloader.isAdAvailable(AD_UNIT_ID);
-          int statusResId = isAdAvailable ? R.string.available : R.string.exhausted;
-          binding.txtStatus.setText(statusResId);
-          binding.coins.setText(getString(R.string.coins, coinCount));
-        });
+  private void renderStatus(boolean isAdAvailable) {
+    int statusResId = isAdAvailable ? R.string.available : R.string.exhausted;
+    binding.txtStatus.setText(statusResId);
   }
 
   private void addCoins(int coins) {
@@ -188,7 +216,6 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
           public void onFinish() {
             gameOver = true;
             binding.timer.setText(getString(R.string.you_lose));
-            updateUI();
             addCoins(GAME_OVER_REWARD);
             // Set up a listener to handle the "adDialogCountdownComplete" result, triggering the
             // display of a rewarded interstitial ad.
@@ -206,7 +233,6 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
 
   /** Set the game back to "start". */
   private void startGame() {
-    updateUI();
     createTimer(GAME_LENGTH_MILLISECONDS);
     gamePaused = false;
     gameOver = false;
@@ -237,7 +263,9 @@ public class RewardedInterstitialFragment extends AdFragment<FragmentRewardedInt
   @Override
   public void onDestroyView() {
     super.onDestroyView();
-    RewardedInterstitialAdPreloader.destroy(AD_UNIT_ID);
+    // Stop preloading and drop the buffered ads.
+    preloadController.destroy();
+    preloadController = null;
   }
 
   @Override
@@ -25,11 +25,11 @@ import androidx.annotation.Nullable;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.R;
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.AdFailure;
 import com.example.nextgenexample.databinding.FragmentRewardedInterstitialBinding;
-import com.google.android.libraries.ads.mobile.sdk.common.AdLoadCallback;
-import com.google.android.libraries.ads.mobile.sdk.common.AdRequest;
 import com.google.android.libraries.ads.mobile.sdk.common.FullScreenContentError;
-import com.google.android.libraries.ads.mobile.sdk.common.LoadAdError;
 import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAd;
 import com.google.android.libraries.ads.mobile.sdk.rewardedinterstitial.RewardedInterstitialAdEventCallback;
 import java.util.Locale;
@@ -86,24 +86,25 @@ public class RewardedInterstitialSingleLoadFragment
       return;
     }
 
-    RewardedInterstitialAd.load(
-        new AdRequest.Builder(AD_UNIT_ID).build(),
-        new AdLoadCallback<RewardedInterstitialAd>() {
-          @Override
-          public void onAdLoaded(@NonNull RewardedInterstitialAd rewardedInterstitialAd) {
-            RewardedInterstitialSingleLoadFragment.this.rewardedInterstitialAd =
-                rewardedInterstitialAd;
-            showToast("Rewarded interstitial ad loaded.");
-            Log.d(Constant.TAG, "Rewarded interstitial ad loaded.");
-          }
-
-          @Override
-          public void onAdFailedToLoad(@NonNull LoadAdError adError) {
-            rewardedInterstitialAd = null;
-            showToast("Rewarded interstitial ad failed to load.");
-            Log.w(Constant.TAG, "Rewarded interstitial ad failed to load: " + adError);
-          }
-        });
+    AdBackends.rewardedInterstitial()
+        .load(
+            AD_UNIT_ID,
+            new AdBackend.LoadCallback<RewardedInterstitialAd>() {
+              @Override
+              public void onAdLoaded(@NonNull RewardedInterstitialAd rewardedInterstitialAd) {
+                RewardedInterstitialSingleLoadFragment.this.rewardedInterstitialAd =
+                    rewardedInterstitialAd;
+                showToast("Rewarded interstitial ad loaded.");
+                Log.d(Constant.TAG, "Rewarded interstitial ad loaded.");
+              }
+
+              @Override
+              public void onAdFailedToLoad(@NonNull AdFailure failure) {
+                rewardedInterstitialAd = null;
+                showToast("Rewarded interstitial ad failed to load.");
+                Log.w(Constant.TAG, "Rewarded interstitial ad failed to load: " + failure);
+              }
+            });
   }
 
   /** Show the ad if it's ready. Otherwise attempt to load an ad and restart the game. */
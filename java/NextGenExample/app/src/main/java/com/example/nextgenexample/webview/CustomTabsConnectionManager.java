@@ -0,0 +1,319 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.webview;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.browser.customtabs.CustomTabsCallback;
+import androidx.browser.customtabs.CustomTabsClient;
+import androidx.browser.customtabs.CustomTabsIntent;
+import androidx.browser.customtabs.CustomTabsService;
+import androidx.browser.customtabs.CustomTabsServiceConnection;
+import androidx.browser.customtabs.CustomTabsSession;
+import com.example.nextgenexample.Constant;
+import com.google.android.libraries.ads.mobile.sdk.MobileAds;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Singleton that keeps a warmed-up Custom Tabs session ready for ad landing pages.
+ *
+ * <p>The Custom Tabs service is bound and warmed up once, and the session registered with the
+ * Google Mobile Ads SDK is cached, so a click only pays for launching the tab. Likely URLs are
+ * announced with {@code mayLaunchUrl} as soon as a session exists. If the browser process dies,
+ * the service is bound again. A click that arrives while the service is still connecting launches
+ * as soon as the session is ready.
+ */
+@MainThread
+public final class CustomTabsConnectionManager {
+
+  // TODO: Replace this URL with an associated website.
+  private static final String ORIGIN = "https://www.google.com";
+  // Delay before binding again after the browser process went away.
+  private static final long REBIND_DELAY_MILLIS = 1_000L;
+
+  private static CustomTabsConnectionManager instance;
+
+  /** Binds the Custom Tabs service of the default browser. */
+  interface ServiceBinder {
+    /** Starts binding, or returns false if the default browser does not support Custom Tabs. */
+    boolean bind(@NonNull Context context, @NonNull CustomTabsServiceConnection connection);
+  }
+
+  /** Registers a session for the Google Mobile Ads SDK. */
+  interface SessionRegistrar {
+    /** Returns the registered session, or null if the SDK could not create one. */
+    @Nullable
+    CustomTabsSession register(
+        @NonNull CustomTabsClient client,
+        @NonNull String origin,
+        @NonNull CustomTabsCallback callback);
+  }
+
+  private final ServiceBinder serviceBinder;
+  private final SessionRegistrar sessionRegistrar;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Set<Uri> likelyUrls = new LinkedHashSet<>();
+  private Context context;
+  private boolean isBinding;
+  private CustomTabsClient client;
+  private CustomTabsSession session;
+  private Context pendingLaunchContext;
+  private Uri pendingLaunchUrl;
+  private long pendingClickUptimeMillis;
+  private long warmLaunchCount;
+  private long coldLaunchCount;
+  private long warmLaunchMillis;
+  private long coldLaunchMillis;
+
+  public static synchronized CustomTabsConnectionManager getInstance() {
+    if (instance == null) {
+      instance =
+          new CustomTabsConnectionManager(
+              (context, connection) -> {
+                // Get the default browser package name, this will be null if
+                // the default browser does not provide a CustomTabsService.
+                String packageName = CustomTabsClient.getPackageName(context, null);
+                return packageName != null
+                    && CustomTabsClient.bindCustomTabsService(context, packageName, connection);
+              },
+              MobileAds::registerCustomTabsSession);
+    }
+    return instance;
+  }
+
+  @VisibleForTesting
+  CustomTabsConnectionManager(
+      @NonNull ServiceBinder serviceBinder, @NonNull SessionRegistrar sessionRegistrar) {
+    this.serviceBinder = serviceBinder;
+    this.sessionRegistrar = sessionRegistrar;
+  }
+
+  /**
+   * Binds and warms up the default browser's Custom Tabs service if it is not connected yet. Safe
+   * to call from any thread.
+   */
+  public void connect(@NonNull Context context) {
+    Context applicationContext = context.getApplicationContext();
+    mainHandler.post(
+        () -> {
+          this.context = applicationContext;
+          bind();
+        });
+  }
+
+  /** Announces that {@code url} is likely to be opened, so the browser can prefetch it. */
+  public void mayLaunchUrl(@NonNull Uri url) {
+    if (likelyUrls.add(url) && session != null) {
+      announceLikelyUrls();
+    }
+  }
+
+  /**
+   * Opens {@code url} in a Custom Tab with the cached session. Without a session, the launch waits
+   * for the connection, or opens without a session if the browser does not support Custom Tabs.
+   */
+  public void launch(@NonNull Context context, @NonNull Uri url) {
+    long clickUptimeMillis = SystemClock.uptimeMillis();
+    if (session != null) {
+      launchWithSession(context, url, clickUptimeMillis, /* isWarm= */ true);
+      return;
+    }
+    this.context = context.getApplicationContext();
+    // Only the latest click is launched.
+    pendingLaunchContext = context;
+    pendingLaunchUrl = url;
+    pendingClickUptimeMillis = clickUptimeMillis;
+    if (!bind()) {
+      launchPending();
+    }
+  }
+
+  /** Drops a launch still waiting for the connection, for example when its screen closes. */
+  public void cancelPendingLaunch() {
+    pendingLaunchContext = null;
+    pendingLaunchUrl = null;
+  }
+
+  /** Returns click-to-launch counts and average times, with and without a ready session. */
+  @NonNull
+  public String describe() {
+    return String.format(
+        "Custom Tab launches with a ready session: %d (%.1f ms avg), while connecting: %d"
+            + " (%.1f ms avg).",
+        warmLaunchCount,
+        warmLaunchCount == 0 ? 0d : (double) warmLaunchMillis / warmLaunchCount,
+        coldLaunchCount,
+        coldLaunchCount == 0 ? 0d : (double) coldLaunchMillis / coldLaunchCount);
+  }
+
+  /** Returns the number of launches that found a ready session. */
+  public long getWarmLaunchCount() {
+    return warmLaunchCount;
+  }
+
+  /** Returns the number of launches that waited for the connection or had no session. */
+  public long getColdLaunchCount() {
+    return coldLaunchCount;
+  }
+
+  /** Binds the service unless bound or binding. Returns false if Custom Tabs are not supported. */
+  private boolean bind() {
+    if (client != null || isBinding) {
+      return true;
+    }
+    isBinding = serviceBinder.bind(context, new Connection());
+    return isBinding;
+  }
+
+  private void onConnected(CustomTabsClient client) {
+    isBinding = false;
+    this.client = client;
+
+    // Warm up the browser process.
+    client.warmup(0L);
+
+    // Create a new browser session using the Google Mobile Ads SDK.
+    session =
+        sessionRegistrar.register(
+            client,
+            // Checks the "Digital Asset Link" to connect the postMessage channel.
+            ORIGIN,
+            // Optional parameter to receive the delegated callbacks.
+            new LoggingCallback());
+
+    // Create a new browser session if the Google Mobile Ads SDK is
+    // unable to create one.
+    if (session == null) {
+      session = client.newSession(new LoggingCallback());
+    }
+    announceLikelyUrls();
+    launchPending();
+  }
+
+  private void onDisconnected() {
+    isBinding = false;
+    client = null;
+    session = null;
+    // Bind again so the next click still finds a warm session.
+    mainHandler.postDelayed(this::bind, REBIND_DELAY_MILLIS);
+  }
+
+  private void announceLikelyUrls() {
+    if (session == null || likelyUrls.isEmpty()) {
+      return;
+    }
+    List<Bundle> otherLikelyBundles = new ArrayList<>();
+    Uri mostLikelyUrl = null;
+    for (Uri url : likelyUrls) {
+      if (mostLikelyUrl == null) {
+        mostLikelyUrl = url;
+      } else {
+        Bundle bundle = new Bundle();
+        bundle.putParcelable(CustomTabsService.KEY_URL, url);
+        otherLikelyBundles.add(bundle);
+      }
+    }
+    session.mayLaunchUrl(mostLikelyUrl, null, otherLikelyBundles);
+  }
+
+  private void launchPending() {
+    if (pendingLaunchUrl == null) {
+      return;
+    }
+    Context launchContext = pendingLaunchContext;
+    Uri url = pendingLaunchUrl;
+    cancelPendingLaunch();
+    launchWithSession(launchContext, url, pendingClickUptimeMillis, /* isWarm= */ false);
+  }
+
+  private void launchWithSession(
+      Context launchContext, Uri url, long clickUptimeMillis, boolean isWarm) {
+    CustomTabsIntent.Builder builder =
+        session == null ? new CustomTabsIntent.Builder() : new CustomTabsIntent.Builder(session);
+    builder.build().launchUrl(launchContext, url);
+    long elapsedMillis = SystemClock.uptimeMillis() - clickUptimeMillis;
+    if (isWarm) {
+      warmLaunchCount++;
+      warmLaunchMillis += elapsedMillis;
+    } else {
+      coldLaunchCount++;
+      coldLaunchMillis += elapsedMillis;
+    }
+    Log.d(Constant.TAG, "Custom Tab launched " + elapsedMillis + " ms after the click.");
+  }
+
+  private final class Connection extends CustomTabsServiceConnection {
+    @Override
+    public void onCustomTabsServiceConnected(
+        @NonNull ComponentName name, @NonNull CustomTabsClient client) {
+      onConnected(client);
+    }
+
+    @Override
+    public void onServiceDisconnected(ComponentName componentName) {
+      onDisconnected();
+    }
+  }
+
+  /** Listens for events from the CustomTabsSession delegated by the Google Mobile Ads SDK. */
+  private static final class LoggingCallback extends CustomTabsCallback {
+    @Override
+    public void onNavigationEvent(int navigationEvent, Bundle extras) {
+      // Called when a navigation event happens.
+      Log.i(Constant.TAG, "onNavigationEvent: " + navigationEvent);
+    }
+
+    @Override
+    public void onMessageChannelReady(Bundle extras) {
+      // Called when the channel is ready for sending and receiving messages on both
+      // ends. This frequently happens, such as each time the SDK requests a
+      // new channel.
+      Log.i(Constant.TAG, "onMessageChannelReady");
+    }
+
+    @Override
+    public void onPostMessage(@NonNull String message, Bundle extras) {
+      // Called when a tab controlled by this CustomTabsSession has sent a postMessage.
+      Log.i(Constant.TAG, "onPostMessage: " + message);
+    }
+
+    @Override
+    public void onRelationshipValidationResult(
+        int relation, @NonNull Uri requestedOrigin, boolean result, Bundle extras) {
+      // Called when a relationship validation result is available.
+      Log.i(Constant.TAG, "onRelationshipValidationResult: " + result);
+    }
+
+    @Override
+    public void onActivityResized(int height, int width, @NonNull Bundle extras) {
+      // Called when the tab is resized.
+      Log.i(Constant.TAG, "onActivityResized");
+    }
+  }
+}
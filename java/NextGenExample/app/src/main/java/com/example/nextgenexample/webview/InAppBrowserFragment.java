@@ -1,31 +1,24 @@
 package com.example.nextgenexample.webview;
 
 import android.content.ActivityNotFoundException;
-import android.content.ComponentName;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.webkit.CookieManager;
 import android.webkit.WebResourceRequest;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.browser.customtabs.CustomTabsCallback;
-import androidx.browser.customtabs.CustomTabsClient;
-import androidx.browser.customtabs.CustomTabsIntent;
-import androidx.browser.customtabs.CustomTabsServiceConnection;
-import androidx.browser.customtabs.CustomTabsSession;
 import com.example.nextgenexample.AdFragment;
 import com.example.nextgenexample.Constant;
 import com.example.nextgenexample.databinding.FragmentBrowserBinding;
-import com.google.android.libraries.ads.mobile.sdk.MobileAds;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.URISyntaxException;
+import java.util.List;
 
 /** An [AdFragment] subclass that provides an interface for interacting with web content. */
 public class InAppBrowserFragment extends AdFragment<FragmentBrowserBinding> {
@@ -35,10 +28,9 @@ public class InAppBrowserFragment extends AdFragment<FragmentBrowserBinding> {
   private static final String WEB_VIEW_URL = "https://google.github.io/webview-ads/test/";
   private static final String CUSTOM_TABS_URL =
       "https://google.github.io/webview-ads/test/?browser=cct";
-  // TODO: Replace this URL with an associated website.
-  private static final String ORIGIN = "https://www.google.com";
-  private CustomTabsClient customTabsClient;
-  private CustomTabsSession customTabsSession;
+  // Hosts that stay in the web view in addition to the current page's host.
+  private static final List<String> ALLOWED_HOSTS = List.of(".google.github.io");
+  private final NavigationRouter navigationRouter = new NavigationRouter(ALLOWED_HOSTS);
   private WebView webView;
 
   @Override
@@ -56,159 +48,97 @@ public class InAppBrowserFragment extends AdFragment<FragmentBrowserBinding> {
     binding.launchWebviewButton.setOnClickListener(unusedView -> launchWebView());
     binding.launchCustomTabButton.setOnClickListener(unusedView -> launchCustomTab());
 
-    webView = binding.webView;
+    // Let the browser prefetch the landing page while the user decides.
+    CustomTabsConnectionManager connectionManager = CustomTabsConnectionManager.getInstance();
+    connectionManager.connect(requireContext());
+    connectionManager.mayLaunchUrl(Uri.parse(CUSTOM_TABS_URL));
     return view;
   }
 
   private void launchWebView() {
-    webView.setVisibility(View.VISIBLE);
+    binding.webViewContainer.setVisibility(View.VISIBLE);
+    if (webView == null) {
+      // The pool hands out a WebView that is already configured and registered.
+      webView = WebViewPool.getInstance().acquire(requireContext());
+      binding.webViewContainer.addView(webView);
+    }
 
     webView.setWebViewClient(
         new WebViewClient() {
+          @Override
+          public void onPageStarted(WebView view, String url, Bitmap favicon) {
+            // Parse the page's host once, not on every navigation.
+            navigationRouter.onPageStarted(url);
+          }
+
           @Override
           public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
             Uri url = request.getUrl();
-
-            // Handle null URL or host. Return false to allow the WebView to handle it.
-            if (url == null || url.getHost() == null) {
+            if (url == null) {
               return false;
             }
 
-            String scheme = url.getScheme();
-
-            // Handle custom URL schemes (e.g., market://, intent://) by attempting to
-            // launch an external application.
-            if (scheme != null && !scheme.equals("http") && !scheme.equals("https")) {
-              Intent intent = new Intent(Intent.ACTION_VIEW, url);
-              try {
-                requireContext().startActivity(intent);
-              } catch (ActivityNotFoundException exception) {
-                // Activity cannot be found.
-                showToast("Failed to load URL with scheme: " + scheme);
-              }
-              return true; // URL handled externally.
-            }
-
-            String currentDomain;
-            try {
-              currentDomain = new URL(view.getUrl()).getHost();
-            } catch (MalformedURLException e) {
-              // Handle malformed URL, e.g., log the error or show a message.
-              showToast("Could not load the page. Please check the URL.");
-              return false;
+            switch (navigationRouter.route(url.toString())) {
+              case INTENT_URI:
+                // Launch the app an intent:// URL describes, without letting the page pick an
+                // arbitrary component.
+                try {
+                  Intent intent = Intent.parseUri(url.toString(), Intent.URI_INTENT_SCHEME);
+                  intent.addCategory(Intent.CATEGORY_BROWSABLE);
+                  intent.setComponent(null);
+                  intent.setSelector(null);
+                  startExternalActivity(intent, url);
+                } catch (URISyntaxException e) {
+                  showToast("Could not load the page. Please check the URL.");
+                }
+                return true;
+              case EXTERNAL_APP:
+                // Handle custom URL schemes (e.g., market://) by attempting to
+                // launch an external application.
+                startExternalActivity(new Intent(Intent.ACTION_VIEW, url), url);
+                return true;
+              case CUSTOM_TAB:
+                // User is navigating away from the site, open the URL in
+                // Custom Tabs to preserve the state of the web view.
+                CustomTabsConnectionManager.getInstance().launch(requireContext(), url);
+                return true;
+              case WEB_VIEW:
+              default:
+                // The user is not navigating away from the site. Reload the URL within the
+                // existing web view.
+                return false;
             }
-
-            String targetDomain = url.getHost();
-
-            // If the current domain equals the target domain, the
-            // assumption is the user is not navigating away from
-            // the site. Reload the URL within the existing web view.
-            if (currentDomain.equals(targetDomain)) {
-              return false;
-            }
-
-            // User is navigating away from the site, open the URL in
-            // Custom Tabs to preserve the state of the web view.
-            CustomTabsIntent customTabsIntent = new CustomTabsIntent.Builder().build();
-            customTabsIntent.launchUrl(requireContext(), url);
-            return true;
           }
         });
 
-    webView.getSettings().setJavaScriptEnabled(true);
-    webView.getSettings().setDomStorageEnabled(true);
-    webView.getSettings().setMediaPlaybackRequiresUserGesture(false);
-    CookieManager.getInstance().setAcceptThirdPartyCookies(webView, true);
-
-    MobileAds.registerWebView(webView);
     webView.loadUrl(WEB_VIEW_URL);
   }
 
-  private void launchCustomTab() {
-    // Get the default browser package name, this will be null if
-    // the default browser does not provide a CustomTabsService.
-    String packageName = CustomTabsClient.getPackageName(requireContext(), null);
-    if (packageName == null) {
-      // Do nothing as service connection is not supported.
-      return;
+  private void startExternalActivity(Intent intent, Uri url) {
+    try {
+      requireContext().startActivity(intent);
+    } catch (ActivityNotFoundException exception) {
+      // Activity cannot be found.
+      showToast("Failed to load URL with scheme: " + url.getScheme());
     }
+  }
 
-    // Listen for events from the CustomTabsSession delegated by the Google Mobile Ads SDK.
-    CustomTabsCallback customTabsCallback =
-        new CustomTabsCallback() {
-          @Override
-          public void onNavigationEvent(int navigationEvent, Bundle extras) {
-            // Called when a navigation event happens.
-            Log.i(Constant.TAG, "onNavigationEvent: " + navigationEvent);
-          }
-
-          @Override
-          public void onMessageChannelReady(Bundle extras) {
-            // Called when the channel is ready for sending and receiving messages on both
-            // ends. This frequently happens, such as each time the SDK requests a
-            // new channel.
-            Log.i(Constant.TAG, "onMessageChannelReady");
-          }
-
-          @Override
-          public void onPostMessage(@NonNull String message, Bundle extras) {
-            // Called when a tab controlled by this CustomTabsSession has sent a postMessage.
-            Log.i(Constant.TAG, "onPostMessage: " + message);
-          }
-
-          @Override
-          public void onRelationshipValidationResult(
-              int relation, @NonNull Uri requestedOrigin, boolean result, Bundle extras) {
-            // Called when a relationship validation result is available.
-            Log.i(Constant.TAG, "onRelationshipValidationResult: " + result);
-          }
-
-          @Override
-          public void onActivityResized(int height, int width, @NonNull Bundle extras) {
-            // Called when the tab is resized.
-            Log.i(Constant.TAG, "onActivityResized");
-          }
-        };
-
-    CustomTabsServiceConnection connection =
-        new CustomTabsServiceConnection() {
-          @Override
-          public void onCustomTabsServiceConnected(
-              @NonNull ComponentName name, @NonNull CustomTabsClient client) {
-            customTabsClient = client;
-
-            // Warm up the browser process.
-            customTabsClient.warmup(0L);
-
-            // Create a new browser session using the Google Mobile Ads SDK.
-            customTabsSession =
-                MobileAds.registerCustomTabsSession(
-                    client,
-                    // Checks the "Digital Asset Link" to connect the postMessage channel.
-                    ORIGIN,
-                    // Optional parameter to receive the delegated callbacks.
-                    customTabsCallback);
-
-            // Create a new browser session if the Google Mobile Ads SDK is
-            // unable to create one.
-            if (customTabsSession == null) {
-              customTabsSession = client.newSession(customTabsCallback);
-            }
-
-            // Pass the custom tabs session into the intent.
-            CustomTabsIntent customTabsIntent =
-                new CustomTabsIntent.Builder(customTabsSession).build();
-            customTabsIntent.launchUrl(requireContext(), Uri.parse(CUSTOM_TABS_URL));
-          }
-
-          @Override
-          public void onServiceDisconnected(ComponentName componentName) {
-            // Remove the custom tabs client and custom tabs session.
-            customTabsClient = null;
-            customTabsSession = null;
-          }
-        };
+  private void launchCustomTab() {
+    // The connection manager bound and warmed up the browser ahead of the click.
+    CustomTabsConnectionManager.getInstance().launch(requireContext(), Uri.parse(CUSTOM_TABS_URL));
+  }
 
-    CustomTabsClient.bindCustomTabsService(requireContext(), packageName, connection);
+  @Override
+  public void onDestroyView() {
+    CustomTabsConnectionManager connectionManager = CustomTabsConnectionManager.getInstance();
+    connectionManager.cancelPendingLaunch();
+    Log.d(Constant.TAG, connectionManager.describe());
+    if (webView != null) {
+      // Clear the WebView and keep it for the next launch.
+      WebViewPool.getInstance().release(webView);
+      webView = null;
+      Log.d(Constant.TAG, WebViewPool.getInstance().describe());
+    }
+    super.onDestroyView();
   }
 }
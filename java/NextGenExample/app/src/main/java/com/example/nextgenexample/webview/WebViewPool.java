@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.webview;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.webkit.CookieManager;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import com.example.nextgenexample.Constant;
+import com.google.android.libraries.ads.mobile.sdk.MobileAds;
+
+/**
+ * Singleton that keeps a configured {@link WebView}, registered with the Google Mobile Ads SDK,
+ * ready for in-app browsing.
+ *
+ * <p>Creating the first WebView loads the Chromium provider, which is slow. The pool does this
+ * once the main thread is idle after the SDK is initialized, so that the first launch only attaches
+ * a view. A released WebView is cleared and kept for the next launch. WebViews are created with a
+ * {@link MutableContextWrapper} that points at the screen using them, and back at the application
+ * while pooled.
+ */
+@MainThread
+public final class WebViewPool {
+
+  private static WebViewPool instance;
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final MessageQueue.IdleHandler prewarmWhenIdle = this::prewarmWhenIdle;
+  private Context applicationContext;
+  private WebView pooledWebView;
+  private boolean isPrewarmScheduled;
+  // Time taken by the first WebView creation, which includes provider initialization.
+  private long firstCreateMillis = -1L;
+  private boolean wasFirstCreatePrewarmed;
+  private long pooledAcquireCount;
+  private long createdAcquireCount;
+  private long pooledAcquireMillis;
+  private long createdAcquireMillis;
+
+  public static synchronized WebViewPool getInstance() {
+    if (instance == null) {
+      instance = new WebViewPool();
+    }
+    return instance;
+  }
+
+  /**
+   * Creates a WebView for the pool the next time the main thread is idle. Call once the Mobile Ads
+   * SDK is initialized. Safe to call from any thread.
+   */
+  public void prewarm(@NonNull Context context) {
+    Context appContext = context.getApplicationContext();
+    mainHandler.post(
+        () -> {
+          if (applicationContext == null) {
+            applicationContext = appContext;
+          }
+          if (isPrewarmScheduled || pooledWebView != null) {
+            return;
+          }
+          isPrewarmScheduled = true;
+          Looper.myQueue().addIdleHandler(prewarmWhenIdle);
+        });
+  }
+
+  /**
+   * Returns a configured WebView bound to {@code context}, from the pool if one is ready. Return it
+   * with {@link #release} when done.
+   */
+  @NonNull
+  public WebView acquire(@NonNull Context context) {
+    applicationContext = context.getApplicationContext();
+    long startUptimeMillis = SystemClock.uptimeMillis();
+    WebView webView = pooledWebView;
+    pooledWebView = null;
+    boolean isPooled = webView != null;
+    if (!isPooled) {
+      webView = create(/* isPrewarm= */ false);
+    }
+    ((MutableContextWrapper) webView.getContext()).setBaseContext(context);
+    webView.onResume();
+    long elapsedMillis = SystemClock.uptimeMillis() - startUptimeMillis;
+    if (isPooled) {
+      pooledAcquireCount++;
+      pooledAcquireMillis += elapsedMillis;
+    } else {
+      createdAcquireCount++;
+      createdAcquireMillis += elapsedMillis;
+    }
+    return webView;
+  }
+
+  /**
+   * Detaches {@code webView}, clears its page state and keeps it for the next launch. The WebView
+   * is destroyed if the pool already holds one.
+   */
+  public void release(@NonNull WebView webView) {
+    if (webView.getParent() instanceof ViewGroup parent) {
+      parent.removeView(webView);
+    }
+    // Drop the client, which references the screen that used it.
+    webView.setWebViewClient(new WebViewClient());
+    webView.stopLoading();
+    if (pooledWebView != null) {
+      webView.destroy();
+      return;
+    }
+    webView.loadUrl("about:blank");
+    webView.clearHistory();
+    webView.clearFormData();
+    webView.onPause();
+    ((MutableContextWrapper) webView.getContext()).setBaseContext(applicationContext);
+    pooledWebView = webView;
+  }
+
+  /** Returns first-creation and per-launch timings, with and without a pooled WebView. */
+  @NonNull
+  public String describe() {
+    return String.format(
+        "First WebView creation: %d ms (%s). Launches with a pooled WebView: %d (%.1f ms avg),"
+            + " with a new WebView: %d (%.1f ms avg).",
+        firstCreateMillis,
+        wasFirstCreatePrewarmed ? "prewarmed" : "on launch",
+        pooledAcquireCount,
+        pooledAcquireCount == 0 ? 0d : (double) pooledAcquireMillis / pooledAcquireCount,
+        createdAcquireCount,
+        createdAcquireCount == 0 ? 0d : (double) createdAcquireMillis / createdAcquireCount);
+  }
+
+  private boolean prewarmWhenIdle() {
+    isPrewarmScheduled = false;
+    if (pooledWebView == null) {
+      pooledWebView = create(/* isPrewarm= */ true);
+    }
+    // Run once.
+    return false;
+  }
+
+  private WebView create(boolean isPrewarm) {
+    long startUptimeMillis = SystemClock.uptimeMillis();
+    WebView webView = new WebView(new MutableContextWrapper(applicationContext));
+    webView.getSettings().setJavaScriptEnabled(true);
+    webView.getSettings().setDomStorageEnabled(true);
+    webView.getSettings().setMediaPlaybackRequiresUserGesture(false);
+    CookieManager.getInstance().setAcceptThirdPartyCookies(webView, true);
+    MobileAds.registerWebView(webView);
+    long elapsedMillis = SystemClock.uptimeMillis() - startUptimeMillis;
+    if (firstCreateMillis < 0) {
+      firstCreateMillis = elapsedMillis;
+      wasFirstCreatePrewarmed = isPrewarm;
+    }
+    Log.d(Constant.TAG, "WebView created in " + elapsedMillis + " ms.");
+    return webView;
+  }
+}
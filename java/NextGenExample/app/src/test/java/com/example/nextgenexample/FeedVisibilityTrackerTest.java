@@ -0,0 +1,203 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+/**
+ * Scrolls ad slots through a {@link RecyclerView} by offsetting them, and checks what {@link
+ * FeedVisibilityTracker} measures on each frame.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class FeedVisibilityTrackerTest {
+
+  private static final float IN_VIEW_FRACTION = 0.5f;
+  private static final long VIEWABLE_MILLIS = 1_000L;
+  private static final int SLOT_HEIGHT = 100;
+
+  private final FakeClock clock = new FakeClock(0L);
+  private final List<FeedVisibilityTracker.Slot> viewableSlots = new ArrayList<>();
+  private RecyclerView recyclerView;
+  private View slotView;
+  private FeedVisibilityTracker tracker;
+
+  @Before
+  public void setUp() {
+    Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    // Without an adapter the list lays out nothing, so the slots stay where the test moves them.
+    recyclerView = new RecyclerView(activity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+    activity.setContentView(recyclerView);
+    slotView = addSlotView();
+    // Robolectric does not tell the window that the app is visible, so do what the window manager
+    // does. Otherwise every view reports its window as gone.
+    ReflectionHelpers.callInstanceMethod(
+        recyclerView.getRootView().getParent(),
+        "dispatchAppVisibility",
+        ReflectionHelpers.ClassParameter.from(boolean.class, true));
+    shadowOf(Looper.getMainLooper()).idle();
+
+    tracker =
+        new FeedVisibilityTracker(clock, IN_VIEW_FRACTION, VIEWABLE_MILLIS, viewableSlots::add);
+    tracker.attach(recyclerView);
+    tracker.onSlotAttached("slot", slotView);
+  }
+
+  @Test
+  public void visibleFraction_followsScrollOffset() {
+    FeedVisibilityTracker.Slot slot = tracker.getSlot("slot");
+
+    scrollTo(slotView, 0);
+    assertEquals(1f, slot.getVisibleFraction(), 0.001f);
+
+    scrollTo(slotView, recyclerView.getHeight() - SLOT_HEIGHT / 4);
+    assertEquals(0.25f, slot.getVisibleFraction(), 0.001f);
+
+    scrollTo(slotView, -SLOT_HEIGHT / 2);
+    assertEquals(0.5f, slot.getVisibleFraction(), 0.001f);
+
+    scrollTo(slotView, recyclerView.getHeight());
+    assertEquals(0f, slot.getVisibleFraction(), 0.001f);
+    assertEquals(1f, slot.getMaxVisibleFraction(), 0.001f);
+  }
+
+  @Test
+  public void timeInView_accumulatesAndResetsAtThreshold() {
+    FeedVisibilityTracker.Slot slot = tracker.getSlot("slot");
+
+    scrollTo(slotView, 0);
+    clock.advance(400L);
+    scrollTo(slotView, -SLOT_HEIGHT / 2);
+    assertEquals(400L, slot.getContinuousInViewMillis(clock.millis()));
+
+    // Below the threshold the continuous time resets, but the total is kept.
+    clock.advance(100L);
+    scrollTo(slotView, -SLOT_HEIGHT * 3 / 4);
+    clock.advance(300L);
+    assertEquals(0L, slot.getContinuousInViewMillis(clock.millis()));
+    assertEquals(500L, slot.getInViewMillis(clock.millis()));
+
+    scrollTo(slotView, 0);
+    clock.advance(200L);
+    assertEquals(200L, slot.getContinuousInViewMillis(clock.millis()));
+    assertEquals(700L, slot.getInViewMillis(clock.millis()));
+    assertFalse(slot.isViewable());
+  }
+
+  @Test
+  public void viewable_onlyAfterContinuousTimeInView() {
+    FeedVisibilityTracker.Slot slot = tracker.getSlot("slot");
+
+    scrollTo(slotView, 0);
+    clock.advance(VIEWABLE_MILLIS - 1L);
+    scrollTo(slotView, recyclerView.getHeight());
+    scrollTo(slotView, 0);
+    clock.advance(VIEWABLE_MILLIS - 1L);
+    scrollTo(slotView, 0);
+    assertFalse(slot.isViewable());
+
+    clock.advance(1L);
+    scrollTo(slotView, 0);
+    assertTrue(slot.isViewable());
+    assertEquals(List.of(slot), viewableSlots);
+
+    // Viewability is reported once.
+    clock.advance(VIEWABLE_MILLIS);
+    scrollTo(slotView, 0);
+    assertEquals(1, viewableSlots.size());
+  }
+
+  @Test
+  public void detachedSlot_stopsCountingTimeInView() {
+    FeedVisibilityTracker.Slot slot = tracker.getSlot("slot");
+
+    scrollTo(slotView, 0);
+    clock.advance(300L);
+    tracker.onSlotDetached("slot");
+    clock.advance(300L);
+    scrollTo(slotView, 0);
+
+    assertEquals(0f, slot.getVisibleFraction(), 0.001f);
+    assertEquals(300L, slot.getInViewMillis(clock.millis()));
+  }
+
+  @Test
+  public void manySlots_shareOnePreDrawListener() {
+    for (int i = 0; i < 10; i++) {
+      tracker.onSlotAttached(i, addSlotView());
+    }
+    // Attaching again replaces the listener instead of adding one.
+    tracker.attach(recyclerView);
+
+    assertEquals(1, countPreDrawListeners());
+
+    tracker.detach();
+    assertEquals(0, countPreDrawListeners());
+  }
+
+  private View addSlotView() {
+    View view = new View(recyclerView.getContext());
+    recyclerView.addView(
+        view,
+        new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, SLOT_HEIGHT));
+    return view;
+  }
+
+  /** Moves {@code view} to {@code top} within the list and draws a frame. */
+  private void scrollTo(View view, int top) {
+    view.layout(0, top, recyclerView.getWidth(), top + SLOT_HEIGHT);
+    recyclerView.getViewTreeObserver().dispatchOnPreDraw();
+  }
+
+  private int countPreDrawListeners() {
+    ViewTreeObserver observer = recyclerView.getViewTreeObserver();
+    Object listeners = ReflectionHelpers.getField(observer, "mOnPreDrawListeners");
+    if (listeners == null) {
+      return 0;
+    }
+    List<?> data = ReflectionHelpers.getField(listeners, "mData");
+    int count = 0;
+    for (Object listener : data) {
+      if (listener == tracker) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
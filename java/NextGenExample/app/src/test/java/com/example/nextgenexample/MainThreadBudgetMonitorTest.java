@@ -0,0 +1,272 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.Looper;
+import android.util.Printer;
+import androidx.test.core.app.ApplicationProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Drives {@link MainThreadBudgetMonitor} with a fake clock and the lines the looper prints. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class MainThreadBudgetMonitorTest {
+
+  private static final MainThreadBudgetMonitor.Budget BUDGET =
+      new MainThreadBudgetMonitor.Budget(3, 100L, 40L, 1_000L, 0);
+
+  private final Application context = ApplicationProvider.getApplicationContext();
+  private final Looper looper = Looper.getMainLooper();
+  private long nowNanos;
+  private long allocatedBytes;
+  private MainThreadBudgetMonitor monitor;
+
+  @Before
+  public void setUp() {
+    context.getApplicationInfo().flags |= ApplicationInfo.FLAG_DEBUGGABLE;
+    monitor = new MainThreadBudgetMonitor(looper, () -> nowNanos, () -> allocatedBytes);
+    monitor.install(context);
+  }
+
+  @After
+  public void tearDown() {
+    looper.setMessageLogging(null);
+  }
+
+  @Test
+  public void endFlow_withinBudget_isNotReported() {
+    monitor.beginFlow("flow", BUDGET);
+    dispatch(30L);
+    dispatch(30L);
+    dispatch(30L);
+    allocatedBytes += 1_000L;
+    monitor.endFlow("flow");
+
+    assertEquals(0L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void endFlow_tooManyMessages_isReported() {
+    monitor.beginFlow("flow", BUDGET);
+    for (int i = 0; i < 4; i++) {
+      dispatch(1L);
+    }
+    monitor.endFlow("flow");
+
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void endFlow_slowMessage_isReported() {
+    monitor.beginFlow("flow", BUDGET);
+    dispatch(41L);
+    monitor.endFlow("flow");
+
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void endFlow_tooMuchBusyTime_isReported() {
+    monitor.beginFlow("flow", BUDGET);
+    dispatch(35L);
+    dispatch(35L);
+    dispatch(35L);
+    monitor.endFlow("flow");
+
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void endFlow_tooMuchAllocated_isReported() {
+    monitor.beginFlow("flow", BUDGET);
+    allocatedBytes += 1_001L;
+    monitor.endFlow("flow");
+
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void endFlow_countsOnlyMessagesOfTheFlow() {
+    monitor.beginFlow("first", BUDGET);
+    dispatch(1L);
+    dispatch(1L);
+    monitor.beginFlow("second", BUDGET);
+    dispatch(1L);
+    dispatch(1L);
+    monitor.endFlow("second");
+
+    assertEquals(0L, monitor.getOverBudgetCount());
+
+    monitor.endFlow("first");
+
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void getReport_afterRetentionCheck_hasTheFlowsCost() {
+    monitor.beginFlow("flow", BUDGET);
+    dispatch(10L);
+    dispatch(20L);
+    allocatedBytes += 500L;
+    monitor.endFlow("flow");
+
+    assertNull(monitor.getReport("flow"));
+
+    runRetentionCheck();
+
+    assertEquals(
+        new MainThreadBudgetMonitor.Report("flow", BUDGET, 2, 30L, 20L, 500L, 0),
+        monitor.getReport("flow"));
+  }
+
+  @Test
+  public void getReport_overBudget_isOverBudget() {
+    monitor.beginFlow("flow", BUDGET);
+    allocatedBytes += 1_001L;
+    monitor.endFlow("flow");
+    runRetentionCheck();
+
+    MainThreadBudgetMonitor.Report report = monitor.getReport("flow");
+    assertTrue(report.isMainThreadOverBudget());
+    assertTrue(report.isOverBudget());
+  }
+
+  @Test
+  public void watchReleased_reachableObject_isRetained() {
+    Object released = new Object();
+    monitor.beginFlow("flow", BUDGET);
+    monitor.watchReleased("flow", released);
+    monitor.endFlow("flow");
+    runRetentionCheck();
+
+    MainThreadBudgetMonitor.Report report = monitor.getReport("flow");
+    assertEquals(1, report.retainedObjects());
+    assertFalse(report.isMainThreadOverBudget());
+    assertTrue(report.isOverBudget());
+    assertEquals(1L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void watchReleased_unreachableObject_isNotRetained() {
+    monitor.beginFlow("flow", BUDGET);
+    monitor.watchReleased("flow", new Object());
+    monitor.endFlow("flow");
+    runRetentionCheck();
+
+    assertEquals(0, monitor.getReport("flow").retainedObjects());
+    assertEquals(0L, monitor.getOverBudgetCount());
+  }
+
+  @Test
+  public void watchReleased_otherFlow_isIgnored() {
+    Object released = new Object();
+    monitor.beginFlow("flow", BUDGET);
+    monitor.watchReleased("other", released);
+    monitor.endFlow("flow");
+    runRetentionCheck();
+
+    assertEquals(0, monitor.getReport("flow").retainedObjects());
+  }
+
+  @Test
+  public void printer_isOnlySetWhileAFlowRuns() {
+    assertNull(MainThreadBudgetMonitor.getMessageLogging(looper));
+
+    monitor.beginFlow("first", BUDGET);
+    Printer printer = MainThreadBudgetMonitor.getMessageLogging(looper);
+    monitor.beginFlow("second", BUDGET);
+    monitor.endFlow("first");
+
+    assertSame(printer, MainThreadBudgetMonitor.getMessageLogging(looper));
+
+    monitor.endFlow("second");
+
+    assertNull(MainThreadBudgetMonitor.getMessageLogging(looper));
+  }
+
+  @Test
+  public void printer_chainsToAndRestoresThePreviousPrinter() {
+    List<String> lines = new ArrayList<>();
+    Printer previous = lines::add;
+    looper.setMessageLogging(previous);
+
+    monitor.beginFlow("flow", BUDGET);
+    dispatch(1L);
+
+    assertEquals(2, lines.size());
+
+    monitor.endFlow("flow");
+
+    assertSame(previous, MainThreadBudgetMonitor.getMessageLogging(looper));
+  }
+
+  @Test
+  public void printer_setByOthersDuringTheFlow_isKept() {
+    Printer other = line -> {};
+    monitor.beginFlow("flow", BUDGET);
+    looper.setMessageLogging(other);
+    monitor.endFlow("flow");
+
+    assertSame(other, MainThreadBudgetMonitor.getMessageLogging(looper));
+  }
+
+  @Test
+  public void beginFlow_notDebuggable_setsNoPrinter() {
+    context.getApplicationInfo().flags &= ~ApplicationInfo.FLAG_DEBUGGABLE;
+    MainThreadBudgetMonitor releaseMonitor =
+        new MainThreadBudgetMonitor(looper, () -> nowNanos, () -> allocatedBytes);
+    releaseMonitor.install(context);
+
+    releaseMonitor.beginFlow("flow", BUDGET);
+    allocatedBytes += 1_001L;
+    releaseMonitor.endFlow("flow");
+
+    assertNull(MainThreadBudgetMonitor.getMessageLogging(looper));
+    assertEquals(0L, releaseMonitor.getOverBudgetCount());
+  }
+
+  /** Runs the retention checks of the flows that ended. */
+  private void runRetentionCheck() {
+    shadowOf(looper)
+        .idleFor(Duration.ofMillis(MainThreadBudgetMonitor.RETENTION_CHECK_DELAY_MILLIS));
+  }
+
+  /** Prints the lines the looper prints around a message that takes {@code millis}. */
+  private void dispatch(long millis) {
+    Printer printer = MainThreadBudgetMonitor.getMessageLogging(looper);
+    printer.println(">>>>> Dispatching to Handler (android.os.Handler) {1} null: 0");
+    nowNanos += millis * 1_000_000L;
+    printer.println("<<<<< Finished to Handler (android.os.Handler) {1} null");
+  }
+}
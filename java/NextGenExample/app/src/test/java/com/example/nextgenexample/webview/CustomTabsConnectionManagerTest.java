@@ -0,0 +1,237 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.webview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.ComponentName;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Looper;
+import androidx.browser.customtabs.CustomTabsClient;
+import androidx.browser.customtabs.CustomTabsServiceConnection;
+import androidx.browser.customtabs.CustomTabsSession;
+import androidx.test.core.app.ApplicationProvider;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Drives {@link CustomTabsConnectionManager} with a fake Custom Tabs client and service. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class CustomTabsConnectionManagerTest {
+
+  private static final ComponentName BROWSER =
+      new ComponentName("com.example.browser", "com.example.browser.CustomTabsService");
+  private static final Uri URL = Uri.parse("https://www.example.com/landing");
+
+  private final Application context = ApplicationProvider.getApplicationContext();
+  private final CustomTabsClient client = mock(CustomTabsClient.class);
+  private final CustomTabsSession registeredSession = mock(CustomTabsSession.class);
+  private final CustomTabsSession fallbackSession = mock(CustomTabsSession.class);
+  // Connections handed to the fake binder, in bind order.
+  private final List<CustomTabsServiceConnection> connections = new ArrayList<>();
+  private boolean isCustomTabsSupported = true;
+  private CustomTabsSession sessionToRegister;
+  private CustomTabsConnectionManager manager;
+
+  @Before
+  public void setUp() {
+    when(registeredSession.getComponentName()).thenReturn(BROWSER);
+    when(fallbackSession.getComponentName()).thenReturn(BROWSER);
+    when(client.newSession(any())).thenReturn(fallbackSession);
+    sessionToRegister = registeredSession;
+    manager =
+        new CustomTabsConnectionManager(
+            (unusedContext, connection) -> {
+              if (!isCustomTabsSupported) {
+                return false;
+              }
+              connections.add(connection);
+              return true;
+            },
+            (unusedClient, origin, callback) -> sessionToRegister);
+  }
+
+  @Test
+  public void connect_bindsOnceAndWarmsUp() {
+    manager.connect(context);
+    manager.connect(context);
+    idleMainLooper();
+    assertEquals(1, connections.size());
+
+    connectService(0);
+
+    verify(client).warmup(0L);
+    verify(client, never()).newSession(any());
+  }
+
+  @Test
+  public void connect_sdkCannotRegister_fallsBackToNewSession() {
+    sessionToRegister = null;
+    manager.connect(context);
+    idleMainLooper();
+    connectService(0);
+
+    manager.launch(context, URL);
+
+    verify(client).newSession(any());
+    assertLaunched(URL, /* withSession= */ true);
+    assertEquals(1, manager.getWarmLaunchCount());
+  }
+
+  @Test
+  public void launch_withReadySession_launchesRightAway() {
+    manager.connect(context);
+    idleMainLooper();
+    connectService(0);
+
+    manager.launch(context, URL);
+
+    assertLaunched(URL, /* withSession= */ true);
+    assertEquals(1, manager.getWarmLaunchCount());
+    assertEquals(0, manager.getColdLaunchCount());
+  }
+
+  @Test
+  public void launch_whileConnecting_launchesLatestClickOnceConnected() {
+    Uri firstUrl = Uri.parse("https://www.example.com/first");
+    manager.launch(context, firstUrl);
+    manager.launch(context, URL);
+    assertEquals(1, connections.size());
+    assertNull(shadowOf(context).peekNextStartedActivity());
+
+    connectService(0);
+
+    assertLaunched(URL, /* withSession= */ true);
+    assertNull(shadowOf(context).getNextStartedActivity());
+    assertEquals(1, manager.getColdLaunchCount());
+  }
+
+  @Test
+  public void launch_cancelledWhileConnecting_doesNotLaunch() {
+    manager.launch(context, URL);
+    manager.cancelPendingLaunch();
+
+    connectService(0);
+
+    assertNull(shadowOf(context).getNextStartedActivity());
+  }
+
+  @Test
+  public void launch_customTabsUnsupported_launchesWithoutSession() {
+    isCustomTabsSupported = false;
+
+    manager.launch(context, URL);
+
+    assertLaunched(URL, /* withSession= */ false);
+    assertEquals(1, manager.getColdLaunchCount());
+  }
+
+  @Test
+  public void mayLaunchUrl_beforeConnection_isAnnouncedOnConnect() {
+    manager.mayLaunchUrl(URL);
+    manager.connect(context);
+    idleMainLooper();
+    verify(registeredSession, never()).mayLaunchUrl(any(), any(), anyList());
+
+    connectService(0);
+
+    verify(registeredSession).mayLaunchUrl(eq(URL), isNull(), anyList());
+  }
+
+  @Test
+  public void mayLaunchUrl_withSession_isAnnouncedOnlyForNewUrls() {
+    manager.connect(context);
+    idleMainLooper();
+    connectService(0);
+
+    manager.mayLaunchUrl(URL);
+    manager.mayLaunchUrl(URL);
+
+    verify(registeredSession).mayLaunchUrl(eq(URL), isNull(), anyList());
+  }
+
+  @Test
+  public void serviceDisconnected_rebindsAfterDelayAndRestoresSession() {
+    manager.connect(context);
+    idleMainLooper();
+    connectService(0);
+
+    connections.get(0).onServiceDisconnected(BROWSER);
+    idleMainLooper();
+    assertEquals(1, connections.size());
+    shadowOf(Looper.getMainLooper()).idleFor(Duration.ofSeconds(1));
+    assertEquals(2, connections.size());
+
+    connectService(1);
+    manager.launch(context, URL);
+
+    assertLaunched(URL, /* withSession= */ true);
+    assertEquals(1, manager.getWarmLaunchCount());
+  }
+
+  @Test
+  public void serviceDisconnected_clickBeforeRebind_waitsForNewSession() {
+    manager.connect(context);
+    idleMainLooper();
+    connectService(0);
+    connections.get(0).onServiceDisconnected(BROWSER);
+
+    manager.launch(context, URL);
+    assertNull(shadowOf(context).peekNextStartedActivity());
+    connectService(1);
+
+    assertLaunched(URL, /* withSession= */ true);
+    assertEquals(0, manager.getWarmLaunchCount());
+  }
+
+  private void connectService(int index) {
+    connections.get(index).onCustomTabsServiceConnected(BROWSER, client);
+  }
+
+  private static void idleMainLooper() {
+    shadowOf(Looper.getMainLooper()).idle();
+  }
+
+  private void assertLaunched(Uri url, boolean withSession) {
+    Intent intent = shadowOf(context).getNextStartedActivity();
+    assertNotNull("No Custom Tab was launched.", intent);
+    assertEquals(url, intent.getData());
+    if (withSession) {
+      assertEquals(BROWSER.getPackageName(), intent.getPackage());
+    } else {
+      assertNull(intent.getPackage());
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Printer;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.core.app.ApplicationProvider;
+import com.example.nextgenexample.backend.AdBackends;
+import com.example.nextgenexample.backend.FakeAdBackend;
+import com.example.nextgenexample.pacing.AdPacer;
+import com.example.nextgenexample.pacing.PacingPolicy;
+import com.example.nextgenexample.pacing.PacingRule;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.rules.ExternalResource;
+import org.robolectric.shadows.ShadowLog;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowSystemClock;
+
+/**
+ * Runs the ad flow of an example over the fake ad backend and fails the test if the flow exceeds
+ * its {@link MainThreadBudgetMonitor.Budget}.
+ *
+ * <p>Robolectric dispatches main-thread messages without printing the looper's lines, so the rule
+ * runs the main looper itself and prints them for the monitor. Allocations are counted on the main
+ * thread. Durations under Robolectric say nothing about a device, so only the message count,
+ * allocations and retained objects are checked. Fake ads fill right away and no show is capped.
+ */
+public final class AdFlowRule extends ExternalResource {
+
+  private final Looper looper = Looper.getMainLooper();
+  private final FakeScheduler scheduler = new FakeScheduler(new FakeClock(0L));
+  private MainThreadBudgetMonitor monitor;
+
+  @Override
+  protected void before() {
+    Application context = ApplicationProvider.getApplicationContext();
+    context.getApplicationInfo().flags |= ApplicationInfo.FLAG_DEBUGGABLE;
+    AdBackends.installFake(scheduler, FakeAdBackend.Profile.ALWAYS_FILL);
+    AdPacer.setPolicy(
+        new PacingPolicy(Clock.WALL, new NoStore(), PacingRule.UNLIMITED, Map.of()));
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    monitor =
+        new MainThreadBudgetMonitor(looper, () -> 0L, threads::getCurrentThreadAllocatedBytes);
+    monitor.install(context);
+    MainThreadBudgetMonitor.setInstance(monitor);
+  }
+
+  @Override
+  protected void after() {
+    looper.setMessageLogging(null);
+    AdPacer.setPolicy(null);
+    AdBackends.install(ApplicationProvider.getApplicationContext());
+  }
+
+  /**
+   * Runs {@code flow}, which creates, loads, shows and destroys the example {@code fragmentClass},
+   * and fails if it exceeds its budget.
+   *
+   * <p>The first run loads and instruments the classes of the flow, which a device does once per
+   * process, so the flow runs twice and only the second run is checked.
+   */
+  public void assertWithinBudget(@NonNull Class<?> fragmentClass, @NonNull Runnable flow) {
+    String name = fragmentClass.getSimpleName();
+    flow.run();
+    idleFor(MainThreadBudgetMonitor.RETENTION_CHECK_DELAY_MILLIS);
+    flow.run();
+    idleFor(MainThreadBudgetMonitor.RETENTION_CHECK_DELAY_MILLIS);
+
+    MainThreadBudgetMonitor.Report report = monitor.getReport(name);
+    assertNotNull(name + " was not measured.", report);
+    MainThreadBudgetMonitor.Budget budget = report.budget();
+    assertTrue(
+        name + " dispatched " + report.messageCount() + " messages, over " + budget + ".",
+        report.messageCount() <= budget.maxMessages());
+    assertTrue(
+        name + " allocated " + report.allocatedBytes() + " bytes, over " + budget + ".",
+        report.allocatedBytes() <= budget.maxAllocatedBytes());
+    assertTrue(
+        name + " retained " + report.retainedObjects() + " released objects, over " + budget + ".",
+        report.retainedObjects() <= budget.maxRetainedObjects());
+  }
+
+  /**
+   * Runs the main-thread messages and the fake loads that are due within {@code millis}, moving
+   * the clock to each message's time.
+   */
+  public void idleFor(long millis) {
+    ShadowLooper shadowLooper = shadowOf(looper);
+    long endMillis = SystemClock.uptimeMillis() + millis;
+    runDue();
+    long nextMillis = shadowLooper.getNextScheduledTaskTime().toMillis();
+    while (nextMillis != 0L && nextMillis <= endMillis) {
+      ShadowSystemClock.advanceBy(Duration.ofMillis(nextMillis - SystemClock.uptimeMillis()));
+      runDue();
+      nextMillis = shadowLooper.getNextScheduledTaskTime().toMillis();
+    }
+    ShadowSystemClock.advanceBy(Duration.ofMillis(endMillis - SystemClock.uptimeMillis()));
+    runDue();
+  }
+
+  /** Fails unless {@code message} was logged with the app's tag. */
+  public static void assertLogged(@NonNull String message) {
+    for (ShadowLog.LogItem item : ShadowLog.getLogsForTag(Constant.TAG)) {
+      if (message.equals(item.msg)) {
+        return;
+      }
+    }
+    throw new AssertionError("Not logged: " + message);
+  }
+
+  /** Runs the fake loads and the main-thread messages until neither has work that is due. */
+  private void runDue() {
+    ShadowLooper shadowLooper = shadowOf(looper);
+    while (scheduler.getPendingCount() > 0 || !shadowLooper.isIdle()) {
+      scheduler.runAll();
+      while (!shadowLooper.isIdle()) {
+        // A device's looper prints these lines around each message; Robolectric's does not.
+        Printer printer = MainThreadBudgetMonitor.getMessageLogging(looper);
+        println(printer, ">>>>> Dispatching to main");
+        shadowLooper.runOneTask();
+        println(printer, "<<<<< Finished to main");
+      }
+    }
+  }
+
+  private static void println(@Nullable Printer printer, String line) {
+    if (printer != null) {
+      printer.println(line);
+    }
+  }
+
+  /** Keeps no pacing counters. */
+  private static final class NoStore implements PacingPolicy.Store {
+    @Nullable
+    @Override
+    public String read(@NonNull String key) {
+      return null;
+    }
+
+    @Override
+    public void write(@NonNull Map<String, String> values) {}
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.appopen;
+
+import android.app.Application;
+import androidx.fragment.app.testing.FragmentScenario;
+import androidx.lifecycle.Lifecycle;
+import com.example.nextgenexample.AdFlowRule;
+import com.example.nextgenexample.R;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Runs {@link AppOpenFragment} over the fake ad backend within its main-thread budget. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class AppOpenFragmentTest {
+
+  @Rule public final AdFlowRule adFlow = new AdFlowRule();
+
+  @Test
+  public void loadShowDestroy_isWithinBudget() {
+    adFlow.assertWithinBudget(AppOpenFragment.class, this::loadShowDestroy);
+  }
+
+  private void loadShowDestroy() {
+    FragmentScenario<AppOpenFragment> scenario =
+        FragmentScenario.launchInContainer(
+            AppOpenFragment.class, null, R.style.Theme_NextGenExample);
+    // The application preloads app open ads and shows one when it returns to the foreground.
+    AppOpenAdManager appOpenAdManager = AppOpenAdManager.getInstance();
+    appOpenAdManager.startPreloading();
+    adFlow.idleFor(1_000L);
+    scenario.onFragment(
+        fragment -> appOpenAdManager.showAdIfAvailable(fragment.requireActivity(), null));
+    adFlow.idleFor(1_000L);
+    AdFlowRule.assertLogged("App open ad recorded an impression.");
+    scenario.moveToState(Lifecycle.State.DESTROYED);
+    scenario.close();
+    appOpenAdManager.stopPreloading();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.inlinebanner;
+
+import android.app.Application;
+import androidx.fragment.app.testing.FragmentScenario;
+import androidx.lifecycle.Lifecycle;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.nextgenexample.AdFlowRule;
+import com.example.nextgenexample.R;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Runs {@link InlineBannerFragment} over the fake ad backend within its main-thread budget. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class InlineBannerFragmentTest {
+
+  // The position of the first banner slot in the list.
+  private static final int FIRST_AD_POSITION = 8;
+
+  @Rule public final AdFlowRule adFlow = new AdFlowRule();
+
+  @Test
+  public void loadShowDestroy_isWithinBudget() {
+    adFlow.assertWithinBudget(InlineBannerFragment.class, this::loadShowDestroy);
+  }
+
+  private void loadShowDestroy() {
+    FragmentScenario<InlineBannerFragment> scenario =
+        FragmentScenario.launchInContainer(
+            InlineBannerFragment.class, null, R.style.Theme_NextGenExample);
+    // The banners load once the list is laid out.
+    adFlow.idleFor(1_000L);
+    scenario.onFragment(
+        fragment -> {
+          RecyclerView recyclerView = fragment.requireView().findViewById(R.id.recycler_view);
+          recyclerView.scrollToPosition(FIRST_AD_POSITION);
+        });
+    adFlow.idleFor(1_000L);
+    AdFlowRule.assertLogged("Banner ad recorded an impression.");
+    scenario.moveToState(Lifecycle.State.DESTROYED);
+    scenario.close();
+  }
+}
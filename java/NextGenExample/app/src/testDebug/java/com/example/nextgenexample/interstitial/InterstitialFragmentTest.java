@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.interstitial;
+
+import android.app.AlertDialog;
+import android.app.Application;
+import androidx.fragment.app.testing.FragmentScenario;
+import androidx.lifecycle.Lifecycle;
+import com.example.nextgenexample.AdFlowRule;
+import com.example.nextgenexample.R;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowAlertDialog;
+
+/** Runs {@link InterstitialFragment} over the fake ad backend within its main-thread budget. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class InterstitialFragmentTest {
+
+  // Longer than a game, which ends with the dialog that shows the ad.
+  private static final long GAME_MILLIS = 6_000L;
+
+  @Rule public final AdFlowRule adFlow = new AdFlowRule();
+
+  @Test
+  public void loadShowDestroy_isWithinBudget() {
+    adFlow.assertWithinBudget(InterstitialFragment.class, this::loadShowDestroy);
+  }
+
+  private void loadShowDestroy() {
+    FragmentScenario<InterstitialFragment> scenario =
+        FragmentScenario.launchInContainer(
+            InterstitialFragment.class, null, R.style.Theme_NextGenExample);
+    // Preloading starts when the view is created, along with the game.
+    adFlow.idleFor(GAME_MILLIS);
+    AlertDialog dialog = (AlertDialog) ShadowAlertDialog.getLatestAlertDialog();
+    dialog.getButton(AlertDialog.BUTTON_POSITIVE).performClick();
+    adFlow.idleFor(1_000L);
+    AdFlowRule.assertLogged("Interstitial ad recorded an impression.");
+    scenario.moveToState(Lifecycle.State.DESTROYED);
+    scenario.close();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.nextgenexample.preloading;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Application;
+import android.view.ViewGroup;
+import androidx.fragment.app.testing.FragmentScenario;
+import androidx.lifecycle.Lifecycle;
+import com.example.nextgenexample.AdFlowRule;
+import com.example.nextgenexample.R;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Runs {@link NativePreloadFragment} over the fake ad backend within its main-thread budget. */
+@RunWith(RobolectricTestRunner.class)
+@Config(application = Application.class)
+public final class NativePreloadFragmentTest {
+
+  @Rule public final AdFlowRule adFlow = new AdFlowRule();
+
+  @Test
+  public void loadShowDestroy_isWithinBudget() {
+    adFlow.assertWithinBudget(NativePreloadFragment.class, this::loadShowDestroy);
+  }
+
+  private void loadShowDestroy() {
+    FragmentScenario<NativePreloadFragment> scenario =
+        FragmentScenario.launchInContainer(
+            NativePreloadFragment.class, null, R.style.Theme_NextGenExample);
+    // Preloading starts when the view is created.
+    adFlow.idleFor(1_000L);
+    scenario.onFragment(
+        fragment -> fragment.requireView().findViewById(R.id.btn_show).performClick());
+    adFlow.idleFor(1_000L);
+    scenario.onFragment(
+        fragment -> {
+          ViewGroup placeholder = fragment.requireView().findViewById(R.id.placeholder);
+          assertEquals(1, placeholder.getChildCount());
+        });
+    scenario.moveToState(Lifecycle.State.DESTROYED);
+    scenario.close();
+  }
+}
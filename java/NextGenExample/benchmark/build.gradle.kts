@@ -0,0 +1,116 @@
+import groovy.json.JsonSlurper
+
+// JMH benchmarks of the ads-core hot paths, run on the JVM without a device.
+//
+//   ./gradlew :benchmark:jmh                    Runs the benchmarks.
+//   ./gradlew :benchmark:recordJmhBaseline      Keeps the last results as the baseline.
+//   ./gradlew :benchmark:compareJmhBaseline     Compares the last results with the baseline.
+//
+// Record the baseline on the machine that runs the comparison; scores from different machines
+// are not comparable.
+plugins {
+  java
+  alias(libs.plugins.jmh)
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_17
+  targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+  jmh(project(":ads-core"))
+  // Android provides org.json to the app; the JVM needs the artifact.
+  jmh(libs.json)
+}
+
+// The menu parser benchmark reads the app's menu.
+sourceSets.named("jmh") { resources.srcDir(rootProject.file("app/src/main/res/raw")) }
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("baseline/results.json")
+val jmhComparison = layout.buildDirectory.file("reports/jmh/comparison.md")
+
+jmh {
+  jmhVersion = libs.versions.jmh
+  resultFormat = "JSON"
+  resultsFile = jmhResults
+}
+
+tasks.register<Copy>("recordJmhBaseline") {
+  description = "Keeps the last JMH results as the baseline."
+  from(jmhResults)
+  into(jmhBaseline.asFile.parentFile)
+}
+
+tasks.register("compareJmhBaseline") {
+  description =
+    "Writes a comparison of the last JMH results with the baseline and fails on regressions."
+  // The fraction a score may worsen by, beyond its error, before it counts as a regression.
+  val threshold = (findProperty("jmh.regressionThreshold") as String?)?.toDouble() ?: 0.10
+  val resultsFile = jmhResults.get().asFile
+  val baselineFile = jmhBaseline.asFile
+  val reportFile = jmhComparison.get().asFile
+  inputs.files(resultsFile, baselineFile)
+  outputs.file(reportFile)
+  doLast {
+    if (!baselineFile.exists()) {
+      throw GradleException("No baseline at $baselineFile. Run recordJmhBaseline first.")
+    }
+    if (!resultsFile.exists()) {
+      throw GradleException("No results at $resultsFile. Run jmh first.")
+    }
+
+    // Identifies a benchmark by its method and parameters.
+    fun scores(file: File): Map<String, Map<*, *>> =
+      (JsonSlurper().parse(file) as List<*>).associate {
+        val run = it as Map<*, *>
+        val params = (run["params"] as Map<*, *>?)?.entries?.joinToString { (k, v) -> "$k=$v" }
+        val name = run["benchmark"].toString().substringAfterLast("nextgenexample.")
+        (if (params == null) name else "$name($params)") to run
+      }
+
+    val baseline = scores(baselineFile)
+    val results = scores(resultsFile)
+    val regressions = mutableListOf<String>()
+    val report = StringBuilder()
+    report.appendLine("| Benchmark | Mode | Baseline | Current | Change |")
+    report.appendLine("| --- | --- | --- | --- | --- |")
+    for ((name, run) in results) {
+      val metric = run["primaryMetric"] as Map<*, *>
+      val score = (metric["score"] as Number).toDouble()
+      val error = (metric["scoreError"] as Number?)?.toDouble()?.takeIf { !it.isNaN() } ?: 0.0
+      val unit = metric["scoreUnit"]
+      val mode = run["mode"].toString()
+      val baselineMetric = baseline[name]?.get("primaryMetric") as Map<*, *>?
+      if (baselineMetric == null) {
+        report.appendLine("| $name | $mode | - | %.3f %s | new |".format(score, unit))
+        continue
+      }
+      val baselineScore = (baselineMetric["score"] as Number).toDouble()
+      val baselineError =
+        (baselineMetric["scoreError"] as Number?)?.toDouble()?.takeIf { !it.isNaN() } ?: 0.0
+      val change = (score - baselineScore) / baselineScore
+      // Throughput regresses when it drops; every other mode measures time, which regresses
+      // when it grows.
+      val worsening = if (mode == "thrpt") baselineScore - score else score - baselineScore
+      val isRegression =
+        worsening > baselineScore * threshold && worsening > error + baselineError
+      if (isRegression) {
+        regressions.add(name)
+      }
+      report.appendLine(
+        "| $name | $mode | %.3f | %.3f %s | %+.1f%%%s |"
+          .format(baselineScore, score, unit, change * 100, if (isRegression) " REGRESSION" else "")
+      )
+    }
+    reportFile.parentFile.mkdirs()
+    reportFile.writeText(report.toString())
+    logger.lifecycle(report.toString())
+    if (regressions.isNotEmpty()) {
+      throw GradleException(
+        "Benchmarks regressed beyond $threshold: $regressions. See $reportFile."
+      )
+    }
+  }
+}
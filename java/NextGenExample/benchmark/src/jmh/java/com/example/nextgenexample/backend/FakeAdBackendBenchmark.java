@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.backend;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures dispatching load and preload callbacks through the fake ad backend. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FakeAdBackendBenchmark {
+
+  private static final String AD_UNIT_ID = "ca-app-pub-3940256099942544/1033173712";
+
+  private ScheduledExecutorService scheduler;
+  private FakeAdBackend<FakeAd> backend;
+
+  @Setup
+  public void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    backend = FakeAdBackend.create(scheduler, 0L);
+    backend.start(AD_UNIT_ID, AD_UNIT_ID, 2, new NoOpPreloadListener());
+  }
+
+  @TearDown
+  public void tearDown() {
+    backend.destroy(AD_UNIT_ID);
+    scheduler.shutdownNow();
+  }
+
+  /** Loads one ad and waits for its callback on the backend's thread. */
+  @Benchmark
+  public FakeAd loadAndAwaitCallback() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    FakeAd[] loadedAd = new FakeAd[1];
+    backend.load(
+        AD_UNIT_ID,
+        new AdBackend.LoadCallback<>() {
+          @Override
+          public void onAdLoaded(FakeAd ad) {
+            loadedAd[0] = ad;
+            latch.countDown();
+          }
+
+          @Override
+          public void onAdFailedToLoad(AdFailure failure) {
+            latch.countDown();
+          }
+        });
+    latch.await();
+    return loadedAd[0];
+  }
+
+  /** Polls the preload buffer, which refills in the background. */
+  @Benchmark
+  public FakeAd pollPreloadedAd() {
+    return backend.pollAd(AD_UNIT_ID);
+  }
+
+  private static final class NoOpPreloadListener implements AdBackend.PreloadListener {
+    @Override
+    public void onAdPreloaded(String preloadId) {}
+
+    @Override
+    public void onAdFailedToPreload(String preloadId, AdFailure failure) {}
+
+    @Override
+    public void onAdsExhausted(String preloadId) {}
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.inlinebanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures placing banner slots in the inline banner feed. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FeedPlacementBenchmark {
+
+  @Param({"24", "1000"})
+  public int contentCount;
+
+  private final FeedPlacement feedPlacement = new FeedPlacement(8);
+  private List<Object> menuItems;
+
+  @Setup
+  public void setUp() {
+    menuItems = new ArrayList<>(contentCount);
+    for (int i = 0; i < contentCount; i++) {
+      menuItems.add(new FoodMenuItem("Item " + i, "description", "$1.00", "category", "photo"));
+    }
+  }
+
+  @Benchmark
+  public int[] adPositions() {
+    return feedPlacement.getAdPositions(contentCount);
+  }
+
+  /** Builds the feed the way {@code InlineBannerFragment} does. */
+  @Benchmark
+  public List<Object> buildFeed() {
+    List<Object> feed = new ArrayList<>(menuItems);
+    for (int adIndex : feedPlacement.getAdPositions(feed.size())) {
+      feed.add(adIndex, new Object());
+    }
+    return feed;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import com.example.nextgenexample.backend.AdBackend;
+import com.example.nextgenexample.backend.AdFailure;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures dispatching load results through the request coordinator to the waiting callbacks. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AdRequestCoordinatorBenchmark {
+
+  private static final String AD_UNIT_ID = "/21775744923/example/api-demo/category-exclusion";
+  private static final Object AD = new Object();
+
+  // Loads started and not finished yet, completed by the benchmarks in start order.
+  private final ArrayDeque<AdBackend.LoadCallback<Object>> pendingLoads = new ArrayDeque<>();
+  private final AdRequestCoordinator.Loader<Object> immediateLoader =
+      callback -> callback.onAdLoaded(AD);
+  private final AdRequestCoordinator.Loader<Object> pendingLoader = pendingLoads::add;
+  private final CountingCallback callback = new CountingCallback();
+  private AdRequestCoordinator coordinator;
+  private AdRequestCoordinator serialCoordinator;
+  private AdRequestKey key;
+  private AdRequestKey[] slotKeys;
+
+  @Setup
+  public void setUp() {
+    coordinator =
+        new AdRequestCoordinator(AdRequestCoordinator.DEFAULT_MAX_CONCURRENT_LOADS_PER_AD_UNIT);
+    serialCoordinator = new AdRequestCoordinator(1);
+    key = AdRequestKey.builder(AD_UNIT_ID).addSize(360, 50).build();
+    slotKeys = new AdRequestKey[4];
+    for (int i = 0; i < slotKeys.length; i++) {
+      slotKeys[i] = AdRequestKey.builder(AD_UNIT_ID).addSize(360, 50).setConsumer(i).build();
+    }
+  }
+
+  /** Starts a load that completes right away, and delivers its ad. */
+  @Benchmark
+  public long dispatchImmediateLoad() {
+    coordinator.load(key, AdRequestCoordinator.Priority.NORMAL, immediateLoader, callback);
+    return callback.loadedCount;
+  }
+
+  /** Joins a second request to an in-flight load, then delivers the ad to the latest callback. */
+  @Benchmark
+  public long dispatchCoalescedLoad() {
+    coordinator.load(key, AdRequestCoordinator.Priority.NORMAL, pendingLoader, callback);
+    coordinator.load(key, AdRequestCoordinator.Priority.HIGH, pendingLoader, callback);
+    pendingLoads.poll().onAdLoaded(AD);
+    return callback.loadedCount;
+  }
+
+  /** Queues four loads behind a one-load limit, and delivers each as the previous one finishes. */
+  @Benchmark
+  public long dispatchQueuedLoads() {
+    for (AdRequestKey slotKey : slotKeys) {
+      serialCoordinator.load(slotKey, AdRequestCoordinator.Priority.LOW, pendingLoader, callback);
+    }
+    AdBackend.LoadCallback<Object> pendingLoad;
+    while ((pendingLoad = pendingLoads.poll()) != null) {
+      pendingLoad.onAdLoaded(AD);
+    }
+    return callback.loadedCount;
+  }
+
+  private static final class CountingCallback implements AdBackend.LoadCallback<Object> {
+    long loadedCount;
+
+    @Override
+    public void onAdLoaded(Object ad) {
+      loadedCount++;
+    }
+
+    @Override
+    public void onAdFailedToLoad(AdFailure failure) {}
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.request;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures canonicalizing ad requests into keys and looking the keys up. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AdRequestKeyBenchmark {
+
+  private static final String AD_UNIT_ID = "/21775744923/example/api-demo/custom-targeting";
+
+  /** A request variant, as passed to a {@link RequestTemplate}. */
+  private record Variant(String sport) {}
+
+  private final Map<AdRequestKey, Object> inFlightLoads = new HashMap<>();
+  private RequestTemplate<Variant, Object> template;
+  private AdRequestKey key;
+
+  @Setup
+  public void setUp() {
+    key = buildKey("baseball");
+    for (String sport : new String[] {"baseball", "basketball", "football", "hockey"}) {
+      inFlightLoads.put(buildKey(sport), new Object());
+    }
+    template =
+        new RequestTemplate<>(
+            "custom_targeting", variant -> new Object(), variant -> buildKey(variant.sport()));
+    template.getKey(new Variant("baseball"));
+  }
+
+  @Benchmark
+  public AdRequestKey buildKey() {
+    return buildKey("baseball");
+  }
+
+  /** Finds a load in flight by an equal key, as coalescing does. */
+  @Benchmark
+  public Object lookUpEqualKey() {
+    return inFlightLoads.get(buildKey("baseball"));
+  }
+
+  @Benchmark
+  public Object lookUpInternedKey() {
+    return inFlightLoads.get(key);
+  }
+
+  @Benchmark
+  public AdRequestKey templateKey() {
+    return template.getKey(new Variant("baseball"));
+  }
+
+  private static AdRequestKey buildKey(String sport) {
+    return AdRequestKey.builder(AD_UNIT_ID)
+        .addSize(320, 50)
+        .addSize(300, 250)
+        .putCustomTargeting("sport", sport)
+        .putCustomTargeting("age", "25")
+        .addCategoryExclusion("apparel")
+        .putExtra("collapsible", "bottom")
+        .build();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.telemetry;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures recording paid events, which arrive from any thread. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RevenueAggregatorBenchmark {
+
+  private static final String[] AD_UNIT_IDS = {
+    "ca-app-pub-3940256099942544/1033173712",
+    "ca-app-pub-3940256099942544/5224354917",
+    "ca-app-pub-3940256099942544/9214589741",
+    "ca-app-pub-3940256099942544/2247696110",
+  };
+
+  private final RevenueAggregator revenueAggregator = new RevenueAggregator();
+  private int next;
+
+  @Benchmark
+  public void record() {
+    recordNext();
+  }
+
+  /** Records from several threads at once, as callbacks of different formats may. */
+  @Benchmark
+  @Threads(4)
+  public void recordContended() {
+    recordNext();
+  }
+
+  @Benchmark
+  public String describe() {
+    return revenueAggregator.describe();
+  }
+
+  private void recordNext() {
+    // A racy index is fine here; it only spreads events across ad units.
+    int index = (next++ & Integer.MAX_VALUE) % AD_UNIT_IDS.length;
+    revenueAggregator.record(AD_UNIT_IDS[index], 1_250L, index == 0 ? "EUR" : "USD");
+  }
+}
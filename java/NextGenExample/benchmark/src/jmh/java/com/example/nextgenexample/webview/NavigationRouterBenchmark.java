@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.nextgenexample.webview;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures routing in-app browser navigations, against parsing each URL as the browser did. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class NavigationRouterBenchmark {
+
+  private static final String CURRENT_PAGE = "https://google.github.io/webview-ads/test/";
+
+  @Param({
+    "https://google.github.io/webview-ads/test/?browser=cct",
+    "https://ads.google.github.io/page",
+    "https://user@www.example.com:8443/path?q=1#top",
+    "intent://scan/#Intent;scheme=zxing;end",
+  })
+  public String url;
+
+  private NavigationRouter router;
+
+  @Setup
+  public void setUp() {
+    router = new NavigationRouter(List.of(".google.github.io"));
+    router.onPageStarted(CURRENT_PAGE);
+  }
+
+  @Benchmark
+  public NavigationRouter.Route route() {
+    return router.route(url);
+  }
+
+  /** Compares hosts by parsing both URLs on every navigation, as the browser did before. */
+  @Benchmark
+  public boolean compareParsedHosts() {
+    try {
+      return new URL(CURRENT_PAGE).getHost().equals(new URL(url).getHost());
+    } catch (MalformedURLException e) {
+      return false;
+    }
+  }
+}
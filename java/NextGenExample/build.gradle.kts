@@ -1,2 +1,5 @@
 // Top-level build file where you can add configuration options common to all sub-projects/modules.
-plugins { alias(libs.plugins.androidApplication) apply false }
+plugins {
+  alias(libs.plugins.androidApplication) apply false
+  alias(libs.plugins.jmh) apply false
+}
@@ -23,3 +23,5 @@ dependencyResolutionManagement {
 rootProject.name = "nextgenexample"
 
 include(":app")
+include(":ads-core")
+include(":benchmark")